@@ -0,0 +1,89 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.controller.ProductController;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
+import com.tekion.API_Design_Demo.dto.request.CreateProductRequest;
+import com.tekion.API_Design_Demo.service.BatchProperties;
+import com.tekion.API_Design_Demo.service.BatchWriter;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Products created per second through the single-item endpoint versus the batch
+ * endpoint, including JSON parsing and bean validation but not HTTP, so the real
+ * gap is larger by the per-request HTTP cost.
+ * Each invocation writes BATCH products into a fresh store.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BatchWriteBenchmark {
+
+    private static final int BATCH = 1_000;
+
+    private ObjectMapper objectMapper;
+    private Validator validator;
+    private List<String> singleBodies;
+    private String batchBody;
+    private ProductController controller;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() throws Exception {
+        objectMapper = PersistenceBenchmark.objectMapper();
+        validator = Validation.buildDefaultValidatorFactory().getValidator();
+        singleBodies = new ArrayList<>(BATCH);
+        for (int i = 0; i < BATCH; i++) {
+            singleBodies.add(objectMapper.writeValueAsString(CreateProductRequest.builder()
+                    .name("Product " + i)
+                    .description("Synthetic product number " + i)
+                    .price(9.99 + i)
+                    .category("category-" + (i % 10))
+                    .stockQuantity(i)
+                    .build()));
+        }
+        batchBody = "[" + String.join(",", singleBodies) + "]";
+    }
+
+    @Setup(Level.Invocation)
+    public void setUpInvocation() {
+        DataStore dataStore = new DataStore();
+        controller = new ProductController(dataStore, new SnowflakeIdGenerator(0), FilterPipelineBenchmark.responseCache(dataStore),
+                new BatchWriter(validator, new BatchProperties()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void single() throws Exception {
+        for (String body : singleBodies) {
+            CreateProductRequest request = objectMapper.readValue(body, CreateProductRequest.class);
+            if (validator.validate(request).isEmpty()) {
+                controller.createProduct(request);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Object batch() throws Exception {
+        List<BatchItem<CreateProductRequest>> items = objectMapper.readValue(batchBody, new TypeReference<>() {
+        });
+        return controller.createProducts(items);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DataStore get and save throughput under contention.
+ * keys controls how hot the data is: with 16 keys most operations collide on the
+ * same records (and their index entries), with 1M they rarely do.
+ * The mixed group runs 6 reader threads against 2 writer threads.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DataStoreContentionBenchmark {
+
+    @Param({"16", "1000000"})
+    private int keys;
+
+    private DataStore dataStore;
+    private OrderDTO[] orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = new DataStore();
+        orders = new OrderDTO[keys];
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < keys; i++) {
+            orders[i] = OrderDTO.builder()
+                    .orderId("ord-" + i)
+                    .customerId("cust-" + (i % 1000))
+                    .status(i % 2 == 0 ? "PENDING" : "SHIPPED")
+                    .totalAmount(BigDecimal.valueOf(i % 1000))
+                    .orderDate(now)
+                    .build();
+            dataStore.saveOrder(orders[i]);
+        }
+    }
+
+    private OrderDTO randomOrder() {
+        return orders[ThreadLocalRandom.current().nextInt(keys)];
+    }
+
+    @Benchmark
+    @Threads(8)
+    public OrderDTO get() {
+        return dataStore.getOrder(randomOrder().getOrderId());
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void save() {
+        dataStore.saveOrder(randomOrder());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(6)
+    public OrderDTO mixedGet() {
+        return dataStore.getOrder(randomOrder().getOrderId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(2)
+    public void mixedSave() {
+        dataStore.saveOrder(randomOrder());
+    }
+}
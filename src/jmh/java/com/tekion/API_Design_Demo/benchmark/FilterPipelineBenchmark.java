@@ -0,0 +1,317 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.config.HttpCacheProperties;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.controller.AddressController;
+import com.tekion.API_Design_Demo.controller.CustomerController;
+import com.tekion.API_Design_Demo.controller.FulfillmentController;
+import com.tekion.API_Design_Demo.controller.InventoryController;
+import com.tekion.API_Design_Demo.controller.OrderController;
+import com.tekion.API_Design_Demo.controller.PaymentController;
+import com.tekion.API_Design_Demo.controller.ProductController;
+import com.tekion.API_Design_Demo.controller.ReviewController;
+import com.tekion.API_Design_Demo.controller.ShipmentController;
+import com.tekion.API_Design_Demo.dto.AddressDTO;
+import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO.FulfillmentStatus;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PaymentDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.ReviewDTO;
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentStatus;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.service.BatchProperties;
+import com.tekion.API_Design_Demo.service.BatchWriter;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations;
+import com.tekion.API_Design_Demo.service.reservation.ReservationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * First page of each controller's list endpoint with every filter it supports set,
+ * at several collection sizes. Each benchmark only populates the collection it reads,
+ * since JMH creates a state object only for the benchmarks that take it.
+ *
+ * Filter values are chosen so every filter is selective on its own (roughly 1-25%)
+ * and the combination still matches records.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterPipelineBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final String[] ORDER_STATUSES = {"PENDING", "CONFIRMED", "SHIPPED", "DELIVERED"};
+    private static final String[] PAYMENT_STATUSES = {"PENDING", "COMPLETED", "FAILED", "REFUNDED"};
+    private static final String[] CARRIERS = {"UPS", "FEDEX", "DHL", "USPS"};
+
+    /**
+     * A response cache that keeps no bodies, so every benchmarked read builds its response.
+     */
+    static ResponseCache responseCache(DataStore dataStore) {
+        HttpCacheProperties properties = new HttpCacheProperties();
+        properties.setEnabled(false);
+        return new ResponseCache(dataStore, PersistenceBenchmark.objectMapper(), properties, new SimpleMeterRegistry());
+    }
+
+    @State(Scope.Benchmark)
+    public abstract static class Data {
+
+        @Param({"10000", "100000", "1000000"})
+        int records;
+
+        DataStore dataStore;
+        SnowflakeIdGenerator idGenerator;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            dataStore = new DataStore();
+            idGenerator = new SnowflakeIdGenerator(0);
+            populate();
+        }
+
+        abstract void populate();
+
+        static BatchWriter batchWriter() {
+            return new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(), new BatchProperties());
+        }
+
+        // Records per parent id (customer, order, ...), so foreign-key lookups stay small
+        int parents() {
+            return Math.max(1, records / 10);
+        }
+    }
+
+    public static class Orders extends Data {
+        OrderController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.saveOrder(OrderDTO.builder()
+                        .orderId(String.format("ord-%08d", i))
+                        .customerId("cust-" + (i % parents()))
+                        .status(ORDER_STATUSES[i % ORDER_STATUSES.length])
+                        .orderDate(START.plusMinutes((i * 7919L) % records))
+                        .totalAmount(BigDecimal.valueOf(i % 1000))
+                        .build());
+            }
+            controller = new OrderController(dataStore, idGenerator, new InventoryReservations(dataStore, new ReservationProperties(), null), responseCache(dataStore));
+        }
+    }
+
+    public static class Products extends Data {
+        ProductController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.saveProduct(ProductDTO.builder()
+                        .productId(String.format("prod-%08d", i))
+                        .name("Product " + i)
+                        .category("category-" + (i % 10))
+                        .price((double) (i % 1000))
+                        .isActive(i % 10 != 0)
+                        .build());
+            }
+            controller = new ProductController(dataStore, idGenerator, responseCache(dataStore), batchWriter());
+        }
+    }
+
+    public static class Customers extends Data {
+        CustomerController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.saveCustomer(CustomerDTO.builder()
+                        .customerId(String.format("cust-%08d", i))
+                        .name("Customer " + i)
+                        .email("user" + i + (i % 4 == 0 ? "@example.com" : "@test.org"))
+                        .build());
+            }
+            controller = new CustomerController(dataStore, idGenerator, responseCache(dataStore), batchWriter());
+        }
+    }
+
+    public static class Addresses extends Data {
+        AddressController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.saveAddress(AddressDTO.builder()
+                        .addressId(String.format("addr-%08d", i))
+                        .customerId("cust-" + (i % parents()))
+                        .city("City" + (i % 50))
+                        .state("State" + (i % 10))
+                        .build());
+            }
+            controller = new AddressController(dataStore, idGenerator, responseCache(dataStore), batchWriter());
+        }
+    }
+
+    public static class Reviews extends Data {
+        ReviewController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.saveReview(ReviewDTO.builder()
+                        .reviewId(String.format("rev-%08d", i))
+                        .customerId("cust-" + (i % parents()))
+                        .productId("prod-" + (i % parents()))
+                        .rating(1 + i % 5)
+                        .build());
+            }
+            controller = new ReviewController(dataStore, idGenerator, responseCache(dataStore));
+        }
+    }
+
+    public static class Payments extends Data {
+        PaymentController controller;
+
+        @Override
+        void populate() {
+            for (int i = 0; i < records; i++) {
+                dataStore.savePayment(PaymentDTO.builder()
+                        .paymentId(String.format("pay-%08d", i))
+                        .orderId("ord-" + (i % parents()))
+                        .amount(BigDecimal.TEN)
+                        .status(PAYMENT_STATUSES[i % PAYMENT_STATUSES.length])
+                        .build());
+            }
+            controller = new PaymentController(dataStore, idGenerator, responseCache(dataStore));
+        }
+    }
+
+    public static class Fulfillments extends Data {
+        FulfillmentController controller;
+
+        @Override
+        void populate() {
+            FulfillmentStatus[] statuses = FulfillmentStatus.values();
+            for (int i = 0; i < records; i++) {
+                dataStore.saveFulfillment(FulfillmentDTO.builder()
+                        .fulfillmentId(String.format("ful-%08d", i))
+                        .orderId("ord-" + (i % parents()))
+                        .status(statuses[i % statuses.length])
+                        .build());
+            }
+            controller = new FulfillmentController(dataStore, idGenerator, responseCache(dataStore));
+        }
+    }
+
+    public static class Shipments extends Data {
+        ShipmentController controller;
+
+        @Override
+        void populate() {
+            ShipmentStatus[] statuses = ShipmentStatus.values();
+            for (int i = 0; i < records; i++) {
+                dataStore.saveShipment(ShipmentResponse.builder()
+                        .shipmentId(String.format("shp-%08d", i))
+                        .fulfillmentId("ful-" + (i % parents()))
+                        .status(statuses[i % statuses.length])
+                        .carrier(CARRIERS[i % CARRIERS.length])
+                        .trackingNumber(String.format("TRK%010d", i))
+                        .build());
+            }
+            controller = new ShipmentController(dataStore, idGenerator, responseCache(dataStore));
+        }
+    }
+
+    public static class Inventory extends Data {
+        InventoryController controller;
+
+        @Override
+        void populate() {
+            InventoryStatus[] statuses = InventoryStatus.values();
+            for (int i = 0; i < records; i++) {
+                dataStore.saveInventory(InventoryDTO.builder()
+                        .id(String.format("inv-%08d", i))
+                        .productId("prod-" + (i % parents()))
+                        .warehouseId("wh-" + (i % 20))
+                        .quantity(i % 100)
+                        .lowStockThreshold(10)
+                        .status(statuses[i % statuses.length])
+                        .build());
+            }
+            controller = new InventoryController(dataStore, idGenerator, responseCache(dataStore), batchWriter());
+        }
+    }
+
+    @Benchmark
+    public ResponseEntity<?> ordersAllFilters(Orders data) {
+        return data.controller.getAllOrders("cust-108", "PENDING",
+                START.toLocalDate(), START.toLocalDate().plusDays(data.records / 1440 + 1),
+                BigDecimal.valueOf(100), BigDecimal.valueOf(900), null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> ordersWithoutCustomer(Orders data) {
+        LocalDate from = START.toLocalDate();
+        return data.controller.getAllOrders(null, "PENDING", from, from.plusDays(Math.max(1, data.records / 14_400)),
+                BigDecimal.valueOf(100), BigDecimal.valueOf(900), null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> products(Products data) {
+        return data.controller.getAllProducts("category-3", 100.0, 500.0, true, null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> customers(Customers data) {
+        return data.controller.getAllCustomers("customer 12", "example.com", null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> addresses(Addresses data) {
+        return data.controller.getAllAddresses("cust-7", "city7", "state7", null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> reviews(Reviews data) {
+        return data.controller.getAllReviews(4, 5, null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> payments(Payments data) {
+        return data.controller.getPayments("ord-8", "PENDING", null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> fulfillments(Fulfillments data) {
+        return data.controller.getFulfillments("ord-6", FulfillmentStatus.COMPLETED, null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> shipments(Shipments data) {
+        return data.controller.getAllShipments(null, ShipmentStatus.IN_TRANSIT, "dhl", "00", null, LIMIT);
+    }
+
+    @Benchmark
+    public ResponseEntity<?> inventory(Inventory data) {
+        return data.controller.listInventory("wh-3", null, "LOW_STOCK", null, LIMIT);
+    }
+}
@@ -0,0 +1,72 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the old full-map scan against the customerId secondary index
+ * for the "orders of a customer" lookup.
+ * Each customer owns ~10 orders regardless of the data set size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ForeignKeyLookupBenchmark {
+
+    private static final int ORDERS_PER_CUSTOMER = 10;
+
+    @Param({"10000", "1000000", "10000000"})
+    private int records;
+
+    private DataStore dataStore;
+    private int customers;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = new DataStore();
+        customers = Math.max(1, records / ORDERS_PER_CUSTOMER);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < records; i++) {
+            dataStore.saveOrder(OrderDTO.builder()
+                    .orderId("ord-" + i)
+                    .customerId("cust-" + (i % customers))
+                    .status("PENDING")
+                    .totalAmount(BigDecimal.TEN)
+                    .orderDate(now)
+                    .build());
+        }
+    }
+
+    private String randomCustomer() {
+        return "cust-" + ThreadLocalRandom.current().nextInt(customers);
+    }
+
+    @Benchmark
+    public List<OrderDTO> scan() {
+        String customerId = randomCustomer();
+        return dataStore.getOrders().values().stream()
+                .filter(o -> customerId.equals(o.getCustomerId()))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<OrderDTO> index() {
+        return dataStore.getOrdersByCustomer(randomCustomer());
+    }
+}
@@ -0,0 +1,104 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what metrics add to a request: a DataStore read with and without its
+ * operation timer, and the per-request timer lookup and recording the web layer does
+ * for http.server.requests. The registry is configured like application.yaml
+ * (p50/p99/p999 plus Prometheus histogram buckets).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MetricsOverheadBenchmark {
+
+    private static final int RECORDS = 10_000;
+
+    private PrometheusMeterRegistry registry;
+    private DataStore plain;
+    private DataStore instrumented;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return DistributionStatisticConfig.builder()
+                        .percentiles(0.5, 0.99, 0.999)
+                        .percentilesHistogram(true)
+                        .build()
+                        .merge(config);
+            }
+        });
+        plain = new DataStore();
+        instrumented = new DataStore(registry);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < RECORDS; i++) {
+            OrderDTO order = OrderDTO.builder()
+                    .orderId("ord-" + i)
+                    .customerId("cust-" + i)
+                    .status("PENDING")
+                    .totalAmount(BigDecimal.TEN)
+                    .orderDate(now)
+                    .build();
+            plain.saveOrder(order);
+            instrumented.saveOrder(order);
+        }
+    }
+
+    private static String randomId() {
+        return "ord-" + ThreadLocalRandom.current().nextInt(RECORDS);
+    }
+
+    @Benchmark
+    public OrderDTO getOrder() {
+        return plain.getOrder(randomId());
+    }
+
+    @Benchmark
+    public OrderDTO getOrderTimed() {
+        return instrumented.getOrder(randomId());
+    }
+
+    @Benchmark
+    public void httpRequestTimer() {
+        long start = System.nanoTime();
+        Timer.builder("http.server.requests")
+                .tag("method", "GET")
+                .tag("uri", "/api/v1/orders/{orderId}")
+                .tag("status", "200")
+                .tag("outcome", "SUCCESS")
+                .tag("exception", "none")
+                .register(registry)
+                .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void httpRequestTimerContended() {
+        httpRequestTimer();
+    }
+}
@@ -0,0 +1,181 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.persistence.DataStorePersistence;
+import com.tekion.API_Design_Demo.service.persistence.PersistenceProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Write throughput with and without the write-ahead log, and recovery time from disk.
+ */
+public class PersistenceBenchmark {
+
+    private static final int CUSTOMERS = 100_000;
+
+    static ObjectMapper objectMapper() {
+        // Same settings as the Spring Boot auto-configured mapper
+        return JsonMapper.builder()
+                .findAndAddModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .build();
+    }
+
+    static OrderDTO order(String orderId, LocalDateTime now) {
+        return OrderDTO.builder()
+                .orderId(orderId)
+                .customerId("cust-" + ThreadLocalRandom.current().nextInt(CUSTOMERS))
+                .customerName("Customer")
+                .status("PENDING")
+                .totalAmount(BigDecimal.TEN)
+                .orderDate(now)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+    }
+
+    static PersistenceProperties properties(Path directory, PersistenceProperties.SyncMode syncMode) {
+        PersistenceProperties properties = new PersistenceProperties();
+        properties.setEnabled(true);
+        properties.setDirectory(directory);
+        properties.setSyncMode(syncMode);
+        // Snapshots are triggered explicitly
+        properties.setSnapshotInterval(Duration.ofDays(1));
+        return properties;
+    }
+
+    static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    /**
+     * saveOrder from 8 threads: MEMORY is the plain in-memory store, ASYNC and SYNC log every write.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    public static class Write {
+
+        @Param({"MEMORY", "ASYNC", "SYNC"})
+        private String mode;
+
+        private DataStore dataStore;
+        private DataStorePersistence persistence;
+        private Path directory;
+        private LocalDateTime now;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dataStore = new DataStore();
+            now = LocalDateTime.now();
+            if (!"MEMORY".equals(mode)) {
+                directory = Files.createTempDirectory("wal-bench");
+                persistence = new DataStorePersistence(dataStore, objectMapper(),
+                        properties(directory, PersistenceProperties.SyncMode.valueOf(mode)));
+                persistence.start();
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            if (persistence != null) {
+                persistence.stop();
+                deleteRecursively(directory);
+            }
+        }
+
+        @Benchmark
+        @Threads(8)
+        public void saveOrder() {
+            dataStore.saveOrder(order("ord-" + ThreadLocalRandom.current().nextInt(1_000_000), now));
+        }
+    }
+
+    /**
+     * Recovery of a store whose records are half in a snapshot and half in the WAL after it.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public static class Recovery {
+
+        @Param({"1000000", "10000000"})
+        private int records;
+
+        private Path directory;
+        private DataStorePersistence recovered;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            directory = Files.createTempDirectory("recovery-bench");
+            DataStore dataStore = new DataStore();
+            DataStorePersistence persistence = new DataStorePersistence(dataStore, objectMapper(),
+                    properties(directory, PersistenceProperties.SyncMode.ASYNC));
+            persistence.start();
+            LocalDateTime now = LocalDateTime.now();
+            for (int i = 0; i < records; i++) {
+                if (i == records / 2) {
+                    persistence.snapshot();
+                }
+                dataStore.saveOrder(order(String.format("ord-%010d", i), now));
+            }
+            persistence.stop();
+        }
+
+        @TearDown(Level.Iteration)
+        public void stopRecovered() throws IOException {
+            if (recovered != null) {
+                recovered.stop();
+                recovered = null;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(directory);
+        }
+
+        @Benchmark
+        public DataStore recover() throws IOException {
+            DataStore dataStore = new DataStore();
+            recovered = new DataStorePersistence(dataStore, objectMapper(),
+                    properties(directory, PersistenceProperties.SyncMode.ASYNC));
+            recovered.start();
+            return dataStore;
+        }
+    }
+}
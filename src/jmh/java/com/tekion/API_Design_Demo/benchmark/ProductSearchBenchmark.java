@@ -0,0 +1,117 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the old lowercase-and-contains scan of every product against the
+ * inverted index for keyword search.
+ * Product names and descriptions are drawn from a synthetic vocabulary in which a
+ * few words are common and most are rare, as in a real catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProductSearchBenchmark {
+
+    private static final int VOCABULARY = 20_000;
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "1000000"})
+    private int records;
+
+    /**
+     * WORD: one whole word; TWO_WORDS: two words that must both match;
+     * PREFIX: the first three letters of a word.
+     */
+    @Param({"WORD", "TWO_WORDS", "PREFIX"})
+    private String queryType;
+
+    private DataStore dataStore;
+    private String[] words;
+    private String[] queries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        words = new String[VOCABULARY];
+        for (int i = 0; i < VOCABULARY; i++) {
+            StringBuilder word = new StringBuilder();
+            int length = 4 + random.nextInt(6);
+            for (int j = 0; j < length; j++) {
+                word.append((char) ('a' + random.nextInt(26)));
+            }
+            words[i] = word.toString();
+        }
+
+        dataStore = new DataStore();
+        for (int i = 0; i < records; i++) {
+            dataStore.saveProduct(ProductDTO.builder()
+                    .productId("prod-" + i)
+                    .name(text(random, 3))
+                    .description(text(random, 12))
+                    .price(10.0)
+                    .category("electronics")
+                    .isActive(true)
+                    .build());
+        }
+
+        // Queries are built from the words actually indexed, skewed towards the common ones
+        queries = new String[1024];
+        for (int i = 0; i < queries.length; i++) {
+            String word = word(random);
+            queries[i] = switch (queryType) {
+                case "TWO_WORDS" -> word + " " + word(random);
+                case "PREFIX" -> word.substring(0, 3);
+                default -> word;
+            };
+        }
+    }
+
+    private String text(Random random, int count) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            text.append(word(random)).append(' ');
+        }
+        return text.toString();
+    }
+
+    // Roughly Zipf-like: word i is picked with probability proportional to 1 / (i + 1)
+    private String word(Random random) {
+        int index = (int) Math.pow(VOCABULARY, random.nextDouble()) - 1;
+        return words[index];
+    }
+
+    private String randomQuery() {
+        return queries[ThreadLocalRandom.current().nextInt(queries.length)];
+    }
+
+    @Benchmark
+    public List<ProductDTO> scan() {
+        String lowerQuery = randomQuery().toLowerCase();
+        return dataStore.getProducts().values().stream()
+                .filter(p -> (p.getName() != null && p.getName().toLowerCase().contains(lowerQuery)) ||
+                             (p.getDescription() != null && p.getDescription().toLowerCase().contains(lowerQuery)))
+                .collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<ProductDTO> index() {
+        return dataStore.searchProducts(randomQuery(), LIMIT);
+    }
+}
@@ -0,0 +1,86 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Compares a filtered scan of the sorted id set against the planned range index
+ * lookup for "first page of orders in a date window".
+ * Orders are spread one minute apart; the window covers selectivity * records of them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class RangeQueryBenchmark {
+
+    private static final int LIMIT = 20;
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @Param({"10000", "1000000"})
+    private int records;
+
+    @Param({"0.0001", "0.01", "0.5"})
+    private double selectivity;
+
+    private DataStore dataStore;
+    private long window;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = new DataStore();
+        window = Math.max(1, (long) (records * selectivity));
+        for (int i = 0; i < records; i++) {
+            // Ids sort independently of date, as they would with mixed customers and backfills
+            int minute = (int) ((i * 2_654_435_761L) % records);
+            dataStore.saveOrder(OrderDTO.builder()
+                    .orderId(String.format("ord-%08d", i))
+                    .customerId("cust-" + (i % 1000))
+                    .status("PENDING")
+                    .totalAmount(BigDecimal.TEN)
+                    .orderDate(START.plusMinutes(minute))
+                    .build());
+        }
+    }
+
+    private LocalDateTime randomFrom() {
+        return START.plusMinutes(ThreadLocalRandom.current().nextLong(Math.max(1, records - window)));
+    }
+
+    private static Predicate<OrderDTO> between(LocalDateTime from, LocalDateTime to) {
+        return o -> !o.getOrderDate().isBefore(from) && !o.getOrderDate().isAfter(to);
+    }
+
+    @Benchmark
+    public PagedResponse<OrderDTO> scan() {
+        LocalDateTime from = randomFrom();
+        LocalDateTime to = from.plusMinutes(window - 1);
+        return KeysetPaginator.page(dataStore.getOrderIds(), dataStore::getOrder, between(from, to), null, LIMIT);
+    }
+
+    @Benchmark
+    public PagedResponse<OrderDTO> index() {
+        LocalDateTime from = randomFrom();
+        LocalDateTime to = from.plusMinutes(window - 1);
+        return IndexQuery.over(dataStore.getOrderIds())
+                .and(dataStore.getOrdersByDateRange(from, to))
+                .page(dataStore::getOrder, between(from, to), null, LIMIT);
+    }
+}
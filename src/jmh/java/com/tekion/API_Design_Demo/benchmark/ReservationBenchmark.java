@@ -0,0 +1,116 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.controller.OrderController;
+import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.request.CreateOrderRequest;
+import com.tekion.API_Design_Demo.dto.request.CreateOrderRequest.OrderItemRequest;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations;
+import com.tekion.API_Design_Demo.service.reservation.ReservationProperties;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.http.ResponseEntity;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Orders per second through the reservation engine; the target is 10k orders/s.
+ * Each order has ITEMS line items for random SKUs, each stocked in WAREHOUSES warehouses.
+ * With skus = 1 every order contends on the same records; with 10000 they rarely collide.
+ *
+ * Stock is returned after every order (release, or delete through the controller),
+ * so the store stays the same size for the whole run.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ReservationBenchmark {
+
+    private static final int ITEMS = 3;
+    private static final int WAREHOUSES = 4;
+    private static final int STOCK = 1_000_000_000;
+    private static final String CUSTOMER_ID = "cust-bench";
+
+    @Param({"1", "10000"})
+    private int skus;
+
+    private DataStore dataStore;
+    private InventoryReservations reservations;
+    private OrderController controller;
+    private final AtomicLong orderSequence = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataStore = new DataStore();
+        reservations = new InventoryReservations(dataStore, new ReservationProperties(), null);
+        controller = new OrderController(dataStore, new SnowflakeIdGenerator(0), reservations,
+                FilterPipelineBenchmark.responseCache(dataStore));
+
+        dataStore.saveCustomer(CustomerDTO.builder().customerId(CUSTOMER_ID).name("Benchmark").build());
+        for (int sku = 0; sku < skus; sku++) {
+            String productId = "prod-" + sku;
+            dataStore.saveProduct(ProductDTO.builder().productId(productId).name("Product " + sku).price(9.99).build());
+            for (int warehouse = 0; warehouse < WAREHOUSES; warehouse++) {
+                dataStore.saveInventory(InventoryDTO.builder()
+                        .id("inv-" + sku + "-" + warehouse)
+                        .productId(productId)
+                        .warehouseId("wh-" + warehouse)
+                        .quantity(STOCK)
+                        .reservedQuantity(0)
+                        .availableQuantity(STOCK)
+                        .status(InventoryStatus.IN_STOCK)
+                        .build());
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void reserveAndRelease() {
+        String orderId = "ord-" + orderSequence.incrementAndGet();
+        Map<String, Integer> quantities = new HashMap<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ITEMS; i++) {
+            quantities.merge("prod-" + random.nextInt(skus), 1 + random.nextInt(3), Integer::sum);
+        }
+        reservations.reserve(orderId, quantities);
+        reservations.release(orderId);
+    }
+
+    @Benchmark
+    @Threads(8)
+    @SuppressWarnings("unchecked")
+    public void createAndDeleteOrder() {
+        List<OrderItemRequest> items = new ArrayList<>(ITEMS);
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < ITEMS; i++) {
+            items.add(OrderItemRequest.builder()
+                    .productId("prod-" + random.nextInt(skus))
+                    .quantity(1 + random.nextInt(3))
+                    .build());
+        }
+        ResponseEntity<?> created = controller.createOrder(CUSTOMER_ID, CreateOrderRequest.builder().items(items).build());
+        OrderDTO order = ((ApiResponse<OrderDTO>) created.getBody()).getData();
+        controller.deleteOrder(order.getOrderId());
+    }
+}
@@ -0,0 +1,86 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderItemDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building the ApiResponse envelope and serializing it with Jackson,
+ * for order lists of a page (20), a full page (100) and an unpaged dump (1000).
+ * The mapper has the same settings as the Spring Boot auto-configured one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SerializationBenchmark {
+
+    @Param({"20", "100", "1000"})
+    private int size;
+
+    private ObjectMapper objectMapper;
+    private List<OrderDTO> orders;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = PersistenceBenchmark.objectMapper();
+        orders = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < size; i++) {
+            List<OrderItemDTO> items = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                items.add(OrderItemDTO.builder()
+                        .productId("prod-" + j)
+                        .productName("Product " + j)
+                        .quantity(j + 1)
+                        .unitPrice(BigDecimal.valueOf(19.99))
+                        .totalPrice(BigDecimal.valueOf(19.99).multiply(BigDecimal.valueOf(j + 1)))
+                        .build());
+            }
+            orders.add(OrderDTO.builder()
+                    .orderId("ord-" + i)
+                    .customerId("cust-" + i)
+                    .customerName("Customer " + i)
+                    .items(items)
+                    .orderDate(now)
+                    .status("PENDING")
+                    .totalAmount(BigDecimal.valueOf(119.94))
+                    .shippingAddressId("addr-" + i)
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public ApiResponse<PagedResponse<OrderDTO>> envelope() {
+        return ApiResponse.success(PagedResponse.of(orders, "cursor", true, size));
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(PagedResponse.of(orders, "cursor", true, size)));
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(ApiResponse.success(orders));
+    }
+}
@@ -0,0 +1,163 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.ApiDesignDemoApplication;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The whole server under load, with Tomcat request handling on platform threads vs virtual threads.
+ *
+ * Each invocation sends {@code concurrency} create-product requests at once and waits for all
+ * of them. Persistence runs in SYNC mode, so every request blocks until its write is fsynced:
+ * on platform threads at most server.tomcat.threads.max (200) requests are in flight and the
+ * rest queue for a thread, while on virtual threads all of them wait for the same group commit.
+ *
+ * The score is the time per wave (requests per second = concurrency / score). After each
+ * iteration the most requests seen in flight inside the server, the peak JVM thread count and
+ * the heap in use are printed; platform thread stacks are native memory, so the peak thread
+ * count (about 1 MB of reserved stack each) is the better measure of their footprint.
+ * The client runs in the same JVM and its threads are included in the counts.
+ *
+ * VIRTUAL needs a Java 21 toolchain: ./gradlew jmh -PjavaVersion=21 -PjmhIncludes=ServerThreadingBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class ServerThreadingBenchmark {
+
+    private static final String PRODUCT = "{\"name\":\"Widget\",\"price\":10.0,\"category\":\"tools\",\"stockQuantity\":5}";
+
+    @Param({"PLATFORM", "VIRTUAL"})
+    private String threading;
+
+    @Param({"256", "2048"})
+    private int concurrency;
+
+    private final InFlightFilter inFlight = new InFlightFilter();
+    private ConfigurableApplicationContext context;
+    private Path directory;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        boolean virtual = "VIRTUAL".equals(threading);
+        if (virtual && Runtime.version().feature() < 21) {
+            throw new IllegalStateException("Virtual threads need Java 21; run with -PjavaVersion=21");
+        }
+        directory = Files.createTempDirectory("threading-bench");
+
+        SpringApplication application = new SpringApplication(ApiDesignDemoApplication.class);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "server.tomcat.threads.max", "200",
+                "server.tomcat.max-connections", "16384",
+                "spring.threads.virtual.enabled", Boolean.toString(virtual),
+                "datastore.persistence.enabled", "true",
+                "datastore.persistence.directory", directory.toString(),
+                "datastore.persistence.sync-mode", "sync",
+                "logging.level.root", "WARN"));
+        application.addInitializers(ctx -> ((GenericApplicationContext) ctx)
+                .registerBean(InFlightFilter.class, () -> inFlight));
+        context = application.run();
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(PRODUCT))
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.printf("%n%s x %d: max in-flight requests=%d, peak threads=%d, live threads=%d, heap used=%d MB%n",
+                threading, concurrency, inFlight.max.getAndSet(0), threads.getPeakThreadCount(),
+                threads.getThreadCount(), memory.getHeapMemoryUsage().getUsed() >> 20);
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.close();
+        PersistenceBenchmark.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public int wave() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[concurrency];
+        for (int i = 0; i < concurrency; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 201) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return concurrency;
+    }
+
+    /**
+     * Counts the requests being handled by the server and remembers the most at once.
+     */
+    static final class InFlightFilter extends OncePerRequestFilter {
+
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicLong max = new AtomicLong();
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            max.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package com.tekion.API_Design_Demo.benchmark;
+
+import com.tekion.API_Design_Demo.ApiDesignDemoApplication;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The whole server under many concurrent connections, on Spring MVC (Tomcat) vs WebFlux (Netty).
+ *
+ * Each invocation opens {@code connections} requests for a page of products at once and waits
+ * for all of them. The handlers only read the in-memory DataStore, so the difference is in how
+ * each stack takes the connections: Tomcat hands each request to one of its 200 worker threads,
+ * while Netty serves all of them from a few event loop threads.
+ *
+ * The score is the time per wave (requests per second = connections / score). After each
+ * iteration the peak JVM thread count and the heap in use are printed; the client runs in the
+ * same JVM and its threads are included in the counts. Raise the open file limit (ulimit -n)
+ * above twice the largest connection count before running:
+ * ./gradlew jmh -PjmhIncludes=WebStackBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+public class WebStackBenchmark {
+
+    private static final int PRODUCTS = 10_000;
+
+    @Param({"MVC", "WEBFLUX"})
+    private String stack;
+
+    @Param({"1024", "8192"})
+    private int connections;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient client;
+    private HttpRequest request;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        SpringApplication application = new SpringApplication(ApiDesignDemoApplication.class);
+        application.setDefaultProperties(Map.of(
+                "server.port", "0",
+                "server.tomcat.threads.max", "200",
+                "server.tomcat.max-connections", "16384",
+                "server.tomcat.accept-count", "16384",
+                "spring.main.web-application-type", "MVC".equals(stack) ? "servlet" : "reactive",
+                "http.cache.enabled", "false",
+                "logging.level.root", "WARN"));
+        context = application.run();
+
+        DataStore dataStore = context.getBean(DataStore.class);
+        for (int i = 0; i < PRODUCTS; i++) {
+            dataStore.saveProduct(ProductDTO.builder()
+                    .productId(String.format("prod-%08d", i))
+                    .name("Product " + i)
+                    .category("category-" + (i % 20))
+                    .price(1.0 + i % 500)
+                    .stockQuantity(i % 100)
+                    .isActive(true)
+                    .build());
+        }
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/products?category=category-7&limit=20"))
+                .GET()
+                .build();
+    }
+
+    @TearDown(Level.Iteration)
+    public void report() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.out.printf("%n%s x %d: peak threads=%d, live threads=%d, heap used=%d MB%n",
+                stack, connections, threads.getPeakThreadCount(), threads.getThreadCount(),
+                memory.getHeapMemoryUsage().getUsed() >> 20);
+        threads.resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int wave() {
+        CompletableFuture<?>[] responses = new CompletableFuture<?>[connections];
+        for (int i = 0; i < connections; i++) {
+            responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .thenAccept(response -> {
+                        if (response.statusCode() != 200) {
+                            throw new IllegalStateException("Unexpected status " + response.statusCode());
+                        }
+                    });
+        }
+        CompletableFuture.allOf(responses).join();
+        return connections;
+    }
+}
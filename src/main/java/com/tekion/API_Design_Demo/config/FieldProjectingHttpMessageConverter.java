@@ -0,0 +1,23 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.util.MimeType;
+
+/**
+ * The JSON converter, writing only the fields named by the request's {@code fields}
+ * parameter (see {@link FieldProjection}).
+ */
+public class FieldProjectingHttpMessageConverter extends MappingJackson2HttpMessageConverter {
+
+    public FieldProjectingHttpMessageConverter(ObjectMapper objectMapper) {
+        super(objectMapper);
+    }
+
+    @Override
+    protected ObjectWriter customizeWriter(ObjectWriter writer, MimeType mimeType, JavaType javaType) {
+        return FieldProjection.apply(super.customizeWriter(writer, mimeType, javaType));
+    }
+}
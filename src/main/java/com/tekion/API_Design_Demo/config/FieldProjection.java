@@ -0,0 +1,110 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The fields a client asked for with the {@code fields} query parameter, e.g.
+ * {@code ?fields=orderId,status,items.productId}: a tree of JSON property names.
+ *
+ * A name without children keeps the whole value, so {@code items} keeps every field of
+ * each item and {@code items.productId} keeps only the product id. Paths start at the
+ * resource, inside the {@code ApiResponse} and {@code PagedResponse} wrappers, which are
+ * always written in full. Names that the resource does not have are ignored.
+ *
+ * The projection is applied while the response is serialized, by handing it to the
+ * {@link ObjectWriter} as a per-call attribute (see {@link FieldProjectionModule}).
+ */
+public final class FieldProjection {
+
+    /**
+     * Name of the query parameter holding the field list.
+     */
+    public static final String PARAMETER = "fields";
+
+    // name -> fields kept of that value; empty when the whole value is kept
+    private final Map<String, FieldProjection> fields = new HashMap<>();
+
+    private FieldProjection() {
+    }
+
+    /**
+     * Parse a comma separated list of dotted paths.
+     *
+     * @return the projection, or null when the list names no field
+     */
+    public static FieldProjection parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+        FieldProjection root = new FieldProjection();
+        for (String path : fields.split(",")) {
+            String trimmed = path.trim();
+            if (!trimmed.isEmpty()) {
+                root.add(trimmed.split("\\."));
+            }
+        }
+        return root.fields.isEmpty() ? null : root;
+    }
+
+    /**
+     * Make a writer that applies the {@code fields} parameter of the current request, if any.
+     */
+    public static ObjectWriter apply(ObjectWriter writer) {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? apply(writer, attributes.getRequest())
+                : writer;
+    }
+
+    /**
+     * Make a writer that applies the {@code fields} parameter of the given request, if any.
+     */
+    public static ObjectWriter apply(ObjectWriter writer, HttpServletRequest request) {
+        FieldProjection projection = parse(request.getParameter(PARAMETER));
+        return projection != null ? writer.withAttribute(FieldProjection.class, projection) : writer;
+    }
+
+    /**
+     * Get the fields kept of a property's value.
+     *
+     * @return the projection for the value, {@link #isWhole() whole} when the value is
+     *         kept in full, or null when the property is left out
+     */
+    public FieldProjection field(String name) {
+        return fields.get(name);
+    }
+
+    /**
+     * Check whether the whole value is kept.
+     */
+    public boolean isWhole() {
+        return fields.isEmpty();
+    }
+
+    private void add(String[] path) {
+        FieldProjection node = this;
+        for (int i = 0; i < path.length; i++) {
+            String name = path[i].trim();
+            if (name.isEmpty()) {
+                return;
+            }
+            FieldProjection child = node.fields.get(name);
+            if (child == null) {
+                child = new FieldProjection();
+                node.fields.put(name, child);
+            } else if (child.isWhole()) {
+                // Already kept in full, e.g. "items" before "items.productId"
+                return;
+            }
+            if (i == path.length - 1) {
+                child.fields.clear();
+            }
+            node = child;
+        }
+    }
+}
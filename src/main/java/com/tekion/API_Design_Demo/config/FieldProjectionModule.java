@@ -0,0 +1,81 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Jackson module that writes only the fields of a {@link FieldProjection}.
+ *
+ * Each property of a resource is written through a writer that looks up its name in the
+ * projection given to the {@code ObjectWriter}, skips it when it is not asked for, and
+ * otherwise hands the child projection down while its value is written. Nothing is copied
+ * into intermediate maps, so leaving fields out saves their serialization as well as
+ * their bytes. Without a projection each property costs one attribute lookup.
+ *
+ * Response wrappers are not projected. Spring Boot adds the module to the application's
+ * ObjectMapper.
+ */
+@Component
+public class FieldProjectionModule extends SimpleModule {
+
+    public FieldProjectionModule() {
+        super("FieldProjectionModule");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc,
+                                                             List<BeanPropertyWriter> beanProperties) {
+                if (isWrapper(beanDesc.getBeanClass())) {
+                    return beanProperties;
+                }
+                List<BeanPropertyWriter> writers = new ArrayList<>(beanProperties.size());
+                for (BeanPropertyWriter writer : beanProperties) {
+                    writers.add(new ProjectingWriter(writer));
+                }
+                return writers;
+            }
+        });
+    }
+
+    private static boolean isWrapper(Class<?> type) {
+        return type.getPackageName().equals(ApiResponse.class.getPackageName())
+                || type == PagedResponse.class
+                || type == PagedResponse.Pagination.class;
+    }
+
+    private static final class ProjectingWriter extends BeanPropertyWriter {
+
+        ProjectingWriter(BeanPropertyWriter base) {
+            super(base);
+        }
+
+        @Override
+        public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+            if (!(prov.getAttribute(FieldProjection.class) instanceof FieldProjection projection)) {
+                super.serializeAsField(bean, gen, prov);
+                return;
+            }
+            FieldProjection field = projection.field(getName());
+            if (field == null) {
+                return;
+            }
+            // A value kept in full is written without a projection
+            prov.setAttribute(FieldProjection.class, field.isWhole() ? null : field);
+            try {
+                super.serializeAsField(bean, gen, prov);
+            } finally {
+                prov.setAttribute(FieldProjection.class, projection);
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.tekion.API_Design_Demo.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Settings for HTTP caching of read endpoints (http.cache.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "http.cache")
+public class HttpCacheProperties {
+
+    /**
+     * Whether serialized response bodies are kept in memory and reused while the data is unchanged.
+     * ETags, If-None-Match and Cache-Control are handled either way.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Maximum number of response bodies kept. When full, arbitrary entries are dropped to make room.
+     */
+    private int maxEntries = 10_000;
+
+    /**
+     * Cache-Control header for endpoints without their own entry in cacheControl.
+     * no-cache lets clients keep responses but revalidate them with If-None-Match on every use.
+     */
+    private String defaultCacheControl = "no-cache";
+
+    /**
+     * Cache-Control header per endpoint, keyed by the endpoint name the controller passes
+     * to {@link ResponseCache} (e.g. "product", "product-reviews").
+     */
+    private Map<String, String> cacheControl = new HashMap<>();
+
+    /**
+     * Smallest cached response body that is sent compressed (gzip or deflate, as the client's
+     * Accept-Encoding allows). The compressed bytes are kept with the entry and reused with it.
+     */
+    private DataSize compressionMinSize = DataSize.ofKilobytes(2);
+
+    String cacheControlFor(String endpoint) {
+        return cacheControl.getOrDefault(endpoint, defaultCacheControl);
+    }
+}
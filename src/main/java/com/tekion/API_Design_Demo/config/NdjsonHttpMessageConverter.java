@@ -0,0 +1,104 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reads an application/x-ndjson request body (one JSON document per line) into a
+ * {@code List} of the declared element type, so batch endpoints can take the same
+ * {@code @RequestBody List<...>} parameter for both JSON arrays and NDJSON.
+ * Lines are parsed one at a time as a stream.
+ *
+ * Writes a {@code java.util.stream.Stream} response body as NDJSON, serializing each
+ * element straight to the response output stream as the stream is consumed, so an
+ * export never holds more than one record and the output buffer. Writes block when
+ * the client reads slowly, which in turn pauses the stream. The stream is closed
+ * once written. Each record is projected to the request's {@code fields}, if given.
+ */
+public class NdjsonHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    private final ObjectMapper objectMapper;
+
+    public NdjsonHttpMessageConverter(ObjectMapper objectMapper) {
+        super(MediaType.APPLICATION_NDJSON);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return List.class.isAssignableFrom(clazz) || Stream.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    public boolean canRead(Type type, Class<?> contextClass, MediaType mediaType) {
+        return canRead(mediaType) && listType(type, contextClass).isCollectionLikeType();
+    }
+
+    @Override
+    public boolean canRead(Class<?> clazz, MediaType mediaType) {
+        return List.class.isAssignableFrom(clazz) && canRead(mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Type type, Class<?> clazz, MediaType mediaType) {
+        return canWrite(clazz, mediaType);
+    }
+
+    @Override
+    public boolean canWrite(Class<?> clazz, MediaType mediaType) {
+        return Stream.class.isAssignableFrom(clazz) && canWrite(mediaType);
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        JavaType elementType = listType(type, contextClass).getContentType();
+        try (MappingIterator<Object> lines = objectMapper.readerFor(elementType).readValues(inputMessage.getBody())) {
+            return lines.readAll(new ArrayList<>());
+        } catch (IOException ex) {
+            throw new HttpMessageNotReadableException("Invalid NDJSON: " + ex.getMessage(), ex, inputMessage);
+        }
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return read(clazz, null, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, Type type, HttpOutputMessage outputMessage) throws IOException {
+        // Flushing after every record would send one chunk per line; the servlet buffer decides instead
+        ObjectWriter writer = FieldProjection.apply(objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE));
+        try (Stream<?> records = (Stream<?>) value;
+             JsonGenerator generator = objectMapper.getFactory()
+                     .createGenerator(StreamUtils.nonClosing(outputMessage.getBody()))) {
+            generator.setRootValueSeparator(null);
+            Iterator<?> iterator = records.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+    private JavaType listType(Type type, Class<?> contextClass) {
+        return objectMapper.constructType(GenericTypeResolver.resolveType(type, contextClass));
+    }
+}
@@ -0,0 +1,76 @@
+package com.tekion.API_Design_Demo.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.ReactiveAdapterRegistry;
+import org.springframework.core.ReactiveTypeDescriptor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.reactive.config.BlockingExecutionConfigurer;
+import org.springframework.web.reactive.config.WebFluxConfigurer;
+import reactor.core.publisher.Flux;
+
+import java.util.stream.Stream;
+
+/**
+ * WebFlux customizations, for running with the "reactive" profile.
+ *
+ * The annotated controllers serve the same routes on both stacks. Reads only touch the
+ * in-memory DataStore and run on the Netty event loop; writes can wait for the write-ahead
+ * log to be fsynced, so they are run on the application task executor instead (virtual
+ * threads when spring.threads.virtual.enabled is set).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveWebConfig implements WebFluxConfigurer {
+
+    private final AsyncTaskExecutor taskExecutor;
+
+    public ReactiveWebConfig(@Qualifier("applicationTaskExecutor") AsyncTaskExecutor taskExecutor) {
+        this.taskExecutor = taskExecutor;
+    }
+
+    @Override
+    public void configureBlockingExecution(BlockingExecutionConfigurer configurer) {
+        configurer.setExecutor(taskExecutor);
+        configurer.setControllerMethodPredicate(method -> {
+            RequestMapping mapping = AnnotatedElementUtils.findMergedAnnotation(method.getMethod(), RequestMapping.class);
+            return mapping != null && mapping.method().length > 0 && mapping.method()[0] != RequestMethod.GET;
+        });
+    }
+
+    /**
+     * Serve on Netty rather than on Tomcat, which is also on the classpath for the servlet stack.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Treat the {@code Stream} bodies returned by the export endpoints as multi-value
+     * publishers, so they are written element by element as NDJSON (see NdjsonHttpMessageConverter
+     * for the servlet stack) instead of being serialized as one value.
+     */
+    @Bean
+    public static BeanPostProcessor streamAdapterRegistrar() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof ReactiveAdapterRegistry registry && registry.getAdapter(Stream.class) == null) {
+                    registry.registerReactiveType(
+                            ReactiveTypeDescriptor.multiValue(Stream.class, Stream::empty),
+                            source -> Flux.fromStream((Stream<?>) source),
+                            publisher -> Flux.from(publisher).toStream());
+                }
+                return bean;
+            }
+        };
+    }
+}
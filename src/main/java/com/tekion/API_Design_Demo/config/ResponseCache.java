@@ -0,0 +1,356 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.dto.Versioned;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.service.ChangeListener;
+import com.tekion.API_Design_Demo.service.DataStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotWritableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Conditional GET and a cache of serialized response bodies for read endpoints.
+ *
+ * Every response gets a strong ETag and the endpoint's Cache-Control header, and a
+ * request whose If-None-Match lists the current ETag gets 304 without a body.
+ * Each {@code fields} projection and content coding of a response is a representation
+ * of its own, so its ETag carries them after the version, e.g. {@code "3"},
+ * {@code "3-gzip"} or {@code "3-f5e1a9c2-deflate"} (see {@link #isCurrent}).
+ * Otherwise the JSON bytes written for the same URL are reused while they are still
+ * current, so hot reads skip building and serializing the response:
+ * <ul>
+ *   <li>a single record's ETag is its version; its bytes are reused only for the very
+ *       record instance they were written from, and are dropped when the record changes</li>
+ *   <li>a collection response's ETag is built from {@link DataStore#getChangeCount} of the
+ *       collections it reads; its bytes are reused while those counts are unchanged</li>
+ * </ul>
+ * A body of at least {@code http.cache.compression-min-size} is sent gzip or deflate
+ * compressed when the client accepts it; each entry compresses its bytes once per
+ * coding and reuses them until the entry is dropped.
+ * Bytes are kept per URL, so each {@code fields} projection is cached on its own.
+ * With the cache disabled every request is still serialized and compressed here, so
+ * its ETag always names what is sent. Outside an HTTP request (e.g. a controller
+ * called directly) the body is returned as is, with the plain version ETag.
+ */
+@Component
+@EnableConfigurationProperties(HttpCacheProperties.class)
+public class ResponseCache implements ChangeListener {
+
+    private final DataStore dataStore;
+    private final ObjectMapper objectMapper;
+    private final HttpCacheProperties properties;
+    // request URI and query -> serialized response
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // "ENTITY/id" -> keys of the entries written from that record
+    private final Map<String, Set<String>> keysByRecord = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter notModified;
+
+    public ResponseCache(DataStore dataStore, ObjectMapper objectMapper, HttpCacheProperties properties, MeterRegistry registry) {
+        this.dataStore = dataStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+        this.notModified = counter(registry, "not_modified");
+        if (properties.isEnabled()) {
+            dataStore.addChangeListener(this);
+        }
+    }
+
+    /**
+     * Get the ETag of a record: its version as a strong entity tag, e.g. {@code "3"}.
+     */
+    public static String etag(Versioned record) {
+        return "\"" + record.getVersion() + "\"";
+    }
+
+    /**
+     * Check whether a strong entity tag names the record's current version, in any
+     * representation: {@code "3"} or a projected or compressed one such as {@code "3-gzip"}.
+     */
+    public static boolean isCurrent(String tag, Versioned record) {
+        String etag = etag(record);
+        return tag.equals(etag) || (tag.startsWith(etag.substring(0, etag.length() - 1) + "-") && tag.endsWith("\""));
+    }
+
+    /**
+     * Respond with one record.
+     *
+     * @param endpoint name used to look up the Cache-Control header
+     * @param body     builds the response body; only called when there is no current cached copy
+     */
+    public ResponseEntity<?> record(String endpoint, EntityType entity, String id, Versioned record, Supplier<?> body) {
+        return respond(endpoint, etag(record), record, recordKey(entity, id), body, null);
+    }
+
+    /**
+     * Respond with data read from the given collections.
+     *
+     * @param endpoint name used to look up the Cache-Control header
+     * @param body     builds the response body; only called when there is no current cached copy
+     */
+    public ResponseEntity<?> collection(String endpoint, Supplier<?> body, EntityType... sources) {
+        return respond(endpoint, collectionTag(sources), null, null, body, sources);
+    }
+
+    private ResponseEntity<?> respond(String endpoint, String etag, Object source, String recordKey,
+                                      Supplier<?> body, EntityType[] sources) {
+        String cacheControl = properties.cacheControlFor(endpoint);
+        HttpServletRequest request = currentRequest();
+        if (request == null) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .body(body.get());
+        }
+        String tag = projected(etag, request.getParameter(FieldProjection.PARAMETER));
+        String matched = match(request.getHeader(HttpHeaders.IF_NONE_MATCH), tag);
+        if (matched != null) {
+            notModified.increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(matched)
+                    .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        String key = request.getQueryString() != null
+                ? request.getRequestURI() + "?" + request.getQueryString()
+                : request.getRequestURI();
+        Entry cached = properties.isEnabled() ? entries.get(key) : null;
+        Entry entry;
+        if (cached != null && cached.etag().equals(etag) && cached.source() == source) {
+            hits.increment();
+            entry = cached;
+        } else {
+            entry = new Entry(etag, source, recordKey, serialize(body.get(), request), new ConcurrentHashMap<>());
+            // A collection response is only kept if no write landed while it was built
+            if (properties.isEnabled()) {
+                misses.increment();
+                if (sources == null || collectionTag(sources).equals(etag)) {
+                    put(key, entry);
+                }
+            }
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+        String encoding = entry.bytes().length >= properties.getCompressionMinSize().toBytes()
+                ? contentEncoding(request.getHeader(HttpHeaders.ACCEPT_ENCODING))
+                : null;
+        if (encoding == null) {
+            return response.eTag(tag).body(entry.bytes());
+        }
+        // Compressed once per cached entry, so the slowest, smallest level pays off there
+        int level = properties.isEnabled() ? Deflater.BEST_COMPRESSION : Deflater.DEFAULT_COMPRESSION;
+        // The server's own compression leaves a body with a Content-Encoding alone
+        return response.eTag(variant(tag, encoding))
+                .header(HttpHeaders.CONTENT_ENCODING, encoding)
+                .body(entry.encoded().computeIfAbsent(encoding, e -> compress(entry.bytes(), e, level)));
+    }
+
+    @Override
+    public void onChange(EntityType entity, String id, Object previous, Object current) {
+        Set<String> keys = keysByRecord.remove(recordKey(entity, id));
+        if (keys != null) {
+            keys.forEach(entries::remove);
+        }
+    }
+
+    /**
+     * Get the number of cached responses.
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private void put(String key, Entry entry) {
+        if (entries.size() >= properties.getMaxEntries()) {
+            Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+            while (entries.size() >= properties.getMaxEntries() && it.hasNext()) {
+                Map.Entry<String, Entry> evicted = it.next();
+                it.remove();
+                forget(evicted.getKey(), evicted.getValue());
+            }
+        }
+        Entry replaced = entries.put(key, entry);
+        if (replaced != null && !replaced.sameRecord(entry)) {
+            forget(key, replaced);
+        }
+        if (entry.recordKey() != null) {
+            keysByRecord.computeIfAbsent(entry.recordKey(), k -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+    }
+
+    private void forget(String key, Entry entry) {
+        if (entry.recordKey() != null) {
+            keysByRecord.computeIfPresent(entry.recordKey(), (k, keys) -> {
+                keys.remove(key);
+                return keys.isEmpty() ? null : keys;
+            });
+        }
+    }
+
+    private String collectionTag(EntityType[] sources) {
+        StringBuilder tag = new StringBuilder("\"");
+        for (int i = 0; i < sources.length; i++) {
+            if (i > 0) {
+                tag.append('.');
+            }
+            tag.append(sources[i].name().toLowerCase(Locale.ROOT)).append('-').append(dataStore.getChangeCount(sources[i]));
+        }
+        return tag.append('"').toString();
+    }
+
+    private byte[] serialize(Object body, HttpServletRequest request) {
+        try {
+            return FieldProjection.apply(objectMapper.writer(), request).writeValueAsBytes(body);
+        } catch (JsonProcessingException ex) {
+            throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getOriginalMessage(), ex);
+        }
+    }
+
+    /**
+     * Pick the content coding for a cached body from an Accept-Encoding header: gzip or
+     * deflate, whichever has the higher quality (gzip on a tie), or null for none.
+     */
+    static String contentEncoding(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return null;
+        }
+        double gzip = -1;
+        double deflate = -1;
+        double any = -1;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            double quality = 1;
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=") || parameter.startsWith("Q=")) {
+                    try {
+                        quality = Double.parseDouble(parameter.substring(2));
+                    } catch (NumberFormatException ex) {
+                        quality = 0;
+                    }
+                }
+            }
+            switch (name) {
+                case "gzip", "x-gzip" -> gzip = quality;
+                case "deflate" -> deflate = quality;
+                case "*" -> any = quality;
+                default -> {
+                }
+            }
+        }
+        // Codings not listed get the quality of "*", if given
+        gzip = gzip < 0 ? any : gzip;
+        deflate = deflate < 0 ? any : deflate;
+        if (gzip > 0 && gzip >= deflate) {
+            return "gzip";
+        }
+        return deflate > 0 ? "deflate" : null;
+    }
+
+    private static byte[] compress(byte[] bytes, String encoding, int level) {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4 + 64);
+        try (DeflaterOutputStream out = encoding.equals("gzip")
+                ? new GZIPOutputStream(compressed) {{ def.setLevel(level); }}
+                : new DeflaterOutputStream(compressed) {{ def.setLevel(level); }}) {
+            out.write(bytes);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Check an If-None-Match header against the ETag of a response in any of its content
+     * codings, using weak comparison as HTTP requires.
+     *
+     * @return the listed tag that is still current, or null when none is
+     */
+    static String match(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*")) {
+                return etag;
+            }
+            if (trimmed.equals(etag) || trimmed.equals(variant(etag, "gzip")) || trimmed.equals(variant(etag, "deflate"))) {
+                return trimmed;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the ETag of a response projected to the given {@code fields} parameter.
+     */
+    static String projected(String etag, String fields) {
+        return FieldProjection.parse(fields) != null ? variant(etag, "f" + Integer.toHexString(fields.hashCode())) : etag;
+    }
+
+    /**
+     * Append a representation's name to an entity tag, e.g. {@code "3"} to {@code "3-gzip"}.
+     */
+    private static String variant(String etag, String name) {
+        return etag.substring(0, etag.length() - 1) + "-" + name + "\"";
+    }
+
+    private static HttpServletRequest currentRequest() {
+        return RequestContextHolder.getRequestAttributes() instanceof ServletRequestAttributes attributes
+                ? attributes.getRequest()
+                : null;
+    }
+
+    private static String recordKey(EntityType entity, String id) {
+        return entity.name() + "/" + id;
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("http.response.cache")
+                .description("Read responses served from the response cache (hit), built (miss) or answered with 304")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private record Entry(String etag, Object source, String recordKey, byte[] bytes, Map<String, byte[]> encoded) {
+
+        boolean sameRecord(Entry other) {
+            return recordKey != null && recordKey.equals(other.recordKey);
+        }
+    }
+}
@@ -1,23 +1,34 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.AddressDTO;
+import com.tekion.API_Design_Demo.dto.BatchResponse;
 import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
 import com.tekion.API_Design_Demo.dto.request.CreateAddressRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.BatchItemException;
+import com.tekion.API_Design_Demo.service.BatchWriter;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/addresses")
@@ -25,28 +36,47 @@ import java.util.stream.Collectors;
 public class AddressController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
+    private final BatchWriter batchWriter;
 
-    public AddressController(DataStore dataStore) {
+    public AddressController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache,
+                             BatchWriter batchWriter) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
+        this.batchWriter = batchWriter;
     }
 
     @Operation(summary = "List all addresses", description = "Returns the collection of all addresses with optional filtering")
     @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "List of addresses successfully retrieved")
     @GetMapping
-    public ResponseEntity<ApiResponse<List<AddressDTO>>> getAllAddresses(
+    public ResponseEntity<ApiResponse<PagedResponse<AddressDTO>>> getAllAddresses(
             @Parameter(description = "Filter by customer ID") @RequestParam(required = false) String customerId,
             @Parameter(description = "Filter by city") @RequestParam(required = false) String city,
-            @Parameter(description = "Filter by state") @RequestParam(required = false) String state) {
+            @Parameter(description = "Filter by state") @RequestParam(required = false) String state,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<AddressDTO> addresses = dataStore.getAddresses().values().stream()
-                .filter(a -> customerId == null || customerId.equals(a.getCustomerId()))
-                .filter(a -> city == null || city.equalsIgnoreCase(a.getCity()))
-                .filter(a -> state == null || state.equalsIgnoreCase(a.getState()))
-                .collect(Collectors.toList());
+        PagedResponse<AddressDTO> addresses = addressQuery(customerId)
+                .page(dataStore.getAddresses()::get, addressFilter(city, state), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(addresses));
     }
 
+    @Operation(summary = "Export addresses", description = "Streams every address matching the same filters as the list endpoint as NDJSON, one address per line, without paging")
+    @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching addresses, one JSON document per line")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<AddressDTO>> exportAddresses(
+            @Parameter(description = "Filter by customer ID") @RequestParam(required = false) String customerId,
+            @Parameter(description = "Filter by city") @RequestParam(required = false) String city,
+            @Parameter(description = "Filter by state") @RequestParam(required = false) String state) {
+
+        Stream<AddressDTO> addresses = addressQuery(customerId)
+                .stream(dataStore.getAddresses()::get, addressFilter(city, state));
+        return ResponseEntity.ok(addresses);
+    }
+
     @Operation(summary = "Get a single address", description = "Retrieves the address by its ID")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Address found"),
@@ -61,7 +91,7 @@ public class AddressController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Address not found with id: " + addressId));
         }
-        return ResponseEntity.ok(ApiResponse.success(address));
+        return responseCache.record("address", EntityType.ADDRESS, addressId, address, () -> ApiResponse.success(address));
     }
 
     @Operation(summary = "Create a new address",
@@ -83,7 +113,7 @@ public class AddressController {
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
 
-        String addressId = "addr-" + UUID.randomUUID().toString().substring(0, 8);
+        String addressId = idGenerator.nextId("addr-");
 
         AddressDTO address = AddressDTO.builder()
                 .addressId(addressId)
@@ -100,15 +130,60 @@ public class AddressController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(address));
     }
 
-    @Operation(summary = "Update an existing address", description = "Updates address details")
+    @Operation(summary = "Create or update addresses in bulk",
+            description = "Accepts a JSON array or NDJSON (application/x-ndjson) of address create requests for the customer "
+                    + "in the X-Customer-Id header. Items with an id replace that address (it must belong to the same customer); "
+                    + "items without one are created. The response reports CREATED, UPDATED or FAILED per item, in request order.")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed; see per-item results"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Customer not found")
+    })
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<?> createAddresses(
+            @Parameter(description = "Customer ID (simulates authenticated user context)", required = true, example = "cust-12345678")
+            @RequestHeader("X-Customer-Id") String customerId,
+            @RequestBody List<BatchItem<CreateAddressRequest>> items) {
+        CustomerDTO customer = dataStore.getCustomer(customerId);
+        if (customer == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        BatchResponse result = batchWriter.write(items, item -> {
+            CreateAddressRequest request = item.getData();
+            AddressDTO existing = item.getId() != null ? dataStore.getAddresses().get(item.getId()) : null;
+            if (existing != null && !customerId.equals(existing.getCustomerId())) {
+                throw new BatchItemException("CONFLICT", "Address " + item.getId() + " belongs to another customer");
+            }
+            return AddressDTO.builder()
+                    .addressId(item.getId() != null ? item.getId() : idGenerator.nextId("addr-"))
+                    .customerId(customerId)
+                    .street(request.getStreet())
+                    .city(request.getCity())
+                    .state(request.getState())
+                    .zipCode(request.getZipCode())
+                    .country(request.getCountry())
+                    .createdAt(existing != null ? existing.getCreatedAt() : now)
+                    .build();
+        }, AddressDTO::getAddressId, dataStore.getAddresses()::containsKey, dataStore::saveAddresses);
+
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @Operation(summary = "Update an existing address", description = "Updates address details. "
+            + "Send the address's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Address updated"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Address not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Address not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Address changed since the ETag in If-Match was read")
     })
     @PutMapping("/{addressId}")
     public ResponseEntity<?> updateAddress(
             @Parameter(description = "Address ID", required = true)
             @PathVariable String addressId,
+            @Parameter(description = "ETag of the address version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateAddressRequest request) {
 
         AddressDTO existing = dataStore.getAddress(addressId);
@@ -116,6 +191,7 @@ public class AddressController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Address not found with id: " + addressId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.ADDRESS, addressId);
 
         AddressDTO updated = AddressDTO.builder()
                 .addressId(addressId)
@@ -128,8 +204,8 @@ public class AddressController {
                 .createdAt(existing.getCreatedAt())
                 .build();
 
-        dataStore.saveAddress(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveAddress(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(summary = "Delete an address", description = "Permanently removes the address")
@@ -150,4 +226,19 @@ public class AddressController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Index lookups for the address list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery addressQuery(String customerId) {
+        return IndexQuery.over(dataStore.getAddressIds())
+                .and(customerId != null ? dataStore.getAddressIdsByCustomer(customerId) : null);
+    }
+
+    /**
+     * Per-record check of the address list filters not guaranteed by the id lookups.
+     */
+    private static Predicate<AddressDTO> addressFilter(String city, String state) {
+        return a -> (city == null || city.equalsIgnoreCase(a.getCity()))
+                && (state == null || state.equalsIgnoreCase(a.getState()));
+    }
 }
@@ -0,0 +1,94 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.tekion.API_Design_Demo.dto.ChangeEventDTO;
+import com.tekion.API_Design_Demo.dto.ChangeFeedResponse;
+import com.tekion.API_Design_Demo.dto.ErrorResponseDTO;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.InvalidPageRequestException;
+import com.tekion.API_Design_Demo.service.changes.ChangeFeed;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Set;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@Tag(name = "Changes", description = "Change feed of every write to the store, for downstream systems that would otherwise poll the list endpoints")
+public class ChangeController {
+
+    private static final int MAX_LIMIT = 1000;
+
+    private final ChangeFeed changeFeed;
+
+    public ChangeController(ChangeFeed changeFeed) {
+        this.changeFeed = changeFeed;
+    }
+
+    @Operation(summary = "Read changes", description = "Returns the changes after a sequence number, oldest first. Without 'after' it returns no events and the latest sequence to start from")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Changes after the given sequence"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "410", description = "The changes after that sequence are no longer retained; reload the data",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping
+    public ResponseEntity<ApiResponse<ChangeFeedResponse>> getChanges(
+            @Parameter(description = "Last sequence number already processed (nextAfter of the previous response)") @RequestParam(required = false) Long after,
+            @Parameter(description = "Only return changes to these collections") @RequestParam(required = false) Set<EntityType> entity,
+            @Parameter(description = "Maximum number of changes to read (1-1000)") @RequestParam(defaultValue = "100") int limit) {
+
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidPageRequestException("limit", "Limit must be between 1 and " + MAX_LIMIT);
+        }
+        long from = position(changeFeed, "after", after);
+        List<ChangeEventDTO> events = changeFeed.read(from, limit);
+        long nextAfter = events.isEmpty() ? from : events.get(events.size() - 1).getSequence();
+        Set<EntityType> entities = entities(entity);
+        List<ChangeEventDTO> matching = events.stream()
+                .filter(event -> entities.isEmpty() || entities.contains(event.getEntity()))
+                .toList();
+        return ResponseEntity.ok(ApiResponse.success(
+                new ChangeFeedResponse(matching, nextAfter, nextAfter < changeFeed.getLatestSequence())));
+    }
+
+    /**
+     * Resolve where a read or stream starts: the given sequence, or the latest one when absent.
+     */
+    static long position(ChangeFeed changeFeed, String field, Long after) {
+        if (after == null) {
+            return changeFeed.getLatestSequence();
+        }
+        if (after < 0) {
+            throw new InvalidPageRequestException(field, "Sequence must not be negative: " + after);
+        }
+        return after;
+    }
+
+    /**
+     * Resolve where a stream starts: Last-Event-ID when an EventSource reconnects, else 'after'.
+     */
+    static long streamPosition(ChangeFeed changeFeed, String lastEventId, Long after) {
+        return lastEventId != null && !lastEventId.isBlank()
+                ? position(changeFeed, "Last-Event-ID", parse(lastEventId))
+                : position(changeFeed, "after", after);
+    }
+
+    private static Long parse(String lastEventId) {
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            throw new InvalidPageRequestException("Last-Event-ID", "Last-Event-ID is not a sequence number: " + lastEventId);
+        }
+    }
+
+    static Set<EntityType> entities(Set<EntityType> entity) {
+        return entity != null ? entity : Set.of();
+    }
+}
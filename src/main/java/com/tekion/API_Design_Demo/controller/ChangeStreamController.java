@@ -0,0 +1,52 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.tekion.API_Design_Demo.dto.ErrorResponseDTO;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.service.changes.ChangeFeed;
+import com.tekion.API_Design_Demo.service.changes.ChangeStream;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Set;
+
+import static com.tekion.API_Design_Demo.controller.ChangeController.entities;
+import static com.tekion.API_Design_Demo.controller.ChangeController.streamPosition;
+
+@RestController
+@RequestMapping("/api/v1/changes")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Tag(name = "Changes")
+public class ChangeStreamController {
+
+    private final ChangeFeed changeFeed;
+    private final ChangeStream changeStream;
+
+    public ChangeStreamController(ChangeFeed changeFeed, ChangeStream changeStream) {
+        this.changeFeed = changeFeed;
+        this.changeStream = changeStream;
+    }
+
+    @Operation(summary = "Stream changes", description = "Opens a Server-Sent Events stream of changes. Each 'change' event has the sequence number as its id, so a reconnecting client resumes with Last-Event-ID. "
+            + "A client that falls too far behind receives an 'evicted' event and is disconnected")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Stream of change events"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "410", description = "The changes after that sequence are no longer retained; reload the data",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
+    })
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamChanges(
+            @Parameter(description = "Sequence number of the last event received; sent by EventSource on reconnect") @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @Parameter(description = "Last sequence number already processed; ignored when Last-Event-ID is present") @RequestParam(required = false) Long after,
+            @Parameter(description = "Only stream changes to these collections") @RequestParam(required = false) Set<EntityType> entity) {
+
+        return changeStream.subscribe(streamPosition(changeFeed, lastEventId, after), entities(entity));
+    }
+}
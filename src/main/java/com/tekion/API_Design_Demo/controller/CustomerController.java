@@ -1,25 +1,38 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.AddressDTO;
+import com.tekion.API_Design_Demo.dto.BatchResponse;
 import com.tekion.API_Design_Demo.dto.CustomerDTO;
 import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ReviewDTO;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
 import com.tekion.API_Design_Demo.dto.request.CreateCustomerRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.InvalidPageRequestException;
+import com.tekion.API_Design_Demo.service.BatchWriter;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
+import com.tekion.API_Design_Demo.service.index.NgramIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/customers")
@@ -27,9 +40,16 @@ import java.util.stream.Collectors;
 public class CustomerController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
+    private final BatchWriter batchWriter;
 
-    public CustomerController(DataStore dataStore) {
+    public CustomerController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache,
+                              BatchWriter batchWriter) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
+        this.batchWriter = batchWriter;
     }
 
     @Operation(summary = "Get all customers", description = "Retrieves a list of all customers with optional filtering")
@@ -40,14 +60,14 @@ public class CustomerController {
     @GetMapping
     public ResponseEntity<?> getAllCustomers(
             @Parameter(description = "Filter by name (partial match)") @RequestParam(required = false) String name,
-            @Parameter(description = "Filter by email (partial match)") @RequestParam(required = false) String email) {
+            @Parameter(description = "Filter by email (partial match)") @RequestParam(required = false) String email,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<CustomerDTO> customers = dataStore.getCustomers().values().stream()
-                .filter(c -> name == null || (c.getName() != null && c.getName().toLowerCase().contains(name.toLowerCase())))
-                .filter(c -> email == null || (c.getEmail() != null && c.getEmail().toLowerCase().contains(email.toLowerCase())))
-                .collect(Collectors.toList());
+        PagedResponse<CustomerDTO> customers = customerQuery(name, email)
+                .page(dataStore.getCustomers()::get, customerFilter(name, email), cursor, limit);
 
-        if (customers.isEmpty()) {
+        if (cursor == null && customers.getData().isEmpty()) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "No customers found"));
         }
@@ -55,6 +75,39 @@ public class CustomerController {
         return ResponseEntity.ok(ApiResponse.success(customers));
     }
 
+    @Operation(summary = "Export customers", description = "Streams every customer matching the same filters as the list endpoint as NDJSON, one customer per line, without paging")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching customers, one JSON document per line (empty if none match)")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<CustomerDTO>> exportCustomers(
+            @Parameter(description = "Filter by name (partial match)") @RequestParam(required = false) String name,
+            @Parameter(description = "Filter by email (partial match)") @RequestParam(required = false) String email) {
+
+        Stream<CustomerDTO> customers = customerQuery(name, email)
+                .stream(dataStore.getCustomers()::get, customerFilter(name, email));
+        return ResponseEntity.ok(customers);
+    }
+
+    @Operation(summary = "Search customers",
+            description = "Typeahead search: customers whose name or email contains the text, ignoring case. "
+                    + "Names and then emails starting with the text come first, in alphabetical order")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching customers (empty if none match)")
+    })
+    @GetMapping("/search")
+    public ResponseEntity<?> searchCustomers(
+            @Parameter(description = "Text typed so far", required = true, example = "jo")
+            @RequestParam String query,
+            @Parameter(description = "Maximum number of results to return (1-100)") @RequestParam(defaultValue = "10") int limit) {
+
+        if (limit < 1 || limit > KeysetPaginator.MAX_LIMIT) {
+            throw new InvalidPageRequestException("limit", "Limit must be between 1 and " + KeysetPaginator.MAX_LIMIT);
+        }
+        return responseCache.collection("customer-search",
+                () -> ApiResponse.success(dataStore.searchCustomers(query, limit)), EntityType.CUSTOMER);
+    }
+
     @Operation(summary = "Get customer by ID", description = "Retrieves a customer by their unique identifier")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Customer found"),
@@ -69,7 +122,7 @@ public class CustomerController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
-        return ResponseEntity.ok(ApiResponse.success(customer));
+        return responseCache.record("customer", EntityType.CUSTOMER, customerId, customer, () -> ApiResponse.success(customer));
     }
 
     @Operation(summary = "Create a new customer", description = "Creates a new customer record")
@@ -81,7 +134,7 @@ public class CustomerController {
     public ResponseEntity<ApiResponse<CustomerDTO>> createCustomer(
             @Valid @RequestBody CreateCustomerRequest request) {
 
-        String customerId = "cust-" + UUID.randomUUID().toString().substring(0, 8);
+        String customerId = idGenerator.nextId("cust-");
         LocalDateTime now = LocalDateTime.now();
 
         CustomerDTO customer = CustomerDTO.builder()
@@ -97,15 +150,44 @@ public class CustomerController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(customer));
     }
 
-    @Operation(summary = "Update a customer", description = "Updates an existing customer by ID")
+    @Operation(summary = "Create or update customers in bulk",
+            description = "Accepts a JSON array or NDJSON (application/x-ndjson) of customer create requests. "
+                    + "Items with an id replace that customer (or create it under that id); items without one are created. "
+                    + "The response reports CREATED, UPDATED or FAILED per item, in request order.")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<BatchResponse>> createCustomers(
+            @RequestBody List<BatchItem<CreateCustomerRequest>> items) {
+
+        LocalDateTime now = LocalDateTime.now();
+        BatchResponse result = batchWriter.write(items, item -> {
+            CreateCustomerRequest request = item.getData();
+            CustomerDTO existing = item.getId() != null ? dataStore.getCustomers().get(item.getId()) : null;
+            return CustomerDTO.builder()
+                    .customerId(item.getId() != null ? item.getId() : idGenerator.nextId("cust-"))
+                    .name(request.getName())
+                    .email(request.getEmail())
+                    .phone(request.getPhone())
+                    .createdAt(existing != null ? existing.getCreatedAt() : now)
+                    .updatedAt(now)
+                    .build();
+        }, CustomerDTO::getCustomerId, dataStore.getCustomers()::containsKey, dataStore::saveCustomers);
+
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @Operation(summary = "Update a customer", description = "Updates an existing customer by ID. "
+            + "Send the customer's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Customer updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Customer not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Customer not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Customer changed since the ETag in If-Match was read")
     })
     @PutMapping("/{customerId}")
     public ResponseEntity<?> updateCustomer(
             @Parameter(description = "Unique identifier of the customer to update", required = true)
             @PathVariable String customerId,
+            @Parameter(description = "ETag of the customer version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateCustomerRequest request) {
 
         CustomerDTO existing = dataStore.getCustomer(customerId);
@@ -113,6 +195,7 @@ public class CustomerController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.CUSTOMER, customerId);
 
         CustomerDTO updated = CustomerDTO.builder()
                 .customerId(customerId)
@@ -123,8 +206,8 @@ public class CustomerController {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        dataStore.saveCustomer(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveCustomer(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(summary = "Delete a customer", description = "Deletes a customer by ID")
@@ -149,7 +232,9 @@ public class CustomerController {
     @GetMapping("/{customerId}/orders")
     public ResponseEntity<?> getCustomerOrders(
             @Parameter(description = "Unique identifier of the customer", required = true)
-            @PathVariable String customerId) {
+            @PathVariable String customerId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         CustomerDTO customer = dataStore.getCustomer(customerId);
         if (customer == null) {
@@ -157,9 +242,8 @@ public class CustomerController {
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
 
-        List<OrderDTO> orders = dataStore.getOrders().values().stream()
-                .filter(o -> customerId.equals(o.getCustomerId()))
-                .collect(Collectors.toList());
+        PagedResponse<OrderDTO> orders = KeysetPaginator.page(
+                dataStore.getOrderIdsByCustomer(customerId), dataStore.getOrders()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
@@ -168,7 +252,9 @@ public class CustomerController {
     @GetMapping("/{customerId}/addresses")
     public ResponseEntity<?> getCustomerAddresses(
             @Parameter(description = "Unique identifier of the customer", required = true)
-            @PathVariable String customerId) {
+            @PathVariable String customerId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         CustomerDTO customer = dataStore.getCustomer(customerId);
         if (customer == null) {
@@ -176,9 +262,8 @@ public class CustomerController {
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
 
-        List<AddressDTO> addresses = dataStore.getAddresses().values().stream()
-                .filter(a -> customerId.equals(a.getCustomerId()))
-                .collect(Collectors.toList());
+        PagedResponse<AddressDTO> addresses = KeysetPaginator.page(
+                dataStore.getAddressIdsByCustomer(customerId), dataStore.getAddresses()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(addresses));
     }
@@ -187,7 +272,9 @@ public class CustomerController {
     @GetMapping("/{customerId}/reviews")
     public ResponseEntity<?> getCustomerReviews(
             @Parameter(description = "Unique identifier of the customer", required = true)
-            @PathVariable String customerId) {
+            @PathVariable String customerId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         CustomerDTO customer = dataStore.getCustomer(customerId);
         if (customer == null) {
@@ -195,10 +282,29 @@ public class CustomerController {
                     .body(ApiResponse.error("NOT_FOUND", "Customer not found with id: " + customerId));
         }
 
-        List<ReviewDTO> reviews = dataStore.getReviews().values().stream()
-                .filter(r -> customerId.equals(r.getCustomerId()))
-                .collect(Collectors.toList());
+        PagedResponse<ReviewDTO> reviews = KeysetPaginator.page(
+                dataStore.getReviewIdsByCustomer(customerId), dataStore.getReviews()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(reviews));
     }
+
+    /**
+     * Per-record check of the customer list filters, shared by the list and export endpoints.
+     */
+    /**
+     * Index lookups for the customer list filters, shared by the list and export endpoints.
+     * Searches shorter than a trigram are not narrowed and fall back to checking each record.
+     */
+    private IndexQuery customerQuery(String name, String email) {
+        return IndexQuery.over(dataStore.getCustomerIds())
+                .andAll(name != null ? dataStore.getCustomerIdsByNameSubstring(name) : null)
+                .andAll(email != null ? dataStore.getCustomerIdsByEmailSubstring(email) : null);
+    }
+
+    private static Predicate<CustomerDTO> customerFilter(String name, String email) {
+        String foldedName = NgramIndex.normalize(name);
+        String foldedEmail = NgramIndex.normalize(email);
+        return c -> (foldedName == null || (c.getName() != null && NgramIndex.normalize(c.getName()).contains(foldedName)))
+                && (foldedEmail == null || (c.getEmail() != null && NgramIndex.normalize(c.getEmail()).contains(foldedEmail)));
+    }
 }
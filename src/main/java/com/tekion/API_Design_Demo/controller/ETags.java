@@ -0,0 +1,45 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.Versioned;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
+
+/**
+ * ETag and If-Match handling for versioned records.
+ * A record's ETag is its DataStore version as a strong entity tag, e.g. {@code "3"};
+ * read responses add their projection and content coding to it (see {@link ResponseCache}).
+ */
+final class ETags {
+
+    private ETags() {
+    }
+
+    /**
+     * Get the ETag of a record.
+     */
+    static String of(Versioned record) {
+        return ResponseCache.etag(record);
+    }
+
+    /**
+     * Get the version an update must be applied to, from the request's If-Match header.
+     * Returns null when there is no If-Match (the update is unconditional), and the current
+     * version when it is {@code *} or lists an ETag of the record's current version, of
+     * any representation. Weak tags never match.
+     *
+     * @throws VersionConflictException if If-Match does not list the record's current ETag
+     */
+    static Long expectedVersion(String ifMatch, Versioned current, EntityType entity, String id) {
+        if (ifMatch == null) {
+            return null;
+        }
+        for (String tag : ifMatch.split(",")) {
+            String trimmed = tag.trim();
+            if (trimmed.equals("*") || ResponseCache.isCurrent(trimmed, current)) {
+                return current.getVersion();
+            }
+        }
+        throw new VersionConflictException(entity, id, current.getVersion());
+    }
+}
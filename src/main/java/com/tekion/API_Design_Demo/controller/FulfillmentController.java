@@ -1,24 +1,31 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
 import com.tekion.API_Design_Demo.dto.FulfillmentDTO.FulfillmentStatus;
 import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.request.CreateFulfillmentRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/fulfillments")
@@ -26,9 +33,13 @@ import java.util.stream.Collectors;
 public class FulfillmentController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
 
-    public FulfillmentController(DataStore dataStore) {
+    public FulfillmentController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
     }
 
     @Operation(
@@ -39,18 +50,35 @@ public class FulfillmentController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved fulfillments")
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<FulfillmentDTO>>> getFulfillments(
+    public ResponseEntity<ApiResponse<PagedResponse<FulfillmentDTO>>> getFulfillments(
             @Parameter(description = "Filter by order ID") @RequestParam(required = false) String orderId,
-            @Parameter(description = "Filter by status") @RequestParam(required = false) FulfillmentStatus status) {
+            @Parameter(description = "Filter by status") @RequestParam(required = false) FulfillmentStatus status,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<FulfillmentDTO> fulfillments = dataStore.getFulfillments().values().stream()
-                .filter(f -> orderId == null || orderId.equals(f.getOrderId()))
-                .filter(f -> status == null || status.equals(f.getStatus()))
-                .collect(Collectors.toList());
+        PagedResponse<FulfillmentDTO> fulfillments = fulfillmentQuery(orderId, status)
+                .page(dataStore.getFulfillments()::get, fulfillmentFilter(status), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(fulfillments));
     }
 
+    @Operation(
+            summary = "Export fulfillments",
+            description = "Streams every fulfillment matching the same filters as the list endpoint as NDJSON, one fulfillment per line, without paging."
+    )
+    @ApiResponses({
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching fulfillments, one JSON document per line")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<FulfillmentDTO>> exportFulfillments(
+            @Parameter(description = "Filter by order ID") @RequestParam(required = false) String orderId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) FulfillmentStatus status) {
+
+        Stream<FulfillmentDTO> fulfillments = fulfillmentQuery(orderId, status)
+                .stream(dataStore.getFulfillments()::get, fulfillmentFilter(status));
+        return ResponseEntity.ok(fulfillments);
+    }
+
     @Operation(
             summary = "Get fulfillment by ID",
             description = "Retrieves a single fulfillment by its unique identifier"
@@ -69,7 +97,7 @@ public class FulfillmentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Fulfillment not found with id: " + fulfillmentId));
         }
-        return ResponseEntity.ok(ApiResponse.success(fulfillment));
+        return responseCache.record("fulfillment", EntityType.FULFILLMENT, fulfillmentId, fulfillment, () -> ApiResponse.success(fulfillment));
     }
 
     @Operation(
@@ -89,7 +117,7 @@ public class FulfillmentController {
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + request.getOrderId()));
         }
 
-        String fulfillmentId = "ful-" + UUID.randomUUID().toString().substring(0, 8);
+        String fulfillmentId = idGenerator.nextId("ful-");
         LocalDateTime now = LocalDateTime.now();
 
         FulfillmentDTO fulfillment = new FulfillmentDTO();
@@ -105,28 +133,39 @@ public class FulfillmentController {
 
     @Operation(
             summary = "Update fulfillment status",
-            description = "Updates the status of a fulfillment"
+            description = "Updates the status of a fulfillment. "
+                    + "Send the fulfillment's ETag in If-Match to update only if nobody has changed it since it was read"
     )
     @ApiResponses({
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Fulfillment updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Fulfillment not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Fulfillment not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Fulfillment changed since the ETag in If-Match was read")
     })
     @PatchMapping("/{fulfillmentId}/status")
     public ResponseEntity<?> updateFulfillmentStatus(
             @Parameter(description = "Fulfillment ID", required = true) @PathVariable String fulfillmentId,
-            @Parameter(description = "New status", required = true) @RequestParam FulfillmentStatus status) {
+            @Parameter(description = "New status", required = true) @RequestParam FulfillmentStatus status,
+            @Parameter(description = "ETag of the fulfillment version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         FulfillmentDTO existing = dataStore.getFulfillment(fulfillmentId);
         if (existing == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Fulfillment not found with id: " + fulfillmentId));
         }
-
-        existing.setStatus(status);
-        existing.setUpdatedAt(LocalDateTime.now());
-        dataStore.saveFulfillment(existing);
-
-        return ResponseEntity.ok(ApiResponse.success(existing));
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.FULFILLMENT, fulfillmentId);
+
+        // Save a copy so the store can tell the previous status from the new one
+        FulfillmentDTO updated = FulfillmentDTO.builder()
+                .fulfillmentId(existing.getFulfillmentId())
+                .orderId(existing.getOrderId())
+                .status(status)
+                .createdAt(existing.getCreatedAt())
+                .updatedAt(LocalDateTime.now())
+                .build();
+        dataStore.saveFulfillment(updated, expectedVersion);
+
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(
@@ -135,7 +174,9 @@ public class FulfillmentController {
     )
     @GetMapping("/order/{orderId}")
     public ResponseEntity<?> getFulfillmentsByOrder(
-            @Parameter(description = "Order ID", required = true) @PathVariable String orderId) {
+            @Parameter(description = "Order ID", required = true) @PathVariable String orderId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         OrderDTO order = dataStore.getOrder(orderId);
         if (order == null) {
@@ -143,9 +184,8 @@ public class FulfillmentController {
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
         }
 
-        List<FulfillmentDTO> fulfillments = dataStore.getFulfillments().values().stream()
-                .filter(f -> orderId.equals(f.getOrderId()))
-                .collect(Collectors.toList());
+        PagedResponse<FulfillmentDTO> fulfillments = KeysetPaginator.page(
+                dataStore.getFulfillmentIdsByOrder(orderId), dataStore.getFulfillments()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(fulfillments));
     }
@@ -171,4 +211,20 @@ public class FulfillmentController {
         dataStore.deleteFulfillment(fulfillmentId);
         return ResponseEntity.noContent().build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Index lookups for the fulfillment list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery fulfillmentQuery(String orderId, FulfillmentStatus status) {
+        return IndexQuery.over(dataStore.getFulfillmentIds())
+                .and(orderId != null ? dataStore.getFulfillmentIdsByOrder(orderId) : null)
+                .and(status != null ? dataStore.getFulfillmentIdsByStatus(status) : null);
+    }
+
+    /**
+     * Per-record check of the fulfillment list filters not guaranteed by the id lookups.
+     */
+    private static Predicate<FulfillmentDTO> fulfillmentFilter(FulfillmentStatus status) {
+        return f -> status == null || status.equals(f.getStatus());
+    }
+}
@@ -1,15 +1,26 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.BatchResponse;
 import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ProductDTO;
 import com.tekion.API_Design_Demo.dto.request.AdjustQuantityRequest;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
 import com.tekion.API_Design_Demo.dto.request.CreateInventoryRequest;
 import com.tekion.API_Design_Demo.dto.request.RestockRequest;
 import com.tekion.API_Design_Demo.dto.request.UpdateInventoryRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
 import com.tekion.API_Design_Demo.dto.response.ErrorResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
 import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.exception.BatchItemException;
+import com.tekion.API_Design_Demo.exception.InventoryMutationException;
+import com.tekion.API_Design_Demo.service.BatchWriter;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -17,14 +28,20 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 /**
  * REST Controller for Inventory management operations.
@@ -36,9 +53,16 @@ import java.util.stream.Collectors;
 public class InventoryController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
+    private final BatchWriter batchWriter;
 
-    public InventoryController(DataStore dataStore) {
+    public InventoryController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache,
+                               BatchWriter batchWriter) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
+        this.batchWriter = batchWriter;
     }
 
     /**
@@ -47,25 +71,47 @@ public class InventoryController {
     @GetMapping
     @Operation(
         summary = "List all inventory",
-        description = "Retrieves a list of all inventory records. Supports filtering by warehouse ID, product ID, and inventory status."
+        description = "Retrieves a cursor-paginated list of inventory records. Supports filtering by warehouse ID, product ID, and inventory status."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved inventory list")
     })
-    public ResponseEntity<ApiResponse<List<InventoryDTO>>> listInventory(
+    public ResponseEntity<ApiResponse<PagedResponse<InventoryDTO>>> listInventory(
             @Parameter(description = "Filter by warehouse ID") @RequestParam(required = false) String warehouseId,
             @Parameter(description = "Filter by product ID") @RequestParam(required = false) String productId,
-            @Parameter(description = "Filter by inventory status") @RequestParam(required = false) String status
+            @Parameter(description = "Filter by inventory status") @RequestParam(required = false) String status,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit
     ) {
-        List<InventoryDTO> inventoryList = dataStore.getInventory().values().stream()
-                .filter(inv -> warehouseId == null || warehouseId.equals(inv.getWarehouseId()))
-                .filter(inv -> productId == null || productId.equals(inv.getProductId()))
-                .filter(inv -> status == null || (inv.getStatus() != null && status.equalsIgnoreCase(inv.getStatus().name())))
-                .collect(Collectors.toList());
+
+        PagedResponse<InventoryDTO> inventoryList = inventoryQuery(warehouseId, productId, status)
+                .page(dataStore.getInventory()::get, inventoryFilter(warehouseId, status), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(inventoryList));
     }
 
+    /**
+     * Stream all inventory records matching the list filters as NDJSON.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Export inventory",
+        description = "Streams every inventory record matching the same filters as the list endpoint as NDJSON, one record per line, without paging. " +
+                      "Records are written as they are read, so memory use does not grow with the size of the export."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching inventory records, one JSON document per line")
+    })
+    public ResponseEntity<Stream<InventoryDTO>> exportInventory(
+            @Parameter(description = "Filter by warehouse ID") @RequestParam(required = false) String warehouseId,
+            @Parameter(description = "Filter by product ID") @RequestParam(required = false) String productId,
+            @Parameter(description = "Filter by inventory status") @RequestParam(required = false) String status
+    ) {
+        Stream<InventoryDTO> inventory = inventoryQuery(warehouseId, productId, status)
+                .stream(dataStore.getInventory()::get, inventoryFilter(warehouseId, status));
+        return ResponseEntity.ok(inventory);
+    }
+
     /**
      * Get inventory details by ID.
      */
@@ -99,7 +145,7 @@ public class InventoryController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
         }
-        return ResponseEntity.ok(ApiResponse.success(inventory));
+        return responseCache.record("inventory", EntityType.INVENTORY, inventoryId, inventory, () -> ApiResponse.success(inventory));
     }
 
     /**
@@ -131,7 +177,9 @@ public class InventoryController {
     })
     public ResponseEntity<?> getInventoryByProduct(
             @Parameter(description = "Product ID", required = true, example = "prod-123e4567-e89b-12d3-a456-426614174000")
-            @PathVariable String productId
+            @PathVariable String productId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit
     ) {
         // Validate product exists
         ProductDTO product = dataStore.getProduct(productId);
@@ -140,9 +188,8 @@ public class InventoryController {
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
         }
 
-        List<InventoryDTO> inventoryList = dataStore.getInventory().values().stream()
-                .filter(inv -> productId.equals(inv.getProductId()))
-                .collect(Collectors.toList());
+        PagedResponse<InventoryDTO> inventoryList = KeysetPaginator.page(
+                dataStore.getInventoryIdsByProduct(productId), dataStore.getInventory()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(inventoryList));
     }
@@ -155,7 +202,7 @@ public class InventoryController {
         summary = "Get low stock items",
         description = "Retrieves all inventory records where the available quantity is at or below the configured low stock threshold. " +
                       "This endpoint is useful for generating reorder alerts and identifying items that need restocking. " +
-                      "Results can be filtered by warehouse and are paginated for large datasets."
+                      "Results can be filtered by warehouse and are cursor-paginated for large datasets."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -168,30 +215,26 @@ public class InventoryController {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
             responseCode = "400",
             description = "Bad Request - Invalid request parameters. Possible causes:\n" +
-                          "• 'page' parameter is negative (must be >= 0)\n" +
-                          "• 'size' parameter is less than 1 or greater than 100\n" +
+                          "• 'cursor' parameter is not a nextCursor value returned by a previous page\n" +
+                          "• 'limit' parameter is less than 1 or greater than 100\n" +
                           "• Invalid 'warehouseId' format",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
         )
     })
-    public ResponseEntity<ApiResponse<List<InventoryDTO>>> getLowStockItems(
+    public ResponseEntity<ApiResponse<PagedResponse<InventoryDTO>>> getLowStockItems(
             @Parameter(description = "Filter by warehouse ID", example = "wh-987fcdeb-51a2-3bc4-d567-890123456789")
             @RequestParam(required = false) String warehouseId,
-            @Parameter(description = "Page number (0-based)", example = "0")
-            @RequestParam(defaultValue = "0") int page,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page")
+            @RequestParam(required = false) String cursor,
             @Parameter(description = "Page size", example = "20")
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int limit
     ) {
-        List<InventoryDTO> lowStockItems = dataStore.getInventory().values().stream()
-                .filter(inv -> warehouseId == null || warehouseId.equals(inv.getWarehouseId()))
-                .filter(inv -> {
-                    int available = inv.getAvailableQuantity() != null ? inv.getAvailableQuantity() : 0;
-                    int threshold = inv.getLowStockThreshold() != null ? inv.getLowStockThreshold() : 10;
-                    return available <= threshold;
-                })
-                .skip((long) page * size)
-                .limit(size)
-                .collect(Collectors.toList());
+        // The low stock set is kept up to date on every inventory write, so a page reads only the items it returns
+        NavigableSet<String> ids = warehouseId != null
+                ? dataStore.getLowStockInventoryIdsByWarehouse(warehouseId)
+                : dataStore.getLowStockInventoryIds();
+
+        PagedResponse<InventoryDTO> lowStockItems = KeysetPaginator.page(ids, dataStore.getInventory()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(lowStockItems));
     }
@@ -249,22 +292,12 @@ public class InventoryController {
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + request.getProductId()));
         }
 
-        String inventoryId = "inv-" + UUID.randomUUID().toString().substring(0, 8);
+        String inventoryId = idGenerator.nextId("inv-");
         LocalDateTime now = LocalDateTime.now();
 
         int quantity = request.getQuantity() != null ? request.getQuantity() : 0;
         int lowStockThreshold = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : 10;
 
-        // Determine status based on quantity
-        InventoryStatus status;
-        if (quantity == 0) {
-            status = InventoryStatus.OUT_OF_STOCK;
-        } else if (quantity <= lowStockThreshold) {
-            status = InventoryStatus.LOW_STOCK;
-        } else {
-            status = InventoryStatus.IN_STOCK;
-        }
-
         InventoryDTO inventory = InventoryDTO.builder()
                 .id(inventoryId)
                 .productId(request.getProductId())
@@ -274,7 +307,7 @@ public class InventoryController {
                 .availableQuantity(quantity)
                 .lowStockThreshold(lowStockThreshold)
                 .maxCapacity(request.getMaxCapacity())
-                .status(status)
+                .status(InventoryStatus.forAvailableQuantity(quantity, lowStockThreshold))
                 .sku(request.getSku())
                 .batchNumber(request.getBatchNumber())
                 .unit(request.getUnit())
@@ -287,6 +320,54 @@ public class InventoryController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(inventory, "Inventory record created successfully"));
     }
 
+    /**
+     * Create or update inventory records in bulk.
+     */
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @Operation(
+        summary = "Create or update inventory in bulk",
+        description = "Accepts a JSON array or NDJSON (application/x-ndjson) of inventory create requests. " +
+                      "Items with an id replace that record (keeping its reserved quantity and restock time) or create it under that id; " +
+                      "items without one are created. Every item is validated on its own; items referencing an unknown product, " +
+                      "with a quantity below the reserved units or above their max capacity fail. " +
+                      "A batch with more items than http.batch.max-items, or with two items for the same id, is rejected with 400. " +
+                      "All valid items are saved in one batch; the response reports CREATED, UPDATED or FAILED per item, in request order."
+    )
+    @ApiResponses(value = {
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Batch processed; see per-item results")
+    })
+    public ResponseEntity<ApiResponse<BatchResponse>> createInventoryBatch(
+            @RequestBody List<BatchItem<CreateInventoryRequest>> items
+    ) {
+        LocalDateTime now = LocalDateTime.now();
+        // Items that replaced a stored record; those are saved already
+        Set<String> replaced = new HashSet<>();
+        BatchResponse result = batchWriter.write(items, item -> {
+            CreateInventoryRequest request = item.getData();
+            if (!dataStore.getProducts().containsKey(request.getProductId())) {
+                throw new BatchItemException("NOT_FOUND", "Product not found with id: " + request.getProductId());
+            }
+            try {
+                if (item.getId() != null) {
+                    // Merged under the record's lock, so reservations and adjustments made meanwhile are kept
+                    InventoryDTO updated = dataStore.computeInventory(item.getId(),
+                            existing -> batchInventory(item.getId(), request, existing, now));
+                    if (updated != null) {
+                        replaced.add(updated.getId());
+                        return updated;
+                    }
+                }
+                return batchInventory(item.getId() != null ? item.getId() : idGenerator.nextId("inv-"), request, null, now);
+            } catch (InventoryMutationException ex) {
+                throw new BatchItemException(ex.getCode(), ex.getMessage());
+            }
+        }, InventoryDTO::getId, replaced::contains, records -> dataStore.saveInventoryBatch(records.stream()
+                .filter(record -> !replaced.contains(record.getId()))
+                .toList()));
+
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
     /**
      * Update an existing inventory record.
      */
@@ -295,7 +376,9 @@ public class InventoryController {
         summary = "Update inventory",
         description = "Updates an existing inventory record with the provided fields. " +
                       "Only non-null fields in the request will be updated. " +
-                      "Use this endpoint to modify warehouse location, quantities, thresholds, or status."
+                      "Use this endpoint to modify warehouse location, quantity, thresholds, or status. " +
+                      "The reserved quantity is kept: only order reservations change it. " +
+                      "Send the record's ETag in If-Match to update only if nobody has changed it since it was read."
     )
     @ApiResponses(value = {
         @io.swagger.v3.oas.annotations.responses.ApiResponse(
@@ -307,7 +390,7 @@ public class InventoryController {
             responseCode = "400",
             description = "Bad Request - Invalid request body. Possible causes:\n" +
                           "• Invalid 'quantity' value: Must be a non-negative integer (>= 0)\n" +
-                          "• Invalid 'reservedQuantity': Cannot exceed total quantity\n" +
+                          "• Quantity below the reserved units: Units held for pending orders cannot be removed (BELOW_RESERVED)\n" +
                           "• Invalid 'lowStockThreshold': Must be a non-negative integer\n" +
                           "• Invalid 'maxCapacity': Must be greater than current quantity\n" +
                           "• Invalid 'status': Must be one of: IN_STOCK, OUT_OF_STOCK, LOW_STOCK, RESERVED, BACKORDERED, DISCONTINUED, IN_TRANSIT\n" +
@@ -321,11 +404,19 @@ public class InventoryController {
                           "• The inventory record may have been deleted\n" +
                           "• Verify the inventoryId format: inv-xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx",
             content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
+        ),
+        @io.swagger.v3.oas.annotations.responses.ApiResponse(
+            responseCode = "412",
+            description = "Precondition Failed - The record changed since the ETag in If-Match was read. " +
+                          "Solution: Fetch the record again and retry with its current ETag",
+            content = @Content(mediaType = "application/json", schema = @Schema(implementation = ErrorResponse.class))
         )
     })
     public ResponseEntity<?> updateInventory(
             @Parameter(description = "Inventory record ID", required = true, example = "inv-123e4567-e89b-12d3-a456-426614174000")
             @PathVariable String inventoryId,
+            @Parameter(description = "ETag of the inventory record version this update is based on", example = "\"3\"")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @io.swagger.v3.oas.annotations.parameters.RequestBody(
                 description = "Inventory update request",
                 required = true,
@@ -333,51 +424,62 @@ public class InventoryController {
             )
             @Valid @RequestBody UpdateInventoryRequest request
     ) {
-        InventoryDTO existing = dataStore.getInventoryItem(inventoryId);
-        if (existing == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
+        // Read, validate and write happen in one atomic step, so reservations and
+        // adjustments committed since the client read the record are never overwritten
+        InventoryDTO updated;
+        try {
+            updated = dataStore.computeInventory(inventoryId, existing -> {
+                ETags.expectedVersion(ifMatch, existing, EntityType.INVENTORY, inventoryId);
+
+                // Update only non-null fields from request
+                int quantity = request.getQuantity() != null ? request.getQuantity() : existing.getQuantity();
+                int reservedQuantity = existing.getReservedQuantity() != null ? existing.getReservedQuantity() : 0;
+                int availableQuantity = quantity - reservedQuantity;
+                int lowStockThreshold = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : existing.getLowStockThreshold();
+                Integer maxCapacity = request.getMaxCapacity() != null ? request.getMaxCapacity() : existing.getMaxCapacity();
+
+                if (quantity < reservedQuantity) {
+                    throw belowReserved(quantity, reservedQuantity);
+                }
+                if (maxCapacity != null && quantity > maxCapacity) {
+                    throw new InventoryMutationException("EXCEEDS_CAPACITY",
+                            "Quantity " + quantity + " would exceed max capacity: " + maxCapacity);
+                }
+
+                // Derive status from the available quantity if not explicitly set
+                InventoryStatus status = request.getStatus() != null
+                        ? request.getStatus()
+                        : InventoryStatus.forAvailableQuantity(availableQuantity, lowStockThreshold);
+
+                return InventoryDTO.builder()
+                        .id(inventoryId)
+                        .productId(existing.getProductId())
+                        .warehouseId(request.getWarehouseId() != null ? request.getWarehouseId() : existing.getWarehouseId())
+                        .quantity(quantity)
+                        .reservedQuantity(reservedQuantity)
+                        .availableQuantity(availableQuantity)
+                        .lowStockThreshold(lowStockThreshold)
+                        .maxCapacity(maxCapacity)
+                        .status(status)
+                        .sku(request.getSku() != null ? request.getSku() : existing.getSku())
+                        .batchNumber(request.getBatchNumber() != null ? request.getBatchNumber() : existing.getBatchNumber())
+                        .unit(request.getUnit() != null ? request.getUnit() : existing.getUnit())
+                        .unitCost(request.getUnitCost() != null ? request.getUnitCost() : existing.getUnitCost())
+                        .createdAt(existing.getCreatedAt())
+                        .updatedAt(LocalDateTime.now())
+                        .lastRestockedAt(existing.getLastRestockedAt())
+                        .build();
+            });
+        } catch (InventoryMutationException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
         }
 
-        // Update only non-null fields from request
-        int quantity = request.getQuantity() != null ? request.getQuantity() : existing.getQuantity();
-        int reservedQuantity = request.getReservedQuantity() != null ? request.getReservedQuantity() : existing.getReservedQuantity();
-        int availableQuantity = quantity - reservedQuantity;
-        int lowStockThreshold = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : existing.getLowStockThreshold();
-
-        // Determine status based on quantity if not explicitly set
-        InventoryStatus status = request.getStatus();
-        if (status == null) {
-            if (availableQuantity == 0) {
-                status = InventoryStatus.OUT_OF_STOCK;
-            } else if (availableQuantity <= lowStockThreshold) {
-                status = InventoryStatus.LOW_STOCK;
-            } else {
-                status = InventoryStatus.IN_STOCK;
-            }
+        if (updated == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
         }
-
-        InventoryDTO updated = InventoryDTO.builder()
-                .id(inventoryId)
-                .productId(existing.getProductId())
-                .warehouseId(request.getWarehouseId() != null ? request.getWarehouseId() : existing.getWarehouseId())
-                .quantity(quantity)
-                .reservedQuantity(reservedQuantity)
-                .availableQuantity(availableQuantity)
-                .lowStockThreshold(lowStockThreshold)
-                .maxCapacity(request.getMaxCapacity() != null ? request.getMaxCapacity() : existing.getMaxCapacity())
-                .status(status)
-                .sku(request.getSku() != null ? request.getSku() : existing.getSku())
-                .batchNumber(request.getBatchNumber() != null ? request.getBatchNumber() : existing.getBatchNumber())
-                .unit(request.getUnit() != null ? request.getUnit() : existing.getUnit())
-                .unitCost(request.getUnitCost() != null ? request.getUnitCost() : existing.getUnitCost())
-                .createdAt(existing.getCreatedAt())
-                .updatedAt(LocalDateTime.now())
-                .lastRestockedAt(existing.getLastRestockedAt())
-                .build();
-
-        dataStore.saveInventory(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated, "Inventory updated successfully"));
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated, "Inventory updated successfully"));
     }
 
     /**
@@ -402,6 +504,7 @@ public class InventoryController {
                           "• Missing required field: 'adjustment' - The quantity change value is required\n" +
                           "• Missing required field: 'reason' - A reason for the adjustment must be provided\n" +
                           "• Adjustment would result in negative quantity: Current quantity is less than the subtraction amount\n" +
+                          "• Adjustment would take reserved units: Units held for pending orders cannot be removed (BELOW_RESERVED)\n" +
                           "• Adjustment would exceed max capacity: New quantity would exceed the warehouse maximum capacity\n" +
                           "• Invalid 'adjustmentType': Must be one of: SALE, RETURN, DAMAGE, CORRECTION, TRANSFER, OTHER\n" +
                           "• Zero adjustment not allowed: The adjustment value cannot be 0",
@@ -426,61 +529,62 @@ public class InventoryController {
             )
             @Valid @RequestBody AdjustQuantityRequest request
     ) {
-        InventoryDTO existing = dataStore.getInventoryItem(inventoryId);
-        if (existing == null) {
-            return ResponseEntity.status(HttpStatus.NOT_FOUND)
-                    .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
-        }
-
         int adjustment = request.getAdjustment() != null ? request.getAdjustment() : 0;
-        int newQuantity = existing.getQuantity() + adjustment;
-
-        // Validate that new quantity is not negative
-        if (newQuantity < 0) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error("INVALID_ADJUSTMENT", "Adjustment would result in negative quantity. Current: " + existing.getQuantity() + ", Adjustment: " + adjustment));
-        }
 
-        // Check max capacity if set
-        if (existing.getMaxCapacity() != null && newQuantity > existing.getMaxCapacity()) {
+        // Read, validate and write happen in one atomic step so concurrent adjustments are never lost
+        InventoryDTO updated;
+        try {
+            updated = dataStore.computeInventory(inventoryId, existing -> {
+                int newQuantity = existing.getQuantity() + adjustment;
+
+                // Validate that new quantity is not negative
+                if (newQuantity < 0) {
+                    throw new InventoryMutationException("INVALID_ADJUSTMENT",
+                            "Adjustment would result in negative quantity. Current: " + existing.getQuantity() + ", Adjustment: " + adjustment);
+                }
+
+                // Units held for pending orders cannot be taken out of stock
+                if (newQuantity < existing.getReservedQuantity()) {
+                    throw belowReserved(newQuantity, existing.getReservedQuantity());
+                }
+
+                // Check max capacity if set
+                if (existing.getMaxCapacity() != null && newQuantity > existing.getMaxCapacity()) {
+                    throw new InventoryMutationException("EXCEEDS_CAPACITY",
+                            "Adjustment would exceed max capacity: " + existing.getMaxCapacity());
+                }
+
+                int availableQuantity = newQuantity - existing.getReservedQuantity();
+
+                return InventoryDTO.builder()
+                        .id(inventoryId)
+                        .productId(existing.getProductId())
+                        .warehouseId(existing.getWarehouseId())
+                        .quantity(newQuantity)
+                        .reservedQuantity(existing.getReservedQuantity())
+                        .availableQuantity(availableQuantity)
+                        .lowStockThreshold(existing.getLowStockThreshold())
+                        .maxCapacity(existing.getMaxCapacity())
+                        .status(InventoryStatus.forAvailableQuantity(availableQuantity, existing.getLowStockThreshold()))
+                        .sku(existing.getSku())
+                        .batchNumber(existing.getBatchNumber())
+                        .unit(existing.getUnit())
+                        .unitCost(existing.getUnitCost())
+                        .createdAt(existing.getCreatedAt())
+                        .updatedAt(LocalDateTime.now())
+                        .lastRestockedAt(existing.getLastRestockedAt())
+                        .build();
+            });
+        } catch (InventoryMutationException ex) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error("EXCEEDS_CAPACITY", "Adjustment would exceed max capacity: " + existing.getMaxCapacity()));
+                    .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
         }
 
-        int availableQuantity = newQuantity - existing.getReservedQuantity();
-        int lowStockThreshold = existing.getLowStockThreshold() != null ? existing.getLowStockThreshold() : 10;
-
-        // Determine status based on new quantity
-        InventoryStatus status;
-        if (availableQuantity <= 0) {
-            status = InventoryStatus.OUT_OF_STOCK;
-        } else if (availableQuantity <= lowStockThreshold) {
-            status = InventoryStatus.LOW_STOCK;
-        } else {
-            status = InventoryStatus.IN_STOCK;
+        if (updated == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
         }
-
-        InventoryDTO updated = InventoryDTO.builder()
-                .id(inventoryId)
-                .productId(existing.getProductId())
-                .warehouseId(existing.getWarehouseId())
-                .quantity(newQuantity)
-                .reservedQuantity(existing.getReservedQuantity())
-                .availableQuantity(availableQuantity)
-                .lowStockThreshold(existing.getLowStockThreshold())
-                .maxCapacity(existing.getMaxCapacity())
-                .status(status)
-                .sku(existing.getSku())
-                .batchNumber(existing.getBatchNumber())
-                .unit(existing.getUnit())
-                .unitCost(existing.getUnitCost())
-                .createdAt(existing.getCreatedAt())
-                .updatedAt(LocalDateTime.now())
-                .lastRestockedAt(existing.getLastRestockedAt())
-                .build();
-
-        dataStore.saveInventory(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated, "Quantity adjusted successfully"));
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated, "Quantity adjusted successfully"));
     }
 
     /**
@@ -534,57 +638,127 @@ public class InventoryController {
             )
             @Valid @RequestBody RestockRequest request
     ) {
-        InventoryDTO existing = dataStore.getInventoryItem(inventoryId);
-        if (existing == null) {
+        int restockQuantity = request.getQuantity() != null ? request.getQuantity() : 0;
+
+        // Read, validate and write happen in one atomic step so concurrent restocks are never lost
+        InventoryDTO updated;
+        try {
+            updated = dataStore.computeInventory(inventoryId, existing -> {
+                int newQuantity = existing.getQuantity() + restockQuantity;
+
+                // Check max capacity if set
+                if (existing.getMaxCapacity() != null && newQuantity > existing.getMaxCapacity()) {
+                    throw new InventoryMutationException("EXCEEDS_CAPACITY",
+                            "Restock would exceed max capacity: " + existing.getMaxCapacity());
+                }
+
+                int availableQuantity = newQuantity - existing.getReservedQuantity();
+                LocalDateTime now = LocalDateTime.now();
+
+                return InventoryDTO.builder()
+                        .id(inventoryId)
+                        .productId(existing.getProductId())
+                        .warehouseId(existing.getWarehouseId())
+                        .quantity(newQuantity)
+                        .reservedQuantity(existing.getReservedQuantity())
+                        .availableQuantity(availableQuantity)
+                        .lowStockThreshold(existing.getLowStockThreshold())
+                        .maxCapacity(existing.getMaxCapacity())
+                        .status(InventoryStatus.forAvailableQuantity(availableQuantity, existing.getLowStockThreshold()))
+                        .sku(existing.getSku())
+                        .batchNumber(request.getBatchNumber() != null ? request.getBatchNumber() : existing.getBatchNumber())
+                        .unit(existing.getUnit())
+                        .unitCost(request.getUnitCost() != null ? request.getUnitCost() : existing.getUnitCost())
+                        .createdAt(existing.getCreatedAt())
+                        .updatedAt(now)
+                        .lastRestockedAt(now)
+                        .build();
+            });
+        } catch (InventoryMutationException ex) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
+        }
+
+        if (updated == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Inventory not found with id: " + inventoryId));
         }
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated, "Item restocked successfully"));
+    }
 
-        int restockQuantity = request.getQuantity() != null ? request.getQuantity() : 0;
-        int newQuantity = existing.getQuantity() + restockQuantity;
+    /**
+     * Index lookups for the inventory list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery inventoryQuery(String warehouseId, String productId, String status) {
+        return IndexQuery.over(dataStore.getInventoryIds())
+                .and(productId != null ? dataStore.getInventoryIdsByProduct(productId) : null)
+                .and(warehouseId != null ? dataStore.getInventoryIdsByWarehouse(warehouseId) : null)
+                .and(status != null ? inventoryIdsByStatus(status) : null);
+    }
 
-        // Check max capacity if set
-        if (existing.getMaxCapacity() != null && newQuantity > existing.getMaxCapacity()) {
-            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(ApiResponse.error("EXCEEDS_CAPACITY", "Restock would exceed max capacity: " + existing.getMaxCapacity()));
-        }
+    /**
+     * Per-record check of the inventory list filters not guaranteed by the id lookups.
+     */
+    private static Predicate<InventoryDTO> inventoryFilter(String warehouseId, String status) {
+        return inv -> (warehouseId == null || warehouseId.equals(inv.getWarehouseId()))
+                && (status == null || (inv.getStatus() != null && status.equalsIgnoreCase(inv.getStatus().name())));
+    }
 
-        int availableQuantity = newQuantity - existing.getReservedQuantity();
-        int lowStockThreshold = existing.getLowStockThreshold() != null ? existing.getLowStockThreshold() : 10;
-
-        // Determine status based on new quantity
-        InventoryStatus status;
-        if (availableQuantity <= 0) {
-            status = InventoryStatus.OUT_OF_STOCK;
-        } else if (availableQuantity <= lowStockThreshold) {
-            status = InventoryStatus.LOW_STOCK;
-        } else {
-            status = InventoryStatus.IN_STOCK;
+    /**
+     * Look up inventory ids by status name (case-insensitive). An unknown status matches nothing.
+     */
+    private NavigableSet<String> inventoryIdsByStatus(String status) {
+        for (InventoryStatus candidate : InventoryStatus.values()) {
+            if (candidate.name().equalsIgnoreCase(status)) {
+                return dataStore.getInventoryIdsByStatus(candidate);
+            }
         }
+        return Collections.emptyNavigableSet();
+    }
 
-        LocalDateTime now = LocalDateTime.now();
+    /**
+     * Build the record a batch item creates, or replaces {@code existing} with, keeping
+     * the stored reserved quantity and restock time.
+     *
+     * @throws InventoryMutationException if the quantity would not cover the reserved units
+     *                                    or would exceed the max capacity
+     */
+    private static InventoryDTO batchInventory(String inventoryId, CreateInventoryRequest request,
+                                               InventoryDTO existing, LocalDateTime now) {
+        int quantity = request.getQuantity() != null ? request.getQuantity() : 0;
+        int reservedQuantity = existing != null && existing.getReservedQuantity() != null ? existing.getReservedQuantity() : 0;
+        int lowStockThreshold = request.getLowStockThreshold() != null ? request.getLowStockThreshold() : 10;
+
+        if (quantity < reservedQuantity) {
+            throw belowReserved(quantity, reservedQuantity);
+        }
+        if (request.getMaxCapacity() != null && quantity > request.getMaxCapacity()) {
+            throw new InventoryMutationException("EXCEEDS_CAPACITY",
+                    "Quantity " + quantity + " would exceed max capacity: " + request.getMaxCapacity());
+        }
 
-        InventoryDTO updated = InventoryDTO.builder()
+        return InventoryDTO.builder()
                 .id(inventoryId)
-                .productId(existing.getProductId())
-                .warehouseId(existing.getWarehouseId())
-                .quantity(newQuantity)
-                .reservedQuantity(existing.getReservedQuantity())
-                .availableQuantity(availableQuantity)
-                .lowStockThreshold(existing.getLowStockThreshold())
-                .maxCapacity(existing.getMaxCapacity())
-                .status(status)
-                .sku(existing.getSku())
-                .batchNumber(request.getBatchNumber() != null ? request.getBatchNumber() : existing.getBatchNumber())
-                .unit(existing.getUnit())
-                .unitCost(request.getUnitCost() != null ? request.getUnitCost() : existing.getUnitCost())
-                .createdAt(existing.getCreatedAt())
+                .productId(request.getProductId())
+                .warehouseId(request.getWarehouseId())
+                .quantity(quantity)
+                .reservedQuantity(reservedQuantity)
+                .availableQuantity(quantity - reservedQuantity)
+                .lowStockThreshold(lowStockThreshold)
+                .maxCapacity(request.getMaxCapacity())
+                .status(InventoryStatus.forAvailableQuantity(quantity - reservedQuantity, lowStockThreshold))
+                .sku(request.getSku())
+                .batchNumber(request.getBatchNumber())
+                .unit(request.getUnit())
+                .unitCost(request.getUnitCost())
+                .createdAt(existing != null ? existing.getCreatedAt() : now)
                 .updatedAt(now)
-                .lastRestockedAt(now)
+                .lastRestockedAt(existing != null ? existing.getLastRestockedAt() : null)
                 .build();
+    }
 
-        dataStore.saveInventory(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated, "Item restocked successfully"));
+    private static InventoryMutationException belowReserved(int quantity, int reservedQuantity) {
+        return new InventoryMutationException("BELOW_RESERVED",
+                "Quantity " + quantity + " would not cover the " + reservedQuantity + " reserved units");
     }
 }
-
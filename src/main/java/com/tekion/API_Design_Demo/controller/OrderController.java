@@ -1,65 +1,105 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
 import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderDetailDTO;
 import com.tekion.API_Design_Demo.dto.OrderItemDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ProductDTO;
 import com.tekion.API_Design_Demo.dto.request.CreateOrderRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.InventoryMutationException;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations.Reservation;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1")
 @Tag(name = "Order Management", description = "APIs for managing customer orders")
 public class OrderController {
 
+    private static final String PENDING = "PENDING";
+    private static final String CANCELLED = "CANCELLED";
+
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final InventoryReservations reservations;
+    private final ResponseCache responseCache;
 
-    public OrderController(DataStore dataStore) {
+    public OrderController(DataStore dataStore, IdGenerator idGenerator, InventoryReservations reservations,
+                           ResponseCache responseCache) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.reservations = reservations;
+        this.responseCache = responseCache;
     }
 
-    @Operation(summary = "Get all orders", description = "Retrieves a list of all orders with optional filtering by customer, status, and date range")
+    @Operation(summary = "Get all orders", description = "Retrieves a cursor-paginated list of orders with optional filtering by customer, status, and date range")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved all orders")
     })
     @GetMapping("/orders")
-    public ResponseEntity<ApiResponse<List<OrderDTO>>> getAllOrders(
+    public ResponseEntity<ApiResponse<PagedResponse<OrderDTO>>> getAllOrders(
             @Parameter(description = "Filter by customer ID") @RequestParam(required = false) String customerId,
             @Parameter(description = "Filter by status") @RequestParam(required = false) String status,
             @Parameter(description = "Filter by start date (orders on or after this date)") @RequestParam(required = false) LocalDate startDate,
             @Parameter(description = "Filter by end date (orders on or before this date)") @RequestParam(required = false) LocalDate endDate,
             @Parameter(description = "Filter by minimum order amount") @RequestParam(required = false) BigDecimal minAmount,
-            @Parameter(description = "Filter by maximum order amount") @RequestParam(required = false) BigDecimal maxAmount) {
+            @Parameter(description = "Filter by maximum order amount") @RequestParam(required = false) BigDecimal maxAmount,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<OrderDTO> orders = dataStore.getOrders().values().stream()
-                .filter(o -> customerId == null || customerId.equals(o.getCustomerId()))
-                .filter(o -> status == null || status.equalsIgnoreCase(o.getStatus()))
-                .filter(o -> startDate == null || (o.getOrderDate() != null && !o.getOrderDate().toLocalDate().isBefore(startDate)))
-                .filter(o -> endDate == null || (o.getOrderDate() != null && !o.getOrderDate().toLocalDate().isAfter(endDate)))
-                .filter(o -> minAmount == null || (o.getTotalAmount() != null && o.getTotalAmount().compareTo(minAmount) >= 0))
-                .filter(o -> maxAmount == null || (o.getTotalAmount() != null && o.getTotalAmount().compareTo(maxAmount) <= 0))
-                .collect(Collectors.toList());
 
+        PagedResponse<OrderDTO> orders = orderQuery(customerId, status, startDate, endDate, minAmount, maxAmount)
+                .page(dataStore.getOrders()::get, orderFilter(status, startDate, endDate, minAmount, maxAmount), cursor, limit);
         return ResponseEntity.ok(ApiResponse.success(orders));
     }
 
+    @Operation(summary = "Export orders", description = "Streams every order matching the same filters as the list endpoint as NDJSON, one order per line, without paging")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching orders, one JSON document per line")
+    })
+    @GetMapping(value = "/orders/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<OrderDTO>> exportOrders(
+            @Parameter(description = "Filter by customer ID") @RequestParam(required = false) String customerId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+            @Parameter(description = "Filter by start date (orders on or after this date)") @RequestParam(required = false) LocalDate startDate,
+            @Parameter(description = "Filter by end date (orders on or before this date)") @RequestParam(required = false) LocalDate endDate,
+            @Parameter(description = "Filter by minimum order amount") @RequestParam(required = false) BigDecimal minAmount,
+            @Parameter(description = "Filter by maximum order amount") @RequestParam(required = false) BigDecimal maxAmount) {
+
+        Stream<OrderDTO> orders = orderQuery(customerId, status, startDate, endDate, minAmount, maxAmount)
+                .stream(dataStore.getOrders()::get, orderFilter(status, startDate, endDate, minAmount, maxAmount));
+        return ResponseEntity.ok(orders);
+    }
+
     @Operation(summary = "Get order by ID", description = "Retrieves a specific order by its unique identifier")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved the order"),
@@ -74,15 +114,37 @@ public class OrderController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
         }
-        return ResponseEntity.ok(ApiResponse.success(order));
+        return responseCache.record("order", EntityType.ORDER, orderId, order, () -> ApiResponse.success(order));
+    }
+
+    @Operation(summary = "Get order detail",
+            description = "Returns the order with its items, shipping address, payments, fulfillments and the shipments of each fulfillment, "
+                    + "so an order page needs one request instead of one per collection")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Order detail found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Order not found")
+    })
+    @GetMapping("/orders/{orderId}/detail")
+    public ResponseEntity<?> getOrderDetail(
+            @Parameter(description = "Unique identifier of the order", required = true)
+            @PathVariable String orderId) {
+        OrderDTO order = dataStore.getOrder(orderId);
+        if (order == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
+        }
+        return responseCache.collection("order-detail", () -> ApiResponse.success(orderDetail(order)),
+                EntityType.ORDER, EntityType.ADDRESS, EntityType.PAYMENT, EntityType.FULFILLMENT, EntityType.SHIPMENT);
     }
 
     @Operation(summary = "Create a new order",
-            description = "Creates a new order for the authenticated customer. Customer ID is obtained from the X-Customer-Id header (simulating authentication context). Price is calculated from product prices.")
+            description = "Creates a new order for the authenticated customer. Customer ID is obtained from the X-Customer-Id header (simulating authentication context). Price is calculated from product prices. " +
+                    "Stock for every item is reserved atomically; the reservation is consumed when the order is confirmed, released when it is cancelled, and expires if the order stays PENDING too long.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "201", description = "Order successfully created"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Invalid order data or missing X-Customer-Id header"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Customer or product not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Customer or product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Not enough stock for one of the items; nothing was reserved")
     })
     @PostMapping("/orders")
     public ResponseEntity<?> createOrder(
@@ -98,6 +160,7 @@ public class OrderController {
 
         // Build order items and calculate total from product prices
         List<OrderItemDTO> orderItems = new ArrayList<>();
+        Map<String, Integer> quantities = new HashMap<>();
         BigDecimal totalAmount = BigDecimal.ZERO;
 
         for (CreateOrderRequest.OrderItemRequest itemRequest : request.getItems()) {
@@ -119,46 +182,74 @@ public class OrderController {
                     .build();
 
             orderItems.add(orderItem);
+            quantities.merge(product.getProductId(), itemRequest.getQuantity(), Integer::sum);
             totalAmount = totalAmount.add(itemTotal);
         }
 
-        String orderId = "ord-" + UUID.randomUUID().toString().substring(0, 8);
-        LocalDateTime now = LocalDateTime.now();
-
-        OrderDTO order = OrderDTO.builder()
-                .orderId(orderId)
-                .customerId(customer.getCustomerId())
-                .customerName(customer.getName())
-                .items(orderItems)
-                .orderDate(now)
-                .status("PENDING")
-                .totalAmount(totalAmount)
-                .shippingAddressId(request.getShippingAddressId())
-                .createdAt(now)
-                .updatedAt(now)
-                .build();
+        String orderId = idGenerator.nextId("ord-");
+        try {
+            reservations.reserve(orderId, quantities);
+        } catch (InventoryMutationException ex) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(ex.getCode(), ex.getMessage()));
+        }
+
+        OrderDTO order;
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            order = OrderDTO.builder()
+                    .orderId(orderId)
+                    .customerId(customer.getCustomerId())
+                    .customerName(customer.getName())
+                    .items(orderItems)
+                    .orderDate(now)
+                    .status(PENDING)
+                    .totalAmount(totalAmount)
+                    .shippingAddressId(request.getShippingAddressId())
+                    .createdAt(now)
+                    .updatedAt(now)
+                    .build();
 
-        dataStore.saveOrder(order);
+            dataStore.saveOrder(order);
+        } catch (RuntimeException ex) {
+            // Don't hold stock until the ttl for an order that was never saved
+            if (dataStore.getOrder(orderId) == null) {
+                reservations.release(orderId);
+            }
+            throw ex;
+        }
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(order));
     }
 
-    @Operation(summary = "Update order status", description = "Updates the status of an existing order")
+    @Operation(summary = "Update order status",
+            description = "Updates the status of an existing order. Moving a PENDING order to any status other than CANCELLED consumes its reserved stock; CANCELLED releases it. Cancelled orders cannot change status. " +
+                    "Send the order's ETag in If-Match to update only if nobody has changed it since it was read.")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Order status updated"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Order not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Order not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "409", description = "Order is cancelled, its stock reservation has expired, or it was changed by a concurrent request"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Order changed since the ETag in If-Match was read")
     })
     @PatchMapping("/orders/{orderId}/status")
     public ResponseEntity<?> updateOrderStatus(
             @Parameter(description = "Unique identifier of the order", required = true)
             @PathVariable String orderId,
             @Parameter(description = "New status", required = true)
-            @RequestParam String status) {
+            @RequestParam String status,
+            @Parameter(description = "ETag of the order version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         OrderDTO existing = dataStore.getOrder(orderId);
         if (existing == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
         }
+        Long expectedVersion = ifMatch != null
+                ? ETags.expectedVersion(ifMatch, existing, EntityType.ORDER, orderId)
+                : null;
+        if (CANCELLED.equalsIgnoreCase(existing.getStatus()) && !CANCELLED.equalsIgnoreCase(status)) {
+            return orderCancelled(orderId);
+        }
 
         OrderDTO updated = OrderDTO.builder()
                 .orderId(existing.getOrderId())
@@ -173,8 +264,38 @@ public class OrderController {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        dataStore.saveOrder(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        // Saved at the version checked above, so nothing can have cancelled the order in
+        // between; the reservation is only settled once that save has succeeded
+        Long version = expectedVersion != null ? expectedVersion : existing.getVersion();
+        Runnable save = () -> dataStore.saveOrder(updated, version);
+        try {
+            Reservation.State blocked = null;
+            if (CANCELLED.equalsIgnoreCase(status)) {
+                blocked = reservations.settle(orderId, Reservation.State.RELEASED, save);
+            } else if (!PENDING.equalsIgnoreCase(status)) {
+                blocked = reservations.settle(orderId, Reservation.State.CONFIRMED, save);
+            } else {
+                save.run();
+            }
+
+            if (blocked == Reservation.State.SETTLING) {
+                return orderChanged(orderId);
+            } else if (blocked == Reservation.State.EXPIRED && !CANCELLED.equalsIgnoreCase(status)) {
+                return ResponseEntity.status(HttpStatus.CONFLICT)
+                        .body(ApiResponse.error("RESERVATION_EXPIRED", "Stock reservation for order " + orderId + " has expired; the order is cancelled"));
+            } else if (blocked == Reservation.State.RELEASED && !CANCELLED.equalsIgnoreCase(status)) {
+                return orderCancelled(orderId);
+            } else if (blocked != null) {
+                // The stock was settled by an earlier request; only the order is left to save
+                save.run();
+            }
+        } catch (VersionConflictException ex) {
+            if (ifMatch != null) {
+                throw ex;
+            }
+            return orderChanged(orderId);
+        }
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(summary = "Delete an order", description = "Deletes an order from the system")
@@ -192,6 +313,66 @@ public class OrderController {
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
         }
         dataStore.deleteOrder(orderId);
+        reservations.release(orderId);
         return ResponseEntity.noContent().build();
     }
+
+    /**
+     * Index lookups for the order list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery orderQuery(String customerId, String status, LocalDate startDate, LocalDate endDate,
+                                  BigDecimal minAmount, BigDecimal maxAmount) {
+        return IndexQuery.over(dataStore.getOrderIds())
+                .and(customerId != null ? dataStore.getOrderIdsByCustomer(customerId) : null)
+                .and(status != null ? dataStore.getOrderIdsByStatus(status) : null)
+                .and(startDate != null || endDate != null
+                        ? dataStore.getOrdersByDateRange(
+                                startDate != null ? startDate.atStartOfDay() : null,
+                                endDate != null ? endDate.atTime(LocalTime.MAX) : null)
+                        : null)
+                .and(minAmount != null || maxAmount != null
+                        ? dataStore.getOrdersByTotalRange(minAmount, maxAmount)
+                        : null);
+    }
+
+    /**
+     * Assemble an order's detail from the index lookups by order and by fulfillment.
+     */
+    private OrderDetailDTO orderDetail(OrderDTO order) {
+        List<OrderDetailDTO.FulfillmentDetail> fulfillments = new ArrayList<>();
+        for (FulfillmentDTO fulfillment : dataStore.getFulfillmentsByOrder(order.getOrderId())) {
+            fulfillments.add(OrderDetailDTO.FulfillmentDetail.builder()
+                    .fulfillment(fulfillment)
+                    .shipments(dataStore.getShipmentsByFulfillment(fulfillment.getFulfillmentId()))
+                    .build());
+        }
+        return OrderDetailDTO.builder()
+                .order(order)
+                .shippingAddress(order.getShippingAddressId() != null ? dataStore.getAddress(order.getShippingAddressId()) : null)
+                .payments(dataStore.getPaymentsByOrder(order.getOrderId()))
+                .fulfillments(fulfillments)
+                .build();
+    }
+
+    /**
+     * Per-record check of every order list filter, including the indexed ones.
+     */
+    private static Predicate<OrderDTO> orderFilter(String status, LocalDate startDate, LocalDate endDate,
+                                                   BigDecimal minAmount, BigDecimal maxAmount) {
+        return o -> (status == null || status.equalsIgnoreCase(o.getStatus()))
+                && (startDate == null || (o.getOrderDate() != null && !o.getOrderDate().toLocalDate().isBefore(startDate)))
+                && (endDate == null || (o.getOrderDate() != null && !o.getOrderDate().toLocalDate().isAfter(endDate)))
+                && (minAmount == null || (o.getTotalAmount() != null && o.getTotalAmount().compareTo(minAmount) >= 0))
+                && (maxAmount == null || (o.getTotalAmount() != null && o.getTotalAmount().compareTo(maxAmount) <= 0));
+    }
+
+    private static ResponseEntity<?> orderCancelled(String orderId) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("ORDER_CANCELLED", "Order " + orderId + " is cancelled and its stock has been released"));
+    }
+
+    private static ResponseEntity<?> orderChanged(String orderId) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(ApiResponse.error("ORDER_CHANGED", "Order " + orderId + " was changed by another request while it was updated; read it again and retry"));
+    }
 }
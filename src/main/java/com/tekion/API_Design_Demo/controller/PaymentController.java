@@ -1,23 +1,31 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.PaymentDTO;
 import com.tekion.API_Design_Demo.dto.request.CreatePaymentRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1")
@@ -25,9 +33,13 @@ import java.util.stream.Collectors;
 public class PaymentController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
 
-    public PaymentController(DataStore dataStore) {
+    public PaymentController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
     }
 
     @Operation(summary = "List all payments", description = "Retrieve a list of all payments with optional filtering")
@@ -35,18 +47,32 @@ public class PaymentController {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Successfully retrieved list of payments")
     })
     @GetMapping(value = "/payments", produces = "application/json")
-    public ResponseEntity<ApiResponse<List<PaymentDTO>>> getPayments(
+    public ResponseEntity<ApiResponse<PagedResponse<PaymentDTO>>> getPayments(
             @Parameter(description = "Filter by order ID") @RequestParam(required = false) String orderId,
-            @Parameter(description = "Filter by status") @RequestParam(required = false) String status) {
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<PaymentDTO> payments = dataStore.getPayments().values().stream()
-                .filter(p -> orderId == null || orderId.equals(p.getOrderId()))
-                .filter(p -> status == null || status.equalsIgnoreCase(p.getStatus()))
-                .collect(Collectors.toList());
+        PagedResponse<PaymentDTO> payments = paymentQuery(orderId, status)
+                .page(dataStore.getPayments()::get, paymentFilter(status), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
 
+    @Operation(summary = "Export payments", description = "Stream all payments matching the same filters as the list endpoint as NDJSON, one payment per line, without paging")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching payments, one JSON document per line")
+    })
+    @GetMapping(value = "/payments/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<PaymentDTO>> exportPayments(
+            @Parameter(description = "Filter by order ID") @RequestParam(required = false) String orderId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) String status) {
+
+        Stream<PaymentDTO> payments = paymentQuery(orderId, status)
+                .stream(dataStore.getPayments()::get, paymentFilter(status));
+        return ResponseEntity.ok(payments);
+    }
+
     @Operation(summary = "Get payment details", description = "Retrieve detailed information about a specific payment")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment found"),
@@ -61,7 +87,7 @@ public class PaymentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Payment not found with id: " + paymentId));
         }
-        return ResponseEntity.ok(ApiResponse.success(payment));
+        return responseCache.record("payment", EntityType.PAYMENT, paymentId, payment, () -> ApiResponse.success(payment));
     }
 
     @Operation(summary = "Process new payment", description = "Create and process a new payment for an order. Amount is derived from order total.")
@@ -79,8 +105,8 @@ public class PaymentController {
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + request.getOrderId()));
         }
 
-        String paymentId = "pay-" + UUID.randomUUID().toString().substring(0, 8);
-        String transactionRef = "TXN-" + UUID.randomUUID().toString().substring(0, 12).toUpperCase();
+        String paymentId = idGenerator.nextId("pay-");
+        String transactionRef = idGenerator.nextReference("TXN-");
         LocalDateTime now = LocalDateTime.now();
 
         PaymentDTO payment = PaymentDTO.builder()
@@ -98,23 +124,28 @@ public class PaymentController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(payment));
     }
 
-    @Operation(summary = "Update payment status", description = "Update the status of an existing payment")
+    @Operation(summary = "Update payment status", description = "Update the status of an existing payment. "
+            + "Send the payment's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment status updated"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Payment not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Payment not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Payment changed since the ETag in If-Match was read")
     })
     @PatchMapping(value = "/payments/{paymentId}/status", produces = "application/json")
     public ResponseEntity<?> updatePaymentStatus(
             @Parameter(description = "Unique payment identifier", required = true)
             @PathVariable String paymentId,
             @Parameter(description = "New status", required = true)
-            @RequestParam String status) {
+            @RequestParam String status,
+            @Parameter(description = "ETag of the payment version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
 
         PaymentDTO existing = dataStore.getPayment(paymentId);
         if (existing == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Payment not found with id: " + paymentId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.PAYMENT, paymentId);
 
         PaymentDTO updated = PaymentDTO.builder()
                 .paymentId(existing.getPaymentId())
@@ -127,15 +158,16 @@ public class PaymentController {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        dataStore.savePayment(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.savePayment(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(summary = "Refund payment", description = "Process a refund for an existing payment")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Payment refunded successfully"),
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Payment not found"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Payment cannot be refunded")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "400", description = "Payment cannot be refunded"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Payment changed while the refund was being processed")
     })
     @PostMapping(value = "/payments/{paymentId}/refund", produces = "application/json")
     public ResponseEntity<?> refundPayment(
@@ -164,8 +196,9 @@ public class PaymentController {
                 .updatedAt(LocalDateTime.now())
                 .build();
 
-        dataStore.savePayment(refunded);
-        return ResponseEntity.ok(ApiResponse.success(refunded));
+        // Only refund the version that was checked, so two concurrent refunds cannot both succeed
+        dataStore.savePayment(refunded, existing.getVersion());
+        return ResponseEntity.ok().eTag(ETags.of(refunded)).body(ApiResponse.success(refunded));
     }
 
     @Operation(summary = "Check payment status", description = "Retrieve the current status of a payment")
@@ -186,7 +219,9 @@ public class PaymentController {
     @GetMapping(value = "/orders/{orderId}/payments", produces = "application/json")
     public ResponseEntity<?> getPaymentsForOrder(
             @Parameter(description = "Unique order identifier", required = true)
-            @PathVariable String orderId) {
+            @PathVariable String orderId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         OrderDTO order = dataStore.getOrder(orderId);
         if (order == null) {
@@ -194,10 +229,25 @@ public class PaymentController {
                     .body(ApiResponse.error("NOT_FOUND", "Order not found with id: " + orderId));
         }
 
-        List<PaymentDTO> payments = dataStore.getPayments().values().stream()
-                .filter(p -> orderId.equals(p.getOrderId()))
-                .collect(Collectors.toList());
+        PagedResponse<PaymentDTO> payments = KeysetPaginator.page(
+                dataStore.getPaymentIdsByOrder(orderId), dataStore.getPayments()::get, cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(payments));
     }
-}
\ No newline at end of file
+
+    /**
+     * Index lookups for the payment list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery paymentQuery(String orderId, String status) {
+        return IndexQuery.over(dataStore.getPaymentIds())
+                .and(orderId != null ? dataStore.getPaymentIdsByOrder(orderId) : null)
+                .and(status != null ? dataStore.getPaymentIdsByStatus(status) : null);
+    }
+
+    /**
+     * Per-record check of the payment list filters not guaranteed by the id lookups.
+     */
+    private static Predicate<PaymentDTO> paymentFilter(String status) {
+        return p -> status == null || status.equalsIgnoreCase(p.getStatus());
+    }
+}
@@ -1,12 +1,23 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.BatchResponse;
 import com.tekion.API_Design_Demo.dto.ErrorResponseDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.RatingSummaryDTO;
 import com.tekion.API_Design_Demo.dto.ReviewDTO;
 import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
 import com.tekion.API_Design_Demo.dto.request.CreateProductRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.InvalidPageRequestException;
+import com.tekion.API_Design_Demo.service.BatchWriter;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -14,14 +25,16 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -29,9 +42,16 @@ import java.util.stream.Collectors;
 public class ProductController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
+    private final BatchWriter batchWriter;
 
-    public ProductController(DataStore dataStore) {
+    public ProductController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache,
+                             BatchWriter batchWriter) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
+        this.batchWriter = batchWriter;
     }
 
     @Operation(summary = "Get all products", description = "Retrieves a list of all active products with optional filtering")
@@ -41,22 +61,35 @@ public class ProductController {
                     content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
     })
     @GetMapping
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getAllProducts(
+    public ResponseEntity<ApiResponse<PagedResponse<ProductDTO>>> getAllProducts(
             @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
             @Parameter(description = "Filter by minimum price") @RequestParam(required = false) Double minPrice,
             @Parameter(description = "Filter by maximum price") @RequestParam(required = false) Double maxPrice,
-            @Parameter(description = "Filter by active status") @RequestParam(required = false) Boolean isActive) {
-
-        List<ProductDTO> products = dataStore.getProducts().values().stream()
-                .filter(p -> category == null || category.equalsIgnoreCase(p.getCategory()))
-                .filter(p -> minPrice == null || (p.getPrice() != null && p.getPrice() >= minPrice))
-                .filter(p -> maxPrice == null || (p.getPrice() != null && p.getPrice() <= maxPrice))
-                .filter(p -> isActive == null || isActive.equals(p.getIsActive()))
-                .collect(Collectors.toList());
+            @Parameter(description = "Filter by active status") @RequestParam(required = false) Boolean isActive,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
+        PagedResponse<ProductDTO> products = productQuery(minPrice, maxPrice)
+                .page(dataStore.getProducts()::get, productFilter(category, minPrice, maxPrice, isActive), cursor, limit);
         return ResponseEntity.ok(ApiResponse.success(products));
     }
 
+    @Operation(summary = "Export products", description = "Streams every product matching the same filters as the list endpoint as NDJSON, one product per line, without paging")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching products, one JSON document per line")
+    })
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<Stream<ProductDTO>> exportProducts(
+            @Parameter(description = "Filter by category") @RequestParam(required = false) String category,
+            @Parameter(description = "Filter by minimum price") @RequestParam(required = false) Double minPrice,
+            @Parameter(description = "Filter by maximum price") @RequestParam(required = false) Double maxPrice,
+            @Parameter(description = "Filter by active status") @RequestParam(required = false) Boolean isActive) {
+
+        Stream<ProductDTO> products = productQuery(minPrice, maxPrice)
+                .stream(dataStore.getProducts()::get, productFilter(category, minPrice, maxPrice, isActive));
+        return ResponseEntity.ok(products);
+    }
+
     @Operation(summary = "Get product by ID", description = "Retrieves a specific product by its unique identifier")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product found successfully"),
@@ -71,7 +104,7 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
         }
-        return ResponseEntity.ok(ApiResponse.success(product));
+        return responseCache.record("product", EntityType.PRODUCT, productId, product, () -> ApiResponse.success(product));
     }
 
     @Operation(summary = "Create a new product", description = "Creates a new product in the catalog")
@@ -83,7 +116,7 @@ public class ProductController {
     public ResponseEntity<ApiResponse<ProductDTO>> createProduct(
             @Valid @RequestBody CreateProductRequest request) {
 
-        String productId = "prod-" + UUID.randomUUID().toString().substring(0, 8);
+        String productId = idGenerator.nextId("prod-");
         LocalDateTime now = LocalDateTime.now();
 
         ProductDTO product = ProductDTO.builder()
@@ -103,15 +136,52 @@ public class ProductController {
         return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(product));
     }
 
-    @Operation(summary = "Update a product", description = "Updates an existing product")
+    @Operation(summary = "Create or update products in bulk",
+            description = "Accepts a JSON array or NDJSON (application/x-ndjson) of product create requests. "
+                    + "Items with an id replace that product (or create it under that id); items without one are created. "
+                    + "Every item is validated on its own and all valid items are saved in one batch; "
+                    + "the response reports CREATED, UPDATED or FAILED per item, in request order.")
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ApiResponse<BatchResponse>> createProducts(
+            @RequestBody List<BatchItem<CreateProductRequest>> items) {
+
+        LocalDateTime now = LocalDateTime.now();
+        BatchResponse result = batchWriter.write(items, item -> {
+            CreateProductRequest request = item.getData();
+            ProductDTO existing = item.getId() != null ? dataStore.getProducts().get(item.getId()) : null;
+            return ProductDTO.builder()
+                    .productId(item.getId() != null ? item.getId() : idGenerator.nextId("prod-"))
+                    .name(request.getName())
+                    .description(request.getDescription())
+                    .price(request.getPrice())
+                    .category(request.getCategory())
+                    .stockQuantity(request.getStockQuantity() != null ? request.getStockQuantity()
+                            : existing != null ? existing.getStockQuantity() : 0)
+                    .isActive(existing != null ? existing.getIsActive() : true)
+                    .createdAt(existing != null ? existing.getCreatedAt() : now)
+                    .createdBy(existing != null ? existing.getCreatedBy() : "system")
+                    .updatedAt(now)
+                    .updatedBy(existing != null ? "system" : null)
+                    .build();
+        }, ProductDTO::getProductId, dataStore.getProducts()::containsKey, dataStore::saveProducts);
+
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    @Operation(summary = "Update a product", description = "Updates an existing product. "
+            + "Send the product's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Product updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Product changed since the ETag in If-Match was read",
+                    content = @Content(schema = @Schema(implementation = ErrorResponseDTO.class)))
     })
     @PutMapping("/{productId}")
     public ResponseEntity<?> updateProduct(
             @Parameter(description = "Unique identifier of the product to update", required = true)
             @PathVariable String productId,
+            @Parameter(description = "ETag of the product version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody CreateProductRequest request) {
 
         ProductDTO existing = dataStore.getProduct(productId);
@@ -119,6 +189,7 @@ public class ProductController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.PRODUCT, productId);
 
         ProductDTO updated = ProductDTO.builder()
                 .productId(productId)
@@ -134,8 +205,8 @@ public class ProductController {
                 .updatedBy("system")
                 .build();
 
-        dataStore.saveProduct(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveProduct(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @Operation(summary = "Delete a product", description = "Soft deletes a product by marking it as inactive")
@@ -156,40 +227,47 @@ public class ProductController {
         return ResponseEntity.noContent().build();
     }
 
-    @Operation(summary = "Search products", description = "Search products by keyword in name or description")
+    @Operation(summary = "Search products",
+            description = "Search products by keywords in name or description. Every keyword must match the start of a word "
+                    + "in the product (e.g. \"smart pro\" matches \"Smartphone Pro\"). Results are ranked by relevance: "
+                    + "name matches rank above description matches, whole words above prefixes")
     @GetMapping("/search")
     public ResponseEntity<ApiResponse<List<ProductDTO>>> searchProducts(
-            @Parameter(description = "Search keyword", required = true, example = "smartphone")
-            @RequestParam String query) {
+            @Parameter(description = "Search keywords", required = true, example = "smartphone")
+            @RequestParam String query,
+            @Parameter(description = "Maximum number of results to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        String lowerQuery = query.toLowerCase();
-        List<ProductDTO> results = dataStore.getProducts().values().stream()
-                .filter(p -> (p.getName() != null && p.getName().toLowerCase().contains(lowerQuery)) ||
-                             (p.getDescription() != null && p.getDescription().toLowerCase().contains(lowerQuery)))
-                .collect(Collectors.toList());
+        if (limit < 1 || limit > KeysetPaginator.MAX_LIMIT) {
+            throw new InvalidPageRequestException("limit", "Limit must be between 1 and " + KeysetPaginator.MAX_LIMIT);
+        }
+        List<ProductDTO> results = dataStore.searchProducts(query, limit);
 
         return ResponseEntity.ok(ApiResponse.success(results));
     }
 
     @Operation(summary = "Get products by category", description = "Retrieves all active products in a specific category")
     @GetMapping("/category/{category}")
-    public ResponseEntity<ApiResponse<List<ProductDTO>>> getProductsByCategory(
+    public ResponseEntity<?> getProductsByCategory(
             @Parameter(description = "Category name", required = true, example = "electronics")
-            @PathVariable String category) {
-
-        List<ProductDTO> products = dataStore.getProducts().values().stream()
-                .filter(p -> category.equalsIgnoreCase(p.getCategory()))
-                .filter(p -> Boolean.TRUE.equals(p.getIsActive()))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(ApiResponse.success(products));
+            @PathVariable String category,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
+
+        return responseCache.collection("product-category", () -> {
+            PagedResponse<ProductDTO> products = KeysetPaginator.page(dataStore.getProductIds(), dataStore.getProducts()::get,
+                    p -> category.equalsIgnoreCase(p.getCategory()) && Boolean.TRUE.equals(p.getIsActive()),
+                    cursor, limit);
+            return ApiResponse.success(products);
+        }, EntityType.PRODUCT);
     }
 
     @Operation(summary = "Get product inventory", description = "Retrieves current inventory/stock information for a product")
     @GetMapping("/{productId}/inventory")
     public ResponseEntity<?> getProductInventory(
             @Parameter(description = "Unique identifier of the product", required = true)
-            @PathVariable String productId) {
+            @PathVariable String productId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
         ProductDTO product = dataStore.getProduct(productId);
         if (product == null) {
@@ -197,16 +275,41 @@ public class ProductController {
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
         }
 
-        List<InventoryDTO> inventoryList = dataStore.getInventory().values().stream()
-                .filter(inv -> productId.equals(inv.getProductId()))
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(ApiResponse.success(inventoryList));
+        return responseCache.collection("product-inventory", () -> {
+            PagedResponse<InventoryDTO> inventoryList = KeysetPaginator.page(
+                    dataStore.getInventoryIdsByProduct(productId), dataStore.getInventory()::get, cursor, limit);
+            return ApiResponse.success(inventoryList);
+        }, EntityType.INVENTORY);
     }
 
     @Operation(summary = "Get product reviews", description = "Retrieves all customer reviews for a specific product")
     @GetMapping("/{productId}/reviews")
     public ResponseEntity<?> getProductReviews(
+            @Parameter(description = "Unique identifier of the product", required = true)
+            @PathVariable String productId,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
+
+        ProductDTO product = dataStore.getProduct(productId);
+        if (product == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
+        }
+
+        return responseCache.collection("product-reviews", () -> {
+            PagedResponse<ReviewDTO> reviews = KeysetPaginator.page(
+                    dataStore.getReviewIdsByProduct(productId), dataStore.getReviews()::get, cursor, limit);
+            return ApiResponse.success(reviews);
+        }, EntityType.REVIEW);
+    }
+
+    @Operation(summary = "Get product rating", description = "Retrieves the review count, average rating and number of reviews per star rating of a product, without loading its reviews")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Rating summary retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Product not found")
+    })
+    @GetMapping("/{productId}/rating")
+    public ResponseEntity<?> getProductRating(
             @Parameter(description = "Unique identifier of the product", required = true)
             @PathVariable String productId) {
 
@@ -216,10 +319,26 @@ public class ProductController {
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + productId));
         }
 
-        List<ReviewDTO> reviews = dataStore.getReviews().values().stream()
-                .filter(r -> productId.equals(r.getProductId()))
-                .collect(Collectors.toList());
+        return responseCache.collection("product-rating",
+                () -> ApiResponse.success(RatingSummaryDTO.of(productId, dataStore.getProductRatings(productId))),
+                EntityType.REVIEW);
+    }
+
+    /**
+     * Index lookups for the product list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery productQuery(Double minPrice, Double maxPrice) {
+        return IndexQuery.over(dataStore.getProductIds())
+                .and(minPrice != null || maxPrice != null ? dataStore.getProductsByPriceRange(minPrice, maxPrice) : null);
+    }
 
-        return ResponseEntity.ok(ApiResponse.success(reviews));
+    /**
+     * Per-record check of every product list filter, including the indexed ones.
+     */
+    private static Predicate<ProductDTO> productFilter(String category, Double minPrice, Double maxPrice, Boolean isActive) {
+        return p -> (category == null || category.equalsIgnoreCase(p.getCategory()))
+                && (minPrice == null || (p.getPrice() != null && p.getPrice() >= minPrice))
+                && (maxPrice == null || (p.getPrice() != null && p.getPrice() <= maxPrice))
+                && (isActive == null || isActive.equals(p.getIsActive()));
     }
-}
\ No newline at end of file
+}
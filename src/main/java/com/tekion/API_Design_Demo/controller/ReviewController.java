@@ -1,25 +1,32 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ProductDTO;
 import com.tekion.API_Design_Demo.dto.ReviewDTO;
 import com.tekion.API_Design_Demo.dto.request.CreateReviewRequest;
 import com.tekion.API_Design_Demo.dto.request.UpdateReviewRequest;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.KeysetPaginator;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/reviews")
@@ -27,25 +34,40 @@ import java.util.stream.Collectors;
 public class ReviewController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
 
-    public ReviewController(DataStore dataStore) {
+    public ReviewController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
     @Operation(summary = "Get all reviews", description = "Returns a list of all reviews with optional filtering")
-    public ResponseEntity<ApiResponse<List<ReviewDTO>>> getAllReviews(
+    public ResponseEntity<ApiResponse<PagedResponse<ReviewDTO>>> getAllReviews(
             @Parameter(description = "Filter by minimum rating") @RequestParam(required = false) Integer minRating,
-            @Parameter(description = "Filter by maximum rating") @RequestParam(required = false) Integer maxRating) {
+            @Parameter(description = "Filter by maximum rating") @RequestParam(required = false) Integer maxRating,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
 
-        List<ReviewDTO> reviews = dataStore.getReviews().values().stream()
-                .filter(r -> minRating == null || r.getRating() >= minRating)
-                .filter(r -> maxRating == null || r.getRating() <= maxRating)
-                .collect(Collectors.toList());
+        PagedResponse<ReviewDTO> reviews = KeysetPaginator.page(dataStore.getReviewIds(), dataStore.getReviews()::get,
+                reviewFilter(minRating, maxRating), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(reviews));
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export reviews", description = "Streams every review matching the same filters as the list endpoint as NDJSON, one review per line, without paging")
+    public ResponseEntity<Stream<ReviewDTO>> exportReviews(
+            @Parameter(description = "Filter by minimum rating") @RequestParam(required = false) Integer minRating,
+            @Parameter(description = "Filter by maximum rating") @RequestParam(required = false) Integer maxRating) {
+
+        Stream<ReviewDTO> reviews = IndexQuery.over(dataStore.getReviewIds())
+                .stream(dataStore.getReviews()::get, reviewFilter(minRating, maxRating));
+        return ResponseEntity.ok(reviews);
+    }
+
     @GetMapping("/{reviewId}")
     @Operation(summary = "Get review by ID", description = "Returns a single review by its ID")
     @ApiResponses(value = {
@@ -59,7 +81,7 @@ public class ReviewController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Review not found with id: " + reviewId));
         }
-        return ResponseEntity.ok(ApiResponse.success(review));
+        return responseCache.record("review", EntityType.REVIEW, reviewId, review, () -> ApiResponse.success(review));
     }
 
     @PostMapping
@@ -88,7 +110,7 @@ public class ReviewController {
                     .body(ApiResponse.error("NOT_FOUND", "Product not found with id: " + request.getProductId()));
         }
 
-        String reviewId = "rev-" + UUID.randomUUID().toString().substring(0, 8);
+        String reviewId = idGenerator.nextId("rev-");
 
         ReviewDTO review = ReviewDTO.builder()
                 .reviewId(reviewId)
@@ -107,13 +129,17 @@ public class ReviewController {
 
     @PutMapping("/{reviewId}")
     @Operation(summary = "Update a review",
-            description = "Updates an existing review. Only rating and comment can be modified - the product and customer remain unchanged.")
+            description = "Updates an existing review. Only rating and comment can be modified - the product and customer remain unchanged. "
+                    + "Send the review's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Review updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Review not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Review not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Review changed since the ETag in If-Match was read")
     })
     public ResponseEntity<?> updateReview(
             @Parameter(description = "Review ID", required = true) @PathVariable String reviewId,
+            @Parameter(description = "ETag of the review version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateReviewRequest request) {
 
         ReviewDTO existing = dataStore.getReview(reviewId);
@@ -121,6 +147,7 @@ public class ReviewController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Review not found with id: " + reviewId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.REVIEW, reviewId);
 
         // Only update rating and comment - product and customer are immutable
         ReviewDTO updated = ReviewDTO.builder()
@@ -134,8 +161,8 @@ public class ReviewController {
                 .reviewDate(existing.getReviewDate())
                 .build();
 
-        dataStore.saveReview(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveReview(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @DeleteMapping("/{reviewId}")
@@ -151,4 +178,11 @@ public class ReviewController {
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Per-record check of the review list filters, shared by the list and export endpoints.
+     */
+    private static Predicate<ReviewDTO> reviewFilter(Integer minRating, Integer maxRating) {
+        return r -> (minRating == null || r.getRating() >= minRating)
+                && (maxRating == null || r.getRating() <= maxRating);
+    }
 }
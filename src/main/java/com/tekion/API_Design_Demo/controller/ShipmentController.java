@@ -1,24 +1,30 @@
 package com.tekion.API_Design_Demo.controller;
 
+import com.tekion.API_Design_Demo.config.ResponseCache;
 import com.tekion.API_Design_Demo.dto.AddressDTO;
 import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
 import com.tekion.API_Design_Demo.dto.ShipmentDTO.*;
 import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
 import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import com.tekion.API_Design_Demo.service.id.IdGenerator;
+import com.tekion.API_Design_Demo.service.index.NgramIndex;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.Optional;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 @RestController
 @RequestMapping("/api/v1/shipments")
@@ -26,9 +32,13 @@ import java.util.stream.Collectors;
 public class ShipmentController {
 
     private final DataStore dataStore;
+    private final IdGenerator idGenerator;
+    private final ResponseCache responseCache;
 
-    public ShipmentController(DataStore dataStore) {
+    public ShipmentController(DataStore dataStore, IdGenerator idGenerator, ResponseCache responseCache) {
         this.dataStore = dataStore;
+        this.idGenerator = idGenerator;
+        this.responseCache = responseCache;
     }
 
     @GetMapping
@@ -36,22 +46,37 @@ public class ShipmentController {
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Shipments retrieved successfully")
     })
-    public ResponseEntity<ApiResponse<List<ShipmentResponse>>> getAllShipments(
+    public ResponseEntity<ApiResponse<PagedResponse<ShipmentResponse>>> getAllShipments(
             @Parameter(description = "Filter by fulfillment ID") @RequestParam(required = false) String fulfillmentId,
             @Parameter(description = "Filter by status") @RequestParam(required = false) ShipmentStatus status,
             @Parameter(description = "Filter by carrier") @RequestParam(required = false) String carrier,
-            @Parameter(description = "Search by tracking number (partial match)") @RequestParam(required = false) String trackingSearch) {
+            @Parameter(description = "Search by tracking number (partial match)") @RequestParam(required = false) String trackingSearch,
+            @Parameter(description = "Cursor returned as nextCursor by the previous page") @RequestParam(required = false) String cursor,
+            @Parameter(description = "Maximum number of items to return (1-100)") @RequestParam(defaultValue = "20") int limit) {
+
 
-        List<ShipmentResponse> result = dataStore.getShipments().values().stream()
-                .filter(s -> fulfillmentId == null || s.getFulfillmentId().equals(fulfillmentId))
-                .filter(s -> status == null || s.getStatus() == status)
-                .filter(s -> carrier == null || s.getCarrier().equalsIgnoreCase(carrier))
-                .filter(s -> trackingSearch == null || s.getTrackingNumber().toLowerCase().contains(trackingSearch.toLowerCase()))
-                .collect(Collectors.toList());
+        PagedResponse<ShipmentResponse> result = shipmentQuery(fulfillmentId, status, trackingSearch)
+                .page(dataStore.getShipments()::get, shipmentFilter(status, carrier, trackingSearch), cursor, limit);
 
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Export shipments", description = "Streams every shipment matching the same filters as the list endpoint as NDJSON, one shipment per line, without paging")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Matching shipments, one JSON document per line")
+    })
+    public ResponseEntity<Stream<ShipmentResponse>> exportShipments(
+            @Parameter(description = "Filter by fulfillment ID") @RequestParam(required = false) String fulfillmentId,
+            @Parameter(description = "Filter by status") @RequestParam(required = false) ShipmentStatus status,
+            @Parameter(description = "Filter by carrier") @RequestParam(required = false) String carrier,
+            @Parameter(description = "Search by tracking number (partial match)") @RequestParam(required = false) String trackingSearch) {
+
+        Stream<ShipmentResponse> shipments = shipmentQuery(fulfillmentId, status, trackingSearch)
+                .stream(dataStore.getShipments()::get, shipmentFilter(status, carrier, trackingSearch));
+        return ResponseEntity.ok(shipments);
+    }
+
     @GetMapping("/{shipmentId}")
     @Operation(summary = "Get shipment by ID", description = "Retrieves a specific shipment by its unique identifier")
     @ApiResponses(value = {
@@ -66,7 +91,7 @@ public class ShipmentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Shipment not found with id: " + shipmentId));
         }
-        return ResponseEntity.ok(ApiResponse.success(shipment));
+        return responseCache.record("shipment", EntityType.SHIPMENT, shipmentId, shipment, () -> ApiResponse.success(shipment));
     }
 
     @GetMapping("/tracking/{trackingNumber}")
@@ -78,15 +103,13 @@ public class ShipmentController {
     public ResponseEntity<?> getShipmentByTrackingNumber(
             @Parameter(description = "Tracking number") @PathVariable String trackingNumber) {
 
-        Optional<ShipmentResponse> shipment = dataStore.getShipments().values().stream()
-                .filter(s -> s.getTrackingNumber().equals(trackingNumber))
-                .findFirst();
-
-        if (shipment.isEmpty()) {
+        ShipmentResponse shipment = dataStore.getShipmentByTrackingNumber(trackingNumber);
+        if (shipment == null) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Shipment not found with tracking: " + trackingNumber));
         }
-        return ResponseEntity.ok(ApiResponse.success(shipment.get()));
+        return responseCache.record("shipment", EntityType.SHIPMENT, shipment.getShipmentId(), shipment,
+                () -> ApiResponse.success(shipment));
     }
 
     @GetMapping("/{shipmentId}/tracking")
@@ -105,7 +128,7 @@ public class ShipmentController {
         }
 
         // Return tracking info (same as shipment details for now, could be a separate DTO)
-        return ResponseEntity.ok(ApiResponse.success(shipment));
+        return responseCache.record("shipment", EntityType.SHIPMENT, shipmentId, shipment, () -> ApiResponse.success(shipment));
     }
 
     @PostMapping
@@ -129,9 +152,8 @@ public class ShipmentController {
                     .body(ApiResponse.error("NOT_FOUND", "Address not found with id: " + request.getAddressId()));
         }
 
-        String shipmentId = "shp-" + UUID.randomUUID().toString().substring(0, 8);
-        String trackingNumber = "TRK" + System.currentTimeMillis() +
-                UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String shipmentId = idGenerator.nextId("shp-");
+        String trackingNumber = idGenerator.nextReference("TRK");
         LocalDateTime now = LocalDateTime.now();
 
         ShipmentResponse shipment = ShipmentResponse.builder()
@@ -151,13 +173,17 @@ public class ShipmentController {
     }
 
     @PutMapping("/{shipmentId}")
-    @Operation(summary = "Update a shipment", description = "Updates an existing shipment")
+    @Operation(summary = "Update a shipment", description = "Updates an existing shipment. "
+            + "Send the shipment's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Shipment updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Shipment not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Shipment not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Shipment changed since the ETag in If-Match was read")
     })
     public ResponseEntity<?> updateShipment(
             @Parameter(description = "Unique shipment identifier") @PathVariable String shipmentId,
+            @Parameter(description = "ETag of the shipment version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateShipmentRequest request) {
 
         ShipmentResponse existing = dataStore.getShipment(shipmentId);
@@ -165,6 +191,7 @@ public class ShipmentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Shipment not found with id: " + shipmentId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.SHIPMENT, shipmentId);
 
         ShipmentResponse updated = ShipmentResponse.builder()
                 .shipmentId(existing.getShipmentId())
@@ -181,18 +208,22 @@ public class ShipmentController {
                         request.getActualDeliveryDate() : existing.getActualDeliveryDate())
                 .build();
 
-        dataStore.saveShipment(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveShipment(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @PatchMapping("/{shipmentId}/status")
-    @Operation(summary = "Update shipment status", description = "Updates only the status of a shipment")
+    @Operation(summary = "Update shipment status", description = "Updates only the status of a shipment. "
+            + "Send the shipment's ETag in If-Match to update only if nobody has changed it since it was read")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Status updated successfully"),
-            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Shipment not found")
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "404", description = "Shipment not found"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "412", description = "Shipment changed since the ETag in If-Match was read")
     })
     public ResponseEntity<?> updateShipmentStatus(
             @Parameter(description = "Unique shipment identifier") @PathVariable String shipmentId,
+            @Parameter(description = "ETag of the shipment version this update is based on")
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
             @Valid @RequestBody UpdateShipmentStatusRequest request) {
 
         ShipmentResponse existing = dataStore.getShipment(shipmentId);
@@ -200,6 +231,7 @@ public class ShipmentController {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(ApiResponse.error("NOT_FOUND", "Shipment not found with id: " + shipmentId));
         }
+        Long expectedVersion = ETags.expectedVersion(ifMatch, existing, EntityType.SHIPMENT, shipmentId);
 
         LocalDateTime actualDelivery = existing.getActualDeliveryDate();
         if (request.getStatus() == ShipmentStatus.DELIVERED && actualDelivery == null) {
@@ -219,8 +251,8 @@ public class ShipmentController {
                 .actualDeliveryDate(actualDelivery)
                 .build();
 
-        dataStore.saveShipment(updated);
-        return ResponseEntity.ok(ApiResponse.success(updated));
+        dataStore.saveShipment(updated, expectedVersion);
+        return ResponseEntity.ok().eTag(ETags.of(updated)).body(ApiResponse.success(updated));
     }
 
     @DeleteMapping("/{shipmentId}")
@@ -241,5 +273,25 @@ public class ShipmentController {
         dataStore.deleteShipment(shipmentId);
         return ResponseEntity.noContent().build();
     }
-}
 
+    /**
+     * Index lookups for the shipment list filters, shared by the list and export endpoints.
+     */
+    private IndexQuery shipmentQuery(String fulfillmentId, ShipmentStatus status, String trackingSearch) {
+        return IndexQuery.over(dataStore.getShipmentIds())
+                .and(fulfillmentId != null ? dataStore.getShipmentIdsByFulfillment(fulfillmentId) : null)
+                .and(status != null ? dataStore.getShipmentIdsByStatus(status) : null)
+                // Every trigram of the search text; shorter searches fall back to checking each record
+                .andAll(trackingSearch != null ? dataStore.getShipmentIdsByTrackingSubstring(trackingSearch) : null);
+    }
+
+    /**
+     * Per-record check of the shipment list filters not guaranteed by the id lookups.
+     */
+    private static Predicate<ShipmentResponse> shipmentFilter(ShipmentStatus status, String carrier, String trackingSearch) {
+        String tracking = trackingSearch != null ? NgramIndex.normalize(trackingSearch) : null;
+        return s -> (status == null || s.getStatus() == status)
+                && (carrier == null || s.getCarrier().equalsIgnoreCase(carrier))
+                && (tracking == null || NgramIndex.normalize(s.getTrackingNumber()).contains(tracking));
+    }
+}
@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Address Data Transfer Object")
-public class AddressDTO {
+public class AddressDTO implements Versioned {
 
     @Schema(description = "Unique identifier of the address (auto-generated)", example = "addr-001", accessMode = Schema.AccessMode.READ_ONLY)
     private String addressId;
@@ -36,5 +36,7 @@ public class AddressDTO {
 
     @Schema(description = "Timestamp when address was created", example = "2025-01-20T10:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private java.time.LocalDateTime createdAt;
-}
 
+    @Schema(description = "Version of the address, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
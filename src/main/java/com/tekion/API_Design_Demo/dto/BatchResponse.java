@@ -0,0 +1,67 @@
+package com.tekion.API_Design_Demo.dto;
+
+import com.tekion.API_Design_Demo.dto.response.ApiError;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Outcome of a batch create/upsert request: totals plus one result per item,
+ * in request order.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Result of a batch create/upsert request")
+public class BatchResponse {
+
+    public static final String CREATED = "CREATED";
+    public static final String UPDATED = "UPDATED";
+    public static final String FAILED = "FAILED";
+
+    @Schema(description = "Number of records created", example = "98")
+    private int created;
+
+    @Schema(description = "Number of existing records replaced", example = "1")
+    private int updated;
+
+    @Schema(description = "Number of items rejected", example = "1")
+    private int failed;
+
+    @Schema(description = "Per-item results, in request order")
+    private List<ItemResult> results = new ArrayList<>();
+
+    /**
+     * Record the result of the next item.
+     */
+    public void add(ItemResult result) {
+        switch (result.getStatus()) {
+            case CREATED -> created++;
+            case UPDATED -> updated++;
+            default -> failed++;
+        }
+        results.add(result);
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "Result of one batch item")
+    public static class ItemResult {
+        @Schema(description = "Position of the item in the request (0-based)", example = "0")
+        private int index;
+
+        @Schema(description = "Id of the saved record (null if the item failed before an id was assigned)", example = "prod-0f1kq2x9m3a7c")
+        private String id;
+
+        @Schema(description = "CREATED, UPDATED or FAILED", example = "CREATED")
+        private String status;
+
+        @Schema(description = "Why the item failed (validation or reference errors)")
+        private List<ApiError> errors;
+    }
+}
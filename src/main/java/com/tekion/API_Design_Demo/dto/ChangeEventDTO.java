@@ -0,0 +1,43 @@
+package com.tekion.API_Design_Demo.dto;
+
+import com.tekion.API_Design_Demo.enums.ChangeOperation;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * One write applied to the DataStore, as published on the change feed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "A write applied to the store, in the order writes were applied")
+public class ChangeEventDTO {
+
+    @Schema(description = "Position of the event in the change feed; resume after it with after= or Last-Event-ID", example = "18234")
+    private long sequence;
+
+    @Schema(description = "Collection the record belongs to", example = "PRODUCT")
+    private EntityType entity;
+
+    @Schema(description = "Id of the changed record", example = "prod-0f1kq2x9m3a7c")
+    private String id;
+
+    @Schema(description = "CREATE, UPDATE or DELETE", example = "UPDATE")
+    private ChangeOperation op;
+
+    @Schema(description = "Version of the record after the write (for a delete, the version that was deleted)", example = "4")
+    private Long version;
+
+    @Schema(description = "The record after the write; null for a delete")
+    private Object payload;
+
+    @Schema(description = "When the write was applied", example = "2024-01-15T10:30:00.123Z")
+    private Instant changedAt;
+}
@@ -0,0 +1,27 @@
+package com.tekion.API_Design_Demo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of the change feed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Change events after a sequence number")
+public class ChangeFeedResponse {
+
+    @Schema(description = "Events in sequence order")
+    private List<ChangeEventDTO> events;
+
+    @Schema(description = "Sequence to pass as after= on the next request", example = "18234")
+    private long nextAfter;
+
+    @Schema(description = "Whether more events were already available than fit in this page", example = "false")
+    private boolean hasMore;
+}
@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Customer Data Transfer Object")
-public class CustomerDTO {
+public class CustomerDTO implements Versioned {
 
     @Schema(description = "Unique identifier of the customer (auto-generated)", example = "cust-001", accessMode = Schema.AccessMode.READ_ONLY)
     private String customerId;
@@ -30,5 +30,7 @@ public class CustomerDTO {
 
     @Schema(description = "Timestamp when customer was last updated", example = "2025-01-20T14:45:00", accessMode = Schema.AccessMode.READ_ONLY)
     private java.time.LocalDateTime updatedAt;
-}
 
+    @Schema(description = "Version of the customer, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
@@ -15,7 +15,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Fulfillment Data Transfer Object representing order fulfillment status")
-public class FulfillmentDTO {
+public class FulfillmentDTO implements Versioned {
 
     @Schema(description = "Unique fulfillment identifier (auto-generated)", example = "ful-12345678", accessMode = Schema.AccessMode.READ_ONLY)
     private String fulfillmentId;
@@ -35,6 +35,9 @@ public class FulfillmentDTO {
     @Schema(description = "Timestamp when fulfillment was last updated", example = "2026-01-20T14:45:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
 
+    @Schema(description = "Version of the fulfillment, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+
     // Enum as inner class - keeps it simple, no extra file
     @Schema(description = "Fulfillment status values")
     public enum FulfillmentStatus {
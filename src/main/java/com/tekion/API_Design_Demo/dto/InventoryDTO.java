@@ -13,11 +13,11 @@ import java.time.LocalDateTime;
  * Data Transfer Object for Inventory.
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Inventory record details")
-public class InventoryDTO {
+public class InventoryDTO implements Versioned {
 
     @Schema(description = "Unique inventory record ID", example = "inv-123e4567-e89b-12d3-a456-426614174000")
     private String id;
@@ -31,7 +31,7 @@ public class InventoryDTO {
     @Schema(description = "Current quantity in stock", example = "150", minimum = "0")
     private Integer quantity;
 
-    @Schema(description = "Quantity reserved for pending orders", example = "25", minimum = "0")
+    @Schema(description = "Quantity reserved for pending orders; changed only by order reservations", example = "25", minimum = "0")
     private Integer reservedQuantity;
 
     @Schema(description = "Available quantity (quantity - reservedQuantity)", example = "125", minimum = "0")
@@ -66,5 +66,7 @@ public class InventoryDTO {
 
     @Schema(description = "Timestamp of the last restock", example = "2024-01-18T09:00:00")
     private LocalDateTime lastRestockedAt;
-}
 
+    @Schema(description = "Version of the inventory record, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
@@ -0,0 +1,50 @@
+package com.tekion.API_Design_Demo.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * An inventory record crossing its low stock threshold, as delivered to alert webhooks.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "An inventory record that went below or back above its low stock threshold")
+public class LowStockAlertDTO {
+
+    public static final String LOW_STOCK = "LOW_STOCK";
+    public static final String RECOVERED = "RECOVERED";
+
+    @Schema(description = "LOW_STOCK when the available quantity fell to or below the threshold, RECOVERED when it rose above it again", example = "LOW_STOCK")
+    private String type;
+
+    @Schema(description = "Inventory record ID", example = "inv-0f1kq2x9m3a7c")
+    private String inventoryId;
+
+    @Schema(description = "Product ID", example = "prod-0f1kq2x9m3a7c")
+    private String productId;
+
+    @Schema(description = "Warehouse ID", example = "wh-east-1")
+    private String warehouseId;
+
+    @Schema(description = "Stock Keeping Unit", example = "SKU-12345")
+    private String sku;
+
+    @Schema(description = "Available quantity after the write that crossed the threshold", example = "4")
+    private Integer availableQuantity;
+
+    @Schema(description = "Low stock threshold of the record", example = "10")
+    private Integer lowStockThreshold;
+
+    @Schema(description = "Version of the inventory record that crossed the threshold", example = "12")
+    private Long version;
+
+    @Schema(description = "When the crossing was detected", example = "2024-01-15T10:30:00Z")
+    private Instant detectedAt;
+}
@@ -11,11 +11,11 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Data Transfer Object representing an Order")
-public class OrderDTO {
+public class OrderDTO implements Versioned {
 
     @Schema(description = "Unique identifier of the order (auto-generated)", example = "ord-001", accessMode = Schema.AccessMode.READ_ONLY)
     private String orderId;
@@ -47,5 +47,7 @@ public class OrderDTO {
 
     @Schema(description = "Timestamp when order was last updated", example = "2025-01-20T14:45:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
-}
 
+    @Schema(description = "Version of the order, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
@@ -0,0 +1,50 @@
+package com.tekion.API_Design_Demo.dto;
+
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Everything an order page shows, assembled in one response.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "An order with its items, shipping address, payments, fulfillments and shipments")
+public class OrderDetailDTO {
+
+    @Schema(description = "The order, including its items")
+    private OrderDTO order;
+
+    @Schema(description = "Address the order ships to; null if it no longer exists")
+    private AddressDTO shippingAddress;
+
+    @Schema(description = "Payments made for the order, in id order")
+    private List<PaymentDTO> payments;
+
+    @Schema(description = "Fulfillments of the order with their shipments, in id order")
+    private List<FulfillmentDetail> fulfillments;
+
+    /**
+     * A fulfillment with the shipments sent for it.
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Schema(description = "A fulfillment with its shipments")
+    public static class FulfillmentDetail {
+
+        @Schema(description = "The fulfillment")
+        private FulfillmentDTO fulfillment;
+
+        @Schema(description = "Shipments for the fulfillment, in id order")
+        private List<ShipmentResponse> shipments;
+    }
+}
@@ -14,7 +14,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Payment Data Transfer Object")
-public class PaymentDTO {
+public class PaymentDTO implements Versioned {
 
     @Schema(description = "Unique payment identifier (auto-generated)",
             example = "pay-001",
@@ -49,4 +49,7 @@ public class PaymentDTO {
 
     @Schema(description = "Timestamp when payment was last updated", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
+
+    @Schema(description = "Version of the payment, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
 }
@@ -13,7 +13,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Data Transfer Object for Product information")
-public class ProductDTO {
+public class ProductDTO implements Versioned {
 
     @Schema(description = "Unique product ID (auto-generated)", example = "prod-101", accessMode = Schema.AccessMode.READ_ONLY)
     private String productId;
@@ -48,5 +48,7 @@ public class ProductDTO {
 
     @Schema(description = "Timestamp when product was last updated", example = "2025-01-20T14:45:00", accessMode = Schema.AccessMode.READ_ONLY)
     private LocalDateTime updatedAt;
-}
 
+    @Schema(description = "Version of the product, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
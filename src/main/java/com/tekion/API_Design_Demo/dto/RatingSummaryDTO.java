@@ -0,0 +1,47 @@
+package com.tekion.API_Design_Demo.dto;
+
+import com.tekion.API_Design_Demo.service.index.RatingIndex;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Aggregate of a product's review ratings.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Summary of the ratings of a product's reviews")
+public class RatingSummaryDTO {
+
+    @Schema(description = "Product the reviews are for", example = "prod-101")
+    private String productId;
+
+    @Schema(description = "Number of reviews", example = "128")
+    private long reviewCount;
+
+    @Schema(description = "Average rating, 0 when there are no reviews", example = "4.27")
+    private double averageRating;
+
+    @Schema(description = "Number of reviews per star rating, from 1 to 5", example = "{\"1\": 3, \"2\": 5, \"3\": 12, \"4\": 40, \"5\": 68}")
+    private Map<Integer, Long> ratingCounts;
+
+    public static RatingSummaryDTO of(String productId, RatingIndex.Tally tally) {
+        Map<Integer, Long> counts = new LinkedHashMap<>();
+        for (int rating = RatingIndex.Tally.MIN_RATING; rating <= RatingIndex.Tally.MAX_RATING; rating++) {
+            counts.put(rating, tally.countOf(rating));
+        }
+        return RatingSummaryDTO.builder()
+                .productId(productId)
+                .reviewCount(tally.count())
+                .averageRating(tally.average())
+                .ratingCounts(counts)
+                .build();
+    }
+}
@@ -11,7 +11,7 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Schema(description = "Review Data Transfer Object")
-public class ReviewDTO {
+public class ReviewDTO implements Versioned {
 
     @Schema(description = "Unique review identifier (auto-generated)", example = "rev-001", accessMode = Schema.AccessMode.READ_ONLY)
     private String reviewId;
@@ -36,5 +36,7 @@ public class ReviewDTO {
 
     @Schema(description = "Date of review", example = "2026-01-20T10:30:00", accessMode = Schema.AccessMode.READ_ONLY)
     private java.time.LocalDateTime reviewDate;
-}
 
+    @Schema(description = "Version of the review, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+    private Long version;
+}
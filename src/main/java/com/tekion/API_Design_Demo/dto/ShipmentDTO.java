@@ -109,7 +109,7 @@ public class ShipmentDTO {
     @NoArgsConstructor
     @AllArgsConstructor
     @Schema(description = "Shipment details")
-    public static class ShipmentResponse {
+    public static class ShipmentResponse implements Versioned {
         @Schema(description = "Unique shipment identifier", example = "shp-550e8400-e29b-41d4-a716-446655440000")
         private String shipmentId;
 
@@ -139,6 +139,9 @@ public class ShipmentDTO {
 
         @Schema(description = "Actual delivery date")
         private LocalDateTime actualDeliveryDate;
+
+        @Schema(description = "Version of the shipment, incremented on every change and returned as the ETag header", example = "3", accessMode = Schema.AccessMode.READ_ONLY)
+        private Long version;
     }
 
     /**
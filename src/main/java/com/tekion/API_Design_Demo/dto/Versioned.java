@@ -0,0 +1,13 @@
+package com.tekion.API_Design_Demo.dto;
+
+/**
+ * A record whose version is maintained by the DataStore.
+ * The version goes up by one on every save; it is sent to clients as the ETag.
+ * A new record starts above every version given out before in its collection.
+ */
+public interface Versioned {
+
+    Long getVersion();
+
+    void setVersion(Long version);
+}
@@ -0,0 +1,27 @@
+package com.tekion.API_Design_Demo.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One item of a batch create/upsert request: the usual create request fields,
+ * plus an optional id. Without an id the record is created with a generated id;
+ * with one, the record with that id is created or replaced.
+ *
+ * @param <T> Type of the create request
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Batch item: the create request fields plus an optional id to upsert")
+public class BatchItem<T> {
+
+    @Schema(description = "Id of the record to create or replace; generated when omitted", example = "prod-0f1kq2x9m3a7c")
+    private String id;
+
+    @JsonUnwrapped
+    private T data;
+}
@@ -1,8 +1,11 @@
 package com.tekion.API_Design_Demo.dto.request;
 
 import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -19,7 +22,7 @@ public class CreateOrderRequest {
 
     @NotEmpty(message = "At least one order item is required")
     @Schema(description = "List of items to order", requiredMode = Schema.RequiredMode.REQUIRED)
-    private List<OrderItemRequest> items;
+    private List<@Valid OrderItemRequest> items;
 
     @Schema(description = "Shipping address ID", example = "addr-001")
     private String shippingAddressId;
@@ -34,6 +37,8 @@ public class CreateOrderRequest {
         @Schema(description = "Product ID to order", example = "prod-101", requiredMode = Schema.RequiredMode.REQUIRED)
         private String productId;
 
+        @NotNull(message = "Quantity is required")
+        @Min(value = 1, message = "Quantity must be at least 1")
         @Schema(description = "Quantity to order", example = "2", minimum = "1", requiredMode = Schema.RequiredMode.REQUIRED)
         private Integer quantity;
     }
@@ -9,6 +9,7 @@ import lombok.NoArgsConstructor;
 
 /**
  * Request DTO for updating an existing inventory record.
+ * The reserved quantity is not part of it: only order reservations change it.
  */
 @Data
 @Builder
@@ -23,9 +24,6 @@ public class UpdateInventoryRequest {
     @Schema(description = "Current quantity", example = "150", minimum = "0")
     private Integer quantity;
     
-    @Schema(description = "Reserved quantity", example = "25", minimum = "0")
-    private Integer reservedQuantity;
-    
     @Schema(description = "Low stock threshold", example = "20", minimum = "0")
     private Integer lowStockThreshold;
     
@@ -0,0 +1,13 @@
+package com.tekion.API_Design_Demo.enums;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Kind of write recorded in a change event.
+ */
+@Schema(description = "Kind of write recorded in a change event")
+public enum ChangeOperation {
+    CREATE,
+    UPDATE,
+    DELETE
+}
@@ -0,0 +1,39 @@
+package com.tekion.API_Design_Demo.enums;
+
+import com.tekion.API_Design_Demo.dto.AddressDTO;
+import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.PaymentDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.ReviewDTO;
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Enum of the entity collections held by the DataStore, with the record type stored for each.
+ */
+@Schema(description = "Entity collection types")
+public enum EntityType {
+
+    PRODUCT(ProductDTO.class),
+    CUSTOMER(CustomerDTO.class),
+    ORDER(OrderDTO.class),
+    ADDRESS(AddressDTO.class),
+    REVIEW(ReviewDTO.class),
+    PAYMENT(PaymentDTO.class),
+    INVENTORY(InventoryDTO.class),
+    FULFILLMENT(FulfillmentDTO.class),
+    SHIPMENT(ShipmentResponse.class);
+
+    private final Class<?> recordType;
+
+    EntityType(Class<?> recordType) {
+        this.recordType = recordType;
+    }
+
+    public Class<?> getRecordType() {
+        return recordType;
+    }
+}
@@ -27,6 +27,31 @@ public enum InventoryStatus {
     DISCONTINUED,
     
     @Schema(description = "Item is in transit to warehouse")
-    IN_TRANSIT
+    IN_TRANSIT;
+
+    private static final int DEFAULT_LOW_STOCK_THRESHOLD = 10;
+
+    /**
+     * Derive the stock status from the available quantity and low stock threshold (10 if not set).
+     */
+    public static InventoryStatus forAvailableQuantity(int availableQuantity, Integer lowStockThreshold) {
+        int threshold = lowStockThreshold != null ? lowStockThreshold : DEFAULT_LOW_STOCK_THRESHOLD;
+        if (availableQuantity <= 0) {
+            return OUT_OF_STOCK;
+        } else if (availableQuantity <= threshold) {
+            return LOW_STOCK;
+        }
+        return IN_STOCK;
+    }
+
+    /**
+     * Check whether an item counts as low on stock: its available quantity (0 if not set)
+     * is at or below its low stock threshold (10 if not set).
+     */
+    public static boolean isLowStock(Integer availableQuantity, Integer lowStockThreshold) {
+        int available = availableQuantity != null ? availableQuantity : 0;
+        int threshold = lowStockThreshold != null ? lowStockThreshold : DEFAULT_LOW_STOCK_THRESHOLD;
+        return available <= threshold;
+    }
 }
 
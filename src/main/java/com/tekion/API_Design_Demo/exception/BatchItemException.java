@@ -0,0 +1,19 @@
+package com.tekion.API_Design_Demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown while converting one item of a batch request that cannot be saved
+ * (e.g. it references a product that does not exist).
+ * Only that item is reported as failed; the rest of the batch is still written.
+ */
+@Getter
+public class BatchItemException extends RuntimeException {
+
+    private final String code;
+
+    public BatchItemException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
@@ -0,0 +1,23 @@
+package com.tekion.API_Design_Demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a change feed subscriber asks to resume from a sequence number whose
+ * following events are no longer retained, or that the feed never issued (e.g. one
+ * from before a restart). The subscriber has to reload the data and start over.
+ */
+@Getter
+public class ChangeFeedGapException extends RuntimeException {
+
+    private final long after;
+    private final long latestSequence;
+
+    public ChangeFeedGapException(long after, long oldestSequence, long latestSequence) {
+        super(after > latestSequence
+                ? "Sequence " + after + " was not issued by this change feed; the latest sequence is " + latestSequence
+                : "Changes after sequence " + after + " are no longer retained; the oldest retained sequence is " + oldestSequence);
+        this.after = after;
+        this.latestSequence = latestSequence;
+    }
+}
@@ -2,7 +2,9 @@ package com.tekion.API_Design_Demo.exception;
 
 import com.tekion.API_Design_Demo.dto.response.ErrorResponse;
 import com.tekion.API_Design_Demo.dto.response.ErrorResponse.ErrorDetail;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.validation.FieldError;
@@ -15,12 +17,14 @@ import org.springframework.web.method.annotation.MethodArgumentTypeMismatchExcep
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Global exception handler for the API.
  * Catches exceptions and returns user-friendly, detailed error responses.
  */
 @RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class GlobalExceptionHandler {
 
     /**
@@ -31,9 +35,95 @@ public class GlobalExceptionHandler {
     public ResponseEntity<ErrorResponse> handleValidationErrors(
             MethodArgumentNotValidException ex, WebRequest request) {
         
+        return respond(HttpStatus.BAD_REQUEST, validationErrors(ex.getBindingResult().getFieldErrors()), path(request));
+    }
+
+    /**
+     * Handle malformed JSON or unreadable request body.
+     */
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<ErrorResponse> handleMalformedJson(
+            HttpMessageNotReadableException ex, WebRequest request) {
+        
+        return respond(HttpStatus.BAD_REQUEST, List.of(malformedBody(ex.getMostSpecificCause().getMessage())), path(request));
+    }
+
+    /**
+     * Handle missing required request headers.
+     */
+    @ExceptionHandler(MissingRequestHeaderException.class)
+    public ResponseEntity<ErrorResponse> handleMissingHeader(
+            MissingRequestHeaderException ex, WebRequest request) {
+        
+        return respond(HttpStatus.BAD_REQUEST, List.of(missingHeader(ex.getHeaderName())), path(request));
+    }
+
+    /**
+     * Handle type mismatch errors (e.g., string instead of number in path variable).
+     */
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    public ResponseEntity<ErrorResponse> handleTypeMismatch(
+            MethodArgumentTypeMismatchException ex, WebRequest request) {
+        
+        return respond(HttpStatus.BAD_REQUEST, List.of(typeMismatch(ex.getName(), ex.getRequiredType(), ex.getValue())), path(request));
+    }
+
+    /**
+     * Handle invalid pagination parameters (malformed cursor, limit out of range).
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPageRequest(
+            InvalidPageRequestException ex, WebRequest request) {
+        
+        return respond(HttpStatus.BAD_REQUEST, List.of(invalidPageRequest(ex)), path(request));
+    }
+
+    /**
+     * Handle batch requests that are rejected as a whole (too many items, duplicate ids).
+     */
+    @ExceptionHandler(InvalidBatchRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidBatchRequest(
+            InvalidBatchRequestException ex, WebRequest request) {
+        
+        return respond(HttpStatus.BAD_REQUEST, List.of(invalidBatchRequest(ex)), path(request));
+    }
+
+    /**
+     * Handle conditional updates whose If-Match no longer names the current version.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(
+            VersionConflictException ex, WebRequest request) {
+        
+        return respond(HttpStatus.PRECONDITION_FAILED, List.of(versionConflict(ex)), path(request));
+    }
+
+    /**
+     * Handle change feed positions whose following events are no longer retained.
+     */
+    @ExceptionHandler(ChangeFeedGapException.class)
+    public ResponseEntity<ErrorResponse> handleChangeFeedGap(
+            ChangeFeedGapException ex, WebRequest request) {
+        
+        return respond(HttpStatus.GONE, List.of(changeFeedGap(ex)), path(request));
+    }
+
+    /**
+     * Handle all other unexpected exceptions.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(
+            Exception ex, WebRequest request) {
+        
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, List.of(internalError(ex)), path(request));
+    }
+
+    // Error details, shared with ReactiveExceptionHandler so both stacks answer alike
+
+    static List<ErrorDetail> validationErrors(List<FieldError> fieldErrors) {
         List<ErrorDetail> errorDetails = new ArrayList<>();
         
-        for (FieldError fieldError : ex.getBindingResult().getFieldErrors()) {
+        for (FieldError fieldError : fieldErrors) {
             ErrorDetail detail = ErrorDetail.builder()
                     .code("VALIDATION_ERROR")
                     .message(fieldError.getDefaultMessage())
@@ -43,24 +133,11 @@ public class GlobalExceptionHandler {
                     .build();
             errorDetails.add(detail);
         }
-        
-        ErrorResponse response = ErrorResponse.builder()
-                .errors(errorDetails)
-                .path(request.getDescription(false).replace("uri=", ""))
-                .build();
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
+        return errorDetails;
     }
 
-    /**
-     * Handle malformed JSON or unreadable request body.
-     */
-    @ExceptionHandler(HttpMessageNotReadableException.class)
-    public ResponseEntity<ErrorResponse> handleMalformedJson(
-            HttpMessageNotReadableException ex, WebRequest request) {
-        
+    static ErrorDetail malformedBody(String reason) {
         String message = "Invalid request body. Please check your JSON format.";
-        String reason = ex.getMostSpecificCause().getMessage();
         
         // Extract a cleaner error message
         if (reason != null && reason.contains("Cannot deserialize")) {
@@ -69,90 +146,95 @@ public class GlobalExceptionHandler {
             message = "Malformed JSON. Please check for syntax errors.";
         }
         
-        ErrorDetail detail = ErrorDetail.builder()
+        return ErrorDetail.builder()
                 .code("INVALID_REQUEST_BODY")
                 .message(message)
                 .reason(reason != null ? reason.split("\n")[0] : "Unable to parse request body")
                 .suggestion("Ensure the request body is valid JSON with correct field types")
                 .build();
-        
-        ErrorResponse response = ErrorResponse.builder()
-                .errors(List.of(detail))
-                .path(request.getDescription(false).replace("uri=", ""))
-                .build();
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
-    /**
-     * Handle missing required request headers.
-     */
-    @ExceptionHandler(MissingRequestHeaderException.class)
-    public ResponseEntity<ErrorResponse> handleMissingHeader(
-            MissingRequestHeaderException ex, WebRequest request) {
-        
-        ErrorDetail detail = ErrorDetail.builder()
+    static ErrorDetail missingHeader(String headerName) {
+        return ErrorDetail.builder()
                 .code("MISSING_HEADER")
-                .message("Required header '" + ex.getHeaderName() + "' is missing")
-                .field(ex.getHeaderName())
+                .message("Required header '" + headerName + "' is missing")
+                .field(headerName)
                 .reason("The request is missing a required header")
-                .suggestion("Add the '" + ex.getHeaderName() + "' header to your request")
+                .suggestion("Add the '" + headerName + "' header to your request")
                 .build();
-        
-        ErrorResponse response = ErrorResponse.builder()
-                .errors(List.of(detail))
-                .path(request.getDescription(false).replace("uri=", ""))
-                .build();
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
-    /**
-     * Handle type mismatch errors (e.g., string instead of number in path variable).
-     */
-    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
-    public ResponseEntity<ErrorResponse> handleTypeMismatch(
-            MethodArgumentTypeMismatchException ex, WebRequest request) {
+    static ErrorDetail typeMismatch(String paramName, Class<?> requiredType, Object value) {
+        String expectedType = requiredType != null ? requiredType.getSimpleName() : "unknown";
         
-        String paramName = ex.getName();
-        String expectedType = ex.getRequiredType() != null ? ex.getRequiredType().getSimpleName() : "unknown";
-        
-        ErrorDetail detail = ErrorDetail.builder()
+        return ErrorDetail.builder()
                 .code("TYPE_MISMATCH")
                 .message("Invalid value for parameter '" + paramName + "'")
                 .field(paramName)
-                .reason("Expected type: " + expectedType + ", but got: " + ex.getValue())
+                .reason("Expected type: " + expectedType + ", but got: " + value)
                 .suggestion("Please provide a valid " + expectedType + " value for '" + paramName + "'")
                 .build();
-        
-        ErrorResponse response = ErrorResponse.builder()
-                .errors(List.of(detail))
-                .path(request.getDescription(false).replace("uri=", ""))
+    }
+
+    static ErrorDetail invalidPageRequest(InvalidPageRequestException ex) {
+        return ErrorDetail.builder()
+                .code("INVALID_PAGE_REQUEST")
+                .message(ex.getMessage())
+                .field(ex.getField())
+                .reason("The pagination parameter '" + ex.getField() + "' is not valid")
+                .suggestion("Omit the cursor to start from the first page, or pass the nextCursor returned by the previous page unchanged")
                 .build();
-        
-        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(response);
     }
 
-    /**
-     * Handle all other unexpected exceptions.
-     */
-    @ExceptionHandler(Exception.class)
-    public ResponseEntity<ErrorResponse> handleGenericException(
-            Exception ex, WebRequest request) {
-        
-        ErrorDetail detail = ErrorDetail.builder()
+    static ErrorDetail invalidBatchRequest(InvalidBatchRequestException ex) {
+        return ErrorDetail.builder()
+                .code(ex.getCode())
+                .message(ex.getMessage())
+                .reason("The batch was rejected as a whole; none of its items were written")
+                .suggestion("Split the batch into smaller requests and send each record at most once per batch")
+                .build();
+    }
+
+    static ErrorDetail versionConflict(VersionConflictException ex) {
+        return ErrorDetail.builder()
+                .code("PRECONDITION_FAILED")
+                .message(ex.getMessage())
+                .field("If-Match")
+                .reason("The " + ex.getEntity().name().toLowerCase(Locale.ROOT) + " was changed by another request after its ETag was read")
+                .suggestion("Fetch the " + ex.getEntity().name().toLowerCase(Locale.ROOT) + " again and retry the update with its current ETag in If-Match")
+                .build();
+    }
+
+    static ErrorDetail changeFeedGap(ChangeFeedGapException ex) {
+        return ErrorDetail.builder()
+                .code("CHANGES_UNAVAILABLE")
+                .message(ex.getMessage())
+                .field("after")
+                .reason("Changes after sequence " + ex.getAfter() + " cannot be replayed, so some changes would be missed")
+                .suggestion("Reload the records from the list or export endpoints, then read changes again without 'after' to start from sequence " + ex.getLatestSequence())
+                .build();
+    }
+
+    static ErrorDetail internalError(Exception ex) {
+        return ErrorDetail.builder()
                 .code("INTERNAL_ERROR")
                 .message("An unexpected error occurred")
                 .reason(ex.getMessage())
                 .suggestion("Please try again or contact support if the problem persists")
                 .build();
-        
+    }
+
+    static ResponseEntity<ErrorResponse> respond(HttpStatusCode status, List<ErrorDetail> details, String path) {
         ErrorResponse response = ErrorResponse.builder()
-                .errors(List.of(detail))
-                .path(request.getDescription(false).replace("uri=", ""))
+                .errors(details)
+                .path(path)
                 .build();
         
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        return ResponseEntity.status(status).body(response);
+    }
+
+    private static String path(WebRequest request) {
+        return request.getDescription(false).replace("uri=", "");
     }
 }
 
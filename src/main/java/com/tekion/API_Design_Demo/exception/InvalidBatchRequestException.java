@@ -0,0 +1,18 @@
+package com.tekion.API_Design_Demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a batch request cannot be processed as a whole (too many items, or
+ * two items for the same id). Unlike {@link BatchItemException}, nothing is written.
+ */
+@Getter
+public class InvalidBatchRequestException extends RuntimeException {
+
+    private final String code;
+
+    public InvalidBatchRequestException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
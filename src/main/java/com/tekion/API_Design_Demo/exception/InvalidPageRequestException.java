@@ -0,0 +1,17 @@
+package com.tekion.API_Design_Demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown when a list request carries a malformed cursor or an out-of-range limit.
+ */
+@Getter
+public class InvalidPageRequestException extends RuntimeException {
+
+    private final String field;
+
+    public InvalidPageRequestException(String field, String message) {
+        super(message);
+        this.field = field;
+    }
+}
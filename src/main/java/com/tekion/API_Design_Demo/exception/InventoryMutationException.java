@@ -0,0 +1,19 @@
+package com.tekion.API_Design_Demo.exception;
+
+import lombok.Getter;
+
+/**
+ * Thrown from inside an atomic inventory mutation when the change would break
+ * an inventory rule (negative quantity, exceeding max capacity).
+ * The record is left unchanged.
+ */
+@Getter
+public class InventoryMutationException extends RuntimeException {
+
+    private final String code;
+
+    public InventoryMutationException(String code, String message) {
+        super(message);
+        this.code = code;
+    }
+}
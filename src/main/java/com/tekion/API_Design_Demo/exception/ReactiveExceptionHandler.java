@@ -0,0 +1,137 @@
+package com.tekion.API_Design_Demo.exception;
+
+import com.tekion.API_Design_Demo.dto.response.ErrorResponse;
+import com.tekion.API_Design_Demo.dto.response.ErrorResponse.ErrorDetail;
+import org.springframework.beans.TypeMismatchException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MissingRequestValueException;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+
+import java.util.List;
+
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.changeFeedGap;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.internalError;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.invalidPageRequest;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.malformedBody;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.missingHeader;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.respond;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.typeMismatch;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.validationErrors;
+import static com.tekion.API_Design_Demo.exception.GlobalExceptionHandler.versionConflict;
+
+/**
+ * Exception handler for the reactive (WebFlux) stack.
+ * Answers with the same status codes and error details as {@link GlobalExceptionHandler};
+ * WebFlux reports bad input as {@link ServerWebInputException} subclasses instead of the
+ * MVC exceptions, so those are mapped back to the matching detail here.
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+
+    /**
+     * Handle validation errors from @Valid annotations.
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<ErrorResponse> handleValidationErrors(
+            WebExchangeBindException ex, ServerWebExchange exchange) {
+
+        return respond(HttpStatus.BAD_REQUEST, validationErrors(ex.getFieldErrors()), path(exchange));
+    }
+
+    /**
+     * Handle a missing header, a parameter of the wrong type or an unreadable body.
+     */
+    @ExceptionHandler(ServerWebInputException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidInput(
+            ServerWebInputException ex, ServerWebExchange exchange) {
+
+        ErrorDetail detail;
+        if (ex instanceof MissingRequestValueException missing && "header".equals(missing.getLabel())) {
+            detail = missingHeader(missing.getName());
+        } else if (ex.getCause() instanceof TypeMismatchException mismatch) {
+            String paramName = ex.getMethodParameter() != null ? ex.getMethodParameter().getParameterName() : mismatch.getPropertyName();
+            detail = typeMismatch(paramName, mismatch.getRequiredType(), mismatch.getValue());
+        } else if (ex.getCause() instanceof DecodingException) {
+            detail = malformedBody(NestedExceptionUtils.getMostSpecificCause(ex).getMessage());
+        } else {
+            detail = ErrorDetail.builder()
+                    .code("INVALID_REQUEST")
+                    .message(ex.getReason())
+                    .reason("The request could not be read")
+                    .suggestion("Check the request parameters, headers and body against the API documentation")
+                    .build();
+        }
+        return respond(HttpStatus.BAD_REQUEST, List.of(detail), path(exchange));
+    }
+
+    /**
+     * Handle invalid pagination parameters (cursor, limit).
+     */
+    @ExceptionHandler(InvalidPageRequestException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidPageRequest(
+            InvalidPageRequestException ex, ServerWebExchange exchange) {
+
+        return respond(HttpStatus.BAD_REQUEST, List.of(invalidPageRequest(ex)), path(exchange));
+    }
+
+    /**
+     * Handle a conditional write whose If-Match no longer matches the stored record.
+     */
+    @ExceptionHandler(VersionConflictException.class)
+    public ResponseEntity<ErrorResponse> handleVersionConflict(
+            VersionConflictException ex, ServerWebExchange exchange) {
+
+        return respond(HttpStatus.PRECONDITION_FAILED, List.of(versionConflict(ex)), path(exchange));
+    }
+
+    /**
+     * Handle a change feed position that has already been overwritten.
+     */
+    @ExceptionHandler(ChangeFeedGapException.class)
+    public ResponseEntity<ErrorResponse> handleChangeFeedGap(
+            ChangeFeedGapException ex, ServerWebExchange exchange) {
+
+        return respond(HttpStatus.GONE, List.of(changeFeedGap(ex)), path(exchange));
+    }
+
+    /**
+     * Handle errors WebFlux raises with a status of their own, e.g. 404 for an unknown route.
+     */
+    @ExceptionHandler(ResponseStatusException.class)
+    public ResponseEntity<ErrorResponse> handleResponseStatus(
+            ResponseStatusException ex, ServerWebExchange exchange) {
+
+        HttpStatus status = HttpStatus.resolve(ex.getStatusCode().value());
+        ErrorDetail detail = ErrorDetail.builder()
+                .code(status != null ? status.name() : "HTTP_" + ex.getStatusCode().value())
+                .message(ex.getReason() != null ? ex.getReason() : ex.getMessage())
+                .reason("The request was rejected with status " + ex.getStatusCode().value())
+                .suggestion("Check the request method and path against the API documentation")
+                .build();
+        return respond(ex.getStatusCode(), List.of(detail), path(exchange));
+    }
+
+    /**
+     * Handle all other unexpected exceptions.
+     */
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<ErrorResponse> handleGenericException(
+            Exception ex, ServerWebExchange exchange) {
+
+        return respond(HttpStatus.INTERNAL_SERVER_ERROR, List.of(internalError(ex)), path(exchange));
+    }
+
+    private static String path(ServerWebExchange exchange) {
+        return exchange.getRequest().getPath().value();
+    }
+}
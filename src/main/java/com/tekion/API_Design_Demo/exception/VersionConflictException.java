@@ -0,0 +1,25 @@
+package com.tekion.API_Design_Demo.exception;
+
+import com.tekion.API_Design_Demo.enums.EntityType;
+import lombok.Getter;
+
+/**
+ * Thrown when a conditional update names a version (If-Match) that is no longer
+ * the current version of the record. The record is left unchanged.
+ */
+@Getter
+public class VersionConflictException extends RuntimeException {
+
+    private final EntityType entity;
+    private final String id;
+    private final long currentVersion;
+
+    public VersionConflictException(EntityType entity, String id, long currentVersion) {
+        super(currentVersion == 0
+                ? entity + " " + id + " no longer exists"
+                : entity + " " + id + " has changed; its current version is " + currentVersion);
+        this.entity = entity;
+        this.id = id;
+        this.currentVersion = currentVersion;
+    }
+}
@@ -0,0 +1,17 @@
+package com.tekion.API_Design_Demo.service;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Settings for batch create/upsert requests (http.batch.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "http.batch")
+public class BatchProperties {
+
+    /**
+     * Most items accepted in one batch request; larger requests are rejected with 400.
+     */
+    private int maxItems = 1000;
+}
@@ -0,0 +1,111 @@
+package com.tekion.API_Design_Demo.service;
+
+import com.tekion.API_Design_Demo.dto.BatchResponse;
+import com.tekion.API_Design_Demo.dto.BatchResponse.ItemResult;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
+import com.tekion.API_Design_Demo.dto.response.ApiError;
+import com.tekion.API_Design_Demo.exception.BatchItemException;
+import com.tekion.API_Design_Demo.exception.InvalidBatchRequestException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Runs a batch create/upsert request: validates and converts every item, then
+ * hands all valid records to one DataStore batch save.
+ * Invalid items are reported in the response and do not stop the others.
+ * Items are validated with the application's bean {@link Validator}.
+ */
+@Component
+@EnableConfigurationProperties(BatchProperties.class)
+public class BatchWriter {
+
+    private final Validator validator;
+    private final BatchProperties properties;
+
+    public BatchWriter(Validator validator, BatchProperties properties) {
+        this.validator = validator;
+        this.properties = properties;
+    }
+
+    /**
+     * @param items     the request items
+     * @param converter builds the record for a valid item; throws {@link BatchItemException} to reject it
+     * @param idOf      id of a built record
+     * @param exists    whether a record with the id is already stored (reported as UPDATED)
+     * @param saveAll   DataStore batch save
+     * @throws InvalidBatchRequestException BATCH_TOO_LARGE if there are more than
+     *                                      {@code http.batch.max-items} items, DUPLICATE_ID if two
+     *                                      items have the same id; nothing is written in either case
+     */
+    public <R, T> BatchResponse write(List<BatchItem<R>> items, Function<BatchItem<R>, T> converter,
+                                      Function<T, String> idOf, Predicate<String> exists,
+                                      Consumer<List<T>> saveAll) {
+        check(items);
+        List<ItemResult> results = new ArrayList<>(items.size());
+        List<T> records = new ArrayList<>(items.size());
+
+        for (int index = 0; index < items.size(); index++) {
+            BatchItem<R> item = items.get(index);
+            if (item == null || item.getData() == null) {
+                results.add(failed(index, null, List.of(ApiError.of("VALIDATION_ERROR", "Item is empty"))));
+                continue;
+            }
+            List<ApiError> errors = validate(item.getData());
+            if (!errors.isEmpty()) {
+                results.add(failed(index, item.getId(), errors));
+                continue;
+            }
+            try {
+                T record = converter.apply(item);
+                String id = idOf.apply(record);
+                results.add(new ItemResult(index, id, exists.test(id) ? BatchResponse.UPDATED : BatchResponse.CREATED, null));
+                records.add(record);
+            } catch (BatchItemException ex) {
+                results.add(failed(index, item.getId(), List.of(ApiError.of(ex.getCode(), ex.getMessage()))));
+            }
+        }
+
+        saveAll.accept(records);
+
+        BatchResponse response = new BatchResponse();
+        results.forEach(response::add);
+        return response;
+    }
+
+    private void check(List<? extends BatchItem<?>> items) {
+        if (items.size() > properties.getMaxItems()) {
+            throw new InvalidBatchRequestException("BATCH_TOO_LARGE",
+                    "Batch has " + items.size() + " items; at most " + properties.getMaxItems() + " are accepted");
+        }
+        // Which of two writes to one record wins would depend on the save order
+        Set<String> ids = new HashSet<>();
+        for (BatchItem<?> item : items) {
+            if (item != null && item.getId() != null && !ids.add(item.getId())) {
+                throw new InvalidBatchRequestException("DUPLICATE_ID", "Batch has more than one item with id " + item.getId());
+            }
+        }
+    }
+
+    private List<ApiError> validate(Object request) {
+        Set<ConstraintViolation<Object>> violations = validator.validate(request);
+        List<ApiError> errors = new ArrayList<>(violations.size());
+        for (ConstraintViolation<Object> violation : violations) {
+            errors.add(ApiError.of("VALIDATION_ERROR", violation.getMessage(), violation.getPropertyPath().toString()));
+        }
+        return errors;
+    }
+
+    private static ItemResult failed(int index, String id, List<ApiError> errors) {
+        return new ItemResult(index, id, BatchResponse.FAILED, errors);
+    }
+}
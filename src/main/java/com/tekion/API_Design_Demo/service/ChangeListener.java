@@ -0,0 +1,27 @@
+package com.tekion.API_Design_Demo.service;
+
+import com.tekion.API_Design_Demo.enums.EntityType;
+
+/**
+ * Receives every write applied to the {@link DataStore}.
+ */
+public interface ChangeListener {
+
+    /**
+     * Called inside the per-key compute of the write, so calls for the same
+     * record arrive in the order the writes were applied.
+     * Runs while the key is locked and must not block. If it throws, the
+     * write is rejected and the store is left unchanged.
+     *
+     * @param previous the record before the write, or null if it did not exist
+     * @param current  the record after the write, or null for a delete
+     */
+    void onChange(EntityType entity, String id, Object previous, Object current);
+
+    /**
+     * Called on the writing thread after the write is visible and the key is unlocked.
+     * Listeners that need to make the writer wait (e.g. for durability) do it here.
+     */
+    default void afterCommit() {
+    }
+}
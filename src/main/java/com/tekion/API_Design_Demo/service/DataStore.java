@@ -1,15 +1,69 @@
 package com.tekion.API_Design_Demo.service;
 
 import com.tekion.API_Design_Demo.dto.*;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO.FulfillmentStatus;
 import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentStatus;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
+import com.tekion.API_Design_Demo.service.index.IdSet;
+import com.tekion.API_Design_Demo.service.index.NgramIndex;
+import com.tekion.API_Design_Demo.service.index.RangeIndex;
+import com.tekion.API_Design_Demo.service.index.RatingIndex;
+import com.tekion.API_Design_Demo.service.index.SecondaryIndex;
+import com.tekion.API_Design_Demo.service.index.TextIndex;
+import com.tekion.API_Design_Demo.service.index.UniqueIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
 
 /**
  * In-memory data store for demo purposes.
  * Provides centralized storage for all entities.
+ *
+ * Foreign-key, status, range and keyword lookups are served from secondary
+ * indexes that are updated inside the same per-key compute as the primary map,
+ * so an index never points at a different version of a record than the map holds.
+ * Each collection also keeps its ids in a sorted set, which gives list
+ * endpoints a stable order to page through with a cursor.
+ * Every write is reported to the registered {@link ChangeListener}s from
+ * inside the same compute, so listeners observe writes to a record in order.
+ *
+ * Every record carries a version that the store raises by one on each save.
+ * The save overloads that take an expected version compare and set it inside
+ * the same compute, so a conditional update fails instead of overwriting a
+ * change it has not seen. A new record takes its first version from a clock
+ * per collection that is above every version given out in that collection, so
+ * an id that is deleted and created again never repeats a version (and ETag)
+ * of its earlier life. Records recovered from disk go through {@link #restore},
+ * which keeps the version they were logged with.
+ *
+ * Single-record reads and writes are timed per collection and operation
+ * (see {@link DataStoreMetrics}). Paged scans load records through the maps
+ * returned by getProducts() etc., so they are timed once per page by
+ * {@link KeysetPaginator} rather than once per record.
  */
 @Component
 public class DataStore {
@@ -24,21 +78,169 @@ public class DataStore {
     private final Map<String, FulfillmentDTO> fulfillments = new ConcurrentHashMap<>();
     private final Map<String, ShipmentResponse> shipments = new ConcurrentHashMap<>();
 
+    // Sorted ids per collection (used for cursor pagination)
+    private final NavigableSet<String> productIds = new IdSet();
+    private final NavigableSet<String> customerIds = new IdSet();
+    private final NavigableSet<String> orderIds = new IdSet();
+    private final NavigableSet<String> addressIds = new IdSet();
+    private final NavigableSet<String> reviewIds = new IdSet();
+    private final NavigableSet<String> paymentIds = new IdSet();
+    private final NavigableSet<String> inventoryIds = new IdSet();
+    private final NavigableSet<String> fulfillmentIds = new IdSet();
+    private final NavigableSet<String> shipmentIds = new IdSet();
+
+    // Secondary indexes (foreign key -> record ids)
+    private final SecondaryIndex<String> ordersByCustomer = new SecondaryIndex<>();
+    private final SecondaryIndex<String> addressesByCustomer = new SecondaryIndex<>();
+    private final SecondaryIndex<String> reviewsByCustomer = new SecondaryIndex<>();
+    private final SecondaryIndex<String> reviewsByProduct = new SecondaryIndex<>();
+    private final SecondaryIndex<String> paymentsByOrder = new SecondaryIndex<>();
+    private final SecondaryIndex<String> inventoryByProduct = new SecondaryIndex<>();
+    private final SecondaryIndex<String> fulfillmentsByOrder = new SecondaryIndex<>();
+    private final SecondaryIndex<String> shipmentsByFulfillment = new SecondaryIndex<>();
+    private final SecondaryIndex<String> inventoryByWarehouse = new SecondaryIndex<>();
+
+    // Status indexes (status -> record ids); free-text statuses are keyed upper-case
+    private final SecondaryIndex<String> ordersByStatus = new SecondaryIndex<>();
+    private final SecondaryIndex<String> paymentsByStatus = new SecondaryIndex<>();
+    private final SecondaryIndex<InventoryStatus> inventoryByStatus = new SecondaryIndex<>();
+    private final SecondaryIndex<FulfillmentStatus> fulfillmentsByStatus = new SecondaryIndex<>();
+    private final SecondaryIndex<ShipmentStatus> shipmentsByStatus = new SecondaryIndex<>();
+
+    // Inventory records at or below their low stock threshold, overall and per warehouse
+    private final NavigableSet<String> lowStockInventoryIds = new IdSet();
+    private final SecondaryIndex<String> lowStockInventoryByWarehouse = new SecondaryIndex<>();
+
+    // Range indexes (sortable field -> record ids)
+    private final RangeIndex<Double> productsByPrice = new RangeIndex<>();
+    private final RangeIndex<LocalDateTime> ordersByDate = new RangeIndex<>();
+    private final RangeIndex<BigDecimal> ordersByTotal = new RangeIndex<>();
+
+    // Full-text index over product name (weighted higher) and description
+    private static final int PRODUCT_NAME_WEIGHT = 3;
+    private static final int PRODUCT_DESCRIPTION_WEIGHT = 1;
+    private final TextIndex productText = new TextIndex();
+
+    // Customer name and email, case-folded: sorted for prefix lookups, and trigrams for partial search
+    private final RangeIndex<String> customersByName = new RangeIndex<>();
+    private final RangeIndex<String> customersByEmail = new RangeIndex<>();
+    private final NgramIndex customerNameGrams = new NgramIndex();
+    private final NgramIndex customerEmailGrams = new NgramIndex();
+
+    // Shipment tracking numbers: exact lookup, and trigrams for partial search
+    private final UniqueIndex shipmentsByTracking = new UniqueIndex();
+    private final NgramIndex shipmentTrackingGrams = new NgramIndex();
+
+    // Review rating tallies per product (count, sum, stars histogram)
+    private final RatingIndex ratingsByProduct = new RatingIndex();
+
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+    // Writes per collection, counted once the write is visible
+    private final AtomicLongArray changeCounts = new AtomicLongArray(EntityType.values().length);
+    // Highest version given out per collection
+    private final AtomicLongArray versionClocks = new AtomicLongArray(EntityType.values().length);
+    private final DataStoreMetrics metrics;
+
+    /**
+     * Create a store whose meters go to the global registry (a no-op unless a registry has been added to it).
+     */
+    public DataStore() {
+        this(Metrics.globalRegistry);
+    }
+
+    @Autowired
+    public DataStore(MeterRegistry registry) {
+        this.metrics = new DataStoreMetrics(registry, this);
+    }
+
     // Product operations
     public Map<String, ProductDTO> getProducts() {
         return products;
     }
 
+    public NavigableSet<String> getProductIds() {
+        return Collections.unmodifiableNavigableSet(productIds);
+    }
+
     public ProductDTO getProduct(String productId) {
-        return products.get(productId);
+        long start = System.nanoTime();
+        ProductDTO product = products.get(productId);
+        metrics.record(EntityType.PRODUCT, DataStoreMetrics.Operation.GET, start);
+        return product;
+    }
+
+    /**
+     * Get the products priced between min and max (inclusive; null leaves that end open).
+     */
+    public RangeIndex.Range getProductsByPriceRange(Double minPrice, Double maxPrice) {
+        return productsByPrice.range(minPrice, maxPrice);
+    }
+
+    /**
+     * Search products by keywords in name or description, best match first.
+     * Every keyword must match the start of a word; see {@link TextIndex}.
+     */
+    public List<ProductDTO> searchProducts(String query, int limit) {
+        long start = System.nanoTime();
+        List<ProductDTO> results = resolve(productText.search(query, limit), products);
+        metrics.record(EntityType.PRODUCT, DataStoreMetrics.Operation.SEARCH, start);
+        return results;
     }
 
     public void saveProduct(ProductDTO product) {
-        products.put(product.getProductId(), product);
+        saveProduct(product, null);
+    }
+
+    /**
+     * Save a product if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored product is at another version or was deleted
+     */
+    public void saveProduct(ProductDTO product, Long expectedVersion) {
+        long start = System.nanoTime();
+        putProduct(product, expectedVersion, false);
+        afterCommit(EntityType.PRODUCT);
+        metrics.record(EntityType.PRODUCT, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    /**
+     * Save many products at once; see {@link #sortedById}.
+     */
+    public void saveProducts(Collection<ProductDTO> batch) {
+        long start = System.nanoTime();
+        for (ProductDTO product : sortedById(batch, ProductDTO::getProductId)) {
+            putProduct(product, null, false);
+        }
+        afterCommit(EntityType.PRODUCT);
+        metrics.record(EntityType.PRODUCT, DataStoreMetrics.Operation.SAVE_BATCH, start);
+    }
+
+    private void putProduct(ProductDTO product, Long expectedVersion, boolean restore) {
+        products.compute(product.getProductId(), (id, previous) -> {
+            stamp(EntityType.PRODUCT, id, previous, product, expectedVersion, restore);
+            publish(EntityType.PRODUCT, id, previous, product, restore);
+            productIds.add(id);
+            productsByPrice.move(previous != null ? previous.getPrice() : null, product.getPrice(), id);
+            productText.put(id, productTerms(product));
+            return product;
+        });
     }
 
     public void deleteProduct(String productId) {
-        products.remove(productId);
+        long start = System.nanoTime();
+        removeProduct(productId, false);
+        afterCommit(EntityType.PRODUCT);
+        metrics.record(EntityType.PRODUCT, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeProduct(String productId, boolean restore) {
+        products.computeIfPresent(productId, (id, previous) -> {
+            publish(EntityType.PRODUCT, id, previous, null, restore);
+            productIds.remove(id);
+            productsByPrice.remove(previous.getPrice(), id);
+            productText.remove(id);
+            return null;
+        });
     }
 
     // Customer operations
@@ -46,16 +248,139 @@ public class DataStore {
         return customers;
     }
 
+    public NavigableSet<String> getCustomerIds() {
+        return Collections.unmodifiableNavigableSet(customerIds);
+    }
+
     public CustomerDTO getCustomer(String customerId) {
-        return customers.get(customerId);
+        long start = System.nanoTime();
+        CustomerDTO customer = customers.get(customerId);
+        metrics.record(EntityType.CUSTOMER, DataStoreMetrics.Operation.GET, start);
+        return customer;
+    }
+
+    /**
+     * Get the id sets a customer must be in for its name to contain the text
+     * (case-insensitive), or null if the text is too short for the trigram index to narrow.
+     */
+    public List<NavigableSet<String>> getCustomerIdsByNameSubstring(String text) {
+        return customerNameGrams.candidates(text);
+    }
+
+    /**
+     * Get the id sets a customer must be in for its email to contain the text
+     * (case-insensitive), or null if the text is too short for the trigram index to narrow.
+     */
+    public List<NavigableSet<String>> getCustomerIdsByEmailSubstring(String text) {
+        return customerEmailGrams.candidates(text);
+    }
+
+    /**
+     * Find up to limit customers whose name or email contains the text (case-insensitive), for typeahead.
+     * Names and then emails starting with the text come first, alphabetically, read straight off
+     * the sorted indexes; the rest are filled from the trigram index in id order.
+     */
+    public List<CustomerDTO> searchCustomers(String text, int limit) {
+        long start = System.nanoTime();
+        String folded = NgramIndex.normalize(text);
+        Set<String> ids = new LinkedHashSet<>();
+        if (folded != null && !folded.isEmpty() && limit > 0) {
+            ids.addAll(customersByName.range(folded, folded + Character.MAX_VALUE).firstIds(limit));
+            for (String id : customersByEmail.range(folded, folded + Character.MAX_VALUE).firstIds(limit)) {
+                if (ids.size() >= limit) {
+                    break;
+                }
+                ids.add(id);
+            }
+            addContaining(ids, customerNameGrams.candidates(folded), CustomerDTO::getName, folded, limit);
+            addContaining(ids, customerEmailGrams.candidates(folded), CustomerDTO::getEmail, folded, limit);
+        }
+        List<CustomerDTO> results = resolve(ids, customers);
+        metrics.record(EntityType.CUSTOMER, DataStoreMetrics.Operation.SEARCH, start);
+        return results;
+    }
+
+    private void addContaining(Set<String> ids, List<NavigableSet<String>> candidates, Function<CustomerDTO, String> field,
+                               String folded, int limit) {
+        if (candidates == null || ids.size() >= limit) {
+            return;
+        }
+        Iterator<CustomerDTO> matches = KeysetPaginator.streamIntersection(customerIds, candidates, customers::get,
+                customer -> {
+                    String value = NgramIndex.normalize(field.apply(customer));
+                    return value != null && value.contains(folded);
+                }).iterator();
+        while (ids.size() < limit && matches.hasNext()) {
+            ids.add(matches.next().getCustomerId());
+        }
     }
 
     public void saveCustomer(CustomerDTO customer) {
-        customers.put(customer.getCustomerId(), customer);
+        saveCustomer(customer, null);
+    }
+
+    /**
+     * Save a customer if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored customer is at another version or was deleted
+     */
+    public void saveCustomer(CustomerDTO customer, Long expectedVersion) {
+        long start = System.nanoTime();
+        putCustomer(customer, expectedVersion, false);
+        afterCommit(EntityType.CUSTOMER);
+        metrics.record(EntityType.CUSTOMER, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    /**
+     * Save many customers at once; see {@link #sortedById}.
+     */
+    public void saveCustomers(Collection<CustomerDTO> batch) {
+        long start = System.nanoTime();
+        for (CustomerDTO customer : sortedById(batch, CustomerDTO::getCustomerId)) {
+            putCustomer(customer, null, false);
+        }
+        afterCommit(EntityType.CUSTOMER);
+        metrics.record(EntityType.CUSTOMER, DataStoreMetrics.Operation.SAVE_BATCH, start);
+    }
+
+    private void putCustomer(CustomerDTO customer, Long expectedVersion, boolean restore) {
+        customers.compute(customer.getCustomerId(), (id, previous) -> {
+            stamp(EntityType.CUSTOMER, id, previous, customer, expectedVersion, restore);
+            publish(EntityType.CUSTOMER, id, previous, customer, restore);
+            customerIds.add(id);
+            indexCustomer(id, previous, customer);
+            return customer;
+        });
+    }
+
+    /**
+     * Move a customer's name and email entries from the previous record to the current one (null when deleted).
+     */
+    private void indexCustomer(String id, CustomerDTO previous, CustomerDTO current) {
+        String previousName = previous != null ? previous.getName() : null;
+        String currentName = current != null ? current.getName() : null;
+        String previousEmail = previous != null ? previous.getEmail() : null;
+        String currentEmail = current != null ? current.getEmail() : null;
+        customersByName.move(NgramIndex.normalize(previousName), NgramIndex.normalize(currentName), id);
+        customersByEmail.move(NgramIndex.normalize(previousEmail), NgramIndex.normalize(currentEmail), id);
+        customerNameGrams.move(previousName, currentName, id);
+        customerEmailGrams.move(previousEmail, currentEmail, id);
     }
 
     public void deleteCustomer(String customerId) {
-        customers.remove(customerId);
+        long start = System.nanoTime();
+        removeCustomer(customerId, false);
+        afterCommit(EntityType.CUSTOMER);
+        metrics.record(EntityType.CUSTOMER, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeCustomer(String customerId, boolean restore) {
+        customers.computeIfPresent(customerId, (id, previous) -> {
+            publish(EntityType.CUSTOMER, id, previous, null, restore);
+            customerIds.remove(id);
+            indexCustomer(id, previous, null);
+            return null;
+        });
     }
 
     // Order operations
@@ -63,16 +388,89 @@ public class DataStore {
         return orders;
     }
 
+    public NavigableSet<String> getOrderIds() {
+        return Collections.unmodifiableNavigableSet(orderIds);
+    }
+
     public OrderDTO getOrder(String orderId) {
-        return orders.get(orderId);
+        long start = System.nanoTime();
+        OrderDTO order = orders.get(orderId);
+        metrics.record(EntityType.ORDER, DataStoreMetrics.Operation.GET, start);
+        return order;
+    }
+
+    public NavigableSet<String> getOrderIdsByCustomer(String customerId) {
+        return ordersByCustomer.get(customerId);
+    }
+
+    public List<OrderDTO> getOrdersByCustomer(String customerId) {
+        return resolve(ordersByCustomer.get(customerId), orders);
+    }
+
+    public NavigableSet<String> getOrderIdsByStatus(String status) {
+        return ordersByStatus.get(statusKey(status));
+    }
+
+    /**
+     * Get the orders placed between the given times (inclusive; null leaves that end open).
+     */
+    public RangeIndex.Range getOrdersByDateRange(LocalDateTime from, LocalDateTime to) {
+        return ordersByDate.range(from, to);
+    }
+
+    /**
+     * Get the orders whose total lies between min and max (inclusive; null leaves that end open).
+     */
+    public RangeIndex.Range getOrdersByTotalRange(BigDecimal minAmount, BigDecimal maxAmount) {
+        return ordersByTotal.range(minAmount, maxAmount);
     }
 
     public void saveOrder(OrderDTO order) {
-        orders.put(order.getOrderId(), order);
+        saveOrder(order, null);
+    }
+
+    /**
+     * Save an order if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored order is at another version or was deleted
+     */
+    public void saveOrder(OrderDTO order, Long expectedVersion) {
+        long start = System.nanoTime();
+        putOrder(order, expectedVersion, false);
+        afterCommit(EntityType.ORDER);
+        metrics.record(EntityType.ORDER, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    private void putOrder(OrderDTO order, Long expectedVersion, boolean restore) {
+        orders.compute(order.getOrderId(), (id, previous) -> {
+            stamp(EntityType.ORDER, id, previous, order, expectedVersion, restore);
+            publish(EntityType.ORDER, id, previous, order, restore);
+            orderIds.add(id);
+            ordersByCustomer.move(previous != null ? previous.getCustomerId() : null, order.getCustomerId(), id);
+            ordersByStatus.move(previous != null ? statusKey(previous.getStatus()) : null, statusKey(order.getStatus()), id);
+            ordersByDate.move(previous != null ? previous.getOrderDate() : null, order.getOrderDate(), id);
+            ordersByTotal.move(previous != null ? previous.getTotalAmount() : null, order.getTotalAmount(), id);
+            return order;
+        });
     }
 
     public void deleteOrder(String orderId) {
-        orders.remove(orderId);
+        long start = System.nanoTime();
+        removeOrder(orderId, false);
+        afterCommit(EntityType.ORDER);
+        metrics.record(EntityType.ORDER, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeOrder(String orderId, boolean restore) {
+        orders.computeIfPresent(orderId, (id, previous) -> {
+            publish(EntityType.ORDER, id, previous, null, restore);
+            orderIds.remove(id);
+            ordersByCustomer.remove(previous.getCustomerId(), id);
+            ordersByStatus.remove(statusKey(previous.getStatus()), id);
+            ordersByDate.remove(previous.getOrderDate(), id);
+            ordersByTotal.remove(previous.getTotalAmount(), id);
+            return null;
+        });
     }
 
     // Address operations
@@ -80,16 +478,77 @@ public class DataStore {
         return addresses;
     }
 
+    public NavigableSet<String> getAddressIds() {
+        return Collections.unmodifiableNavigableSet(addressIds);
+    }
+
     public AddressDTO getAddress(String addressId) {
-        return addresses.get(addressId);
+        long start = System.nanoTime();
+        AddressDTO address = addresses.get(addressId);
+        metrics.record(EntityType.ADDRESS, DataStoreMetrics.Operation.GET, start);
+        return address;
+    }
+
+    public NavigableSet<String> getAddressIdsByCustomer(String customerId) {
+        return addressesByCustomer.get(customerId);
+    }
+
+    public List<AddressDTO> getAddressesByCustomer(String customerId) {
+        return resolve(addressesByCustomer.get(customerId), addresses);
     }
 
     public void saveAddress(AddressDTO address) {
-        addresses.put(address.getAddressId(), address);
+        saveAddress(address, null);
+    }
+
+    /**
+     * Save an address if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored address is at another version or was deleted
+     */
+    public void saveAddress(AddressDTO address, Long expectedVersion) {
+        long start = System.nanoTime();
+        putAddress(address, expectedVersion, false);
+        afterCommit(EntityType.ADDRESS);
+        metrics.record(EntityType.ADDRESS, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    /**
+     * Save many addresses at once; see {@link #sortedById}.
+     */
+    public void saveAddresses(Collection<AddressDTO> batch) {
+        long start = System.nanoTime();
+        for (AddressDTO address : sortedById(batch, AddressDTO::getAddressId)) {
+            putAddress(address, null, false);
+        }
+        afterCommit(EntityType.ADDRESS);
+        metrics.record(EntityType.ADDRESS, DataStoreMetrics.Operation.SAVE_BATCH, start);
+    }
+
+    private void putAddress(AddressDTO address, Long expectedVersion, boolean restore) {
+        addresses.compute(address.getAddressId(), (id, previous) -> {
+            stamp(EntityType.ADDRESS, id, previous, address, expectedVersion, restore);
+            publish(EntityType.ADDRESS, id, previous, address, restore);
+            addressIds.add(id);
+            addressesByCustomer.move(previous != null ? previous.getCustomerId() : null, address.getCustomerId(), id);
+            return address;
+        });
     }
 
     public void deleteAddress(String addressId) {
-        addresses.remove(addressId);
+        long start = System.nanoTime();
+        removeAddress(addressId, false);
+        afterCommit(EntityType.ADDRESS);
+        metrics.record(EntityType.ADDRESS, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeAddress(String addressId, boolean restore) {
+        addresses.computeIfPresent(addressId, (id, previous) -> {
+            publish(EntityType.ADDRESS, id, previous, null, restore);
+            addressIds.remove(id);
+            addressesByCustomer.remove(previous.getCustomerId(), id);
+            return null;
+        });
     }
 
     // Review operations
@@ -97,16 +556,86 @@ public class DataStore {
         return reviews;
     }
 
+    public NavigableSet<String> getReviewIds() {
+        return Collections.unmodifiableNavigableSet(reviewIds);
+    }
+
     public ReviewDTO getReview(String reviewId) {
-        return reviews.get(reviewId);
+        long start = System.nanoTime();
+        ReviewDTO review = reviews.get(reviewId);
+        metrics.record(EntityType.REVIEW, DataStoreMetrics.Operation.GET, start);
+        return review;
+    }
+
+    public NavigableSet<String> getReviewIdsByCustomer(String customerId) {
+        return reviewsByCustomer.get(customerId);
+    }
+
+    public List<ReviewDTO> getReviewsByCustomer(String customerId) {
+        return resolve(reviewsByCustomer.get(customerId), reviews);
+    }
+
+    public NavigableSet<String> getReviewIdsByProduct(String productId) {
+        return reviewsByProduct.get(productId);
+    }
+
+    public List<ReviewDTO> getReviewsByProduct(String productId) {
+        return resolve(reviewsByProduct.get(productId), reviews);
+    }
+
+    /**
+     * Get the count, sum and star histogram of a product's review ratings, kept up to date on
+     * every review write, so it is read without loading the reviews.
+     */
+    public RatingIndex.Tally getProductRatings(String productId) {
+        return ratingsByProduct.get(productId);
     }
 
     public void saveReview(ReviewDTO review) {
-        reviews.put(review.getReviewId(), review);
+        saveReview(review, null);
+    }
+
+    /**
+     * Save a review if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored review is at another version or was deleted
+     */
+    public void saveReview(ReviewDTO review, Long expectedVersion) {
+        long start = System.nanoTime();
+        putReview(review, expectedVersion, false);
+        afterCommit(EntityType.REVIEW);
+        metrics.record(EntityType.REVIEW, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    private void putReview(ReviewDTO review, Long expectedVersion, boolean restore) {
+        reviews.compute(review.getReviewId(), (id, previous) -> {
+            stamp(EntityType.REVIEW, id, previous, review, expectedVersion, restore);
+            publish(EntityType.REVIEW, id, previous, review, restore);
+            reviewIds.add(id);
+            reviewsByCustomer.move(previous != null ? previous.getCustomerId() : null, review.getCustomerId(), id);
+            reviewsByProduct.move(previous != null ? previous.getProductId() : null, review.getProductId(), id);
+            ratingsByProduct.move(previous != null ? previous.getProductId() : null, previous != null ? previous.getRating() : 0,
+                    review.getProductId(), review.getRating());
+            return review;
+        });
     }
 
     public void deleteReview(String reviewId) {
-        reviews.remove(reviewId);
+        long start = System.nanoTime();
+        removeReview(reviewId, false);
+        afterCommit(EntityType.REVIEW);
+        metrics.record(EntityType.REVIEW, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeReview(String reviewId, boolean restore) {
+        reviews.computeIfPresent(reviewId, (id, previous) -> {
+            publish(EntityType.REVIEW, id, previous, null, restore);
+            reviewIds.remove(id);
+            reviewsByCustomer.remove(previous.getCustomerId(), id);
+            reviewsByProduct.remove(previous.getProductId(), id);
+            ratingsByProduct.remove(previous.getProductId(), previous.getRating());
+            return null;
+        });
     }
 
     // Payment operations
@@ -114,12 +643,71 @@ public class DataStore {
         return payments;
     }
 
+    public NavigableSet<String> getPaymentIds() {
+        return Collections.unmodifiableNavigableSet(paymentIds);
+    }
+
     public PaymentDTO getPayment(String paymentId) {
-        return payments.get(paymentId);
+        long start = System.nanoTime();
+        PaymentDTO payment = payments.get(paymentId);
+        metrics.record(EntityType.PAYMENT, DataStoreMetrics.Operation.GET, start);
+        return payment;
+    }
+
+    public NavigableSet<String> getPaymentIdsByOrder(String orderId) {
+        return paymentsByOrder.get(orderId);
+    }
+
+    public List<PaymentDTO> getPaymentsByOrder(String orderId) {
+        return resolve(paymentsByOrder.get(orderId), payments);
+    }
+
+    public NavigableSet<String> getPaymentIdsByStatus(String status) {
+        return paymentsByStatus.get(statusKey(status));
     }
 
     public void savePayment(PaymentDTO payment) {
-        payments.put(payment.getPaymentId(), payment);
+        savePayment(payment, null);
+    }
+
+    /**
+     * Save a payment if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored payment is at another version or was deleted
+     */
+    public void savePayment(PaymentDTO payment, Long expectedVersion) {
+        long start = System.nanoTime();
+        putPayment(payment, expectedVersion, false);
+        afterCommit(EntityType.PAYMENT);
+        metrics.record(EntityType.PAYMENT, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    private void putPayment(PaymentDTO payment, Long expectedVersion, boolean restore) {
+        payments.compute(payment.getPaymentId(), (id, previous) -> {
+            stamp(EntityType.PAYMENT, id, previous, payment, expectedVersion, restore);
+            publish(EntityType.PAYMENT, id, previous, payment, restore);
+            paymentIds.add(id);
+            paymentsByOrder.move(previous != null ? previous.getOrderId() : null, payment.getOrderId(), id);
+            paymentsByStatus.move(previous != null ? statusKey(previous.getStatus()) : null, statusKey(payment.getStatus()), id);
+            return payment;
+        });
+    }
+
+    public void deletePayment(String paymentId) {
+        long start = System.nanoTime();
+        removePayment(paymentId, false);
+        afterCommit(EntityType.PAYMENT);
+        metrics.record(EntityType.PAYMENT, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removePayment(String paymentId, boolean restore) {
+        payments.computeIfPresent(paymentId, (id, previous) -> {
+            publish(EntityType.PAYMENT, id, previous, null, restore);
+            paymentIds.remove(id);
+            paymentsByOrder.remove(previous.getOrderId(), id);
+            paymentsByStatus.remove(statusKey(previous.getStatus()), id);
+            return null;
+        });
     }
 
     // Inventory operations
@@ -127,16 +715,139 @@ public class DataStore {
         return inventory;
     }
 
+    public NavigableSet<String> getInventoryIds() {
+        return Collections.unmodifiableNavigableSet(inventoryIds);
+    }
+
     public InventoryDTO getInventoryItem(String inventoryId) {
-        return inventory.get(inventoryId);
+        long start = System.nanoTime();
+        InventoryDTO item = inventory.get(inventoryId);
+        metrics.record(EntityType.INVENTORY, DataStoreMetrics.Operation.GET, start);
+        return item;
+    }
+
+    public NavigableSet<String> getInventoryIdsByProduct(String productId) {
+        return inventoryByProduct.get(productId);
+    }
+
+    public List<InventoryDTO> getInventoryByProduct(String productId) {
+        return resolve(inventoryByProduct.get(productId), inventory);
+    }
+
+    public NavigableSet<String> getInventoryIdsByWarehouse(String warehouseId) {
+        return inventoryByWarehouse.get(warehouseId);
+    }
+
+    public NavigableSet<String> getInventoryIdsByStatus(InventoryStatus status) {
+        return inventoryByStatus.get(status);
+    }
+
+    /**
+     * Get the ids of the inventory records that are low on stock (see {@link InventoryStatus#isLowStock}).
+     */
+    public NavigableSet<String> getLowStockInventoryIds() {
+        return Collections.unmodifiableNavigableSet(lowStockInventoryIds);
+    }
+
+    public NavigableSet<String> getLowStockInventoryIdsByWarehouse(String warehouseId) {
+        return lowStockInventoryByWarehouse.get(warehouseId);
     }
 
     public void saveInventory(InventoryDTO inv) {
-        inventory.put(inv.getId(), inv);
+        saveInventory(inv, null);
+    }
+
+    /**
+     * Save an inventory record if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored record is at another version or was deleted
+     */
+    public void saveInventory(InventoryDTO inv, Long expectedVersion) {
+        long start = System.nanoTime();
+        putInventory(inv, expectedVersion, false);
+        afterCommit(EntityType.INVENTORY);
+        metrics.record(EntityType.INVENTORY, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    /**
+     * Save many inventory records at once; see {@link #sortedById}.
+     */
+    public void saveInventoryBatch(Collection<InventoryDTO> batch) {
+        long start = System.nanoTime();
+        for (InventoryDTO item : sortedById(batch, InventoryDTO::getId)) {
+            putInventory(item, null, false);
+        }
+        afterCommit(EntityType.INVENTORY);
+        metrics.record(EntityType.INVENTORY, DataStoreMetrics.Operation.SAVE_BATCH, start);
+    }
+
+    private void putInventory(InventoryDTO inv, Long expectedVersion, boolean restore) {
+        inventory.compute(inv.getId(), (id, previous) -> {
+            stamp(EntityType.INVENTORY, id, previous, inv, expectedVersion, restore);
+            publish(EntityType.INVENTORY, id, previous, inv, restore);
+            inventoryIds.add(id);
+            indexInventory(id, previous, inv);
+            return inv;
+        });
+    }
+
+    /**
+     * Atomically replace an inventory record with the result of a mutation.
+     * The mutation runs under the map's per-key lock, so concurrent mutations of
+     * the same record apply one after another and none are lost, while other
+     * records are not blocked. If the mutation throws, the record is left unchanged.
+     *
+     * @return the updated record, or null if no record exists with the given id
+     */
+    public InventoryDTO computeInventory(String inventoryId, UnaryOperator<InventoryDTO> mutation) {
+        long start = System.nanoTime();
+        InventoryDTO result = inventory.computeIfPresent(inventoryId, (id, previous) -> {
+            InventoryDTO updated = mutation.apply(previous);
+            stamp(EntityType.INVENTORY, id, previous, updated, null, false);
+            publish(EntityType.INVENTORY, id, previous, updated);
+            indexInventory(id, previous, updated);
+            return updated;
+        });
+        if (result != null) {
+            afterCommit(EntityType.INVENTORY);
+        }
+        metrics.record(EntityType.INVENTORY, DataStoreMetrics.Operation.UPDATE, start);
+        return result;
+    }
+
+    private void indexInventory(String id, InventoryDTO previous, InventoryDTO current) {
+        inventoryByProduct.move(previous != null ? previous.getProductId() : null, current.getProductId(), id);
+        inventoryByWarehouse.move(previous != null ? previous.getWarehouseId() : null, current.getWarehouseId(), id);
+        inventoryByStatus.move(previous != null ? previous.getStatus() : null, current.getStatus(), id);
+
+        boolean wasLow = previous != null && isLowStock(previous);
+        boolean isLow = isLowStock(current);
+        if (isLow) {
+            lowStockInventoryIds.add(id);
+        } else {
+            lowStockInventoryIds.remove(id);
+        }
+        lowStockInventoryByWarehouse.move(wasLow ? previous.getWarehouseId() : null, isLow ? current.getWarehouseId() : null, id);
     }
 
     public void deleteInventory(String inventoryId) {
-        inventory.remove(inventoryId);
+        long start = System.nanoTime();
+        removeInventory(inventoryId, false);
+        afterCommit(EntityType.INVENTORY);
+        metrics.record(EntityType.INVENTORY, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeInventory(String inventoryId, boolean restore) {
+        inventory.computeIfPresent(inventoryId, (id, previous) -> {
+            publish(EntityType.INVENTORY, id, previous, null, restore);
+            inventoryIds.remove(id);
+            inventoryByProduct.remove(previous.getProductId(), id);
+            inventoryByWarehouse.remove(previous.getWarehouseId(), id);
+            inventoryByStatus.remove(previous.getStatus(), id);
+            lowStockInventoryIds.remove(id);
+            lowStockInventoryByWarehouse.remove(previous.getWarehouseId(), id);
+            return null;
+        });
     }
 
     // Fulfillment operations
@@ -144,16 +855,71 @@ public class DataStore {
         return fulfillments;
     }
 
+    public NavigableSet<String> getFulfillmentIds() {
+        return Collections.unmodifiableNavigableSet(fulfillmentIds);
+    }
+
     public FulfillmentDTO getFulfillment(String fulfillmentId) {
-        return fulfillments.get(fulfillmentId);
+        long start = System.nanoTime();
+        FulfillmentDTO fulfillment = fulfillments.get(fulfillmentId);
+        metrics.record(EntityType.FULFILLMENT, DataStoreMetrics.Operation.GET, start);
+        return fulfillment;
+    }
+
+    public NavigableSet<String> getFulfillmentIdsByOrder(String orderId) {
+        return fulfillmentsByOrder.get(orderId);
+    }
+
+    public List<FulfillmentDTO> getFulfillmentsByOrder(String orderId) {
+        return resolve(fulfillmentsByOrder.get(orderId), fulfillments);
+    }
+
+    public NavigableSet<String> getFulfillmentIdsByStatus(FulfillmentStatus status) {
+        return fulfillmentsByStatus.get(status);
     }
 
     public void saveFulfillment(FulfillmentDTO fulfillment) {
-        fulfillments.put(fulfillment.getFulfillmentId(), fulfillment);
+        saveFulfillment(fulfillment, null);
+    }
+
+    /**
+     * Save a fulfillment if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored fulfillment is at another version or was deleted
+     */
+    public void saveFulfillment(FulfillmentDTO fulfillment, Long expectedVersion) {
+        long start = System.nanoTime();
+        putFulfillment(fulfillment, expectedVersion, false);
+        afterCommit(EntityType.FULFILLMENT);
+        metrics.record(EntityType.FULFILLMENT, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    private void putFulfillment(FulfillmentDTO fulfillment, Long expectedVersion, boolean restore) {
+        fulfillments.compute(fulfillment.getFulfillmentId(), (id, previous) -> {
+            stamp(EntityType.FULFILLMENT, id, previous, fulfillment, expectedVersion, restore);
+            publish(EntityType.FULFILLMENT, id, previous, fulfillment, restore);
+            fulfillmentIds.add(id);
+            fulfillmentsByOrder.move(previous != null ? previous.getOrderId() : null, fulfillment.getOrderId(), id);
+            fulfillmentsByStatus.move(previous != null ? previous.getStatus() : null, fulfillment.getStatus(), id);
+            return fulfillment;
+        });
     }
 
     public void deleteFulfillment(String fulfillmentId) {
-        fulfillments.remove(fulfillmentId);
+        long start = System.nanoTime();
+        removeFulfillment(fulfillmentId, false);
+        afterCommit(EntityType.FULFILLMENT);
+        metrics.record(EntityType.FULFILLMENT, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeFulfillment(String fulfillmentId, boolean restore) {
+        fulfillments.computeIfPresent(fulfillmentId, (id, previous) -> {
+            publish(EntityType.FULFILLMENT, id, previous, null, restore);
+            fulfillmentIds.remove(id);
+            fulfillmentsByOrder.remove(previous.getOrderId(), id);
+            fulfillmentsByStatus.remove(previous.getStatus(), id);
+            return null;
+        });
     }
 
     // Shipment operations
@@ -161,16 +927,288 @@ public class DataStore {
         return shipments;
     }
 
+    public NavigableSet<String> getShipmentIds() {
+        return Collections.unmodifiableNavigableSet(shipmentIds);
+    }
+
     public ShipmentResponse getShipment(String shipmentId) {
-        return shipments.get(shipmentId);
+        long start = System.nanoTime();
+        ShipmentResponse shipment = shipments.get(shipmentId);
+        metrics.record(EntityType.SHIPMENT, DataStoreMetrics.Operation.GET, start);
+        return shipment;
+    }
+
+    public NavigableSet<String> getShipmentIdsByFulfillment(String fulfillmentId) {
+        return shipmentsByFulfillment.get(fulfillmentId);
+    }
+
+    public List<ShipmentResponse> getShipmentsByFulfillment(String fulfillmentId) {
+        return resolve(shipmentsByFulfillment.get(fulfillmentId), shipments);
+    }
+
+    public NavigableSet<String> getShipmentIdsByStatus(ShipmentStatus status) {
+        return shipmentsByStatus.get(status);
+    }
+
+    public ShipmentResponse getShipmentByTrackingNumber(String trackingNumber) {
+        String shipmentId = shipmentsByTracking.get(trackingNumber);
+        return shipmentId != null ? getShipment(shipmentId) : null;
+    }
+
+    /**
+     * Get the id sets a shipment must be in for its tracking number to contain the text
+     * (case-insensitive), or null if the text is too short for the trigram index to narrow.
+     */
+    public List<NavigableSet<String>> getShipmentIdsByTrackingSubstring(String text) {
+        return shipmentTrackingGrams.candidates(text);
     }
 
     public void saveShipment(ShipmentResponse shipment) {
-        shipments.put(shipment.getShipmentId(), shipment);
+        saveShipment(shipment, null);
+    }
+
+    /**
+     * Save a shipment if it is still at the expected version (null saves unconditionally).
+     *
+     * @throws VersionConflictException if the stored shipment is at another version or was deleted
+     */
+    public void saveShipment(ShipmentResponse shipment, Long expectedVersion) {
+        long start = System.nanoTime();
+        putShipment(shipment, expectedVersion, false);
+        afterCommit(EntityType.SHIPMENT);
+        metrics.record(EntityType.SHIPMENT, DataStoreMetrics.Operation.SAVE, start);
+    }
+
+    private void putShipment(ShipmentResponse shipment, Long expectedVersion, boolean restore) {
+        shipments.compute(shipment.getShipmentId(), (id, previous) -> {
+            stamp(EntityType.SHIPMENT, id, previous, shipment, expectedVersion, restore);
+            publish(EntityType.SHIPMENT, id, previous, shipment, restore);
+            shipmentIds.add(id);
+            shipmentsByFulfillment.move(previous != null ? previous.getFulfillmentId() : null, shipment.getFulfillmentId(), id);
+            shipmentsByStatus.move(previous != null ? previous.getStatus() : null, shipment.getStatus(), id);
+            shipmentsByTracking.move(previous != null ? previous.getTrackingNumber() : null, shipment.getTrackingNumber(), id);
+            shipmentTrackingGrams.move(previous != null ? previous.getTrackingNumber() : null, shipment.getTrackingNumber(), id);
+            return shipment;
+        });
     }
 
     public void deleteShipment(String shipmentId) {
-        shipments.remove(shipmentId);
+        long start = System.nanoTime();
+        removeShipment(shipmentId, false);
+        afterCommit(EntityType.SHIPMENT);
+        metrics.record(EntityType.SHIPMENT, DataStoreMetrics.Operation.DELETE, start);
+    }
+
+    private void removeShipment(String shipmentId, boolean restore) {
+        shipments.computeIfPresent(shipmentId, (id, previous) -> {
+            publish(EntityType.SHIPMENT, id, previous, null, restore);
+            shipmentIds.remove(id);
+            shipmentsByFulfillment.remove(previous.getFulfillmentId(), id);
+            shipmentsByStatus.remove(previous.getStatus(), id);
+            shipmentsByTracking.remove(previous.getTrackingNumber(), id);
+            shipmentTrackingGrams.remove(previous.getTrackingNumber(), id);
+            return null;
+        });
+    }
+
+    // Generic access by entity type (used by persistence)
+
+    /**
+     * Get the live map of records for an entity type.
+     */
+    public Map<String, ?> getRecords(EntityType entity) {
+        return switch (entity) {
+            case PRODUCT -> products;
+            case CUSTOMER -> customers;
+            case ORDER -> orders;
+            case ADDRESS -> addresses;
+            case REVIEW -> reviews;
+            case PAYMENT -> payments;
+            case INVENTORY -> inventory;
+            case FULFILLMENT -> fulfillments;
+            case SHIPMENT -> shipments;
+        };
+    }
+
+    /**
+     * Get the sorted ids of an entity type, as a read-only view.
+     */
+    public NavigableSet<String> getRecordIds(EntityType entity) {
+        return switch (entity) {
+            case PRODUCT -> getProductIds();
+            case CUSTOMER -> getCustomerIds();
+            case ORDER -> getOrderIds();
+            case ADDRESS -> getAddressIds();
+            case REVIEW -> getReviewIds();
+            case PAYMENT -> getPaymentIds();
+            case INVENTORY -> getInventoryIds();
+            case FULFILLMENT -> getFulfillmentIds();
+            case SHIPMENT -> getShipmentIds();
+        };
+    }
+
+    /**
+     * Put back a record recovered from a snapshot or the write-ahead log, or delete it when
+     * the record is null. Unlike a save, the record keeps the version it was logged with:
+     * there is no expected-version check and no new version, and the collection's version
+     * clock is raised to it. The indexes are updated, but no listener is told, so recovery
+     * does not log the record again, put it on the change feed or fire alerts for it.
+     */
+    public void restore(EntityType entity, String id, Object record) {
+        if (record == null) {
+            switch (entity) {
+                case PRODUCT -> removeProduct(id, true);
+                case CUSTOMER -> removeCustomer(id, true);
+                case ORDER -> removeOrder(id, true);
+                case ADDRESS -> removeAddress(id, true);
+                case REVIEW -> removeReview(id, true);
+                case PAYMENT -> removePayment(id, true);
+                case INVENTORY -> removeInventory(id, true);
+                case FULFILLMENT -> removeFulfillment(id, true);
+                case SHIPMENT -> removeShipment(id, true);
+            }
+            changeCounts.incrementAndGet(entity.ordinal());
+            return;
+        }
+        switch (entity) {
+            case PRODUCT -> putProduct((ProductDTO) record, null, true);
+            case CUSTOMER -> putCustomer((CustomerDTO) record, null, true);
+            case ORDER -> putOrder((OrderDTO) record, null, true);
+            case ADDRESS -> putAddress((AddressDTO) record, null, true);
+            case REVIEW -> putReview((ReviewDTO) record, null, true);
+            case PAYMENT -> putPayment((PaymentDTO) record, null, true);
+            case INVENTORY -> putInventory((InventoryDTO) record, null, true);
+            case FULFILLMENT -> putFulfillment((FulfillmentDTO) record, null, true);
+            case SHIPMENT -> putShipment((ShipmentResponse) record, null, true);
+        }
+        changeCounts.incrementAndGet(entity.ordinal());
+    }
+
+    /**
+     * Get the highest version given out in a collection so far. Records created from now on
+     * get higher versions.
+     */
+    public long getVersionClock(EntityType entity) {
+        return versionClocks.get(entity.ordinal());
+    }
+
+    /**
+     * Raise a collection's version clock to at least the given version, e.g. the version of a
+     * record that was deleted before a restart, so that no new record reuses it.
+     */
+    public void raiseVersionClock(EntityType entity, long version) {
+        versionClocks.accumulateAndGet(entity.ordinal(), version, Math::max);
+    }
+
+    /**
+     * Get the number of writes (or batches of writes) made to a collection so far.
+     * The count is raised only after the write is visible, so a response built from
+     * reads made after this call reflects at least that many writes; if the count is
+     * unchanged once the response is built, it can be cached under the count.
+     */
+    public long getChangeCount(EntityType entity) {
+        return changeCounts.get(entity.ordinal());
+    }
+
+    // Change listeners
+
+    public void addChangeListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void publish(EntityType entity, String id, Object previous, Object current) {
+        for (ChangeListener listener : listeners) {
+            listener.onChange(entity, id, previous, current);
+        }
+    }
+
+    /**
+     * Report a write to the listeners, unless it restores a recovered record.
+     */
+    private void publish(EntityType entity, String id, Object previous, Object current, boolean restore) {
+        if (!restore) {
+            publish(entity, id, previous, current);
+        }
+    }
+
+    private void afterCommit(EntityType entity) {
+        changeCounts.incrementAndGet(entity.ordinal());
+        for (ChangeListener listener : listeners) {
+            listener.afterCommit();
+        }
+    }
+
+    /**
+     * Give a record the version after the one it replaces, first checking the replaced
+     * version when an expected version is given. Runs inside the record's compute, so the
+     * check and the write are one atomic step; throwing leaves the map unchanged.
+     * A record saved under a new id starts above every version given out in its collection.
+     * A restored record keeps its version.
+     */
+    private void stamp(EntityType entity, String id, Versioned previous, Versioned current, Long expectedVersion,
+                       boolean restore) {
+        if (restore) {
+            if (current.getVersion() == null) {
+                // Logged before records were versioned
+                current.setVersion(1L);
+            }
+            raiseVersionClock(entity, current.getVersion());
+            return;
+        }
+        long version = previous != null ? previous.getVersion() : 0;
+        if (expectedVersion != null && expectedVersion != version) {
+            throw new VersionConflictException(entity, id, version);
+        }
+        if (previous != null) {
+            current.setVersion(version + 1);
+            raiseVersionClock(entity, version + 1);
+        } else {
+            current.setVersion(versionClocks.incrementAndGet(entity.ordinal()));
+        }
+    }
+
+    /**
+     * Order a batch by id before writing it. Each record is still written atomically on its
+     * own (a failure part-way leaves the earlier records saved), but inserting in key order
+     * keeps the sorted id sets and index sets walking neighbouring nodes, and the whole batch
+     * shares one afterCommit, so e.g. the write-ahead log waits for durability once per batch.
+     */
+    private static <T> List<T> sortedById(Collection<T> batch, Function<T, String> id) {
+        List<T> sorted = new ArrayList<>(batch);
+        sorted.sort(Comparator.comparing(id));
+        return sorted;
+    }
+
+    private static Map<String, Integer> productTerms(ProductDTO product) {
+        Map<String, Integer> terms = new HashMap<>();
+        TextIndex.addTerms(terms, product.getName(), PRODUCT_NAME_WEIGHT);
+        TextIndex.addTerms(terms, product.getDescription(), PRODUCT_DESCRIPTION_WEIGHT);
+        return terms;
     }
-}
 
+    private static boolean isLowStock(InventoryDTO item) {
+        return InventoryStatus.isLowStock(item.getAvailableQuantity(), item.getLowStockThreshold());
+    }
+
+    private static String statusKey(String status) {
+        return status != null ? status.toUpperCase(Locale.ROOT) : null;
+    }
+
+    /**
+     * Resolve indexed ids to records, skipping ids removed after the index was read.
+     */
+    private static <T> List<T> resolve(Collection<String> ids, Map<String, T> source) {
+        List<T> result = new ArrayList<>();
+        for (String id : ids) {
+            T value = source.get(id);
+            if (value != null) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+}
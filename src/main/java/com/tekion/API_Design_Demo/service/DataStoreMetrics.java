@@ -0,0 +1,62 @@
+package com.tekion.API_Design_Demo.service;
+
+import com.tekion.API_Design_Demo.enums.EntityType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters for {@link DataStore}: a record-count gauge per collection and a timer per
+ * collection and operation. Latency percentiles and histogram buckets are configured
+ * per meter name under management.metrics.distribution.
+ *
+ * Timers are looked up by array index, so recording costs one nanoTime call plus
+ * the timer update.
+ */
+final class DataStoreMetrics {
+
+    enum Operation {
+        GET, SAVE, SAVE_BATCH, UPDATE, DELETE, SEARCH
+    }
+
+    private final MeterRegistry registry;
+    private final Timer[][] timers = new Timer[EntityType.values().length][Operation.values().length];
+
+    DataStoreMetrics(MeterRegistry registry, DataStore dataStore) {
+        this.registry = registry;
+        for (EntityType entity : EntityType.values()) {
+            Gauge.builder("datastore.records", dataStore, store -> store.getRecordIds(entity).size())
+                    .description("Number of records held per collection")
+                    .tag("entity", tag(entity))
+                    .register(registry);
+        }
+    }
+
+    /**
+     * Record an operation that started at the given System.nanoTime().
+     */
+    void record(EntityType entity, Operation operation, long startNanos) {
+        timer(entity, operation).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    // Timers are registered on first use so only operations that exist show up
+    private Timer timer(EntityType entity, Operation operation) {
+        Timer timer = timers[entity.ordinal()][operation.ordinal()];
+        if (timer == null) {
+            timer = Timer.builder("datastore.operations")
+                    .description("Latency of DataStore operations")
+                    .tag("entity", tag(entity))
+                    .tag("operation", operation.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+            timers[entity.ordinal()][operation.ordinal()] = timer;
+        }
+        return timer;
+    }
+
+    private static String tag(EntityType entity) {
+        return entity.name().toLowerCase(Locale.ROOT);
+    }
+}
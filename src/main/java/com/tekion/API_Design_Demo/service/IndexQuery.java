@@ -0,0 +1,146 @@
+package com.tekion.API_Design_Demo.service;
+
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.service.index.RangeIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Plans a paged list query over the indexes of one collection.
+ *
+ * Equality lookups (foreign keys, status) come with a known size, so the smallest
+ * one drives the scan and the others are membership checks. A range lookup is used
+ * only when it is cheaper than that: its ids have to be collected and sorted by id
+ * before paging, which costs k, while scanning a driver whose records match with
+ * probability k/N costs about limit * N / k. The range is therefore counted up to
+ * min(smallest driver, sqrt(limit * N)) and used only if it stays within that budget.
+ * Filters not chosen to drive the scan are applied to each record by the caller's filter.
+ */
+public final class IndexQuery {
+
+    private final NavigableSet<String> all;
+    private final List<NavigableSet<String>> idSets = new ArrayList<>();
+    private final List<RangeIndex.Range> ranges = new ArrayList<>();
+
+    private IndexQuery(NavigableSet<String> all) {
+        this.all = all;
+    }
+
+    /**
+     * Start a query over the sorted ids of a whole collection.
+     */
+    public static IndexQuery over(NavigableSet<String> all) {
+        return new IndexQuery(all);
+    }
+
+    /**
+     * Restrict to the ids of an equality lookup. Null (filter not requested) is ignored.
+     */
+    public IndexQuery and(NavigableSet<String> ids) {
+        if (ids != null) {
+            idSets.add(ids);
+        }
+        return this;
+    }
+
+    /**
+     * Restrict to the ids in every one of the sets, e.g. the trigram posting lists of a
+     * substring search. Null (filter not requested, or not narrowed by an index) is ignored.
+     */
+    public IndexQuery andAll(List<NavigableSet<String>> idSets) {
+        if (idSets != null) {
+            idSets.forEach(this::and);
+        }
+        return this;
+    }
+
+    /**
+     * Offer a range lookup to the planner. Null (filter not requested) is ignored.
+     */
+    public IndexQuery and(RangeIndex.Range range) {
+        if (range != null) {
+            ranges.add(range);
+        }
+        return this;
+    }
+
+    /**
+     * Return the page of records matching the query, after the cursor.
+     * The filter must check every requested condition, including the indexed ones.
+     */
+    public <T> PagedResponse<T> page(Function<String, T> loader, Predicate<? super T> filter, String cursor, int limit) {
+        return KeysetPaginator.pageIntersection(all, plan(limit), loader, filter, cursor, limit);
+    }
+
+    /**
+     * Lazily stream every record matching the query, for exports.
+     * A range lookup smaller than the smallest equality lookup drives the scan: its
+     * index is walked as the stream is read, so the records come in the range's value
+     * order and its ids are never collected. Otherwise the records come in id order.
+     * The filter must check every requested condition, including the indexed ones.
+     */
+    public <T> Stream<T> stream(Function<String, T> loader, Predicate<? super T> filter) {
+        RangeIndex.Range driver = smallestRange(smallestIdSet() - 1);
+        if (driver == null) {
+            return KeysetPaginator.streamIntersection(all, idSets, loader, filter);
+        }
+        return driver.streamIds()
+                .filter(this::inAllIdSets)
+                .map(loader)
+                .filter(Objects::nonNull)
+                .filter(filter);
+    }
+
+    /**
+     * Pick the id sets to intersect: all equality lookups, plus the smallest range if it is within budget.
+     */
+    List<NavigableSet<String>> plan(int limit) {
+        long smallest = smallestIdSet();
+        long budget = Math.min(smallest, (long) Math.sqrt((double) Math.max(1, limit) * all.size()));
+
+        RangeIndex.Range best = smallestRange(budget);
+        List<NavigableSet<String>> plan = new ArrayList<>(idSets);
+        if (best != null) {
+            plan.add(best.ids());
+        }
+        return plan;
+    }
+
+    private long smallestIdSet() {
+        long smallest = all.size();
+        for (NavigableSet<String> ids : idSets) {
+            smallest = Math.min(smallest, ids.size());
+        }
+        return smallest;
+    }
+
+    /**
+     * Find the smallest range holding no more ids than the budget, counting each one no further than needed.
+     */
+    private RangeIndex.Range smallestRange(long budget) {
+        RangeIndex.Range best = null;
+        for (RangeIndex.Range range : ranges) {
+            long count = range.count(budget + 1);
+            if (count <= budget) {
+                best = range;
+                budget = count;
+            }
+        }
+        return best;
+    }
+
+    private boolean inAllIdSets(String id) {
+        for (NavigableSet<String> ids : idSets) {
+            if (!ids.contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+package com.tekion.API_Design_Demo.service;
+
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.exception.InvalidPageRequestException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Keyset (seek) pagination over the sorted id sets kept by {@link DataStore}.
+ * The cursor is an opaque encoding of the last id returned, so fetching a page
+ * seeks straight past it instead of skipping over all earlier records.
+ *
+ * Every page records its latency and how many ids it examined versus how many
+ * records it returned, on the global meter registry; a high scanned/returned
+ * ratio marks a filter that would benefit from an index.
+ */
+public final class KeysetPaginator {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private static final Timer SCAN_TIMER = Timer.builder("datastore.scan")
+            .description("Latency of paged scans over DataStore ids")
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary SCANNED = DistributionSummary.builder("datastore.scan.records")
+            .description("Ids examined and records returned per paged scan")
+            .tag("result", "scanned")
+            .register(Metrics.globalRegistry);
+    private static final DistributionSummary RETURNED = DistributionSummary.builder("datastore.scan.records")
+            .description("Ids examined and records returned per paged scan")
+            .tag("result", "returned")
+            .register(Metrics.globalRegistry);
+
+    private KeysetPaginator() {
+    }
+
+    /**
+     * Return the page of records that come after the cursor and match the filter.
+     *
+     * @param ids    sorted ids to page through
+     * @param loader resolves an id to its record (null if it was deleted meanwhile)
+     * @param filter additional filter applied to each record
+     * @param cursor nextCursor from the previous page, or null for the first page
+     * @param limit  maximum number of records in the page (1-100)
+     */
+    public static <T> PagedResponse<T> page(NavigableSet<String> ids, Function<String, T> loader,
+                                            Predicate<? super T> filter, String cursor, int limit) {
+        return page(ids, id -> true, loader, filter, cursor, limit);
+    }
+
+    /**
+     * Return the page of records whose ids are in every one of the given sets,
+     * e.g. the index lookups for "status AND warehouse".
+     * The smallest set drives the scan and each of its ids is checked against the others,
+     * so the cost follows the most selective filter. Null sets stand for filters that were
+     * not requested; if all are null, every id in {@code all} is a candidate.
+     *
+     * @param all    sorted ids of the whole collection
+     * @param idSets index lookups to intersect (null entries are ignored)
+     */
+    public static <T> PagedResponse<T> pageIntersection(NavigableSet<String> all, List<NavigableSet<String>> idSets,
+                                                        Function<String, T> loader, Predicate<? super T> filter,
+                                                        String cursor, int limit) {
+        NavigableSet<String> driver = driver(idSets);
+        if (driver == null) {
+            return page(all, loader, filter, cursor, limit);
+        }
+        return page(driver, inAllOthers(idSets, driver), loader, filter, cursor, limit);
+    }
+
+    /**
+     * Lazily stream every record whose id is in all of the given sets, in id order,
+     * choosing the driving set as {@link #pageIntersection} does. Nothing is buffered:
+     * ids are read from the live sets as the stream is consumed, so a record written
+     * during the stream may or may not be included, as with consecutive pages.
+     *
+     * @param all    sorted ids of the whole collection
+     * @param idSets index lookups to intersect (null entries are ignored)
+     */
+    public static <T> Stream<T> streamIntersection(NavigableSet<String> all, List<NavigableSet<String>> idSets,
+                                                   Function<String, T> loader, Predicate<? super T> filter) {
+        NavigableSet<String> driver = driver(idSets);
+        Stream<String> ids = driver == null ? all.stream() : driver.stream().filter(inAllOthers(idSets, driver));
+        return ids.map(loader)
+                .filter(Objects::nonNull)
+                .filter(filter);
+    }
+
+    private static NavigableSet<String> driver(List<NavigableSet<String>> idSets) {
+        NavigableSet<String> driver = null;
+        for (NavigableSet<String> ids : idSets) {
+            if (ids != null && (driver == null || ids.size() < driver.size())) {
+                driver = ids;
+            }
+        }
+        return driver;
+    }
+
+    private static Predicate<String> inAllOthers(List<NavigableSet<String>> idSets, NavigableSet<String> driver) {
+        List<NavigableSet<String>> others = new ArrayList<>();
+        for (NavigableSet<String> ids : idSets) {
+            if (ids != null && ids != driver) {
+                others.add(ids);
+            }
+        }
+        return id -> {
+            for (NavigableSet<String> ids : others) {
+                if (!ids.contains(id)) {
+                    return false;
+                }
+            }
+            return true;
+        };
+    }
+
+    private static <T> PagedResponse<T> page(NavigableSet<String> ids, Predicate<String> idFilter, Function<String, T> loader,
+                                             Predicate<? super T> filter, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new InvalidPageRequestException("limit", "Limit must be between 1 and " + MAX_LIMIT);
+        }
+
+        long start = System.nanoTime();
+        NavigableSet<String> remaining = cursor != null ? ids.tailSet(decodeCursor(cursor), false) : ids;
+        List<T> items = new ArrayList<>(limit);
+        String lastId = null;
+        boolean hasNext = false;
+        int scanned = 0;
+
+        for (String id : remaining) {
+            scanned++;
+            if (!idFilter.test(id)) {
+                continue;
+            }
+            T item = loader.apply(id);
+            if (item == null || !filter.test(item)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                hasNext = true;
+                break;
+            }
+            items.add(item);
+            lastId = id;
+        }
+
+        SCAN_TIMER.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        SCANNED.record(scanned);
+        RETURNED.record(items.size());
+
+        return PagedResponse.of(items, hasNext ? encodeCursor(lastId) : null, hasNext, limit);
+    }
+
+    /**
+     * Return the page of records that come after the cursor.
+     */
+    public static <T> PagedResponse<T> page(NavigableSet<String> ids, Function<String, T> loader,
+                                            String cursor, int limit) {
+        return page(ids, loader, item -> true, cursor, limit);
+    }
+
+    static String encodeCursor(String id) {
+        return ENCODER.encodeToString(id.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String decodeCursor(String cursor) {
+        try {
+            return new String(DECODER.decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) {
+            throw new InvalidPageRequestException("cursor", "Cursor is not valid: " + cursor);
+        }
+    }
+}
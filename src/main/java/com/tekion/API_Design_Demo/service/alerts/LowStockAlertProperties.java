@@ -0,0 +1,49 @@
+package com.tekion.API_Design_Demo.service.alerts;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Settings for low stock alerts (inventory.low-stock-alerts.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.low-stock-alerts")
+public class LowStockAlertProperties {
+
+    /**
+     * Detect low stock threshold crossings and deliver them to the webhooks.
+     */
+    private boolean enabled = false;
+
+    /**
+     * URLs each batch of alerts is POSTed to, as a JSON array.
+     */
+    private List<URI> webhooks = new ArrayList<>();
+
+    /**
+     * How often queued alerts are delivered.
+     */
+    private Duration deliveryInterval = Duration.ofSeconds(1);
+
+    /**
+     * Maximum alerts delivered per interval; the rest wait for the next one.
+     */
+    private int maxAlertsPerDelivery = 100;
+
+    /**
+     * Minimum time between two alerts for the same inventory record. Crossings in
+     * between stay queued, and a crossing back cancels the queued one, so a record
+     * that keeps going over and under its threshold does not flood the webhooks.
+     */
+    private Duration cooldown = Duration.ofMinutes(1);
+
+    /**
+     * Timeout of one webhook request.
+     */
+    private Duration requestTimeout = Duration.ofSeconds(5);
+}
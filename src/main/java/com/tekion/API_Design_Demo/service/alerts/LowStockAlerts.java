@@ -0,0 +1,290 @@
+package com.tekion.API_Design_Demo.service.alerts;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.LowStockAlertDTO;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.service.ChangeListener;
+import com.tekion.API_Design_Demo.service.DataStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detects inventory records crossing their low stock threshold and delivers the
+ * crossings to webhooks, instead of having clients poll the low stock list.
+ *
+ * A crossing is detected from the record before and after each inventory write
+ * (see {@link InventoryStatus#isLowStock}), so every mutation path is covered,
+ * including reservations and batch writes. Alerts are queued per record:
+ * <ul>
+ *   <li>a crossing back before the queued alert was delivered cancels it, as nothing changed for the receiver</li>
+ *   <li>a record is alerted at most once per cooldown; later crossings wait in the queue</li>
+ *   <li>at most maxAlertsPerDelivery alerts are sent per delivery interval, oldest first</li>
+ * </ul>
+ * Each batch is POSTed to every webhook as a JSON array. A batch that any webhook
+ * rejects is queued again, so delivery is at least once.
+ */
+@Component
+@EnableConfigurationProperties(LowStockAlertProperties.class)
+public class LowStockAlerts implements ChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(LowStockAlerts.class);
+
+    private final LowStockAlertProperties properties;
+    private final Sender sender;
+    private final Clock clock;
+    // Undelivered alerts by inventory id, oldest first; guarded by itself
+    private final LinkedHashMap<String, LowStockAlertDTO> pending = new LinkedHashMap<>();
+    // When each record was last alerted, within the cooldown; only used by deliver()
+    private final Map<String, Instant> lastDelivered = new HashMap<>();
+    private final Counter delivered;
+    private final Counter failed;
+    private final Counter cancelled;
+
+    private ScheduledExecutorService deliverer;
+
+    /**
+     * Delivers one batch of alerts.
+     */
+    @FunctionalInterface
+    public interface Sender {
+
+        /**
+         * @throws IOException if the batch was not accepted and has to be sent again
+         */
+        void send(List<LowStockAlertDTO> alerts) throws IOException;
+    }
+
+    @Autowired
+    public LowStockAlerts(DataStore dataStore, LowStockAlertProperties properties, ObjectMapper objectMapper, MeterRegistry registry) {
+        this(dataStore, properties, new WebhookSender(properties, objectMapper), Clock.systemUTC(), registry);
+    }
+
+    LowStockAlerts(DataStore dataStore, LowStockAlertProperties properties, Sender sender, Clock clock, MeterRegistry registry) {
+        this.properties = properties;
+        this.sender = sender;
+        this.clock = clock;
+        this.delivered = counter(registry, "delivered");
+        this.failed = counter(registry, "failed");
+        this.cancelled = counter(registry, "cancelled");
+        if (properties.isEnabled()) {
+            dataStore.addChangeListener(this);
+        }
+    }
+
+    /**
+     * Start delivering alerts in the background, if enabled and any webhook is configured.
+     */
+    @PostConstruct
+    public void start() {
+        if (!properties.isEnabled() || properties.getWebhooks().isEmpty()) {
+            return;
+        }
+        long interval = properties.getDeliveryInterval().toMillis();
+        deliverer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "low-stock-alerts");
+            thread.setDaemon(true);
+            return thread;
+        });
+        deliverer.scheduleWithFixedDelay(() -> {
+            try {
+                deliver();
+            } catch (Exception e) {
+                log.error("Delivering low stock alerts failed; retrying on the next interval", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (deliverer != null) {
+            deliverer.shutdownNow();
+        }
+    }
+
+    @Override
+    public void onChange(EntityType entity, String id, Object previous, Object current) {
+        if (entity != EntityType.INVENTORY) {
+            return;
+        }
+        if (current == null) {
+            synchronized (pending) {
+                pending.remove(id);
+            }
+            return;
+        }
+        InventoryDTO item = (InventoryDTO) current;
+        boolean wasLow = previous != null && isLowStock((InventoryDTO) previous);
+        boolean isLow = isLowStock(item);
+        if (wasLow == isLow) {
+            return;
+        }
+
+        LowStockAlertDTO alert = LowStockAlertDTO.builder()
+                .type(isLow ? LowStockAlertDTO.LOW_STOCK : LowStockAlertDTO.RECOVERED)
+                .inventoryId(id)
+                .productId(item.getProductId())
+                .warehouseId(item.getWarehouseId())
+                .sku(item.getSku())
+                .availableQuantity(item.getAvailableQuantity())
+                .lowStockThreshold(item.getLowStockThreshold())
+                .version(item.getVersion())
+                .detectedAt(clock.instant())
+                .build();
+        synchronized (pending) {
+            // Crossings of one record alternate, so a queued one is always the opposite of this one
+            if (pending.remove(id) != null) {
+                cancelled.increment();
+            } else {
+                pending.put(id, alert);
+            }
+        }
+    }
+
+    /**
+     * Send the queued alerts that are due, up to maxAlertsPerDelivery.
+     *
+     * @return the number of alerts delivered
+     */
+    public synchronized int deliver() {
+        Instant now = clock.instant();
+        Duration cooldown = properties.getCooldown();
+        lastDelivered.values().removeIf(at -> !at.plus(cooldown).isAfter(now));
+
+        List<LowStockAlertDTO> batch = new ArrayList<>();
+        synchronized (pending) {
+            Iterator<LowStockAlertDTO> it = pending.values().iterator();
+            while (it.hasNext() && batch.size() < properties.getMaxAlertsPerDelivery()) {
+                LowStockAlertDTO alert = it.next();
+                if (!lastDelivered.containsKey(alert.getInventoryId())) {
+                    it.remove();
+                    batch.add(alert);
+                }
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        try {
+            sender.send(batch);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not deliver {} low stock alerts; queued again: {}", batch.size(), e.getMessage());
+            failed.increment(batch.size());
+            requeue(batch);
+            return 0;
+        }
+        for (LowStockAlertDTO alert : batch) {
+            lastDelivered.put(alert.getInventoryId(), now);
+        }
+        delivered.increment(batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Get the number of alerts waiting to be delivered.
+     */
+    public int getPendingCount() {
+        synchronized (pending) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * Put a failed batch back at the head of the queue. A record that crossed back
+     * while the batch was being sent cancels out, as in {@link #onChange}.
+     */
+    private void requeue(List<LowStockAlertDTO> batch) {
+        synchronized (pending) {
+            Map<String, LowStockAlertDTO> newer = new LinkedHashMap<>(pending);
+            pending.clear();
+            for (LowStockAlertDTO alert : batch) {
+                if (newer.remove(alert.getInventoryId()) != null) {
+                    cancelled.increment();
+                } else {
+                    pending.put(alert.getInventoryId(), alert);
+                }
+            }
+            pending.putAll(newer);
+        }
+    }
+
+    private static boolean isLowStock(InventoryDTO item) {
+        return InventoryStatus.isLowStock(item.getAvailableQuantity(), item.getLowStockThreshold());
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("inventory.low_stock.alerts")
+                .description("Low stock alerts delivered to webhooks, failed (and queued again), or cancelled by a crossing back")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    /**
+     * POSTs each batch to every configured webhook; any non-2xx answer fails the batch.
+     */
+    private static final class WebhookSender implements Sender {
+
+        private final LowStockAlertProperties properties;
+        private final ObjectMapper objectMapper;
+        private final HttpClient client;
+
+        WebhookSender(LowStockAlertProperties properties, ObjectMapper objectMapper) {
+            this.properties = properties;
+            this.objectMapper = objectMapper;
+            this.client = HttpClient.newBuilder()
+                    .connectTimeout(properties.getRequestTimeout())
+                    .build();
+        }
+
+        @Override
+        public void send(List<LowStockAlertDTO> alerts) throws IOException {
+            byte[] body = objectMapper.writeValueAsBytes(alerts);
+            for (URI webhook : properties.getWebhooks()) {
+                HttpRequest request = HttpRequest.newBuilder(webhook)
+                        .timeout(properties.getRequestTimeout())
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                        .build();
+                HttpResponse<Void> response;
+                try {
+                    response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while delivering low stock alerts", e);
+                }
+                if (response.statusCode() / 100 != 2) {
+                    throw new IOException("Webhook " + webhook + " answered " + response.statusCode());
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.tekion.API_Design_Demo.service.changes;
+
+import com.tekion.API_Design_Demo.dto.ChangeEventDTO;
+import com.tekion.API_Design_Demo.dto.Versioned;
+import com.tekion.API_Design_Demo.enums.ChangeOperation;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.ChangeFeedGapException;
+import com.tekion.API_Design_Demo.service.ChangeListener;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The most recent writes to the {@link DataStore}, numbered in the order they were applied.
+ *
+ * Events are appended from {@link #onChange}, inside the per-key compute of the write,
+ * so the events for one record are numbered in the order its writes were applied. An
+ * event holds the saved record itself (records are replaced, never modified, once saved),
+ * so nothing is copied or serialized on the write path.
+ *
+ * The events are kept in a ring of {@code capacity} slots, without any lock on the write
+ * path: a writer takes the next sequence number from a counter, stores its event in the
+ * slot if that does not hold a later one, then moves the published sequence forward over
+ * every slot that is filled. Writes that take their numbers close together can finish in
+ * another order, so readers only see up to the published sequence, below which there are
+ * no holes. Reading notices a slot that was overwritten by the sequence number of the
+ * event in it. A reader that falls more than {@code capacity} events behind gets
+ * {@link ChangeFeedGapException} and has to reload.
+ *
+ * Sequence numbers start at 1 and are not persisted, so after a restart positions from
+ * before it are rejected the same way.
+ */
+@Component
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeed implements ChangeListener {
+
+    private final int capacity;
+    private final AtomicReferenceArray<ChangeEventDTO> ring;
+    // Last sequence number given to a writer
+    private final AtomicLong claimed = new AtomicLong();
+    // Last sequence number readers may see: every event up to it is stored (or overwritten)
+    private final AtomicLong published = new AtomicLong();
+    // Readers waiting in await() block on this monitor
+    private final Object monitor = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    public ChangeFeed(DataStore dataStore, ChangeFeedProperties properties) {
+        this.capacity = Math.max(1, properties.getCapacity());
+        this.ring = new AtomicReferenceArray<>(capacity);
+        dataStore.addChangeListener(this);
+    }
+
+    @Override
+    public void onChange(EntityType entity, String id, Object previous, Object current) {
+        Versioned record = (Versioned) (current != null ? current : previous);
+        ChangeEventDTO event = ChangeEventDTO.builder()
+                .entity(entity)
+                .id(id)
+                .op(previous == null ? ChangeOperation.CREATE : current == null ? ChangeOperation.DELETE : ChangeOperation.UPDATE)
+                .version(record.getVersion())
+                .payload(current)
+                .changedAt(Instant.now())
+                .build();
+        long sequence = claimed.incrementAndGet();
+        event.setSequence(sequence);
+        int slot = slot(sequence);
+        ChangeEventDTO stored = ring.get(slot);
+        // A writer that stalled for a whole lap must not replace the later event
+        while ((stored == null || stored.getSequence() < sequence) && !ring.compareAndSet(slot, stored, event)) {
+            stored = ring.get(slot);
+        }
+        publish();
+    }
+
+    @Override
+    public void afterCommit() {
+        if (waiters.get() > 0) {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Get the sequence number of the latest event, or 0 if there is none yet.
+     */
+    public long getLatestSequence() {
+        return published.get();
+    }
+
+    /**
+     * Read the events following a sequence number, oldest first.
+     *
+     * @param after the last sequence number the caller has seen; 0 reads from the start
+     * @param limit maximum number of events returned
+     * @throws ChangeFeedGapException if events after that sequence were already overwritten,
+     *                                or the sequence is later than any issued
+     */
+    public List<ChangeEventDTO> read(long after, int limit) {
+        long latest = published.get();
+        if (after > latest || after < latest - capacity) {
+            throw gap(after);
+        }
+        long end = Math.min(latest, after + Math.max(0, limit));
+        List<ChangeEventDTO> events = new ArrayList<>((int) (end - after));
+        for (long sequence = after + 1; sequence <= end; sequence++) {
+            ChangeEventDTO event = ring.get(slot(sequence));
+            if (event.getSequence() != sequence) {
+                throw gap(after);
+            }
+            events.add(event);
+        }
+        return events;
+    }
+
+    /**
+     * Wait until there is an event after the given sequence number, or the timeout passes.
+     *
+     * @return the latest sequence number, which is still {@code after} if the wait timed out
+     */
+    public long await(long after, Duration timeout) throws InterruptedException {
+        if (published.get() > after) {
+            return published.get();
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        // Registered before the check below, so a writer either sees the waiter or the waiter sees the write
+        waiters.incrementAndGet();
+        try {
+            synchronized (monitor) {
+                long remaining = deadline - System.nanoTime();
+                while (published.get() <= after && remaining > 0) {
+                    TimeUnit.NANOSECONDS.timedWait(monitor, remaining);
+                    remaining = deadline - System.nanoTime();
+                }
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+        return published.get();
+    }
+
+    /**
+     * Move the published sequence over every slot that has been filled since. Each writer
+     * calls it after storing its event, so the last one to fill a run of slots publishes it.
+     * A slot holding a later event is passed over too: the event meant for it is lost to
+     * the ring either way, and readers reaching it get a gap.
+     */
+    private void publish() {
+        while (true) {
+            long current = published.get();
+            long next = current + 1;
+            ChangeEventDTO event = ring.get(slot(next));
+            if (event == null || event.getSequence() < next) {
+                return;
+            }
+            published.compareAndSet(current, next);
+        }
+    }
+
+    private ChangeFeedGapException gap(long after) {
+        long latest = published.get();
+        return new ChangeFeedGapException(after, Math.max(1, latest - capacity + 1), latest);
+    }
+
+    private int slot(long sequence) {
+        return (int) (sequence % capacity);
+    }
+}
@@ -0,0 +1,55 @@
+package com.tekion.API_Design_Demo.service.changes;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for the change feed (datastore.changes.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "datastore.changes")
+public class ChangeFeedProperties {
+
+    /**
+     * Number of most recent change events kept in memory. Subscribers can resume
+     * from any sequence still in this window; older ones must reload the data.
+     */
+    private int capacity = 65_536;
+
+    /**
+     * Maximum events sent to one subscriber before the sender moves on to the next
+     * subscriber, so a subscriber catching up does not hold a sender thread for long.
+     */
+    private int batchSize = 256;
+
+    /**
+     * A stream subscriber more than this many events behind the latest change is
+     * disconnected. It can reconnect with Last-Event-ID while its position is still retained.
+     */
+    private int maxLag = 32_768;
+
+    /**
+     * Threads writing events to stream subscribers. With virtual threads enabled each
+     * subscriber is drained on its own virtual thread instead, and this is ignored.
+     */
+    private int senderThreads = 4;
+
+    /**
+     * How often an idle stream gets a comment line, so proxies keep it open and
+     * dead connections are noticed.
+     */
+    private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+    /**
+     * How often a caught-up stream checks for new events on the reactive stack, where
+     * streams poll the feed instead of being woken by a dispatcher thread.
+     */
+    private Duration pollInterval = Duration.ofMillis(100);
+
+    /**
+     * How long a stream stays open before the server ends it and the client reconnects.
+     */
+    private Duration streamTimeout = Duration.ofMinutes(30);
+}
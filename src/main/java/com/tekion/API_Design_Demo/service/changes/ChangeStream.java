@@ -0,0 +1,248 @@
+package com.tekion.API_Design_Demo.service.changes;
+
+import com.tekion.API_Design_Demo.dto.ChangeEventDTO;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.ChangeFeedGapException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes the {@link ChangeFeed} to Server-Sent Events subscribers.
+ *
+ * Each subscriber keeps its own position in the feed. A dispatcher thread waits for new
+ * events and hands every subscriber that is behind to a small pool of sender threads;
+ * a subscriber is drained by at most one sender at a time, and a sender moves on after
+ * {@code batchSize} events, so a subscriber that reads slowly only slows itself down.
+ * One that falls more than {@code maxLag} events behind is sent an "evicted" event and
+ * disconnected before the feed overwrites its position, so it can still reconnect with
+ * Last-Event-ID and continue without a gap.
+ *
+ * With virtual threads enabled (spring.threads.virtual.enabled on Java 21) every drain runs
+ * on its own virtual thread, so a subscriber blocked on a slow socket holds no platform thread.
+ *
+ * Idle subscribers get a heartbeat every {@code heartbeatInterval}. It carries the
+ * subscriber's position as its id, so a subscriber whose entity filter matches nothing
+ * for a while still resumes from a recent position.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ChangeStream.class);
+    static final String CHANGE_EVENT = "change";
+    static final String EVICTED_EVENT = "evicted";
+
+    private final ChangeFeed feed;
+    private final ChangeFeedProperties properties;
+    private final Environment environment;
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Counter evictions;
+
+    private Executor senders;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    public ChangeStream(ChangeFeed feed, ChangeFeedProperties properties, Environment environment, MeterRegistry registry) {
+        this.feed = feed;
+        this.properties = properties;
+        this.environment = environment;
+        Gauge.builder("datastore.changes.subscribers", subscribers, Set::size)
+                .description("Open change stream subscriptions")
+                .register(registry);
+        this.evictions = Counter.builder("datastore.changes.evictions")
+                .description("Change stream subscribers disconnected for falling too far behind")
+                .register(registry);
+    }
+
+    /**
+     * Start the dispatcher and sender threads.
+     */
+    @PostConstruct
+    public void start() {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            senders = new VirtualThreadTaskExecutor("change-stream-sender-");
+        } else {
+            AtomicInteger threads = new AtomicInteger();
+            senders = Executors.newFixedThreadPool(Math.max(1, properties.getSenderThreads()), r -> {
+                Thread thread = new Thread(r, "change-stream-sender-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        running = true;
+        dispatcher = new Thread(this::dispatch, "change-stream-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    /**
+     * Close every subscription and stop the threads.
+     */
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (dispatcher != null) {
+            dispatcher.interrupt();
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscribers.remove(subscriber);
+            subscriber.emitter.complete();
+        }
+        if (senders instanceof ExecutorService executor) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Open a stream of the events after the given sequence number.
+     *
+     * @param after    the last sequence number the subscriber has seen
+     * @param entities collections to send events for; empty sends all
+     * @throws ChangeFeedGapException if the feed no longer holds the events after that sequence
+     */
+    public SseEmitter subscribe(long after, Set<EntityType> entities) {
+        // Fail the request with an error response rather than an empty stream
+        feed.read(after, 0);
+
+        SseEmitter emitter = new SseEmitter(properties.getStreamTimeout().toMillis());
+        Subscriber subscriber = new Subscriber(emitter, after, entities);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(ex -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        schedule(subscriber);
+        return emitter;
+    }
+
+    /**
+     * Get the number of open subscriptions.
+     */
+    public int getSubscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatch() {
+        long seen = feed.getLatestSequence();
+        while (running) {
+            try {
+                seen = feed.await(seen, properties.getHeartbeatInterval());
+            } catch (InterruptedException e) {
+                return;
+            }
+            // Also runs on timeout, which is when idle subscribers are due a heartbeat
+            subscribers.forEach(this::schedule);
+        }
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (running && subscriber.scheduled.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            send(subscriber);
+        } catch (ChangeFeedGapException e) {
+            evict(subscriber, e.getMessage());
+        } catch (IOException | IllegalStateException e) {
+            // The client went away or the emitter already completed
+            subscribers.remove(subscriber);
+            subscriber.emitter.completeWithError(e);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // Events that arrived while this drain ran may have found it still scheduled
+        if (subscribers.contains(subscriber) && subscriber.position < feed.getLatestSequence()) {
+            schedule(subscriber);
+        }
+    }
+
+    private void send(Subscriber subscriber) throws IOException {
+        long lag = feed.getLatestSequence() - subscriber.position;
+        if (lag > properties.getMaxLag()) {
+            evict(subscriber, "Subscriber fell " + lag + " events behind; reconnect with Last-Event-ID to continue");
+            return;
+        }
+
+        List<ChangeEventDTO> events = feed.read(subscriber.position, properties.getBatchSize());
+        boolean sent = false;
+        for (ChangeEventDTO event : events) {
+            if (subscriber.accepts(event)) {
+                subscriber.emitter.send(SseEmitter.event()
+                        .id(Long.toString(event.getSequence()))
+                        .name(CHANGE_EVENT)
+                        .data(event, MediaType.APPLICATION_JSON));
+                sent = true;
+            }
+            subscriber.position = event.getSequence();
+        }
+
+        long now = System.nanoTime();
+        if (!sent && now - subscriber.lastSentNanos >= properties.getHeartbeatInterval().toNanos()) {
+            subscriber.emitter.send(SseEmitter.event()
+                    .id(Long.toString(subscriber.position))
+                    .comment("heartbeat"));
+            sent = true;
+        }
+        if (sent) {
+            subscriber.lastSentNanos = now;
+        }
+    }
+
+    private void evict(Subscriber subscriber, String reason) {
+        if (!subscribers.remove(subscriber)) {
+            return;
+        }
+        evictions.increment();
+        log.info("Evicting change stream subscriber at sequence {}: {}", subscriber.position, reason);
+        try {
+            subscriber.emitter.send(SseEmitter.event().name(EVICTED_EVENT).data(reason));
+            subscriber.emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+        }
+    }
+
+    private static final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Set<EntityType> entities;
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        // Only changed by the sender draining this subscriber
+        private volatile long position;
+        private volatile long lastSentNanos = System.nanoTime();
+
+        Subscriber(SseEmitter emitter, long position, Set<EntityType> entities) {
+            this.emitter = emitter;
+            this.position = position;
+            this.entities = entities;
+        }
+
+        boolean accepts(ChangeEventDTO event) {
+            return entities.isEmpty() || entities.contains(event.getEntity());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.tekion.API_Design_Demo.service.changes;
+
+import com.tekion.API_Design_Demo.dto.ChangeEventDTO;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.ChangeFeedGapException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.tekion.API_Design_Demo.service.changes.ChangeStream.CHANGE_EVENT;
+import static com.tekion.API_Design_Demo.service.changes.ChangeStream.EVICTED_EVENT;
+
+/**
+ * Streams the {@link ChangeFeed} as Server-Sent Events on the reactive stack, with the
+ * same events, heartbeats and eviction as {@link ChangeStream}.
+ *
+ * No thread is held per subscriber. Each stream reads up to {@code batchSize} events at
+ * a time, and only reads the next batch once the client has taken the previous one, so a
+ * slow client is paced by its own socket. A stream that has caught up checks the feed
+ * again every {@code pollInterval}.
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveChangeStream {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactiveChangeStream.class);
+
+    private final ChangeFeed feed;
+    private final ChangeFeedProperties properties;
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final Counter evictions;
+
+    public ReactiveChangeStream(ChangeFeed feed, ChangeFeedProperties properties, MeterRegistry registry) {
+        this.feed = feed;
+        this.properties = properties;
+        Gauge.builder("datastore.changes.subscribers", subscribers, AtomicInteger::get)
+                .description("Open change stream subscriptions")
+                .register(registry);
+        this.evictions = Counter.builder("datastore.changes.evictions")
+                .description("Change stream subscribers disconnected for falling too far behind")
+                .register(registry);
+    }
+
+    /**
+     * Open a stream of the events after the given sequence number.
+     *
+     * @param after    the last sequence number the subscriber has seen
+     * @param entities collections to send events for; empty sends all
+     * @throws ChangeFeedGapException if the feed no longer holds the events after that sequence
+     */
+    public Flux<ServerSentEvent<Object>> subscribe(long after, Set<EntityType> entities) {
+        // Fail the request with an error response rather than an empty stream
+        feed.read(after, 0);
+
+        return Flux.defer(() -> {
+                    Subscriber subscriber = new Subscriber(after, entities);
+                    return Flux.defer(() -> next(subscriber))
+                            .repeat(() -> !subscriber.evicted);
+                })
+                .take(properties.getStreamTimeout())
+                .doOnSubscribe(s -> subscribers.incrementAndGet())
+                .doFinally(signal -> subscribers.decrementAndGet());
+    }
+
+    /**
+     * Get the number of open subscriptions.
+     */
+    public int getSubscriberCount() {
+        return subscribers.get();
+    }
+
+    /**
+     * The events for one batch, followed by a pause when the subscriber has caught up.
+     */
+    private Flux<ServerSentEvent<Object>> next(Subscriber subscriber) {
+        long lag = feed.getLatestSequence() - subscriber.position;
+        if (lag > properties.getMaxLag()) {
+            return Flux.just(evict(subscriber, "Subscriber fell " + lag + " events behind; reconnect with Last-Event-ID to continue"));
+        }
+
+        List<ChangeEventDTO> events;
+        try {
+            events = feed.read(subscriber.position, properties.getBatchSize());
+        } catch (ChangeFeedGapException e) {
+            return Flux.just(evict(subscriber, e.getMessage()));
+        }
+
+        List<ServerSentEvent<Object>> batch = new ArrayList<>(events.size());
+        for (ChangeEventDTO event : events) {
+            if (subscriber.accepts(event)) {
+                batch.add(ServerSentEvent.builder((Object) event)
+                        .id(Long.toString(event.getSequence()))
+                        .event(CHANGE_EVENT)
+                        .build());
+            }
+            subscriber.position = event.getSequence();
+        }
+
+        long now = System.nanoTime();
+        if (batch.isEmpty() && now - subscriber.lastSentNanos >= properties.getHeartbeatInterval().toNanos()) {
+            batch.add(ServerSentEvent.<Object>builder()
+                    .id(Long.toString(subscriber.position))
+                    .comment("heartbeat")
+                    .build());
+        }
+        if (!batch.isEmpty()) {
+            subscriber.lastSentNanos = now;
+        }
+        Flux<ServerSentEvent<Object>> sent = Flux.fromIterable(batch);
+        return events.isEmpty()
+                ? sent.concatWith(Mono.delay(properties.getPollInterval()).then(Mono.<ServerSentEvent<Object>>empty()))
+                : sent;
+    }
+
+    private ServerSentEvent<Object> evict(Subscriber subscriber, String reason) {
+        subscriber.evicted = true;
+        evictions.increment();
+        log.info("Evicting change stream subscriber at sequence {}: {}", subscriber.position, reason);
+        return ServerSentEvent.builder((Object) reason).event(EVICTED_EVENT).build();
+    }
+
+    private static final class Subscriber {
+
+        private final Set<EntityType> entities;
+        // Only changed by the stream's own batches, which run one at a time but not always on the same thread
+        private volatile long position;
+        private volatile long lastSentNanos = System.nanoTime();
+        private volatile boolean evicted;
+
+        Subscriber(long position, Set<EntityType> entities) {
+            this.position = position;
+            this.entities = entities;
+        }
+
+        boolean accepts(ChangeEventDTO event) {
+            return entities.isEmpty() || entities.contains(event.getEntity());
+        }
+    }
+}
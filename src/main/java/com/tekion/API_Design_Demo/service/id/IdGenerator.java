@@ -0,0 +1,20 @@
+package com.tekion.API_Design_Demo.service.id;
+
+/**
+ * Generates unique ids for new records.
+ */
+public interface IdGenerator {
+
+    /**
+     * Generate an id with the given prefix, e.g. "ord-".
+     * Ids from one generator sort lexicographically in creation order.
+     */
+    String nextId(String prefix);
+
+    /**
+     * Generate an upper-case reference with the given prefix, e.g. a tracking number or transaction reference.
+     */
+    default String nextReference(String prefix) {
+        return prefix + nextId("").toUpperCase();
+    }
+}
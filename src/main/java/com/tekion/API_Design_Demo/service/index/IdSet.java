@@ -0,0 +1,51 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sorted concurrent set of record ids that keeps a running count, so
+ * {@link #size()} is constant-time instead of a full traversal.
+ * Used to pick the smallest set when intersecting index lookups.
+ *
+ * Only add, remove and clear keep the count; the set is meant to be
+ * mutated through those and handed out as a read-only view.
+ */
+public class IdSet extends ConcurrentSkipListSet<String> {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public boolean add(String id) {
+        boolean added = super.add(id);
+        if (added) {
+            count.incrementAndGet();
+        }
+        return added;
+    }
+
+    @Override
+    public boolean remove(Object id) {
+        boolean removed = super.remove(id);
+        if (removed) {
+            count.decrementAndGet();
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        count.set(0);
+    }
+
+    @Override
+    public int size() {
+        return Math.max(0, count.get());
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return count.get() <= 0;
+    }
+}
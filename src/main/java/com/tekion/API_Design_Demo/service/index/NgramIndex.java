@@ -0,0 +1,91 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+
+/**
+ * Trigram index for case-insensitive substring search over one text field.
+ *
+ * Each record is posted under every three-character window of its lowercased text.
+ * A substring of at least three characters can only occur in records posted under all
+ * of its trigrams, so intersecting their posting lists (see
+ * {@link com.tekion.API_Design_Demo.service.IndexQuery}) narrows a search to a few
+ * candidates without scanning the collection. The intersection can still contain records
+ * whose trigrams occur apart, so callers check the candidates with a plain contains.
+ *
+ * A record costs one posting per character of its text, so this suits short identifiers
+ * such as tracking numbers rather than free text.
+ */
+public class NgramIndex {
+
+    public static final int GRAM_LENGTH = 3;
+
+    private final SecondaryIndex<String> postings = new SecondaryIndex<>();
+
+    /**
+     * Re-index a record whose text changed from previous to current (null for none).
+     * Only the trigrams that differ are touched. Callers must not index the same id concurrently.
+     */
+    public void move(String previous, String current, String id) {
+        Set<String> before = grams(previous);
+        Set<String> after = grams(current);
+        for (String gram : before) {
+            if (!after.contains(gram)) {
+                postings.remove(gram, id);
+            }
+        }
+        for (String gram : after) {
+            if (!before.contains(gram)) {
+                postings.add(gram, id);
+            }
+        }
+    }
+
+    /**
+     * Remove a record indexed under the given text.
+     */
+    public void remove(String text, String id) {
+        for (String gram : grams(text)) {
+            postings.remove(gram, id);
+        }
+    }
+
+    /**
+     * Get the posting lists that every record containing the query must be in,
+     * or null if the query is shorter than a trigram and the index cannot narrow it.
+     */
+    public List<NavigableSet<String>> candidates(String query) {
+        if (query == null || query.length() < GRAM_LENGTH) {
+            return null;
+        }
+        List<NavigableSet<String>> lists = new ArrayList<>();
+        for (String gram : grams(query)) {
+            lists.add(postings.get(gram));
+        }
+        return lists;
+    }
+
+    /**
+     * Normalize text the way the index does, for checking candidates against a query.
+     * Null stays null.
+     */
+    public static String normalize(String text) {
+        return text != null ? text.toLowerCase(Locale.ROOT) : null;
+    }
+
+    static Set<String> grams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        if (text == null) {
+            return grams;
+        }
+        String normalized = normalize(text);
+        for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+            grams.add(normalized.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+}
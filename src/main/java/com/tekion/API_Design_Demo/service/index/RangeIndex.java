@@ -0,0 +1,183 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Sorted index over a comparable field (e.g. price or order date) for range queries.
+ *
+ * Entries are (value, id) pairs in a single skip-list set ordered by value and then id,
+ * so adding and removing an entry are single atomic set operations and a range lookup
+ * is a seek to the lower bound followed by a walk to the upper bound: O(log N + k).
+ *
+ * @param <V> Type of the indexed value
+ */
+public class RangeIndex<V extends Comparable<? super V>> {
+
+    private final ConcurrentSkipListSet<Entry<V>> entries = new ConcurrentSkipListSet<>();
+
+    /**
+     * Add an id under the given value. Null values are not indexed.
+     */
+    public void add(V value, String id) {
+        if (value != null) {
+            entries.add(new Entry<>(value, id, 0));
+        }
+    }
+
+    /**
+     * Remove an id from the given value.
+     */
+    public void remove(V value, String id) {
+        if (value != null) {
+            entries.remove(new Entry<>(value, id, 0));
+        }
+    }
+
+    /**
+     * Move an id from its previous value to its current value.
+     * Used on save, where the previous value is null for new records.
+     */
+    public void move(V previousValue, V currentValue, String id) {
+        if (previousValue != null && currentValue != null && previousValue.compareTo(currentValue) == 0) {
+            return;
+        }
+        remove(previousValue, id);
+        add(currentValue, id);
+    }
+
+    /**
+     * Get the records whose value lies between the bounds (both inclusive).
+     * A null bound leaves that end of the range open.
+     */
+    public Range range(V from, V to) {
+        NavigableSet<Entry<V>> matches;
+        if (from != null && to != null) {
+            if (from.compareTo(to) > 0) {
+                return new Range(new TreeSet<Entry<V>>());
+            }
+            matches = entries.subSet(Entry.lowerBound(from), true, Entry.upperBound(to), true);
+        } else if (from != null) {
+            matches = entries.tailSet(Entry.lowerBound(from), true);
+        } else if (to != null) {
+            matches = entries.headSet(Entry.upperBound(to), true);
+        } else {
+            matches = entries;
+        }
+        return new Range(matches);
+    }
+
+    /**
+     * The entries of one range lookup. Reading it walks the live index.
+     */
+    public static final class Range {
+
+        private final NavigableSet<? extends Entry<?>> entries;
+
+        private Range(NavigableSet<? extends Entry<?>> entries) {
+            this.entries = entries;
+        }
+
+        /**
+         * Count the ids in the range, stopping once the count reaches the cap.
+         * Lets a caller check whether a range is small without walking all of a large one.
+         */
+        public long count(long cap) {
+            long count = 0;
+            for (Entry<?> ignored : entries) {
+                if (++count >= cap) {
+                    break;
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Collect the ids of the first entries in the range, in value order,
+         * walking no further than needed.
+         */
+        public List<String> firstIds(int max) {
+            List<String> ids = new ArrayList<>(Math.min(max, 16));
+            for (Entry<?> entry : entries) {
+                if (ids.size() >= max) {
+                    break;
+                }
+                ids.add(entry.id);
+            }
+            return ids;
+        }
+
+        /**
+         * Lazily stream the ids in the range, in value order, walking the live index
+         * as the stream is read. An id whose value moves during the walk may be seen
+         * twice or not at all.
+         */
+        public Stream<String> streamIds() {
+            return entries.stream().map(entry -> entry.id);
+        }
+
+        /**
+         * Collect the ids in the range, sorted by id.
+         */
+        public NavigableSet<String> ids() {
+            NavigableSet<String> ids = new TreeSet<>();
+            for (Entry<?> entry : entries) {
+                ids.add(entry.id);
+            }
+            return ids;
+        }
+    }
+
+    /**
+     * An indexed (value, id) pair. Bound entries have no id and sort before (-1)
+     * or after (+1) every entry with the same value.
+     */
+    private static final class Entry<V extends Comparable<? super V>> implements Comparable<Entry<V>> {
+
+        private final V value;
+        private final String id;
+        private final int bound;
+
+        private Entry(V value, String id, int bound) {
+            this.value = value;
+            this.id = id;
+            this.bound = bound;
+        }
+
+        static <V extends Comparable<? super V>> Entry<V> lowerBound(V value) {
+            return new Entry<>(value, null, -1);
+        }
+
+        static <V extends Comparable<? super V>> Entry<V> upperBound(V value) {
+            return new Entry<>(value, null, 1);
+        }
+
+        @Override
+        public int compareTo(Entry<V> other) {
+            int byValue = value.compareTo(other.value);
+            if (byValue != 0) {
+                return byValue;
+            }
+            if (bound != 0 || other.bound != 0) {
+                return Integer.compare(bound, other.bound);
+            }
+            return id.compareTo(other.id);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Entry<?> other && bound == other.bound
+                    && Objects.equals(id, other.id) && Objects.equals(value, other.value);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(value, id, bound);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the count, sum and 1-5 star histogram of the ratings held under each key
+ * (e.g. the reviews of a product), so averages are read without visiting the ratings.
+ * Each key's tally is replaced as a whole inside a per-key compute, so a read always
+ * sees a count, sum and histogram that agree with each other.
+ * Ratings outside 1-5 are not counted.
+ */
+public class RatingIndex {
+
+    private final ConcurrentHashMap<String, Tally> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Count a rating under the given key. Null keys are not indexed.
+     */
+    public void add(String key, int rating) {
+        if (key == null || !Tally.isValid(rating)) {
+            return;
+        }
+        entries.compute(key, (k, tally) -> (tally != null ? tally : Tally.EMPTY).plus(rating, 1));
+    }
+
+    /**
+     * Stop counting a rating under the given key, dropping the key once it has no ratings left.
+     */
+    public void remove(String key, int rating) {
+        if (key == null || !Tally.isValid(rating)) {
+            return;
+        }
+        entries.computeIfPresent(key, (k, tally) -> {
+            Tally updated = tally.plus(rating, -1);
+            return updated.count() > 0 ? updated : null;
+        });
+    }
+
+    /**
+     * Move a rating from its previous key and value to the current ones.
+     * Used on save, where the previous key is null for new records.
+     */
+    public void move(String previousKey, int previousRating, String currentKey, int currentRating) {
+        if (previousKey != null && Objects.equals(previousKey, currentKey) && previousRating == currentRating) {
+            return;
+        }
+        remove(previousKey, previousRating);
+        add(currentKey, currentRating);
+    }
+
+    /**
+     * Get the tally of the ratings under a key; empty if there are none.
+     */
+    public Tally get(String key) {
+        Tally tally = key != null ? entries.get(key) : null;
+        return tally != null ? tally : Tally.EMPTY;
+    }
+
+    /**
+     * Ratings held under one key. Immutable.
+     *
+     * @param stars number of ratings per star value; stars[0] counts 1-star ratings
+     */
+    public record Tally(long count, long sum, long[] stars) {
+
+        public static final int MIN_RATING = 1;
+        public static final int MAX_RATING = 5;
+        static final Tally EMPTY = new Tally(0, 0, new long[MAX_RATING]);
+
+        /**
+         * Get the average rating, or 0 if there are no ratings.
+         */
+        public double average() {
+            return count > 0 ? (double) sum / count : 0;
+        }
+
+        /**
+         * Get the number of ratings with the given star value.
+         */
+        public long countOf(int rating) {
+            return isValid(rating) ? stars[rating - MIN_RATING] : 0;
+        }
+
+        Tally plus(int rating, int delta) {
+            long[] updated = stars.clone();
+            updated[rating - MIN_RATING] += delta;
+            return new Tally(count + delta, sum + (long) rating * delta, updated);
+        }
+
+        static boolean isValid(int rating) {
+            return rating >= MIN_RATING && rating <= MAX_RATING;
+        }
+    }
+}
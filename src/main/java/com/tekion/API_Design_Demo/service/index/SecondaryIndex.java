@@ -0,0 +1,66 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps a secondary key (e.g. a foreign key such as customerId) to the ids of
+ * the records that currently hold that key.
+ * Ids per key are kept sorted so lookups return a stable order, and
+ * counted so the size of a lookup is known without traversing it.
+ *
+ * @param <K> Type of the indexed key
+ */
+public class SecondaryIndex<K> {
+
+    private final ConcurrentHashMap<K, NavigableSet<String>> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Add an id under the given key. Null keys are not indexed.
+     */
+    public void add(K key, String id) {
+        if (key == null) {
+            return;
+        }
+        entries.compute(key, (k, ids) -> {
+            NavigableSet<String> target = ids != null ? ids : new IdSet();
+            target.add(id);
+            return target;
+        });
+    }
+
+    /**
+     * Remove an id from the given key, dropping the key once it has no ids left.
+     */
+    public void remove(K key, String id) {
+        if (key == null) {
+            return;
+        }
+        entries.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    /**
+     * Move an id from its previous key to its current key.
+     * Used on save, where the previous key is null for new records.
+     */
+    public void move(K previousKey, K currentKey, String id) {
+        if (previousKey != null && Objects.equals(previousKey, currentKey)) {
+            return;
+        }
+        remove(previousKey, id);
+        add(currentKey, id);
+    }
+
+    /**
+     * Get the ids indexed under a key, as a read-only sorted view.
+     */
+    public NavigableSet<String> get(K key) {
+        NavigableSet<String> ids = key != null ? entries.get(key) : null;
+        return ids != null ? Collections.unmodifiableNavigableSet(ids) : Collections.emptyNavigableSet();
+    }
+}
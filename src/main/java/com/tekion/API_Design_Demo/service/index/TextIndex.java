@@ -0,0 +1,246 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Inverted index for keyword search over a few text fields of a record.
+ *
+ * Text is split into lowercase letter/digit tokens. Each record keeps its terms and
+ * their weights (a field weight per occurrence), and each term keeps the sorted ids of
+ * the records that contain it. Every query term matches the indexed terms it is a
+ * prefix of, all query terms must match (AND), and results are ranked by the sum over
+ * query terms of weight * idf of the best matching term, with prefix-only matches
+ * discounted against exact ones.
+ *
+ * The query term with the fewest postings drives the search; the other terms are
+ * checked against the candidate's own term list, so the cost follows the rarest term
+ * rather than the catalog size.
+ */
+public class TextIndex {
+
+    private static final double PREFIX_MATCH_FACTOR = 0.5;
+
+    private final ConcurrentHashMap<String, Document> documents = new ConcurrentHashMap<>();
+    private final SecondaryIndex<String> postings = new SecondaryIndex<>();
+    // Sorted dictionary of term -> number of records containing it, for prefix expansion and idf
+    private final ConcurrentSkipListMap<String, Integer> documentFrequency = new ConcurrentSkipListMap<>();
+
+    /**
+     * Split text into lowercase letter/digit tokens.
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean tokenChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (tokenChar && start < 0) {
+                start = i;
+            } else if (!tokenChar && start >= 0) {
+                tokens.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * Add the tokens of a field to a term -> weight map, counting each occurrence with the field weight.
+     */
+    public static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    /**
+     * Index a record under the given term weights, replacing whatever it was indexed under before.
+     * Callers must not index the same id concurrently.
+     */
+    public void put(String id, Map<String, Integer> terms) {
+        Document previous = documents.get(id);
+        Document current = new Document(new TreeMap<>(terms));
+        if (previous != null) {
+            for (String term : previous.terms) {
+                if (Arrays.binarySearch(current.terms, term) < 0) {
+                    removePosting(term, id);
+                }
+            }
+        }
+        for (String term : current.terms) {
+            if (previous == null || Arrays.binarySearch(previous.terms, term) < 0) {
+                addPosting(term, id);
+            }
+        }
+        documents.put(id, current);
+    }
+
+    /**
+     * Remove a record from the index.
+     * Callers must not index the same id concurrently.
+     */
+    public void remove(String id) {
+        Document previous = documents.remove(id);
+        if (previous != null) {
+            for (String term : previous.terms) {
+                removePosting(term, id);
+            }
+        }
+    }
+
+    /**
+     * Find the ids of the records matching every term of the query, best match first.
+     *
+     * @param limit maximum number of ids to return
+     */
+    public List<String> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(tokenize(query));
+        if (queryTerms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        String driver = null;
+        long driverPostings = Long.MAX_VALUE;
+        for (String term : queryTerms) {
+            long count = postingCount(term, driverPostings);
+            if (count < driverPostings) {
+                driver = term;
+                driverPostings = count;
+            }
+        }
+        if (driverPostings == 0) {
+            return List.of();
+        }
+
+        Map<String, Double> idf = new HashMap<>();
+        int total = documents.size();
+        Comparator<Hit> ranking = Comparator.comparingDouble(Hit::score).thenComparing(Hit::id, Comparator.reverseOrder());
+        PriorityQueue<Hit> top = new PriorityQueue<>(limit + 1, ranking);
+        Set<String> driverTerms = expand(driver).keySet();
+        // A record can only be reached twice when the driver expands to more than one term
+        Set<String> seen = driverTerms.size() > 1 ? new HashSet<>() : null;
+        for (String term : driverTerms) {
+            for (String id : postings.get(term)) {
+                if (seen != null && !seen.add(id)) {
+                    continue;
+                }
+                double score = score(documents.get(id), queryTerms, idf, total);
+                if (score > 0 && (top.size() < limit || score > top.peek().score())) {
+                    top.add(new Hit(id, score));
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(ranking.reversed());
+        List<String> ids = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            ids.add(hit.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Sum of the best match score of every query term, or 0 if some term does not match.
+     */
+    private double score(Document document, Set<String> queryTerms, Map<String, Double> idf, int total) {
+        if (document == null) {
+            return 0;
+        }
+        double score = 0;
+        for (String queryTerm : queryTerms) {
+            double best = 0;
+            int i = document.firstWithPrefix(queryTerm);
+            for (; i < document.terms.length && document.terms[i].startsWith(queryTerm); i++) {
+                String term = document.terms[i];
+                double match = document.weights[i] * idf.computeIfAbsent(term, t -> idf(t, total));
+                if (!term.equals(queryTerm)) {
+                    match *= PREFIX_MATCH_FACTOR;
+                }
+                best = Math.max(best, match);
+            }
+            if (best == 0) {
+                return 0;
+            }
+            score += best;
+        }
+        return score;
+    }
+
+    private double idf(String term, int total) {
+        int frequency = documentFrequency.getOrDefault(term, 1);
+        return Math.log(1 + (double) total / frequency);
+    }
+
+    /**
+     * Number of postings under the terms starting with the prefix, counted up to cap.
+     */
+    private long postingCount(String prefix, long cap) {
+        long count = 0;
+        for (int frequency : expand(prefix).values()) {
+            count += frequency;
+            if (count >= cap) {
+                break;
+            }
+        }
+        return count;
+    }
+
+    private Map<String, Integer> expand(String prefix) {
+        return documentFrequency.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private void addPosting(String term, String id) {
+        postings.add(term, id);
+        documentFrequency.merge(term, 1, Integer::sum);
+    }
+
+    private void removePosting(String term, String id) {
+        postings.remove(term, id);
+        documentFrequency.merge(term, -1, (count, delta) -> count + delta > 0 ? count + delta : null);
+    }
+
+    /**
+     * The sorted terms of one record with their weights.
+     */
+    private static final class Document {
+
+        private final String[] terms;
+        private final int[] weights;
+
+        private Document(TreeMap<String, Integer> sorted) {
+            terms = sorted.keySet().toArray(new String[0]);
+            weights = new int[terms.length];
+            int i = 0;
+            for (int weight : sorted.values()) {
+                weights[i++] = weight;
+            }
+        }
+
+        private int firstWithPrefix(String prefix) {
+            int i = Arrays.binarySearch(terms, prefix);
+            return i >= 0 ? i : -i - 1;
+        }
+    }
+
+    private record Hit(String id, double score) {
+    }
+}
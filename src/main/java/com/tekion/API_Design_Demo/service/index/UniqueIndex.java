@@ -0,0 +1,44 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps a key that identifies one record (e.g. a tracking number) to that record's id,
+ * for exact lookups without scanning the collection.
+ *
+ * Keys are expected to be unique, e.g. because they are issued by the IdGenerator;
+ * if two records do hold the same key, the one saved last is found.
+ */
+public class UniqueIndex {
+
+    private final ConcurrentHashMap<String, String> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Move an id from its previous key to its current key.
+     * Used on save, where the previous key is null for new records. Null keys are not indexed.
+     */
+    public void move(String previousKey, String currentKey, String id) {
+        if (previousKey != null && !previousKey.equals(currentKey)) {
+            remove(previousKey, id);
+        }
+        if (currentKey != null) {
+            entries.put(currentKey, id);
+        }
+    }
+
+    /**
+     * Remove a key, unless another record has taken it over since.
+     */
+    public void remove(String key, String id) {
+        if (key != null) {
+            entries.remove(key, id);
+        }
+    }
+
+    /**
+     * Get the id of the record holding a key, or null if none does.
+     */
+    public String get(String key) {
+        return key != null ? entries.get(key) : null;
+    }
+}
@@ -0,0 +1,503 @@
+package com.tekion.API_Design_Demo.service.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.dto.Versioned;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.service.ChangeListener;
+import com.tekion.API_Design_Demo.service.DataStore;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Makes the {@link DataStore} durable with a write-ahead log and periodic snapshots.
+ *
+ * Every change is appended to the WAL from inside the store's per-key compute,
+ * so the log holds the writes to each record in the order they were applied.
+ * A snapshot rotates the WAL to a new segment N, writes every collection and the
+ * store's version clocks to {@code snapshot-N}, and then deletes older snapshots
+ * and all segments below N-1.
+ * Segment N-1 is kept because writes that were in flight during rotation may
+ * still be missing from the snapshot.
+ *
+ * On startup the latest complete snapshot is loaded with one task per file,
+ * then segments N-1 and later are replayed. Replay is split into partitions by
+ * record id; each partition applies its records in log order on its own thread.
+ * Recovered records are put back with {@link DataStore#restore}, so they keep the
+ * versions (and ETags) they had before the restart, and the version clocks are
+ * raised past every logged version, including those of deleted records.
+ */
+@Component
+@EnableConfigurationProperties(PersistenceProperties.class)
+@ConditionalOnProperty(prefix = "datastore.persistence", name = "enabled", havingValue = "true")
+public class DataStorePersistence implements ChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(DataStorePersistence.class);
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final String SNAPSHOT_FILE_SUFFIX = ".ndjson";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String VERSION_CLOCKS_FILE = "version-clocks.txt";
+    private static final int REPLAY_CHUNK_SIZE = 1024;
+
+    private final DataStore dataStore;
+    private final ObjectMapper objectMapper;
+    private final PersistenceProperties properties;
+    private final Path directory;
+    private final Object snapshotLock = new Object();
+
+    private WriteAheadLog wal;
+    private ScheduledExecutorService snapshotScheduler;
+
+    public DataStorePersistence(DataStore dataStore, ObjectMapper objectMapper, PersistenceProperties properties) {
+        this.dataStore = dataStore;
+        this.objectMapper = objectMapper;
+        this.properties = properties;
+        this.directory = properties.getDirectory();
+    }
+
+    /**
+     * Recover the store from disk, then start logging changes.
+     * Runs before the web server starts, so no request sees a partially recovered store.
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        deleteIncompleteSnapshots();
+
+        long started = System.nanoTime();
+        long lastSegment = recover();
+        log.info("Recovered DataStore from {} in {} ms", directory, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+
+        // Never append to a segment that existed before: its tail may be a torn write
+        wal = new WriteAheadLog(directory, lastSegment + 1, objectMapper,
+                properties.getFlushInterval(), properties.getMaxBatchSize());
+        dataStore.addChangeListener(this);
+
+        long interval = properties.getSnapshotInterval().toMillis();
+        snapshotScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "datastore-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                snapshot();
+            } catch (Exception e) {
+                log.error("Snapshot failed; the WAL keeps growing until the next one succeeds", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stop logging and flush every logged change to disk.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        snapshotScheduler.shutdownNow();
+        synchronized (snapshotLock) {
+            dataStore.removeChangeListener(this);
+            wal.close();
+        }
+    }
+
+    @Override
+    public void onChange(EntityType entity, String id, Object previous, Object current) {
+        if (current != null) {
+            wal.append(entity, id, current);
+        } else {
+            wal.appendDelete(entity, id, ((Versioned) previous).getVersion());
+        }
+    }
+
+    @Override
+    public void afterCommit() {
+        if (properties.getSyncMode() == PersistenceProperties.SyncMode.SYNC) {
+            wal.awaitDurable();
+        }
+    }
+
+    /**
+     * Write a compacting snapshot of the whole store and drop the WAL segments it replaces.
+     */
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long started = System.nanoTime();
+            long segment = wal.rotate().join();
+            Path target = directory.resolve(SNAPSHOT_PREFIX + segment);
+            Path temp = directory.resolve(SNAPSHOT_PREFIX + segment + TEMP_SUFFIX);
+            Files.createDirectories(temp);
+
+            ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+            try {
+                List<Future<Long>> tasks = new ArrayList<>();
+                for (EntityType entity : EntityType.values()) {
+                    tasks.add(executor.submit(() -> writeSnapshot(temp, entity)));
+                }
+                long records = 0;
+                for (Long written : awaitAll(tasks)) {
+                    records += written;
+                }
+                // Read after the records, so each clock is at least every version written above
+                writeVersionClocks(temp);
+                WriteAheadLog.syncDirectory(temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                WriteAheadLog.syncDirectory(directory);
+                log.info("Wrote snapshot {} with {} records in {} ms", segment, records,
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+            } finally {
+                executor.shutdownNow();
+            }
+
+            prune(segment);
+        }
+    }
+
+    // Snapshot writing
+
+    /**
+     * Write one collection as {@code id \t json} lines, starting a new file every snapshotFileRecords records.
+     * Records are written in id order: loading sorted ids into the store's sorted sets is several
+     * times faster than loading them in hash order, and each file covers its own id range.
+     */
+    private long writeSnapshot(Path snapshotDirectory, EntityType entity) throws IOException {
+        Map<String, ?> records = dataStore.getRecords(entity);
+        int perFile = Math.max(1, properties.getSnapshotFileRecords());
+        long written = 0;
+        int part = 0;
+        FileChannel channel = null;
+        OutputStream out = null;
+        try {
+            for (String id : dataStore.getRecordIds(entity)) {
+                Object record = records.get(id);
+                if (record == null) {
+                    continue;
+                }
+                if (written % perFile == 0) {
+                    closeSnapshotFile(channel, out);
+                    channel = FileChannel.open(snapshotDirectory.resolve(snapshotFileName(entity, part++)),
+                            StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                    out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+                }
+                out.write(id.getBytes(StandardCharsets.UTF_8));
+                out.write('\t');
+                out.write(objectMapper.writeValueAsBytes(record));
+                out.write('\n');
+                written++;
+            }
+        } finally {
+            closeSnapshotFile(channel, out);
+        }
+        return written;
+    }
+
+    /**
+     * Write each collection's version clock as {@code entity \t version} lines. Records deleted
+     * before the snapshot are not in it, so this is what keeps their versions from being reused.
+     */
+    private void writeVersionClocks(Path snapshotDirectory) throws IOException {
+        StringBuilder clocks = new StringBuilder();
+        for (EntityType entity : EntityType.values()) {
+            clocks.append(entity.name()).append('\t').append(dataStore.getVersionClock(entity)).append('\n');
+        }
+        try (FileChannel channel = FileChannel.open(snapshotDirectory.resolve(VERSION_CLOCKS_FILE),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(clocks.toString().getBytes(StandardCharsets.UTF_8)));
+            channel.force(false);
+        }
+    }
+
+    private static void closeSnapshotFile(FileChannel channel, OutputStream out) throws IOException {
+        if (channel == null) {
+            return;
+        }
+        try (channel) {
+            out.flush();
+            channel.force(false);
+        }
+    }
+
+    private static String snapshotFileName(EntityType entity, int part) {
+        return String.format("%s-%05d%s", entity.name(), part, SNAPSHOT_FILE_SUFFIX);
+    }
+
+    /**
+     * Delete snapshots older than the given one and WAL segments it no longer needs.
+     */
+    private void prune(long snapshot) throws IOException {
+        for (long older : listSnapshots()) {
+            if (older < snapshot) {
+                deleteRecursively(directory.resolve(SNAPSHOT_PREFIX + older));
+            }
+        }
+        for (long segment : listSegments()) {
+            if (segment < snapshot - 1) {
+                Files.deleteIfExists(directory.resolve(WriteAheadLog.segmentName(segment)));
+            }
+        }
+    }
+
+    // Recovery
+
+    /**
+     * Load the latest snapshot and replay the WAL after it.
+     *
+     * @return the highest segment or snapshot number found on disk, or 0 if there is none
+     */
+    private long recover() throws IOException {
+        List<Long> snapshots = listSnapshots();
+        long snapshot = snapshots.isEmpty() ? -1 : snapshots.get(snapshots.size() - 1);
+        if (snapshot >= 0) {
+            loadSnapshot(directory.resolve(SNAPSHOT_PREFIX + snapshot));
+        }
+
+        List<Long> segments = new ArrayList<>();
+        for (long segment : listSegments()) {
+            if (segment >= snapshot - 1) {
+                segments.add(segment);
+            }
+        }
+        replay(segments);
+
+        long last = Math.max(snapshot, 0);
+        return segments.isEmpty() ? last : Math.max(last, segments.get(segments.size() - 1));
+    }
+
+    private void loadSnapshot(Path snapshotDirectory) throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(snapshotDirectory)) {
+            files = listing.filter(f -> f.getFileName().toString().endsWith(SNAPSHOT_FILE_SUFFIX)).toList();
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(properties.getParallelism());
+        try {
+            List<Future<Long>> tasks = new ArrayList<>();
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                EntityType entity = EntityType.valueOf(name.substring(0, name.lastIndexOf('-')));
+                tasks.add(executor.submit(() -> loadSnapshotFile(file, entity)));
+            }
+            long records = 0;
+            for (Long loaded : awaitAll(tasks)) {
+                records += loaded;
+            }
+            log.info("Loaded {} records from {}", records, snapshotDirectory.getFileName());
+        } finally {
+            executor.shutdownNow();
+        }
+        loadVersionClocks(snapshotDirectory.resolve(VERSION_CLOCKS_FILE));
+    }
+
+    private void loadVersionClocks(Path file) throws IOException {
+        if (!Files.exists(file)) {
+            // Snapshot written before version clocks were kept
+            return;
+        }
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            int tab = line.indexOf('\t');
+            if (tab < 0) {
+                throw new IOException("Corrupt version clock in " + file + ": " + line);
+            }
+            dataStore.raiseVersionClock(EntityType.valueOf(line.substring(0, tab)), Long.parseLong(line.substring(tab + 1)));
+        }
+    }
+
+    private long loadSnapshotFile(Path file, EntityType entity) throws IOException {
+        long loaded = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab < 0) {
+                    throw new IOException("Corrupt snapshot record in " + file + ": " + line);
+                }
+                Object record = objectMapper.readValue(line.substring(tab + 1), entity.getRecordType());
+                dataStore.restore(entity, line.substring(0, tab), record);
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    /**
+     * Replay WAL segments in order. Records are partitioned by entity and id, and each
+     * partition is applied by a single thread, so writes to the same record keep their order.
+     * A segment that does not end with a newline was cut off by a crash; its last,
+     * partial record was never acknowledged as durable and is skipped.
+     */
+    private void replay(List<Long> segments) throws IOException {
+        int partitions = Math.max(1, properties.getParallelism());
+        List<ExecutorService> executors = new ArrayList<>(partitions);
+        List<List<String[]>> buffers = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            executors.add(Executors.newSingleThreadExecutor());
+            buffers.add(new ArrayList<>(REPLAY_CHUNK_SIZE));
+        }
+
+        List<Future<Long>> tasks = new ArrayList<>();
+        try {
+            for (long segment : segments) {
+                Path file = directory.resolve(WriteAheadLog.segmentName(segment));
+                boolean skipLastLine = !endsWithNewline(file);
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+                    String line = reader.readLine();
+                    while (line != null) {
+                        String next = reader.readLine();
+                        if (next == null && skipLastLine) {
+                            log.warn("Skipping torn record at the end of {}", file.getFileName());
+                            break;
+                        }
+                        String[] fields = line.split("\t", 4);
+                        if (fields.length != 4) {
+                            throw new IOException("Corrupt WAL record in " + file + ": " + line);
+                        }
+                        int partition = Math.floorMod(31 * fields[1].hashCode() + fields[2].hashCode(), partitions);
+                        List<String[]> buffer = buffers.get(partition);
+                        buffer.add(fields);
+                        if (buffer.size() == REPLAY_CHUNK_SIZE) {
+                            tasks.add(executors.get(partition).submit(() -> applyLogRecords(buffer)));
+                            buffers.set(partition, new ArrayList<>(REPLAY_CHUNK_SIZE));
+                        }
+                        line = next;
+                    }
+                }
+            }
+            for (int i = 0; i < partitions; i++) {
+                List<String[]> buffer = buffers.get(i);
+                if (!buffer.isEmpty()) {
+                    tasks.add(executors.get(i).submit(() -> applyLogRecords(buffer)));
+                }
+            }
+
+            long records = 0;
+            for (Long applied : awaitAll(tasks)) {
+                records += applied;
+            }
+            log.info("Replayed {} WAL records from {} segments", records, segments.size());
+        } finally {
+            executors.forEach(ExecutorService::shutdownNow);
+        }
+    }
+
+    private long applyLogRecords(List<String[]> records) throws IOException {
+        for (String[] fields : records) {
+            EntityType entity = EntityType.valueOf(fields[1]);
+            Object record = null;
+            if (!WriteAheadLog.DELETE.equals(fields[0])) {
+                record = objectMapper.readValue(fields[3], entity.getRecordType());
+            } else if (!fields[3].isEmpty()) {
+                // Logs written before deletes carried a version have nothing here
+                dataStore.raiseVersionClock(entity, Long.parseLong(fields[3]));
+            }
+            dataStore.restore(entity, fields[2], record);
+        }
+        return records.size();
+    }
+
+    private static boolean endsWithNewline(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                return true;
+            }
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, size - 1);
+            return last.get(0) == '\n';
+        }
+    }
+
+    // Files
+
+    private List<Long> listSnapshots() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                    .map(p -> p.getFileName().toString())
+                    .filter(name -> name.startsWith(SNAPSHOT_PREFIX) && !name.endsWith(TEMP_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SNAPSHOT_PREFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            return listing
+                    .map(WriteAheadLog::segmentNumber)
+                    .filter(segment -> segment >= 0)
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    /**
+     * Remove snapshots left half-written by a crash; they were never renamed into place.
+     */
+    private void deleteIncompleteSnapshots() throws IOException {
+        try (Stream<Path> listing = Files.list(directory)) {
+            for (Path path : listing.toList()) {
+                String name = path.getFileName().toString();
+                if (name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(TEMP_SUFFIX)) {
+                    deleteRecursively(path);
+                }
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : walk.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(p);
+            }
+        }
+    }
+
+    private static <T> List<T> awaitAll(List<Future<T>> tasks) throws IOException {
+        List<T> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<T> task : tasks) {
+                results.add(task.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for persistence tasks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            throw new IllegalStateException(cause);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,62 @@
+package com.tekion.API_Design_Demo.service.persistence;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for DataStore persistence (datastore.persistence.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "datastore.persistence")
+public class PersistenceProperties {
+
+    /**
+     * Write every change to a write-ahead log and recover from it on startup.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Directory holding WAL segments and snapshots.
+     */
+    private Path directory = Path.of("data");
+
+    /**
+     * ASYNC acknowledges writes before they are fsynced (up to one flush interval
+     * of writes can be lost on a crash); SYNC makes each write wait for its fsync.
+     */
+    private SyncMode syncMode = SyncMode.ASYNC;
+
+    /**
+     * Durability window: the WAL is fsynced at most once per interval,
+     * covering every record appended since the last fsync.
+     */
+    private Duration flushInterval = Duration.ofMillis(10);
+
+    /**
+     * Maximum records taken from the queue per write batch.
+     */
+    private int maxBatchSize = 4096;
+
+    /**
+     * How often a compacting snapshot is taken. Older WAL segments are deleted after each snapshot.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(5);
+
+    /**
+     * Records per snapshot file. Smaller files let recovery load more of them in parallel.
+     */
+    private int snapshotFileRecords = 500_000;
+
+    /**
+     * Threads used to write snapshots and to recover on startup.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    public enum SyncMode {
+        ASYNC,
+        SYNC
+    }
+}
@@ -0,0 +1,355 @@
+package com.tekion.API_Design_Demo.service.persistence;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Append-only write-ahead log split into numbered segment files.
+ *
+ * Writers serialize their record on the calling thread and enqueue the line,
+ * so the log holds the record as it was when appended even if the object is
+ * changed afterwards, and a record that cannot be serialized fails the append
+ * instead of being dropped. A single background thread appends the lines to
+ * the current segment and fsyncs, so one fsync covers every record written
+ * since the previous one (group commit). Without waiting
+ * writers the log is fsynced once per flush interval; while a writer is
+ * blocked in {@link #awaitDurable()}, it is fsynced as soon as the queue is
+ * drained, so a lone writer does not pay the whole interval.
+ *
+ * Each record is one line: {@code op \t entity \t id \t json}; for deletes
+ * the last field is the version of the deleted record instead.
+ */
+public class WriteAheadLog implements Closeable {
+
+    static final String PUT = "PUT";
+    static final String DELETE = "DELETE";
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final Logger log = LoggerFactory.getLogger(WriteAheadLog.class);
+    // Queued by a waiting writer to wake the writer thread; never written
+    private static final Entry WAKE_UP = new Entry(new byte[0]);
+
+    private final Path directory;
+    private final ObjectMapper objectMapper;
+    private final long flushIntervalNanos;
+    private final int maxBatchSize;
+    private final BlockingQueue<Entry> queue = new LinkedBlockingQueue<>();
+    private final ThreadLocal<Entry> lastAppended = new ThreadLocal<>();
+    private final AtomicReference<CompletableFuture<Long>> pendingRotation = new AtomicReference<>();
+    private final Object syncMonitor = new Object();
+    private final AtomicInteger waiters = new AtomicInteger();
+    private final Thread writer;
+
+    private volatile boolean running = true;
+    private volatile long durableSequence;
+    private volatile IOException failure;
+
+    // Owned by the writer thread
+    private long segment;
+    private long writtenSequence;
+    private FileChannel channel;
+    private OutputStream out;
+
+    public WriteAheadLog(Path directory, long firstSegment, ObjectMapper objectMapper,
+                         Duration flushInterval, int maxBatchSize) throws IOException {
+        this.directory = directory;
+        this.objectMapper = objectMapper;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        openSegment(firstSegment);
+        this.writer = new Thread(this::runWriter, "wal-writer");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Serialize a record and queue it for writing.
+     *
+     * @throws UncheckedIOException  if the record cannot be serialized
+     * @throws IllegalStateException if the log is closed or has failed
+     */
+    public void append(EntityType entity, String id, Object record) {
+        byte[] json;
+        try {
+            json = objectMapper.writeValueAsBytes(record);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Could not serialize " + entity + " " + id + " for the write-ahead log", e);
+        }
+        enqueue(PUT, entity, id, json);
+    }
+
+    /**
+     * Queue a delete for writing, with the version the record had when it was deleted.
+     *
+     * @throws IllegalStateException if the log is closed or has failed
+     */
+    public void appendDelete(EntityType entity, String id, long version) {
+        enqueue(DELETE, entity, id, Long.toString(version).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void enqueue(String op, EntityType entity, String id, byte[] payload) {
+        if (!running) {
+            throw new IllegalStateException("Write-ahead log is not accepting writes", failure);
+        }
+        byte[] header = (op + '\t' + entity.name() + '\t' + id + '\t').getBytes(StandardCharsets.UTF_8);
+        byte[] line = new byte[header.length + payload.length + 1];
+        System.arraycopy(header, 0, line, 0, header.length);
+        System.arraycopy(payload, 0, line, header.length, payload.length);
+        line[line.length - 1] = '\n';
+        Entry entry = new Entry(line);
+        queue.add(entry);
+        lastAppended.set(entry);
+    }
+
+    /**
+     * Block until the last record appended by the calling thread has been fsynced.
+     *
+     * @throws UncheckedIOException  if the log failed before the record was fsynced
+     * @throws IllegalStateException if the log was closed first, or the thread was interrupted
+     *                               while waiting (the interrupt flag is kept)
+     */
+    public void awaitDurable() {
+        Entry entry = lastAppended.get();
+        if (entry == null) {
+            return;
+        }
+        lastAppended.remove();
+        if (entry.isDurable(durableSequence)) {
+            return;
+        }
+        waiters.incrementAndGet();
+        queue.add(WAKE_UP);
+        try {
+            synchronized (syncMonitor) {
+                while (!entry.isDurable(durableSequence)) {
+                    if (failure != null) {
+                        throw new UncheckedIOException("Write-ahead log failed", failure);
+                    }
+                    if (!writer.isAlive()) {
+                        throw new IllegalStateException("Write-ahead log closed before the record was synced");
+                    }
+                    syncMonitor.wait();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            // The record may not be durable yet, so the write must not be acknowledged
+            throw new IllegalStateException("Interrupted while waiting for the write-ahead log to sync", e);
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * Close the current segment and continue in the next one.
+     * Every record appended before this call ends up in a segment below the returned number.
+     *
+     * @return future completing with the number of the new segment
+     */
+    public CompletableFuture<Long> rotate() {
+        CompletableFuture<Long> rotation = new CompletableFuture<>();
+        if (!running) {
+            rotation.completeExceptionally(new IllegalStateException("Write-ahead log is not accepting writes"));
+            return rotation;
+        }
+        CompletableFuture<Long> pending = pendingRotation.compareAndExchange(null, rotation);
+        return pending != null ? pending : rotation;
+    }
+
+    /**
+     * Stop accepting writes, write and fsync everything queued, and close the current segment.
+     *
+     * @throws InterruptedIOException if interrupted before the writer finished (the interrupt flag is kept)
+     */
+    @Override
+    public void close() throws IOException {
+        running = false;
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            InterruptedIOException interrupted = new InterruptedIOException("Interrupted while closing the write-ahead log");
+            interrupted.initCause(e);
+            throw interrupted;
+        }
+        CompletableFuture<Long> rotation = pendingRotation.getAndSet(null);
+        if (rotation != null) {
+            rotation.completeExceptionally(new IllegalStateException("Write-ahead log closed"));
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    static String segmentName(long segment) {
+        return String.format("%s%020d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX);
+    }
+
+    /**
+     * @return the segment number encoded in a file name, or -1 if it is not a segment file
+     */
+    static long segmentNumber(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Fsync a directory so that files created or renamed in it survive a crash.
+     * Not supported on every platform; there it is a no-op.
+     */
+    static void syncDirectory(Path directory) {
+        try (FileChannel dir = FileChannel.open(directory, StandardOpenOption.READ)) {
+            dir.force(true);
+        } catch (IOException | UnsupportedOperationException e) {
+            log.debug("Directory fsync not supported for {}", directory, e);
+        }
+    }
+
+    private void runWriter() {
+        List<Entry> batch = new ArrayList<>(maxBatchSize);
+        // Start "overdue" so the first write after an idle period is synced right away
+        long lastSync = System.nanoTime() - flushIntervalNanos;
+        boolean dirty = false;
+        try {
+            while (running || dirty || !queue.isEmpty()) {
+                long wait = dirty ? lastSync + flushIntervalNanos - System.nanoTime() : flushIntervalNanos;
+                Entry first = wait > 0 ? queue.poll(wait, TimeUnit.NANOSECONDS) : queue.poll();
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, maxBatchSize - 1);
+                    for (Entry entry : batch) {
+                        dirty |= write(entry);
+                    }
+                    batch.clear();
+                }
+
+                boolean due = System.nanoTime() - lastSync >= flushIntervalNanos
+                        || !running
+                        || (waiters.get() > 0 && queue.isEmpty());
+                if (dirty && due) {
+                    sync();
+                    lastSync = System.nanoTime();
+                    dirty = false;
+                }
+
+                CompletableFuture<Long> rotation = pendingRotation.getAndSet(null);
+                if (rotation != null) {
+                    try {
+                        queue.drainTo(batch);
+                        for (Entry entry : batch) {
+                            write(entry);
+                        }
+                        batch.clear();
+                        sync();
+                        lastSync = System.nanoTime();
+                        dirty = false;
+                        closeSegment();
+                        openSegment(segment + 1);
+                        rotation.complete(segment);
+                    } catch (IOException e) {
+                        rotation.completeExceptionally(e);
+                        throw e;
+                    }
+                }
+            }
+            closeSegment();
+        } catch (IOException e) {
+            log.error("Write-ahead log failed; rejecting further writes", e);
+            failure = e;
+            running = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Write-ahead log writer interrupted; rejecting further writes");
+            InterruptedIOException interrupted = new InterruptedIOException("Write-ahead log writer interrupted");
+            interrupted.initCause(e);
+            failure = interrupted;
+            running = false;
+        } finally {
+            synchronized (syncMonitor) {
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return whether anything was written
+     */
+    private boolean write(Entry entry) throws IOException {
+        if (entry == WAKE_UP) {
+            return false;
+        }
+        out.write(entry.line);
+        entry.sequence = ++writtenSequence;
+        return true;
+    }
+
+    private void sync() throws IOException {
+        out.flush();
+        channel.force(false);
+        synchronized (syncMonitor) {
+            durableSequence = writtenSequence;
+            syncMonitor.notifyAll();
+        }
+    }
+
+    private void openSegment(long number) throws IOException {
+        channel = FileChannel.open(directory.resolve(segmentName(number)),
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        segment = number;
+        syncDirectory(directory);
+    }
+
+    private void closeSegment() throws IOException {
+        out.flush();
+        channel.force(false);
+        channel.close();
+    }
+
+    private static final class Entry {
+        private final byte[] line;
+        // Assigned by the writer thread when the record is written
+        private volatile long sequence;
+
+        private Entry(byte[] line) {
+            this.line = line;
+        }
+
+        private boolean isDurable(long durableSequence) {
+            long written = sequence;
+            return written != 0 && written <= durableSequence;
+        }
+    }
+}
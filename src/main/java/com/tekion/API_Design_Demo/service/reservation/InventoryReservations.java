@@ -0,0 +1,514 @@
+package com.tekion.API_Design_Demo.service.reservation;
+
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderItemDTO;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.exception.InventoryMutationException;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.persistence.DataStorePersistence;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Reserves inventory for orders, all line items or none.
+ *
+ * A product's quantity is taken from its inventory records (one per warehouse),
+ * most available first, splitting across warehouses when one cannot cover it.
+ * Each record is changed through {@link DataStore#computeInventory}, so the
+ * "enough available" check and the update happen under that record's own lock:
+ * stock is never oversold, and orders for unrelated SKUs never wait on each other.
+ * There is no lock spanning records; if a later line item cannot be filled, the
+ * units already taken are released again. Other orders can therefore briefly see
+ * stock as reserved that ends up not being used, but never the reverse.
+ *
+ * A reservation then ends in exactly one of three ways:
+ * <ul>
+ *   <li>confirm: the order moves past PENDING and the units leave stock (quantity and reserved both drop)</li>
+ *   <li>release: the order is cancelled or deleted and the units become available again</li>
+ *   <li>expire: the ttl passes first; the units are released and the order, if still PENDING, is cancelled</li>
+ * </ul>
+ * Pending expiries are kept in a skip-list ordered by deadline, so the sweeper
+ * only looks at reservations that are due.
+ *
+ * An order's status change and the end of its reservation are tied together with
+ * {@link #settle}: the reservation is held while the order is saved, so it cannot
+ * expire in between, and it only ends once the save has succeeded.
+ *
+ * Reservations are the only source of reserved quantities: the inventory endpoints
+ * keep a record's reserved quantity and do not accept one from clients. Reservations
+ * live in memory only, while the reserved quantities are part of the (persisted)
+ * inventory records. On startup they are therefore rebuilt from the PENDING orders of
+ * the recovered store (see {@link #rebuild()}).
+ */
+@Component
+@EnableConfigurationProperties(ReservationProperties.class)
+public class InventoryReservations {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryReservations.class);
+
+    // Re-plans per product when concurrent orders take the stock a plan counted on
+    private static final int MAX_ATTEMPTS = 3;
+
+    private final DataStore dataStore;
+    private final ReservationProperties properties;
+    private final Clock clock;
+    private final ObjectProvider<DataStorePersistence> persistence;
+    private final Map<String, Reservation> reservations = new ConcurrentHashMap<>();
+    private final NavigableSet<Reservation> expiries = new ConcurrentSkipListSet<>();
+
+    private ScheduledExecutorService sweeper;
+
+    /**
+     * Create reservations. Nothing expires on its own unless {@link #start()} is called;
+     * {@link #expireDue()} can be called directly.
+     *
+     * @param persistence recovers the store, which {@link #start()} does before the rebuild; null if there is none
+     */
+    @Autowired
+    public InventoryReservations(DataStore dataStore, ReservationProperties properties,
+                                 ObjectProvider<DataStorePersistence> persistence) {
+        this(dataStore, properties, Clock.systemUTC(), persistence);
+    }
+
+    InventoryReservations(DataStore dataStore, ReservationProperties properties, Clock clock) {
+        this(dataStore, properties, clock, null);
+    }
+
+    private InventoryReservations(DataStore dataStore, ReservationProperties properties, Clock clock,
+                                  ObjectProvider<DataStorePersistence> persistence) {
+        this.dataStore = dataStore;
+        this.properties = properties;
+        this.clock = clock;
+        this.persistence = persistence;
+    }
+
+    /**
+     * Rebuild the reservations of the recovered store, then start expiring them in the background.
+     */
+    @PostConstruct
+    public void start() {
+        if (persistence != null) {
+            // Creating the bean recovers the store, which has to happen before the rebuild
+            persistence.getIfAvailable();
+        }
+        int rebuilt = rebuild();
+        if (rebuilt > 0) {
+            log.info("Rebuilt {} inventory reservations of pending orders", rebuilt);
+        }
+
+        long interval = properties.getSweepInterval().toMillis();
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "inventory-reservation-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(() -> {
+            try {
+                expireDue();
+            } catch (Exception e) {
+                log.error("Expiring inventory reservations failed; retrying on the next sweep", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Reserve stock for every line item of an order.
+     *
+     * @param orderId    order the stock is held for
+     * @param quantities units to reserve per product id
+     * @return the reservation, which expires after the configured ttl
+     * @throws InventoryMutationException INSUFFICIENT_STOCK if any product lacks available stock;
+     *                                    nothing stays reserved in that case
+     */
+    public Reservation reserve(String orderId, Map<String, Integer> quantities) {
+        return reserve(orderId, quantities, clock.instant().plus(properties.getTtl()));
+    }
+
+    private Reservation reserve(String orderId, Map<String, Integer> quantities, Instant expiresAt) {
+        List<Allocation> allocations = new ArrayList<>();
+        try {
+            for (Map.Entry<String, Integer> item : quantities.entrySet()) {
+                allocate(item.getKey(), item.getValue(), allocations);
+            }
+        } catch (RuntimeException ex) {
+            releaseAll(allocations);
+            throw ex;
+        }
+
+        Reservation reservation = new Reservation(orderId, List.copyOf(allocations), expiresAt);
+        if (reservations.putIfAbsent(orderId, reservation) != null) {
+            releaseAll(allocations);
+            throw new IllegalStateException("Order already has a reservation: " + orderId);
+        }
+        expiries.add(reservation);
+        return reservation;
+    }
+
+    /**
+     * Turn an order's reservation into a sale: the reserved units are removed from stock.
+     *
+     * @return the state the reservation ended in (CONFIRMED unless it was already
+     *         released or expired), or null if the order has no reservation
+     */
+    public Reservation.State confirm(String orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            return null;
+        }
+        if (reservation.end(Reservation.State.CONFIRMED)) {
+            forget(reservation);
+            consumeAll(reservation.getAllocations());
+        }
+        return reservation.getState();
+    }
+
+    /**
+     * Give an order's reserved units back to available stock.
+     *
+     * @return the state the reservation ended in (RELEASED unless it was already
+     *         confirmed or expired), or null if the order has no reservation
+     */
+    public Reservation.State release(String orderId) {
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            return null;
+        }
+        if (reservation.end(Reservation.State.RELEASED)) {
+            forget(reservation);
+            releaseAll(reservation.getAllocations());
+        }
+        return reservation.getState();
+    }
+
+    /**
+     * End an order's reservation together with the write that ends it, e.g. saving the
+     * order as CONFIRMED or CANCELLED. The reservation is held while the write runs, so
+     * it can neither expire nor be settled by anyone else in between. It ends in the
+     * given outcome only if the write returns; if the write throws, the reservation is
+     * active again (and expires as before) and the exception is passed on.
+     *
+     * @param outcome CONFIRMED to remove the reserved units from stock, RELEASED to make them available again
+     * @param write   the write ending the reservation; runs on its own if the order has no reservation
+     * @return null once the write has run, or the state that kept it from running: the
+     *         reservation already ended (EXPIRED, CONFIRMED, RELEASED) or another write
+     *         holds it (SETTLING)
+     */
+    public Reservation.State settle(String orderId, Reservation.State outcome, Runnable write) {
+        if (outcome != Reservation.State.CONFIRMED && outcome != Reservation.State.RELEASED) {
+            throw new IllegalArgumentException("A reservation is settled as CONFIRMED or RELEASED, not " + outcome);
+        }
+        Reservation reservation = reservations.get(orderId);
+        if (reservation == null) {
+            write.run();
+            return null;
+        }
+        if (!reservation.end(Reservation.State.SETTLING)) {
+            return reservation.getState();
+        }
+        try {
+            write.run();
+        } catch (RuntimeException ex) {
+            // The sweeper may have dropped it from the expiries while it was held
+            reservation.resume();
+            expiries.add(reservation);
+            throw ex;
+        }
+        reservation.settle(outcome);
+        forget(reservation);
+        if (outcome == Reservation.State.CONFIRMED) {
+            consumeAll(reservation.getAllocations());
+        } else {
+            releaseAll(reservation.getAllocations());
+        }
+        return null;
+    }
+
+    /**
+     * Rebuild the reservations of PENDING orders from the store, e.g. after it was
+     * recovered from disk. Every inventory record's reserved quantity is reset, which
+     * drops nothing else since only reservations set it, then each PENDING order
+     * reserves its items again, to expire one ttl after the order was placed. An order
+     * whose items can no longer be reserved is cancelled.
+     * Meant to run once, before any other reservation is made.
+     *
+     * @return the number of reservations rebuilt
+     */
+    public int rebuild() {
+        for (String inventoryId : dataStore.getInventoryIds()) {
+            InventoryDTO item = dataStore.getInventoryItem(inventoryId);
+            if (item != null && reserved(item) != 0) {
+                dataStore.computeInventory(inventoryId, existing -> withStock(existing, quantity(existing), 0));
+            }
+        }
+
+        int rebuilt = 0;
+        for (String orderId : List.copyOf(dataStore.getOrderIdsByStatus("PENDING"))) {
+            OrderDTO order = dataStore.getOrder(orderId);
+            if (order == null || reservations.containsKey(orderId)) {
+                continue;
+            }
+            Map<String, Integer> quantities = new HashMap<>();
+            if (order.getItems() != null) {
+                for (OrderItemDTO item : order.getItems()) {
+                    if (item.getProductId() != null && item.getQuantity() != null) {
+                        quantities.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+                    }
+                }
+            }
+            Instant placedAt = order.getOrderDate() != null
+                    ? order.getOrderDate().atZone(ZoneId.systemDefault()).toInstant()
+                    : clock.instant();
+            try {
+                reserve(orderId, quantities, placedAt.plus(properties.getTtl()));
+                rebuilt++;
+            } catch (InventoryMutationException ex) {
+                log.warn("Cancelling pending order {}: its stock can no longer be reserved ({})", orderId, ex.getMessage());
+                cancelIfPending(orderId);
+            }
+        }
+        return rebuilt;
+    }
+
+    /**
+     * Get the active reservation of an order, or null.
+     */
+    public Reservation getReservation(String orderId) {
+        Reservation reservation = reservations.get(orderId);
+        return reservation != null && reservation.getState() == Reservation.State.ACTIVE ? reservation : null;
+    }
+
+    /**
+     * Expire every reservation whose ttl has passed.
+     *
+     * @return the number of reservations expired
+     */
+    public int expireDue() {
+        Instant now = clock.instant();
+        int expired = 0;
+        for (Reservation reservation : expiries) {
+            if (reservation.getExpiresAt().isAfter(now)) {
+                break;
+            }
+            expiries.remove(reservation);
+            if (reservation.end(Reservation.State.EXPIRED)) {
+                releaseAll(reservation.getAllocations());
+                cancelIfPending(reservation.getOrderId());
+                // Removed last, so a confirm racing the cancellation still sees EXPIRED
+                reservations.remove(reservation.getOrderId(), reservation);
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    private void allocate(String productId, int quantity, List<Allocation> allocations) {
+        int remaining = quantity;
+        for (int attempt = 0; remaining > 0; attempt++) {
+            List<InventoryDTO> candidates = new ArrayList<>(dataStore.getInventoryByProduct(productId));
+            candidates.sort(Comparator.comparingInt(InventoryReservations::available).reversed());
+            int total = 0;
+            for (InventoryDTO candidate : candidates) {
+                total += Math.max(0, available(candidate));
+            }
+            if (total < remaining || attempt == MAX_ATTEMPTS) {
+                throw new InventoryMutationException("INSUFFICIENT_STOCK",
+                        "Not enough stock for product " + productId + ": requested " + quantity + ", available " + total);
+            }
+
+            for (InventoryDTO candidate : candidates) {
+                int wanted = Math.min(remaining, available(candidate));
+                if (wanted <= 0) {
+                    break;
+                }
+                int taken = take(candidate.getId(), wanted);
+                if (taken > 0) {
+                    allocations.add(new Allocation(candidate.getId(), productId, taken));
+                    remaining -= taken;
+                }
+            }
+        }
+    }
+
+    /**
+     * Reserve up to the wanted units of one record, as many as it has available right now.
+     */
+    private int take(String inventoryId, int wanted) {
+        int[] taken = new int[1];
+        try {
+            dataStore.computeInventory(inventoryId, existing -> {
+                int units = Math.min(wanted, available(existing));
+                if (units <= 0) {
+                    throw new InventoryMutationException("INSUFFICIENT_STOCK", "No stock available in " + inventoryId);
+                }
+                taken[0] = units;
+                return withStock(existing, quantity(existing), reserved(existing) + units);
+            });
+        } catch (InventoryMutationException ex) {
+            return 0;
+        }
+        return taken[0];
+    }
+
+    private void consumeAll(List<Allocation> allocations) {
+        for (Allocation allocation : allocations) {
+            dataStore.computeInventory(allocation.inventoryId(), existing -> withStock(existing,
+                    Math.max(0, quantity(existing) - allocation.quantity()),
+                    Math.max(0, reserved(existing) - allocation.quantity())));
+        }
+    }
+
+    private void releaseAll(List<Allocation> allocations) {
+        for (Allocation allocation : allocations) {
+            dataStore.computeInventory(allocation.inventoryId(), existing -> withStock(existing,
+                    quantity(existing), Math.max(0, reserved(existing) - allocation.quantity())));
+        }
+    }
+
+    private void forget(Reservation reservation) {
+        reservations.remove(reservation.getOrderId(), reservation);
+        expiries.remove(reservation);
+    }
+
+    private void cancelIfPending(String orderId) {
+        while (true) {
+            OrderDTO order = dataStore.getOrder(orderId);
+            if (order == null || !"PENDING".equalsIgnoreCase(order.getStatus())) {
+                return;
+            }
+            try {
+                dataStore.saveOrder(order.toBuilder()
+                        .status("CANCELLED")
+                        .updatedAt(LocalDateTime.now())
+                        .build(), order.getVersion());
+                return;
+            } catch (VersionConflictException ex) {
+                // Changed since it was read; look at it again
+            }
+        }
+    }
+
+    private static InventoryDTO withStock(InventoryDTO existing, int quantity, int reserved) {
+        int available = quantity - reserved;
+        return existing.toBuilder()
+                .quantity(quantity)
+                .reservedQuantity(reserved)
+                .availableQuantity(available)
+                .status(InventoryStatus.forAvailableQuantity(available, existing.getLowStockThreshold()))
+                .updatedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static int available(InventoryDTO inventory) {
+        return quantity(inventory) - reserved(inventory);
+    }
+
+    private static int quantity(InventoryDTO inventory) {
+        return inventory.getQuantity() != null ? inventory.getQuantity() : 0;
+    }
+
+    private static int reserved(InventoryDTO inventory) {
+        return inventory.getReservedQuantity() != null ? inventory.getReservedQuantity() : 0;
+    }
+
+    /**
+     * Units of one product held in one inventory record.
+     */
+    public record Allocation(String inventoryId, String productId, int quantity) {
+    }
+
+    /**
+     * Stock held for one order. Ordered by expiry, then order id.
+     */
+    public static final class Reservation implements Comparable<Reservation> {
+
+        public enum State {
+            ACTIVE, SETTLING, CONFIRMED, RELEASED, EXPIRED
+        }
+
+        private final String orderId;
+        private final List<Allocation> allocations;
+        private final Instant expiresAt;
+        private final AtomicReference<State> state = new AtomicReference<>(State.ACTIVE);
+
+        Reservation(String orderId, List<Allocation> allocations, Instant expiresAt) {
+            this.orderId = orderId;
+            this.allocations = allocations;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getOrderId() {
+            return orderId;
+        }
+
+        public List<Allocation> getAllocations() {
+            return allocations;
+        }
+
+        public Instant getExpiresAt() {
+            return expiresAt;
+        }
+
+        public State getState() {
+            return state.get();
+        }
+
+        /**
+         * Move from ACTIVE to the given final state. Only the first caller succeeds.
+         */
+        boolean end(State outcome) {
+            return state.compareAndSet(State.ACTIVE, outcome);
+        }
+
+        /**
+         * Move from SETTLING to the given final state.
+         */
+        void settle(State outcome) {
+            state.compareAndSet(State.SETTLING, outcome);
+        }
+
+        /**
+         * Move from SETTLING back to ACTIVE.
+         */
+        void resume() {
+            state.compareAndSet(State.SETTLING, State.ACTIVE);
+        }
+
+        @Override
+        public int compareTo(Reservation other) {
+            int byExpiry = expiresAt.compareTo(other.expiresAt);
+            return byExpiry != 0 ? byExpiry : orderId.compareTo(other.orderId);
+        }
+    }
+}
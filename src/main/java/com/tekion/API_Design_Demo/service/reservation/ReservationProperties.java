@@ -0,0 +1,25 @@
+package com.tekion.API_Design_Demo.service.reservation;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Settings for inventory reservations (inventory.reservations.*).
+ */
+@Data
+@ConfigurationProperties(prefix = "inventory.reservations")
+public class ReservationProperties {
+
+    /**
+     * How long stock stays reserved for an order that is neither confirmed nor cancelled.
+     * When it runs out the stock is released and the order, if still PENDING, is cancelled.
+     */
+    private Duration ttl = Duration.ofMinutes(15);
+
+    /**
+     * How often expired reservations are looked for.
+     */
+    private Duration sweepInterval = Duration.ofSeconds(1);
+}
@@ -0,0 +1,100 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderItemDTO;
+import com.tekion.API_Design_Demo.dto.PagedResponse;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Tests for projecting responses to the fields named by the {@code fields} parameter.
+ */
+class FieldProjectionTest {
+
+	private final ObjectMapper objectMapper = JsonMapper.builder()
+			.findAndAddModules()
+			.addModule(new FieldProjectionModule())
+			.build();
+
+	@Test
+	void onlyRequestedFieldsAreWrittenInsideTheWrappers() throws Exception {
+		ProductDTO product = ProductDTO.builder()
+				.productId("prod-1")
+				.name("Desk")
+				.description("A long description")
+				.price(120.0)
+				.build();
+		JsonNode json = write(ApiResponse.success(PagedResponse.of(List.of(product), "next", true, 20)),
+				"productId, name,price");
+
+		assertEquals(List.of("meta", "data", "errors"), names(json));
+		assertEquals(List.of("data", "pagination"), names(json.get("data")));
+		assertEquals(List.of("productId", "name", "price"), names(json.get("data").get("data").get(0)));
+		assertEquals("next", json.get("data").get("pagination").get("nextCursor").asText());
+	}
+
+	@Test
+	void nestedPathsProjectEachElement() throws Exception {
+		JsonNode json = write(ApiResponse.success(order()), "orderId,items.productId").get("data");
+
+		assertEquals(List.of("orderId", "items"), names(json));
+		assertEquals(List.of("productId"), names(json.get("items").get(0)));
+		assertEquals("prod-2", json.get("items").get(1).get("productId").asText());
+	}
+
+	@Test
+	void aFieldWithoutPathKeepsItsWholeValue() throws Exception {
+		JsonNode json = write(ApiResponse.success(order()), "items.productId,items,status").get("data");
+
+		assertEquals(List.of("items", "status"), names(json));
+		assertEquals(6, json.get("items").get(0).size());
+	}
+
+	@Test
+	void blankOrMissingFieldListsWriteEverything() throws Exception {
+		assertNull(FieldProjection.parse(" , "));
+		assertEquals(objectMapper.writeValueAsString(order()), writer(null).writeValueAsString(order()));
+	}
+
+	private static OrderDTO order() {
+		return OrderDTO.builder()
+				.orderId("ord-1")
+				.status("CONFIRMED")
+				.totalAmount(new BigDecimal("30.00"))
+				.items(List.of(
+						OrderItemDTO.builder().orderItemId("item-1").productId("prod-1").quantity(1).build(),
+						OrderItemDTO.builder().orderItemId("item-2").productId("prod-2").quantity(2).build()))
+				.build();
+	}
+
+	private JsonNode write(Object body, String fields) throws Exception {
+		return objectMapper.readTree(writer(fields).writeValueAsString(body));
+	}
+
+	private ObjectWriter writer(String fields) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/orders");
+		if (fields != null) {
+			request.setParameter(FieldProjection.PARAMETER, fields);
+		}
+		return FieldProjection.apply(objectMapper.writer(), request);
+	}
+
+	private static List<String> names(JsonNode node) {
+		List<String> names = new ArrayList<>();
+		node.fieldNames().forEachRemaining(names::add);
+		return names;
+	}
+}
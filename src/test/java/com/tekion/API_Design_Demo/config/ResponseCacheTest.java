@@ -0,0 +1,203 @@
+package com.tekion.API_Design_Demo.config;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.service.DataStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for conditional GET handling and the serialized response cache.
+ */
+class ResponseCacheTest {
+
+	private static final String PRODUCT_ID = "prod-1";
+
+	private DataStore dataStore;
+	private HttpCacheProperties properties;
+	private ResponseCache cache;
+	private MockHttpServletRequest request;
+	private final AtomicInteger builds = new AtomicInteger();
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		properties = new HttpCacheProperties();
+		properties.getCacheControl().put("product", "max-age=5");
+		cache = new ResponseCache(dataStore, JsonMapper.builder().findAndAddModules().build(), properties, new SimpleMeterRegistry());
+		saveProduct(10.0);
+
+		request = new MockHttpServletRequest("GET", "/api/v1/products/" + PRODUCT_ID);
+		RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+	}
+
+	@AfterEach
+	void tearDown() {
+		RequestContextHolder.resetRequestAttributes();
+	}
+
+	@Test
+	void repeatedReadsReuseTheSerializedBody() {
+		ResponseEntity<?> first = getProduct();
+		ResponseEntity<?> second = getProduct();
+
+		assertEquals(1, builds.get());
+		assertSame(first.getBody(), second.getBody());
+		assertEquals("\"1\"", second.getHeaders().getETag());
+		assertEquals("max-age=5", second.getHeaders().getCacheControl());
+	}
+
+	@Test
+	void matchingIfNoneMatchGetsNotModified() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "W/\"1\"");
+
+		ResponseEntity<?> response = getProduct();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertNull(response.getBody());
+		assertEquals(0, builds.get());
+	}
+
+	@Test
+	void writesInvalidateRecordResponses() {
+		getProduct();
+		saveProduct(12.0);
+
+		assertEquals(0, cache.size());
+		assertEquals("\"2\"", getProduct().getHeaders().getETag());
+		assertEquals(2, builds.get());
+	}
+
+	@Test
+	void collectionResponsesFollowTheChangeCount() {
+		request.setRequestURI("/api/v1/products/category/tools");
+		Supplier<Object> body = () -> {
+			builds.incrementAndGet();
+			return ApiResponse.success(dataStore.getProducts().size());
+		};
+
+		String before = cache.collection("product-category", body, EntityType.PRODUCT).getHeaders().getETag();
+		cache.collection("product-category", body, EntityType.PRODUCT);
+		assertEquals(1, builds.get());
+
+		saveProduct(12.0);
+		String after = cache.collection("product-category", body, EntityType.PRODUCT).getHeaders().getETag();
+		assertEquals(2, builds.get());
+		assertEquals("\"product-1\"", before);
+		assertEquals("\"product-2\"", after);
+	}
+
+	@Test
+	void compressedBytesAreReusedUntilTheRecordChanges() throws Exception {
+		properties.setCompressionMinSize(DataSize.ofBytes(0));
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate;q=0.5, gzip");
+
+		ResponseEntity<?> first = getProduct();
+		ResponseEntity<?> second = getProduct();
+		assertEquals("gzip", first.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("\"1-gzip\"", first.getHeaders().getETag());
+		assertSame(first.getBody(), second.getBody());
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) first.getBody()))) {
+			assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("\"price\":10.0"));
+		}
+
+		saveProduct(12.0);
+		assertNotSame(first.getBody(), getProduct().getBody());
+	}
+
+	@Test
+	void eachCodingAndProjectionHasItsOwnETag() {
+		properties.setCompressionMinSize(DataSize.ofBytes(0));
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "deflate");
+		request.setParameter("fields", "name,price");
+		request.setQueryString("fields=name,price");
+
+		String etag = getProduct().getHeaders().getETag();
+
+		assertTrue(etag.matches("\"1-f[0-9a-f]+-deflate\""), etag);
+		request.removeHeader(HttpHeaders.ACCEPT_ENCODING);
+		assertEquals(etag.replace("-deflate", ""), getProduct().getHeaders().getETag());
+		request.removeParameter("fields");
+		request.setQueryString(null);
+		assertEquals("\"1\"", getProduct().getHeaders().getETag());
+	}
+
+	@Test
+	void ifNoneMatchAcceptsTheTagOfAnyCoding() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1-gzip\"");
+
+		ResponseEntity<?> response = getProduct();
+
+		assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+		assertEquals("\"1-gzip\"", response.getHeaders().getETag());
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+	}
+
+	@Test
+	void aTagOfAnotherProjectionDoesNotMatch() {
+		request.addHeader(HttpHeaders.IF_NONE_MATCH, "\"1\"");
+		request.setParameter("fields", "name");
+
+		assertEquals(HttpStatus.OK, getProduct().getStatusCode());
+	}
+
+	@Test
+	void smallBodiesAreSentUncompressed() {
+		request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip");
+
+		ResponseEntity<?> response = getProduct();
+
+		assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, response.getHeaders().getFirst(HttpHeaders.VARY));
+	}
+
+	@Test
+	void contentEncodingFollowsAcceptEncodingQualities() {
+		assertEquals("gzip", ResponseCache.contentEncoding("gzip, deflate, br"));
+		assertEquals("deflate", ResponseCache.contentEncoding("gzip;q=0.2, deflate"));
+		assertEquals("deflate", ResponseCache.contentEncoding("gzip;q=0, *"));
+		assertNull(ResponseCache.contentEncoding("br, identity"));
+		assertNull(ResponseCache.contentEncoding(null));
+	}
+
+	private ResponseEntity<?> getProduct() {
+		ProductDTO product = dataStore.getProduct(PRODUCT_ID);
+		return cache.record("product", EntityType.PRODUCT, PRODUCT_ID, product, () -> {
+			builds.incrementAndGet();
+			return ApiResponse.success(product);
+		});
+	}
+
+	private void saveProduct(double price) {
+		dataStore.saveProduct(ProductDTO.builder()
+				.productId(PRODUCT_ID)
+				.name("Widget")
+				.price(price)
+				.category("tools")
+				.isActive(true)
+				.build());
+	}
+}
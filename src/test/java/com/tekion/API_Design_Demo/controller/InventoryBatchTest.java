@@ -0,0 +1,110 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.config.HttpCacheProperties;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.BatchResponse;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.request.BatchItem;
+import com.tekion.API_Design_Demo.dto.request.CreateInventoryRequest;
+import com.tekion.API_Design_Demo.exception.InvalidBatchRequestException;
+import com.tekion.API_Design_Demo.service.BatchProperties;
+import com.tekion.API_Design_Demo.service.BatchWriter;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for upserting inventory records in bulk.
+ */
+class InventoryBatchTest {
+
+	private DataStore dataStore;
+	private BatchProperties properties;
+	private InventoryController controller;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		properties = new BatchProperties();
+		controller = new InventoryController(dataStore, new SnowflakeIdGenerator(0), responseCache(dataStore),
+				new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(), properties));
+		dataStore.saveProduct(ProductDTO.builder().productId("prod-1").name("Widget").price(10.0).build());
+		controller.createInventoryBatch(List.of(item("inv-1", 10, null)));
+	}
+
+	@Test
+	void replacingARecordKeepsItsReservedUnits() {
+		dataStore.computeInventory("inv-1", existing -> existing.toBuilder().reservedQuantity(4).availableQuantity(6).build());
+
+		BatchResponse result = controller.createInventoryBatch(List.of(item("inv-1", 20, null))).getBody().getData();
+
+		assertEquals(1, result.getUpdated());
+		InventoryDTO stored = dataStore.getInventoryItem("inv-1");
+		assertEquals(20, stored.getQuantity());
+		assertEquals(4, stored.getReservedQuantity());
+		assertEquals(16, stored.getAvailableQuantity());
+	}
+
+	@Test
+	void itemsBelowTheReservedUnitsOrAboveCapacityFail() {
+		dataStore.computeInventory("inv-1", existing -> existing.toBuilder().reservedQuantity(4).availableQuantity(6).build());
+
+		BatchResponse result = controller.createInventoryBatch(List.of(
+				item("inv-1", 3, null),
+				item("inv-2", 50, 40),
+				item("inv-3", 40, 40))).getBody().getData();
+
+		assertEquals("BELOW_RESERVED", result.getResults().get(0).getErrors().get(0).getCode());
+		assertEquals("EXCEEDS_CAPACITY", result.getResults().get(1).getErrors().get(0).getCode());
+		assertEquals(BatchResponse.CREATED, result.getResults().get(2).getStatus());
+		assertEquals(10, dataStore.getInventoryItem("inv-1").getQuantity());
+		assertNull(dataStore.getInventoryItem("inv-2"));
+	}
+
+	@Test
+	void duplicateIdsRejectTheWholeBatch() {
+		InvalidBatchRequestException ex = assertThrows(InvalidBatchRequestException.class,
+				() -> controller.createInventoryBatch(List.of(item("inv-2", 1, null), item("inv-2", 2, null))));
+
+		assertEquals("DUPLICATE_ID", ex.getCode());
+		assertNull(dataStore.getInventoryItem("inv-2"));
+	}
+
+	@Test
+	void batchesOverTheLimitAreRejected() {
+		properties.setMaxItems(2);
+
+		InvalidBatchRequestException ex = assertThrows(InvalidBatchRequestException.class,
+				() -> controller.createInventoryBatch(Collections.nCopies(3, item(null, 1, null))));
+
+		assertEquals("BATCH_TOO_LARGE", ex.getCode());
+	}
+
+	private static BatchItem<CreateInventoryRequest> item(String id, int quantity, Integer maxCapacity) {
+		return new BatchItem<>(id, CreateInventoryRequest.builder()
+				.productId("prod-1")
+				.warehouseId("wh-1")
+				.quantity(quantity)
+				.maxCapacity(maxCapacity)
+				.sku("SKU-1")
+				.build());
+	}
+
+	private static ResponseCache responseCache(DataStore dataStore) {
+		HttpCacheProperties properties = new HttpCacheProperties();
+		properties.setEnabled(false);
+		return new ResponseCache(dataStore, JsonMapper.builder().findAndAddModules().build(), properties, new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,249 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.config.HttpCacheProperties;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.request.AdjustQuantityRequest;
+import com.tekion.API_Design_Demo.dto.request.RestockRequest;
+import com.tekion.API_Design_Demo.dto.request.UpdateInventoryRequest;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.service.BatchProperties;
+import com.tekion.API_Design_Demo.service.BatchWriter;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Stress tests for concurrent quantity adjustments, updates and restocks on a single hot inventory record.
+ */
+class InventoryConcurrencyTest {
+
+	private static final int THREADS = 64;
+	private static final int OPERATIONS_PER_THREAD = 1_000;
+	private static final String INVENTORY_ID = "inv-hot";
+
+	private DataStore dataStore;
+	private InventoryController controller;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		controller = new InventoryController(dataStore, new SnowflakeIdGenerator(0), responseCache(dataStore),
+				new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(), new BatchProperties()));
+	}
+
+	@Test
+	void concurrentAdjustmentsAreNeverLost() throws Exception {
+		saveInventory(0, null);
+
+		runConcurrently(() -> controller.adjustQuantity(INVENTORY_ID, adjustment(1)));
+
+		int total = THREADS * OPERATIONS_PER_THREAD;
+		InventoryDTO result = dataStore.getInventoryItem(INVENTORY_ID);
+		assertEquals(total, result.getQuantity());
+		assertEquals(total, result.getAvailableQuantity());
+	}
+
+	@Test
+	void concurrentSalesNeverOversell() throws Exception {
+		int stock = 5_000;
+		saveInventory(stock, null);
+		AtomicInteger accepted = new AtomicInteger();
+
+		runConcurrently(() -> {
+			ResponseEntity<?> response = controller.adjustQuantity(INVENTORY_ID, adjustment(-1));
+			if (response.getStatusCode().is2xxSuccessful()) {
+				accepted.incrementAndGet();
+			}
+			return response;
+		});
+
+		InventoryDTO result = dataStore.getInventoryItem(INVENTORY_ID);
+		assertEquals(stock, accepted.get());
+		assertEquals(0, result.getQuantity());
+		assertEquals(InventoryStatus.OUT_OF_STOCK, result.getStatus());
+	}
+
+	@Test
+	void updatesWithoutIfMatchNeverUndoConcurrentSales() throws Exception {
+		int stock = THREADS * OPERATIONS_PER_THREAD;
+		saveInventory(stock, null);
+		AtomicInteger calls = new AtomicInteger();
+		AtomicInteger sold = new AtomicInteger();
+
+		runConcurrently(() -> {
+			if (calls.incrementAndGet() % 2 == 0) {
+				UpdateInventoryRequest request = UpdateInventoryRequest.builder().lowStockThreshold(5).build();
+				return controller.updateInventory(INVENTORY_ID, null, request);
+			}
+			ResponseEntity<?> response = controller.adjustQuantity(INVENTORY_ID, adjustment(-1));
+			if (response.getStatusCode().is2xxSuccessful()) {
+				sold.incrementAndGet();
+			}
+			return response;
+		});
+
+		InventoryDTO result = dataStore.getInventoryItem(INVENTORY_ID);
+		assertEquals(stock / 2, sold.get());
+		assertEquals(stock - sold.get(), result.getQuantity());
+		assertEquals(stock - sold.get(), result.getAvailableQuantity());
+	}
+
+	@Test
+	void salesNeverTakeReservedUnits() throws Exception {
+		int stock = 5_000;
+		int reserved = 1_000;
+		saveInventory(stock, null);
+		dataStore.computeInventory(INVENTORY_ID, existing -> existing.toBuilder()
+				.reservedQuantity(reserved)
+				.availableQuantity(stock - reserved)
+				.build());
+		AtomicInteger accepted = new AtomicInteger();
+
+		runConcurrently(() -> {
+			ResponseEntity<?> response = controller.adjustQuantity(INVENTORY_ID, adjustment(-1));
+			if (response.getStatusCode().is2xxSuccessful()) {
+				accepted.incrementAndGet();
+			}
+			return response;
+		});
+
+		InventoryDTO result = dataStore.getInventoryItem(INVENTORY_ID);
+		assertEquals(stock - reserved, accepted.get());
+		assertEquals(reserved, result.getQuantity());
+		assertEquals(0, result.getAvailableQuantity());
+		assertEquals(reserved, result.getReservedQuantity());
+		assertEquals(InventoryStatus.OUT_OF_STOCK, result.getStatus());
+	}
+
+	@Test
+	void updatesBelowTheReservedUnitsAreRejected() {
+		saveInventory(100, null);
+		dataStore.computeInventory(INVENTORY_ID, existing -> existing.toBuilder()
+				.reservedQuantity(40)
+				.availableQuantity(60)
+				.build());
+
+		ResponseEntity<?> response = controller.updateInventory(INVENTORY_ID, null,
+				UpdateInventoryRequest.builder().quantity(39).build());
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		assertEquals("BELOW_RESERVED", ((ApiResponse<?>) response.getBody()).getErrors().get(0).getCode());
+		assertEquals(100, dataStore.getInventoryItem(INVENTORY_ID).getQuantity());
+	}
+
+	@Test
+	void statusFollowsTheAvailableUnitsOnEveryEndpoint() {
+		saveInventory(10, null);
+		dataStore.computeInventory(INVENTORY_ID, existing -> existing.toBuilder()
+				.reservedQuantity(10)
+				.availableQuantity(0)
+				.build());
+
+		controller.updateInventory(INVENTORY_ID, null, UpdateInventoryRequest.builder().lowStockThreshold(5).build());
+		assertEquals(InventoryStatus.OUT_OF_STOCK, dataStore.getInventoryItem(INVENTORY_ID).getStatus());
+
+		controller.adjustQuantity(INVENTORY_ID, adjustment(4));
+		assertEquals(InventoryStatus.LOW_STOCK, dataStore.getInventoryItem(INVENTORY_ID).getStatus());
+
+		controller.updateInventory(INVENTORY_ID, null, UpdateInventoryRequest.builder().lowStockThreshold(3).build());
+		assertEquals(InventoryStatus.IN_STOCK, dataStore.getInventoryItem(INVENTORY_ID).getStatus());
+	}
+
+	@Test
+	void concurrentRestocksRespectMaxCapacity() throws Exception {
+		int capacity = 10_000;
+		saveInventory(0, capacity);
+
+		runConcurrently(() -> controller.restockItem(INVENTORY_ID, restock(1)));
+
+		InventoryDTO result = dataStore.getInventoryItem(INVENTORY_ID);
+		assertEquals(capacity, result.getQuantity());
+		assertTrue(result.getQuantity() <= result.getMaxCapacity());
+	}
+
+	private void saveInventory(int quantity, Integer maxCapacity) {
+		LocalDateTime now = LocalDateTime.now();
+		dataStore.saveInventory(InventoryDTO.builder()
+				.id(INVENTORY_ID)
+				.productId("prod-hot")
+				.warehouseId("wh-1")
+				.quantity(quantity)
+				.reservedQuantity(0)
+				.availableQuantity(quantity)
+				.lowStockThreshold(10)
+				.maxCapacity(maxCapacity)
+				.status(quantity == 0 ? InventoryStatus.OUT_OF_STOCK : InventoryStatus.IN_STOCK)
+				.sku("SKU-HOT")
+				.createdAt(now)
+				.updatedAt(now)
+				.build());
+	}
+
+	private static AdjustQuantityRequest adjustment(int delta) {
+		return AdjustQuantityRequest.builder()
+				.adjustment(delta)
+				.reason("stress test")
+				.adjustmentType(delta < 0 ? "SALE" : "CORRECTION")
+				.build();
+	}
+
+	private static RestockRequest restock(int quantity) {
+		return RestockRequest.builder()
+				.quantity(quantity)
+				.build();
+	}
+
+	/**
+	 * Run the operation OPERATIONS_PER_THREAD times on each of THREADS threads, all released together.
+	 */
+	private static void runConcurrently(Callable<?> operation) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < OPERATIONS_PER_THREAD; i++) {
+						operation.call();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static ResponseCache responseCache(DataStore dataStore) {
+		HttpCacheProperties properties = new HttpCacheProperties();
+		properties.setEnabled(false);
+		return new ResponseCache(dataStore, JsonMapper.builder().findAndAddModules().build(), properties, new SimpleMeterRegistry());
+	}
+}
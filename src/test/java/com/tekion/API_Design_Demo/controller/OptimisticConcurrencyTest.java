@@ -0,0 +1,210 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.config.HttpCacheProperties;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.dto.request.CreateOrderRequest;
+import com.tekion.API_Design_Demo.dto.request.CreateProductRequest;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
+import com.tekion.API_Design_Demo.service.BatchProperties;
+import com.tekion.API_Design_Demo.service.BatchWriter;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations;
+import com.tekion.API_Design_Demo.service.reservation.ReservationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for versioned updates with ETag / If-Match.
+ */
+class OptimisticConcurrencyTest {
+
+	private static final int THREADS = 32;
+	private static final String PRODUCT_ID = "prod-hot";
+
+	private DataStore dataStore;
+	private ProductController controller;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		controller = new ProductController(dataStore, new SnowflakeIdGenerator(0), responseCache(dataStore),
+				new BatchWriter(Validation.buildDefaultValidatorFactory().getValidator(), new BatchProperties()));
+		LocalDateTime now = LocalDateTime.now();
+		dataStore.saveProduct(ProductDTO.builder()
+				.productId(PRODUCT_ID)
+				.name("Widget")
+				.price(10.0)
+				.category("tools")
+				.isActive(true)
+				.createdAt(now)
+				.updatedAt(now)
+				.build());
+	}
+
+	@Test
+	void everySaveRaisesTheVersion() {
+		assertEquals("\"1\"", controller.getProductById(PRODUCT_ID).getHeaders().getETag());
+
+		ResponseEntity<?> updated = controller.updateProduct(PRODUCT_ID, null, request(11.0));
+
+		assertEquals("\"2\"", updated.getHeaders().getETag());
+		assertEquals(2L, dataStore.getProduct(PRODUCT_ID).getVersion());
+	}
+
+	@Test
+	void staleIfMatchIsRejected() {
+		controller.updateProduct(PRODUCT_ID, "\"1\"", request(11.0));
+
+		assertThrows(VersionConflictException.class,
+				() -> controller.updateProduct(PRODUCT_ID, "\"1\"", request(12.0)));
+		assertEquals(11.0, dataStore.getProduct(PRODUCT_ID).getPrice());
+	}
+
+	@Test
+	void wildcardAndWeakTags() {
+		controller.updateProduct(PRODUCT_ID, "*", request(11.0));
+
+		assertThrows(VersionConflictException.class,
+				() -> controller.updateProduct(PRODUCT_ID, "W/\"2\"", request(12.0)));
+		assertEquals("\"3\"", controller.updateProduct(PRODUCT_ID, "\"1\", \"2\"", request(12.0)).getHeaders().getETag());
+	}
+
+	@Test
+	void ifMatchAcceptsTheTagOfAnyRepresentation() {
+		assertEquals("\"2\"", controller.updateProduct(PRODUCT_ID, "\"1-f2a9c-gzip\"", request(11.0)).getHeaders().getETag());
+
+		assertThrows(VersionConflictException.class,
+				() -> controller.updateProduct(PRODUCT_ID, "\"1-gzip\"", request(12.0)));
+		assertThrows(VersionConflictException.class,
+				() -> controller.updateProduct(PRODUCT_ID, "\"22\"", request(12.0)));
+	}
+
+	@Test
+	void onlyOneConcurrentUpdateOfAVersionWins() throws Exception {
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				double price = 100.0 + t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					try {
+						controller.updateProduct(PRODUCT_ID, "\"1\"", request(price));
+						accepted.incrementAndGet();
+					} catch (VersionConflictException ex) {
+						rejected.incrementAndGet();
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(1, accepted.get());
+		assertEquals(THREADS - 1, rejected.get());
+		assertEquals(2L, dataStore.getProduct(PRODUCT_ID).getVersion());
+	}
+
+	@Test
+	void staleIfMatchLeavesAnOrdersStockReserved() {
+		InventoryReservations reservations = new InventoryReservations(dataStore, new ReservationProperties(), null);
+		OrderController orders = new OrderController(dataStore, new SnowflakeIdGenerator(0), reservations, responseCache(dataStore));
+		dataStore.saveInventory(InventoryDTO.builder()
+				.id("inv-1")
+				.productId(PRODUCT_ID)
+				.warehouseId("wh-1")
+				.quantity(10)
+				.reservedQuantity(0)
+				.availableQuantity(10)
+				.lowStockThreshold(0)
+				.build());
+		reservations.reserve("ord-1", Map.of(PRODUCT_ID, 4));
+		dataStore.saveOrder(OrderDTO.builder().orderId("ord-1").status("PENDING").build());
+		String stale = ETags.of(dataStore.getOrder("ord-1"));
+		orders.updateOrderStatus("ord-1", "PENDING", stale);
+
+		assertThrows(VersionConflictException.class, () -> orders.updateOrderStatus("ord-1", "CANCELLED", stale));
+		assertThrows(VersionConflictException.class, () -> orders.updateOrderStatus("ord-1", "CONFIRMED", stale));
+
+		assertEquals("PENDING", dataStore.getOrder("ord-1").getStatus());
+		assertNotNull(reservations.getReservation("ord-1"));
+		assertEquals(10, dataStore.getInventoryItem("inv-1").getQuantity());
+		assertEquals(4, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+	}
+
+	@Test
+	void failedOrderSaveReleasesItsStock() {
+		InventoryReservations reservations = new InventoryReservations(dataStore, new ReservationProperties(), null);
+		OrderController orders = new OrderController(dataStore, new SnowflakeIdGenerator(0), reservations, responseCache(dataStore));
+		dataStore.saveCustomer(CustomerDTO.builder().customerId("cust-1").name("Ada").email("ada@example.com").build());
+		dataStore.saveInventory(InventoryDTO.builder()
+				.id("inv-1")
+				.productId(PRODUCT_ID)
+				.warehouseId("wh-1")
+				.quantity(10)
+				.reservedQuantity(0)
+				.availableQuantity(10)
+				.lowStockThreshold(0)
+				.build());
+		dataStore.addChangeListener((entity, id, previous, current) -> {
+			if (entity == EntityType.ORDER) {
+				throw new IllegalStateException("Order store unavailable");
+			}
+		});
+		CreateOrderRequest request = CreateOrderRequest.builder()
+				.items(List.of(CreateOrderRequest.OrderItemRequest.builder().productId(PRODUCT_ID).quantity(4).build()))
+				.build();
+
+		assertThrows(IllegalStateException.class, () -> orders.createOrder("cust-1", request));
+
+		assertEquals(0, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+		assertEquals(10, dataStore.getInventoryItem("inv-1").getAvailableQuantity());
+	}
+
+	private static CreateProductRequest request(double price) {
+		return CreateProductRequest.builder()
+				.name("Widget")
+				.price(price)
+				.category("tools")
+				.build();
+	}
+
+	private static ResponseCache responseCache(DataStore dataStore) {
+		HttpCacheProperties properties = new HttpCacheProperties();
+		properties.setEnabled(false);
+		return new ResponseCache(dataStore, JsonMapper.builder().findAndAddModules().build(), properties, new SimpleMeterRegistry());
+	}
+}
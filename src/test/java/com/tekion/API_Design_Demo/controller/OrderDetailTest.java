@@ -0,0 +1,85 @@
+package com.tekion.API_Design_Demo.controller;
+
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.config.HttpCacheProperties;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.AddressDTO;
+import com.tekion.API_Design_Demo.dto.FulfillmentDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderDetailDTO;
+import com.tekion.API_Design_Demo.dto.PaymentDTO;
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import com.tekion.API_Design_Demo.dto.response.ApiResponse;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.id.SnowflakeIdGenerator;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations;
+import com.tekion.API_Design_Demo.service.reservation.ReservationProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the order detail aggregate.
+ */
+class OrderDetailTest {
+
+	private DataStore dataStore;
+	private OrderController controller;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		controller = new OrderController(dataStore, new SnowflakeIdGenerator(0),
+				new InventoryReservations(dataStore, new ReservationProperties(), null), responseCache(dataStore));
+		dataStore.saveAddress(AddressDTO.builder().addressId("addr-1").customerId("cust-1").street("1 Main St").build());
+		dataStore.saveOrder(OrderDTO.builder()
+				.orderId("ord-1")
+				.customerId("cust-1")
+				.status("CONFIRMED")
+				.totalAmount(new BigDecimal("20.00"))
+				.shippingAddressId("addr-1")
+				.build());
+		dataStore.savePayment(PaymentDTO.builder().paymentId("pay-1").orderId("ord-1").amount(new BigDecimal("20.00")).build());
+		dataStore.savePayment(PaymentDTO.builder().paymentId("pay-2").orderId("ord-2").amount(new BigDecimal("5.00")).build());
+		dataStore.saveFulfillment(FulfillmentDTO.builder().fulfillmentId("ful-1").orderId("ord-1").build());
+		dataStore.saveFulfillment(FulfillmentDTO.builder().fulfillmentId("ful-2").orderId("ord-1").build());
+		dataStore.saveShipment(ShipmentResponse.builder().shipmentId("shp-1").fulfillmentId("ful-1").trackingNumber("TRK1").build());
+		dataStore.saveShipment(ShipmentResponse.builder().shipmentId("shp-2").fulfillmentId("ful-1").trackingNumber("TRK2").build());
+	}
+
+	@Test
+	void detailHoldsEveryPartOfTheOrder() {
+		OrderDetailDTO detail = detail(controller.getOrderDetail("ord-1"));
+
+		assertEquals("ord-1", detail.getOrder().getOrderId());
+		assertEquals("addr-1", detail.getShippingAddress().getAddressId());
+		assertEquals(List.of("pay-1"), detail.getPayments().stream().map(PaymentDTO::getPaymentId).toList());
+		assertEquals(2, detail.getFulfillments().size());
+		assertEquals(List.of("shp-1", "shp-2"), detail.getFulfillments().get(0).getShipments().stream()
+				.map(ShipmentResponse::getShipmentId).toList());
+		assertEquals(List.of(), detail.getFulfillments().get(1).getShipments());
+	}
+
+	@Test
+	void unknownOrderIsNotFound() {
+		assertEquals(HttpStatus.NOT_FOUND, controller.getOrderDetail("ord-404").getStatusCode());
+	}
+
+	private static OrderDetailDTO detail(ResponseEntity<?> response) {
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		return (OrderDetailDTO) ((ApiResponse<?>) response.getBody()).getData();
+	}
+
+	private static ResponseCache responseCache(DataStore dataStore) {
+		HttpCacheProperties properties = new HttpCacheProperties();
+		properties.setEnabled(false);
+		return new ResponseCache(dataStore, JsonMapper.builder().findAndAddModules().build(), properties, new SimpleMeterRegistry());
+	}
+}
@@ -0,0 +1,52 @@
+package com.tekion.API_Design_Demo.exception;
+
+import com.tekion.API_Design_Demo.dto.response.ErrorResponse;
+import com.tekion.API_Design_Demo.dto.response.ErrorResponse.ErrorDetail;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.server.MissingRequestValueException;
+import org.springframework.web.server.ResponseStatusException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests that the reactive stack answers errors the same way as the servlet stack.
+ */
+class ReactiveExceptionHandlerTest {
+
+	private final ReactiveExceptionHandler handler = new ReactiveExceptionHandler();
+	private final MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get("/api/v1/changes?after=5"));
+
+	@Test
+	void missingHeaderMatchesServletDetail() {
+		ResponseEntity<ErrorResponse> response = handler.handleInvalidInput(
+				new MissingRequestValueException("If-Match", String.class, "header", null), exchange);
+
+		assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+		ErrorDetail detail = response.getBody().getErrors().get(0);
+		assertEquals("MISSING_HEADER", detail.getCode());
+		assertEquals("If-Match", detail.getField());
+		assertEquals("/api/v1/changes", response.getBody().getPath());
+	}
+
+	@Test
+	void domainExceptionsKeepTheirStatusAndDetail() {
+		ChangeFeedGapException gap = new ChangeFeedGapException(5, 10, 20);
+		ResponseEntity<ErrorResponse> response = handler.handleChangeFeedGap(gap, exchange);
+
+		assertEquals(HttpStatus.GONE, response.getStatusCode());
+		assertEquals(GlobalExceptionHandler.changeFeedGap(gap), response.getBody().getErrors().get(0));
+	}
+
+	@Test
+	void unknownRouteIsNotFoundRatherThanInternalError() {
+		ResponseEntity<ErrorResponse> response = handler.handleResponseStatus(
+				new ResponseStatusException(HttpStatus.NOT_FOUND, "No matching handler"), exchange);
+
+		assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+		assertEquals("NOT_FOUND", response.getBody().getErrors().get(0).getCode());
+	}
+}
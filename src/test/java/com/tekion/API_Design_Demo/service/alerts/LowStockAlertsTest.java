@@ -0,0 +1,157 @@
+package com.tekion.API_Design_Demo.service.alerts;
+
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.LowStockAlertDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for low stock threshold crossing detection and alert delivery.
+ */
+class LowStockAlertsTest {
+
+	private DataStore dataStore;
+	private LowStockAlerts alerts;
+	private MutableClock clock;
+	private final List<List<LowStockAlertDTO>> sent = new ArrayList<>();
+	private boolean failing;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		LowStockAlertProperties properties = new LowStockAlertProperties();
+		properties.setEnabled(true);
+		properties.setMaxAlertsPerDelivery(2);
+		properties.setCooldown(Duration.ofMinutes(1));
+		clock = new MutableClock();
+		alerts = new LowStockAlerts(dataStore, properties, batch -> {
+			if (failing) {
+				throw new IOException("webhook down");
+			}
+			sent.add(batch);
+		}, clock, new SimpleMeterRegistry());
+	}
+
+	@Test
+	void lowStockSetFollowsEveryWrite() {
+		saveItem("inv-1", "wh-1", 50);
+		saveItem("inv-2", "wh-2", 5);
+		assertEquals(List.of("inv-2"), List.copyOf(dataStore.getLowStockInventoryIds()));
+
+		saveItem("inv-1", "wh-1", 3);
+		saveItem("inv-2", "wh-2", 40);
+		assertEquals(List.of("inv-1"), List.copyOf(dataStore.getLowStockInventoryIds()));
+		assertEquals(List.of("inv-1"), List.copyOf(dataStore.getLowStockInventoryIdsByWarehouse("wh-1")));
+		assertTrue(dataStore.getLowStockInventoryIdsByWarehouse("wh-2").isEmpty());
+
+		dataStore.deleteInventory("inv-1");
+		assertTrue(dataStore.getLowStockInventoryIds().isEmpty());
+		assertTrue(dataStore.getLowStockInventoryIdsByWarehouse("wh-1").isEmpty());
+	}
+
+	@Test
+	void onlyThresholdCrossingsAreAlerted() {
+		saveItem("inv-1", "wh-1", 50);
+		saveItem("inv-1", "wh-1", 30);
+		assertEquals(0, alerts.getPendingCount());
+
+		saveItem("inv-1", "wh-1", 8);
+		saveItem("inv-1", "wh-1", 6);
+		assertEquals(1, alerts.deliver());
+
+		LowStockAlertDTO alert = sent.get(0).get(0);
+		assertEquals(LowStockAlertDTO.LOW_STOCK, alert.getType());
+		assertEquals("inv-1", alert.getInventoryId());
+		assertEquals(8, alert.getAvailableQuantity());
+	}
+
+	@Test
+	void crossingBackBeforeDeliveryCancelsTheAlert() {
+		saveItem("inv-1", "wh-1", 50);
+		saveItem("inv-1", "wh-1", 5);
+		saveItem("inv-1", "wh-1", 50);
+
+		assertEquals(0, alerts.getPendingCount());
+		assertEquals(0, alerts.deliver());
+	}
+
+	@Test
+	void cooldownAndBatchLimitHoldAlertsBack() {
+		saveItem("inv-1", "wh-1", 5);
+		saveItem("inv-2", "wh-1", 5);
+		saveItem("inv-3", "wh-1", 5);
+		assertEquals(2, alerts.deliver());
+		assertEquals(1, alerts.deliver());
+
+		saveItem("inv-1", "wh-1", 50);
+		assertEquals(0, alerts.deliver());
+		assertEquals(1, alerts.getPendingCount());
+
+		clock.advance(Duration.ofMinutes(1));
+		assertEquals(1, alerts.deliver());
+		assertEquals(LowStockAlertDTO.RECOVERED, sent.get(2).get(0).getType());
+	}
+
+	@Test
+	void failedBatchesAreQueuedAgain() {
+		saveItem("inv-1", "wh-1", 5);
+		failing = true;
+		assertEquals(0, alerts.deliver());
+		assertEquals(1, alerts.getPendingCount());
+
+		failing = false;
+		assertEquals(1, alerts.deliver());
+		assertEquals(0, alerts.getPendingCount());
+	}
+
+	private void saveItem(String id, String warehouseId, int available) {
+		dataStore.saveInventory(InventoryDTO.builder()
+				.id(id)
+				.productId("prod-1")
+				.warehouseId(warehouseId)
+				.sku("SKU-1")
+				.quantity(available)
+				.reservedQuantity(0)
+				.availableQuantity(available)
+				.lowStockThreshold(10)
+				.build());
+	}
+
+	private static final class MutableClock extends Clock {
+
+		private Instant now = Instant.parse("2024-01-15T10:00:00Z");
+
+		void advance(Duration duration) {
+			now = now.plus(duration);
+		}
+
+		@Override
+		public ZoneId getZone() {
+			return ZoneOffset.UTC;
+		}
+
+		@Override
+		public Clock withZone(ZoneId zone) {
+			return this;
+		}
+
+		@Override
+		public Instant instant() {
+			return now;
+		}
+	}
+}
@@ -0,0 +1,157 @@
+package com.tekion.API_Design_Demo.service.changes;
+
+import com.tekion.API_Design_Demo.dto.ChangeEventDTO;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.enums.ChangeOperation;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.exception.ChangeFeedGapException;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the change feed ring buffer.
+ */
+class ChangeFeedTest {
+
+	private static final int CAPACITY = 8;
+
+	private DataStore dataStore;
+	private ChangeFeed feed;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		ChangeFeedProperties properties = new ChangeFeedProperties();
+		properties.setCapacity(CAPACITY);
+		feed = new ChangeFeed(dataStore, properties);
+	}
+
+	@Test
+	void writesAreNumberedInOrder() {
+		saveProduct("prod-1", 10.0);
+		saveProduct("prod-1", 11.0);
+		dataStore.deleteProduct("prod-1");
+
+		List<ChangeEventDTO> events = feed.read(0, 10);
+
+		assertEquals(3, events.size());
+		assertEquals(List.of(1L, 2L, 3L), events.stream().map(ChangeEventDTO::getSequence).toList());
+		assertEquals(List.of(ChangeOperation.CREATE, ChangeOperation.UPDATE, ChangeOperation.DELETE),
+				events.stream().map(ChangeEventDTO::getOp).toList());
+		assertEquals(EntityType.PRODUCT, events.get(1).getEntity());
+		assertEquals(2L, events.get(1).getVersion());
+		assertEquals(11.0, ((ProductDTO) events.get(1).getPayload()).getPrice());
+		assertNull(events.get(2).getPayload());
+	}
+
+	@Test
+	void readsResumeAfterASequence() {
+		for (int i = 0; i < 5; i++) {
+			saveProduct("prod-" + i, 10.0);
+		}
+
+		List<ChangeEventDTO> events = feed.read(3, 10);
+
+		assertEquals(List.of(4L, 5L), events.stream().map(ChangeEventDTO::getSequence).toList());
+		assertTrue(feed.read(5, 10).isEmpty());
+		assertEquals(2, feed.read(1, 2).size());
+	}
+
+	@Test
+	void overwrittenAndUnknownPositionsAreRejected() {
+		for (int i = 0; i < CAPACITY + 3; i++) {
+			saveProduct("prod-" + i, 10.0);
+		}
+
+		assertThrows(ChangeFeedGapException.class, () -> feed.read(2, 10));
+		assertEquals(CAPACITY, feed.read(3, 100).size());
+		assertThrows(ChangeFeedGapException.class, () -> feed.read(CAPACITY + 4, 10));
+	}
+
+	@Test
+	void concurrentWritesArePublishedWithoutHoles() throws Exception {
+		int threads = 16;
+		int writesPerThread = 500;
+		ChangeFeedProperties properties = new ChangeFeedProperties();
+		properties.setCapacity(threads * writesPerThread);
+		ChangeFeed large = new ChangeFeed(dataStore, properties);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < threads; t++) {
+				String id = "prod-" + t;
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < writesPerThread; i++) {
+						saveProduct(id, i);
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<ChangeEventDTO> events = large.read(0, threads * writesPerThread);
+		assertEquals(threads * writesPerThread, large.getLatestSequence());
+		Map<String, Long> versions = new HashMap<>();
+		for (int i = 0; i < events.size(); i++) {
+			ChangeEventDTO event = events.get(i);
+			assertEquals(i + 1, event.getSequence());
+			// Each record's events are numbered in the order its writes were applied
+			Long previous = versions.put(event.getId(), event.getVersion());
+			assertTrue(previous == null || previous < event.getVersion());
+		}
+	}
+
+	@Test
+	void awaitReturnsOnceAWriteIsCommitted() throws Exception {
+		CompletableFuture<Long> waiting = CompletableFuture.supplyAsync(() -> {
+			try {
+				return feed.await(0, Duration.ofSeconds(30));
+			} catch (InterruptedException e) {
+				throw new IllegalStateException(e);
+			}
+		});
+
+		saveProduct("prod-1", 10.0);
+
+		assertEquals(1L, waiting.get(30, TimeUnit.SECONDS));
+		assertEquals(1L, feed.await(0, Duration.ZERO));
+		assertEquals(1L, feed.await(1, Duration.ofMillis(10)));
+	}
+
+	private void saveProduct(String id, double price) {
+		dataStore.saveProduct(ProductDTO.builder()
+				.productId(id)
+				.name("Widget")
+				.price(price)
+				.category("tools")
+				.isActive(true)
+				.build());
+	}
+}
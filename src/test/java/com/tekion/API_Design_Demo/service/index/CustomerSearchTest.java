@@ -0,0 +1,76 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import com.tekion.API_Design_Demo.dto.CustomerDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the customer name and email indexes kept by the DataStore.
+ */
+class CustomerSearchTest {
+
+	private DataStore dataStore;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		saveCustomer("cust-1", "Mary Johnson", "mary@example.com");
+		saveCustomer("cust-2", "John Smith", "jsmith@example.com");
+		saveCustomer("cust-3", "Joanna Lee", "lee@example.com");
+	}
+
+	@Test
+	void prefixMatchesComeFirstInAlphabeticalOrder() {
+		assertEquals(List.of("cust-3", "cust-2"), search("JO", 10));
+		// "john" starts a name, and also appears inside "Mary Johnson"
+		assertEquals(List.of("cust-2", "cust-1"), search("john", 10));
+		// Email prefixes follow name prefixes
+		assertEquals(List.of("cust-2"), search("jsm", 10));
+	}
+
+	@Test
+	void resultsAreBoundedByTheLimit() {
+		assertEquals(List.of("cust-3"), search("jo", 1));
+		assertEquals(3, search("example", 10).size());
+		assertEquals(2, search("example", 2).size());
+	}
+
+	@Test
+	void indexesFollowUpdatesAndDeletes() {
+		saveCustomer("cust-2", "Jack Smith", "jack@example.com");
+		assertEquals(List.of("cust-3"), search("jo", 10));
+		assertEquals(List.of("cust-2"), search("jac", 10));
+
+		dataStore.deleteCustomer("cust-3");
+		assertTrue(search("joanna", 10).isEmpty());
+		assertTrue(search("lee@", 10).isEmpty());
+	}
+
+	@Test
+	void listFiltersAreNarrowedOnlyFromThreeCharacters() {
+		assertNull(dataStore.getCustomerIdsByNameSubstring("jo"));
+		assertEquals(3, dataStore.getCustomerIdsByNameSubstring("SMITH").size());
+		assertTrue(dataStore.getCustomerIdsByEmailSubstring("smith").stream().allMatch(ids -> ids.contains("cust-2")));
+	}
+
+	private List<String> search(String text, int limit) {
+		return dataStore.searchCustomers(text, limit).stream()
+				.map(CustomerDTO::getCustomerId)
+				.toList();
+	}
+
+	private void saveCustomer(String customerId, String name, String email) {
+		dataStore.saveCustomer(CustomerDTO.builder()
+				.customerId(customerId)
+				.name(name)
+				.email(email)
+				.build());
+	}
+}
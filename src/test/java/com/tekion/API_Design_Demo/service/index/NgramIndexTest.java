@@ -0,0 +1,90 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import com.tekion.API_Design_Demo.dto.ShipmentDTO.ShipmentResponse;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for the shipment tracking number indexes kept by the DataStore.
+ */
+class NgramIndexTest {
+
+	private DataStore dataStore;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+	}
+
+	@Test
+	void exactLookupFollowsSavesAndDeletes() {
+		saveShipment("shp-1", "TRK0001ABC");
+		saveShipment("shp-2", "TRK0002XYZ");
+		assertEquals("shp-2", dataStore.getShipmentByTrackingNumber("TRK0002XYZ").getShipmentId());
+
+		saveShipment("shp-2", "TRK0003XYZ");
+		assertNull(dataStore.getShipmentByTrackingNumber("TRK0002XYZ"));
+		assertEquals("shp-2", dataStore.getShipmentByTrackingNumber("TRK0003XYZ").getShipmentId());
+
+		dataStore.deleteShipment("shp-1");
+		assertNull(dataStore.getShipmentByTrackingNumber("TRK0001ABC"));
+	}
+
+	@Test
+	void substringCandidatesAreNarrowedByTrigrams() {
+		saveShipment("shp-1", "TRK0001ABC");
+		saveShipment("shp-2", "TRK0002XYZ");
+		saveShipment("shp-3", "TRK0003ABC");
+
+		assertEquals(List.of("shp-1", "shp-3"), candidates("ABC"));
+		assertEquals(List.of("shp-1"), candidates("0001a"));
+		assertTrue(candidates("QQQ").isEmpty());
+
+		saveShipment("shp-3", "TRK0003DEF");
+		assertEquals(List.of("shp-1"), candidates("abc"));
+		dataStore.deleteShipment("shp-1");
+		assertTrue(candidates("abc").isEmpty());
+	}
+
+	@Test
+	void searchesShorterThanATrigramAreNotNarrowed() {
+		assertNull(dataStore.getShipmentIdsByTrackingSubstring("ab"));
+	}
+
+	@Test
+	void candidatesMayContainTrigramsThatOccurApart() {
+		NgramIndex index = new NgramIndex();
+		index.move(null, "abcxbcd", "id-1");
+
+		// "abcd" is not in the text, but its trigrams "abc" and "bcd" both are
+		List<NavigableSet<String>> lists = index.candidates("ABCD");
+		assertEquals(2, lists.size());
+		assertTrue(lists.stream().allMatch(ids -> ids.contains("id-1")));
+	}
+
+	private List<String> candidates(String search) {
+		IndexQuery query = IndexQuery.over(dataStore.getShipmentIds());
+		dataStore.getShipmentIdsByTrackingSubstring(search).forEach(query::and);
+		return query.stream(dataStore.getShipments()::get, s -> true)
+				.map(ShipmentResponse::getShipmentId)
+				.collect(Collectors.toList());
+	}
+
+	private void saveShipment(String shipmentId, String trackingNumber) {
+		dataStore.saveShipment(ShipmentResponse.builder()
+				.shipmentId(shipmentId)
+				.fulfillmentId("ful-1")
+				.trackingNumber(trackingNumber)
+				.build());
+	}
+}
@@ -0,0 +1,72 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.IndexQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for streaming exports driven by the product price index.
+ */
+class RangeIndexTest {
+
+	private DataStore dataStore;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		for (int i = 0; i < 20; i++) {
+			saveProduct(String.format("prod-%02d", i), 100.0 - i);
+		}
+	}
+
+	@Test
+	void aSmallRangeIsWalkedInValueOrder() {
+		assertEquals(List.of("prod-19", "prod-18", "prod-17"), export(81.0, 83.0));
+	}
+
+	@Test
+	void theRangeFollowsWritesMadeBeforeTheStreamIsRead() {
+		IndexQuery query = IndexQuery.over(dataStore.getProductIds())
+				.and(dataStore.getProductsByPriceRange(81.0, 83.0));
+		saveProduct("prod-20", 82.5);
+
+		List<String> ids = query.stream(dataStore.getProducts()::get, p -> p.getPrice() >= 81.0 && p.getPrice() <= 83.0)
+				.map(ProductDTO::getProductId)
+				.collect(Collectors.toList());
+
+		assertEquals(List.of("prod-19", "prod-18", "prod-20", "prod-17"), ids);
+	}
+
+	@Test
+	void aRangeCoveringTheCollectionIsStreamedInIdOrder() {
+		List<String> ids = export(80.0, null);
+
+		assertEquals(20, ids.size());
+		assertEquals(List.of("prod-00", "prod-01"), ids.subList(0, 2));
+	}
+
+	private List<String> export(Double minPrice, Double maxPrice) {
+		return IndexQuery.over(dataStore.getProductIds())
+				.and(dataStore.getProductsByPriceRange(minPrice, maxPrice))
+				.stream(dataStore.getProducts()::get, p -> (minPrice == null || p.getPrice() >= minPrice)
+						&& (maxPrice == null || p.getPrice() <= maxPrice))
+				.map(ProductDTO::getProductId)
+				.collect(Collectors.toList());
+	}
+
+	private void saveProduct(String productId, double price) {
+		dataStore.saveProduct(ProductDTO.builder()
+				.productId(productId)
+				.name("Widget")
+				.price(price)
+				.isActive(true)
+				.build());
+	}
+}
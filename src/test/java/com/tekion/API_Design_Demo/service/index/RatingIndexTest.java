@@ -0,0 +1,74 @@
+package com.tekion.API_Design_Demo.service.index;
+
+import com.tekion.API_Design_Demo.dto.ReviewDTO;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for the per-product review rating tallies kept by the DataStore.
+ */
+class RatingIndexTest {
+
+	private DataStore dataStore;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+	}
+
+	@Test
+	void tallyFollowsCreatesUpdatesAndDeletes() {
+		saveReview("rev-1", "prod-1", 5);
+		saveReview("rev-2", "prod-1", 4);
+		saveReview("rev-3", "prod-1", 1);
+
+		RatingIndex.Tally tally = dataStore.getProductRatings("prod-1");
+		assertEquals(3, tally.count());
+		assertEquals(10.0 / 3, tally.average(), 1e-9);
+		assertEquals(1, tally.countOf(1));
+		assertEquals(1, tally.countOf(5));
+
+		saveReview("rev-3", "prod-1", 4);
+		dataStore.deleteReview("rev-1");
+
+		tally = dataStore.getProductRatings("prod-1");
+		assertEquals(2, tally.count());
+		assertEquals(4.0, tally.average());
+		assertEquals(0, tally.countOf(1));
+		assertEquals(2, tally.countOf(4));
+		assertEquals(0, tally.countOf(5));
+	}
+
+	@Test
+	void reviewMovedToAnotherProductIsRecounted() {
+		saveReview("rev-1", "prod-1", 3);
+		saveReview("rev-1", "prod-2", 3);
+
+		assertEquals(0, dataStore.getProductRatings("prod-1").count());
+		assertEquals(0.0, dataStore.getProductRatings("prod-1").average());
+		assertEquals(1, dataStore.getProductRatings("prod-2").countOf(3));
+	}
+
+	@Test
+	void ratingsOutsideOneToFiveAreNotCounted() {
+		RatingIndex index = new RatingIndex();
+		index.add("prod-1", 0);
+		index.add("prod-1", 6);
+		index.add("prod-1", 2);
+
+		assertEquals(1, index.get("prod-1").count());
+		assertEquals(2, index.get("prod-1").sum());
+	}
+
+	private void saveReview(String reviewId, String productId, int rating) {
+		dataStore.saveReview(ReviewDTO.builder()
+				.reviewId(reviewId)
+				.customerId("cust-1")
+				.productId(productId)
+				.rating(rating)
+				.build());
+	}
+}
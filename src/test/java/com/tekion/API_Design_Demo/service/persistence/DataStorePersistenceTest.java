@@ -0,0 +1,130 @@
+package com.tekion.API_Design_Demo.service.persistence;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.tekion.API_Design_Demo.config.ResponseCache;
+import com.tekion.API_Design_Demo.dto.ProductDTO;
+import com.tekion.API_Design_Demo.enums.EntityType;
+import com.tekion.API_Design_Demo.service.DataStore;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that recovery from snapshots and the write-ahead log gives back the store as it was.
+ */
+class DataStorePersistenceTest {
+
+	private final ObjectMapper objectMapper = JsonMapper.builder().findAndAddModules().build();
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void recoveredRecordsKeepTheirVersionsAndETags() throws Exception {
+		DataStore dataStore = new DataStore();
+		DataStorePersistence persistence = start(dataStore);
+		saveProduct(dataStore, "prod-1", 10.0);
+		saveProduct(dataStore, "prod-1", 11.0);
+		saveProduct(dataStore, "prod-2", 5.0);
+		// These writes are both in the snapshot and in the segment replayed over it
+		persistence.snapshot();
+		saveProduct(dataStore, "prod-1", 12.0);
+		saveProduct(dataStore, "prod-3", 7.0);
+		Map<String, String> etags = etags(dataStore);
+		persistence.stop();
+
+		DataStore recovered = new DataStore();
+		DataStorePersistence restarted = start(recovered);
+		try {
+			assertEquals(etags, etags(recovered));
+			assertEquals(3L, recovered.getProduct("prod-1").getVersion());
+			assertEquals(12.0, recovered.getProduct("prod-1").getPrice());
+		} finally {
+			restarted.stop();
+		}
+	}
+
+	@Test
+	void recreatedRecordsDoNotRepeatVersionsAcrossRestarts() throws Exception {
+		DataStore dataStore = new DataStore();
+		DataStorePersistence persistence = start(dataStore);
+		saveProduct(dataStore, "prod-2", 5.0);
+		saveProduct(dataStore, "prod-1", 10.0);
+		saveProduct(dataStore, "prod-1", 11.0);
+		saveProduct(dataStore, "prod-1", 12.0);
+		long deletedVersion = dataStore.getProduct("prod-1").getVersion();
+		dataStore.deleteProduct("prod-1");
+		persistence.snapshot();
+		persistence.stop();
+
+		DataStore recovered = new DataStore();
+		DataStorePersistence restarted = start(recovered);
+		try {
+			assertNull(recovered.getProduct("prod-1"));
+			saveProduct(recovered, "prod-1", 10.0);
+			assertTrue(recovered.getProduct("prod-1").getVersion() > deletedVersion);
+		} finally {
+			restarted.stop();
+		}
+	}
+
+	@Test
+	void recoveryIsNotReportedToListeners() throws Exception {
+		DataStore dataStore = new DataStore();
+		DataStorePersistence persistence = start(dataStore);
+		saveProduct(dataStore, "prod-1", 10.0);
+		saveProduct(dataStore, "prod-2", 5.0);
+		dataStore.deleteProduct("prod-2");
+		persistence.stop();
+
+		DataStore recovered = new DataStore();
+		List<String> changes = new ArrayList<>();
+		recovered.addChangeListener((entity, id, previous, current) -> changes.add(id));
+		DataStorePersistence restarted = start(recovered);
+		try {
+			assertTrue(changes.isEmpty());
+			assertEquals(List.of("prod-1"), List.copyOf(recovered.getProductIds()));
+			assertEquals(3, recovered.getChangeCount(EntityType.PRODUCT));
+		} finally {
+			restarted.stop();
+		}
+	}
+
+	private DataStorePersistence start(DataStore dataStore) throws Exception {
+		PersistenceProperties properties = new PersistenceProperties();
+		properties.setEnabled(true);
+		properties.setDirectory(directory);
+		properties.setSnapshotInterval(Duration.ofHours(1));
+		properties.setParallelism(2);
+		DataStorePersistence persistence = new DataStorePersistence(dataStore, objectMapper, properties);
+		persistence.start();
+		return persistence;
+	}
+
+	private static Map<String, String> etags(DataStore dataStore) {
+		Map<String, String> etags = new TreeMap<>();
+		dataStore.getProducts().forEach((id, product) -> etags.put(id, ResponseCache.etag(product)));
+		return etags;
+	}
+
+	private static void saveProduct(DataStore dataStore, String productId, double price) {
+		dataStore.saveProduct(ProductDTO.builder()
+				.productId(productId)
+				.name("Widget")
+				.price(price)
+				.category("tools")
+				.isActive(true)
+				.build());
+	}
+}
@@ -0,0 +1,253 @@
+package com.tekion.API_Design_Demo.service.reservation;
+
+import com.tekion.API_Design_Demo.dto.InventoryDTO;
+import com.tekion.API_Design_Demo.dto.OrderDTO;
+import com.tekion.API_Design_Demo.dto.OrderItemDTO;
+import com.tekion.API_Design_Demo.enums.InventoryStatus;
+import com.tekion.API_Design_Demo.exception.InventoryMutationException;
+import com.tekion.API_Design_Demo.exception.VersionConflictException;
+import com.tekion.API_Design_Demo.service.DataStore;
+import com.tekion.API_Design_Demo.service.reservation.InventoryReservations.Reservation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Tests for all-or-nothing reservations, warehouse selection, expiry and concurrent orders on one SKU.
+ */
+class InventoryReservationsTest {
+
+	private static final int THREADS = 64;
+	private static final int ORDERS_PER_THREAD = 200;
+
+	private DataStore dataStore;
+	private ReservationProperties properties;
+	private InventoryReservations reservations;
+
+	@BeforeEach
+	void setUp() {
+		dataStore = new DataStore();
+		properties = new ReservationProperties();
+		reservations = new InventoryReservations(dataStore, properties, Clock.systemUTC());
+	}
+
+	@Test
+	void concurrentOrdersNeverOversell() throws Exception {
+		saveInventory("inv-1", "prod-hot", "wh-1", 3_000);
+		saveInventory("inv-2", "prod-hot", "wh-2", 2_000);
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger sequence = new AtomicInteger();
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<?>> futures = new ArrayList<>();
+		try {
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+						try {
+							reservations.reserve("ord-" + sequence.incrementAndGet(), Map.of("prod-hot", 1));
+							accepted.incrementAndGet();
+						} catch (InventoryMutationException ex) {
+							assertEquals("INSUFFICIENT_STOCK", ex.getCode());
+						}
+					}
+					return null;
+				}));
+			}
+			start.countDown();
+			for (Future<?> future : futures) {
+				future.get(60, TimeUnit.SECONDS);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		assertEquals(5_000, accepted.get());
+		for (String id : List.of("inv-1", "inv-2")) {
+			InventoryDTO result = dataStore.getInventoryItem(id);
+			assertEquals(result.getQuantity(), result.getReservedQuantity());
+			assertEquals(0, result.getAvailableQuantity());
+			assertEquals(InventoryStatus.OUT_OF_STOCK, result.getStatus());
+		}
+	}
+
+	@Test
+	void failedItemLeavesNothingReserved() {
+		saveInventory("inv-a", "prod-a", "wh-1", 10);
+		saveInventory("inv-b", "prod-b", "wh-1", 1);
+
+		InventoryMutationException ex = assertThrows(InventoryMutationException.class,
+				() -> reservations.reserve("ord-1", Map.of("prod-a", 5, "prod-b", 2)));
+
+		assertEquals("INSUFFICIENT_STOCK", ex.getCode());
+		assertEquals(0, dataStore.getInventoryItem("inv-a").getReservedQuantity());
+		assertEquals(10, dataStore.getInventoryItem("inv-a").getAvailableQuantity());
+		assertEquals(0, dataStore.getInventoryItem("inv-b").getReservedQuantity());
+		assertNull(reservations.getReservation("ord-1"));
+	}
+
+	@Test
+	void splitsAcrossWarehousesMostAvailableFirst() {
+		saveInventory("inv-1", "prod-1", "wh-1", 3);
+		saveInventory("inv-2", "prod-1", "wh-2", 5);
+
+		Reservation reservation = reservations.reserve("ord-1", Map.of("prod-1", 6));
+
+		assertEquals(2, reservation.getAllocations().size());
+		assertEquals(5, dataStore.getInventoryItem("inv-2").getReservedQuantity());
+		assertEquals(1, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+	}
+
+	@Test
+	void confirmRemovesReservedUnitsFromStock() {
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+
+		assertEquals(Reservation.State.CONFIRMED, reservations.confirm("ord-1"));
+
+		InventoryDTO result = dataStore.getInventoryItem("inv-1");
+		assertEquals(6, result.getQuantity());
+		assertEquals(0, result.getReservedQuantity());
+		assertEquals(6, result.getAvailableQuantity());
+		assertNull(reservations.release("ord-1"));
+	}
+
+	@Test
+	void releaseReturnsReservedUnits() {
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+
+		assertEquals(Reservation.State.RELEASED, reservations.release("ord-1"));
+
+		InventoryDTO result = dataStore.getInventoryItem("inv-1");
+		assertEquals(10, result.getQuantity());
+		assertEquals(0, result.getReservedQuantity());
+		assertEquals(10, result.getAvailableQuantity());
+	}
+
+	@Test
+	void expiredReservationIsReleasedAndPendingOrderCancelled() {
+		properties.setTtl(Duration.ZERO);
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		dataStore.saveOrder(OrderDTO.builder().orderId("ord-1").status("PENDING").build());
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+
+		assertEquals(1, reservations.expireDue());
+
+		assertEquals(0, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+		assertEquals("CANCELLED", dataStore.getOrder("ord-1").getStatus());
+		assertNull(reservations.confirm("ord-1"));
+		assertEquals(0, reservations.expireDue());
+	}
+
+	@Test
+	void failedSettleWriteKeepsTheReservation() {
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+
+		assertThrows(IllegalStateException.class, () -> reservations.settle("ord-1", Reservation.State.CONFIRMED, () -> {
+			throw new IllegalStateException("save failed");
+		}));
+
+		assertNotNull(reservations.getReservation("ord-1"));
+		assertEquals(10, dataStore.getInventoryItem("inv-1").getQuantity());
+		assertEquals(4, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+	}
+
+	@Test
+	void reservationDoesNotExpireWhileItIsSettled() {
+		properties.setTtl(Duration.ZERO);
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		dataStore.saveOrder(OrderDTO.builder().orderId("ord-1").status("PENDING").build());
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+		AtomicInteger expiredDuringWrite = new AtomicInteger();
+
+		assertNull(reservations.settle("ord-1", Reservation.State.CONFIRMED, () -> {
+			expiredDuringWrite.set(reservations.expireDue());
+			dataStore.saveOrder(OrderDTO.builder().orderId("ord-1").status("CONFIRMED").build(), 1L);
+		}));
+
+		assertEquals(0, expiredDuringWrite.get());
+		assertEquals("CONFIRMED", dataStore.getOrder("ord-1").getStatus());
+		assertEquals(6, dataStore.getInventoryItem("inv-1").getQuantity());
+		assertEquals(0, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+	}
+
+	@Test
+	void confirmingAnOrderReadBeforeItExpiredConflicts() {
+		properties.setTtl(Duration.ZERO);
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		dataStore.saveOrder(OrderDTO.builder().orderId("ord-1").status("PENDING").build());
+		reservations.reserve("ord-1", Map.of("prod-1", 4));
+		OrderDTO read = dataStore.getOrder("ord-1");
+		reservations.expireDue();
+
+		assertThrows(VersionConflictException.class, () -> reservations.settle("ord-1", Reservation.State.CONFIRMED,
+				() -> dataStore.saveOrder(read.toBuilder().status("CONFIRMED").build(), read.getVersion())));
+
+		assertEquals("CANCELLED", dataStore.getOrder("ord-1").getStatus());
+		assertEquals(10, dataStore.getInventoryItem("inv-1").getQuantity());
+		assertEquals(0, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+	}
+
+	@Test
+	void rebuildReservesStockForPendingOrdersAgain() {
+		saveInventory("inv-1", "prod-1", "wh-1", 10);
+		saveInventory("inv-2", "prod-2", "wh-1", 1);
+		// Reserved before a restart, with the reservations themselves lost
+		dataStore.computeInventory("inv-1", existing -> existing.toBuilder().reservedQuantity(9).availableQuantity(1).build());
+		saveOrder("ord-1", "PENDING", "prod-1", 4);
+		saveOrder("ord-2", "CONFIRMED", "prod-1", 3);
+		saveOrder("ord-3", "PENDING", "prod-2", 2);
+
+		assertEquals(1, reservations.rebuild());
+
+		assertNotNull(reservations.getReservation("ord-1"));
+		assertEquals(4, dataStore.getInventoryItem("inv-1").getReservedQuantity());
+		assertEquals(6, dataStore.getInventoryItem("inv-1").getAvailableQuantity());
+		assertNull(reservations.getReservation("ord-3"));
+		assertEquals("CANCELLED", dataStore.getOrder("ord-3").getStatus());
+		assertEquals(0, dataStore.getInventoryItem("inv-2").getReservedQuantity());
+	}
+
+	private void saveOrder(String orderId, String status, String productId, int quantity) {
+		dataStore.saveOrder(OrderDTO.builder()
+				.orderId(orderId)
+				.status(status)
+				.orderDate(LocalDateTime.now())
+				.items(List.of(OrderItemDTO.builder().productId(productId).quantity(quantity).build()))
+				.build());
+	}
+
+	private void saveInventory(String id, String productId, String warehouseId, int quantity) {
+		dataStore.saveInventory(InventoryDTO.builder()
+				.id(id)
+				.productId(productId)
+				.warehouseId(warehouseId)
+				.quantity(quantity)
+				.reservedQuantity(0)
+				.availableQuantity(quantity)
+				.lowStockThreshold(0)
+				.status(InventoryStatus.IN_STOCK)
+				.build());
+	}
+}